@@ -0,0 +1,63 @@
+/**
+ * Representa un cambio sobre el catálogo: insertar/reemplazar un producto
+ * o eliminarlo (registro de borrado) a partir de su SKU
+ */
+public final class ActualizacionProducto {
+    private final Producto producto;
+    private final boolean eliminacion;
+    
+    private ActualizacionProducto(Producto producto, boolean eliminacion) {
+        if (producto == null) {
+            throw new IllegalArgumentException("El producto no puede ser nulo");
+        }
+        this.producto = producto;
+        this.eliminacion = eliminacion;
+    }
+    
+    /**
+     * Crea una actualización que inserta o reemplaza un producto
+     * @param producto Producto con los nuevos datos
+     * @return Actualización de inserción
+     */
+    public static ActualizacionProducto upsert(Producto producto) {
+        return new ActualizacionProducto(producto, false);
+    }
+    
+    /**
+     * Crea una actualización que elimina un producto
+     * @param sku SKU del producto a eliminar
+     * @return Actualización de eliminación
+     */
+    public static ActualizacionProducto eliminacion(String sku) {
+        return new ActualizacionProducto(new Producto(sku), true);
+    }
+    
+    /**
+     * Devuelve el producto afectado (en una eliminación solo contiene el SKU)
+     * @return Producto afectado
+     */
+    public Producto getProducto() {
+        return producto;
+    }
+    
+    /**
+     * Devuelve el SKU del producto afectado
+     * @return SKU
+     */
+    public String getSku() {
+        return producto.getSku();
+    }
+    
+    /**
+     * Indica si la actualización elimina el producto
+     * @return true si es una eliminación
+     */
+    public boolean isEliminacion() {
+        return eliminacion;
+    }
+    
+    @Override
+    public String toString() {
+        return (eliminacion ? "ELIMINAR " + producto.getSku() : "UPSERT " + producto);
+    }
+}
\ No newline at end of file
@@ -1,65 +1,449 @@
 /**
- * Implementación de un árbol binario de búsqueda genérico
+ * Implementación de un árbol binario de búsqueda genérico.
+ * Opcionalmente puede funcionar como árbol AVL autobalanceado, de modo que
+ * la altura se mantiene en O(log n) aunque los elementos lleguen ordenados.
+ * Cada nodo guarda el tamaño de su subárbol, lo que permite obtener el k-ésimo
+ * elemento (select) y la posición de un elemento (rank) en O(altura).
+ * En modo concurrente las escrituras copian el camino modificado en lugar de
+ * alterar nodos existentes y publican la nueva raíz con una sola escritura
+ * volátil: las lecturas no usan bloqueos y siempre ven una versión completa
+ * del árbol, mientras que las escrituras se serializan entre sí.
  * @param <E> Tipo de elementos que contendrá el árbol
  */
-public class BST<E extends Comparable<E>> {
+public class BST<E extends Comparable<E>> implements IndiceOrdenado<E> {
     // Clase interna para los nodos del árbol
-    private class BSTNode {
+    private static class BSTNode<E> {
         E data;
-        BSTNode left;
-        BSTNode right;
+        BSTNode<E> left;
+        BSTNode<E> right;
+        int height;
+        int size; // Número de nodos del subárbol
         
         public BSTNode(E data) {
             this.data = data;
             this.left = null;
             this.right = null;
+            this.height = 1;
+            this.size = 1;
         }
     }
     
-    private BSTNode root;
-    private int size;
+    private volatile BSTNode<E> root;
+    // Camino reutilizable para las inserciones iterativas (evita recursión)
+    private BSTNode<E>[] camino;
+    private final boolean balanceado;
+    private final boolean concurrente;
+    // Nodos creados por la escritura en curso (modo concurrente): solo esos se pueden modificar
+    private BSTNode<E>[] nuevos;
+    private int totalNuevos;
     
     /**
-     * Constructor por defecto
+     * Constructor por defecto (árbol sin balancear)
      */
     public BST() {
+        this(false);
+    }
+    
+    /**
+     * Constructor que permite elegir si el árbol se autobalancea
+     * @param balanceado true para mantener el árbol balanceado (AVL)
+     */
+    public BST(boolean balanceado) {
+        this(balanceado, false);
+    }
+    
+    /**
+     * Constructor que permite elegir el balanceo y el modo concurrente
+     * @param balanceado true para mantener el árbol balanceado (AVL)
+     * @param concurrente true para permitir lecturas sin bloqueo mientras otro hilo escribe
+     */
+    public BST(boolean balanceado, boolean concurrente) {
         root = null;
-        size = 0;
+        this.balanceado = balanceado;
+        this.concurrente = concurrente;
+    }
+    
+    /**
+     * Construye un árbol de altura mínima a partir de una colección de elementos
+     * @param elementos Elementos a cargar (si hay repetidos, se conserva el último)
+     * @param balanceado true para mantener el árbol balanceado (AVL) en inserciones posteriores
+     */
+    public BST(java.util.Collection<? extends E> elementos, boolean balanceado) {
+        this(elementos, balanceado, false);
+    }
+    
+    /**
+     * Construye un árbol de altura mínima eligiendo además el modo concurrente
+     * @param elementos Elementos a cargar (si hay repetidos, se conserva el último)
+     * @param balanceado true para mantener el árbol balanceado (AVL) en inserciones posteriores
+     * @param concurrente true para permitir lecturas sin bloqueo mientras otro hilo escribe
+     */
+    public BST(java.util.Collection<? extends E> elementos, boolean balanceado, boolean concurrente) {
+        this(balanceado, concurrente);
+        build(elementos);
+    }
+    
+    /**
+     * Reemplaza el contenido del árbol por los elementos dados, construyendo
+     * un árbol de altura mínima. Si los elementos ya vienen ordenados la
+     * construcción es lineal; si no, se ordenan primero. Los elementos
+     * repetidos se resuelven igual que en insert: gana el último.
+     * @param elementos Elementos a cargar
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void build(java.util.Collection<? extends E> elementos) {
+        if (elementos == null) {
+            throw new IllegalArgumentException("La colección de elementos no puede ser nula");
+        }
+        Object[] datos = elementos.toArray();
+        
+        // Verificamos nulos y si la entrada ya viene ordenada
+        boolean ordenado = true;
+        for (int i = 0; i < datos.length; i++) {
+            if (datos[i] == null) {
+                throw new IllegalArgumentException("No se puede insertar un elemento nulo");
+            }
+            if (ordenado && i > 0 && ((E) datos[i - 1]).compareTo((E) datos[i]) > 0) {
+                ordenado = false;
+            }
+        }
+        
+        // El ordenamiento de Arrays.sort es estable, así que los repetidos conservan su orden original
+        if (!ordenado) {
+            java.util.Arrays.sort(datos, (a, b) -> ((E) a).compareTo((E) b));
+        }
+        
+        // Eliminamos repetidos quedándonos con el último de cada grupo
+        int unicos = 0;
+        for (int i = 0; i < datos.length; i++) {
+            if (i + 1 < datos.length && ((E) datos[i]).compareTo((E) datos[i + 1]) == 0) {
+                continue;
+            }
+            datos[unicos++] = datos[i];
+        }
+        
+        root = construirBalanceado(datos, 0, unicos - 1);
+        camino = null;
+    }
+    
+    /**
+     * Construye un subárbol perfectamente balanceado con el rango ordenado dado.
+     * La profundidad de la recursión es logarítmica en el tamaño del rango.
+     */
+    @SuppressWarnings("unchecked")
+    private BSTNode<E> construirBalanceado(Object[] datos, int inicio, int fin) {
+        if (inicio > fin) {
+            return null;
+        }
+        int medio = (inicio + fin) >>> 1;
+        BSTNode<E> node = new BSTNode<>((E) datos[medio]);
+        node.left = construirBalanceado(datos, inicio, medio - 1);
+        node.right = construirBalanceado(datos, medio + 1, fin);
+        actualizarNodo(node);
+        return node;
     }
     
     /**
      * Inserta un elemento en el árbol
      * @param element Elemento a insertar
      */
-    public void insert(E element) {
+    public synchronized void insert(E element) {
         if (element == null) {
             throw new IllegalArgumentException("No se puede insertar un elemento nulo");
         }
-        root = insertRecursive(root, element);
+        if (root == null) {
+            root = new BSTNode<>(element);
+            return;
+        }
+        
+        // Descendemos de forma iterativa guardando el camino recorrido
+        reservarCamino();
+        int profundidad = 0;
+        BSTNode<E> current = root;
+        while (true) {
+            camino[profundidad++] = current;
+            int compareResult = element.compareTo(current.data);
+            
+            if (compareResult == 0) {
+                // Si es igual, reemplazamos los datos
+                copiarCamino(profundidad);
+                camino[profundidad - 1].data = element;
+                root = camino[0];
+                terminarEscritura(profundidad);
+                return;
+            }
+            
+            BSTNode<E> siguiente = (compareResult < 0) ? current.left : current.right;
+            if (siguiente == null) {
+                // Llegamos a una hoja: colgamos el nuevo nodo del lado que corresponde
+                copiarCamino(profundidad);
+                current = camino[profundidad - 1];
+                BSTNode<E> nuevo = registrarNuevo(new BSTNode<>(element));
+                if (compareResult < 0) {
+                    current.left = nuevo;
+                } else {
+                    current.right = nuevo;
+                }
+                break;
+            }
+            current = siguiente;
+        }
+        
+        ajustarCamino(profundidad);
     }
     
-    private BSTNode insertRecursive(BSTNode current, E element) {
-        // Si llegamos a un nodo nulo, creamos un nuevo nodo
+    /**
+     * Elimina un elemento del árbol
+     * @param element Elemento a eliminar
+     * @return El elemento eliminado o null si no existía
+     */
+    public synchronized E delete(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("No se puede eliminar un elemento nulo");
+        }
+        
+        // Buscamos el nodo guardando el camino desde la raíz
+        reservarCamino();
+        int profundidad = 0;
+        BSTNode<E> current = root;
+        while (current != null) {
+            int compareResult = element.compareTo(current.data);
+            if (compareResult == 0) {
+                break;
+            }
+            camino[profundidad++] = current;
+            current = (compareResult < 0) ? current.left : current.right;
+        }
         if (current == null) {
-            size++;
-            return new BSTNode(element);
+            terminarEscritura(profundidad);
+            return null;
         }
+        E eliminado = current.data;
         
-        // Comparamos el elemento a insertar con el elemento del nodo actual
-        int compareResult = element.compareTo(current.data);
+        // Con dos hijos, reemplazamos sus datos por los del sucesor y eliminamos el sucesor
+        BSTNode<E> aQuitar = current;
+        int posicionActual = -1;
+        if (current.left != null && current.right != null) {
+            posicionActual = profundidad;
+            camino[profundidad++] = current;
+            aQuitar = current.right;
+            while (aQuitar.left != null) {
+                camino[profundidad++] = aQuitar;
+                aQuitar = aQuitar.left;
+            }
+        }
+        copiarCamino(profundidad);
+        if (posicionActual >= 0) {
+            camino[posicionActual].data = aQuitar.data;
+        }
         
-        if (compareResult < 0) {
-            // Si es menor, insertamos en el subárbol izquierdo
-            current.left = insertRecursive(current.left, element);
-        } else if (compareResult > 0) {
-            // Si es mayor, insertamos en el subárbol derecho
-            current.right = insertRecursive(current.right, element);
+        // El nodo a quitar tiene a lo sumo un hijo: lo enganchamos a su padre
+        BSTNode<E> hijo = (aQuitar.left != null) ? aQuitar.left : aQuitar.right;
+        if (profundidad == 0) {
+            root = hijo;
+            terminarEscritura(0);
+            return eliminado;
+        }
+        if (camino[profundidad - 1].left == aQuitar) {
+            camino[profundidad - 1].left = hijo;
         } else {
-            // Si es igual, reemplazamos los datos (o ignoramos la inserción)
-            current.data = element; // Actualizamos los datos
+            camino[profundidad - 1].right = hijo;
         }
         
-        return current;
+        ajustarCamino(profundidad);
+        return eliminado;
+    }
+    
+    /**
+     * Sube por el camino recorrido durante una inserción o eliminación actualizando alturas
+     * y tamaños y, si el árbol es balanceado, aplicando las rotaciones necesarias.
+     * Cuando la altura de un subárbol deja de cambiar ya no hacen falta rotaciones
+     * y solo se actualizan los tamaños. Al final publica la raíz resultante con una
+     * sola escritura.
+     * @param profundidad Número de nodos guardados en el camino (al menos uno)
+     */
+    private void ajustarCamino(int profundidad) {
+        BSTNode<E> nuevaRaiz = camino[0];
+        boolean alturaEstable = false;
+        for (int i = profundidad - 1; i >= 0; i--) {
+            BSTNode<E> node = camino[i];
+            if (alturaEstable) {
+                node.size = 1 + tamano(node.left) + tamano(node.right);
+                continue;
+            }
+            int alturaAnterior = node.height;
+            BSTNode<E> subarbol;
+            if (balanceado) {
+                subarbol = rebalancear(node);
+            } else {
+                actualizarNodo(node);
+                subarbol = node;
+            }
+            
+            // Enganchamos la nueva raíz del subárbol a su padre
+            if (subarbol != node) {
+                if (i == 0) {
+                    nuevaRaiz = subarbol;
+                } else if (camino[i - 1].left == node) {
+                    camino[i - 1].left = subarbol;
+                } else {
+                    camino[i - 1].right = subarbol;
+                }
+            }
+            
+            alturaEstable = (subarbol.height == alturaAnterior);
+        }
+        root = nuevaRaiz;
+        terminarEscritura(profundidad);
+    }
+    
+    /**
+     * En modo concurrente reemplaza los nodos del camino por copias enlazadas entre sí,
+     * de modo que la escritura no altere ningún nodo visible para los lectores.
+     * En modo normal no hace nada.
+     * @param profundidad Número de nodos guardados en el camino
+     */
+    private void copiarCamino(int profundidad) {
+        if (!concurrente) {
+            return;
+        }
+        for (int i = 0; i < profundidad; i++) {
+            BSTNode<E> original = camino[i];
+            BSTNode<E> copia = registrarNuevo(copiarEnlazado(original));
+            if (i > 0) {
+                // El padre ya es una copia con los mismos hijos que el original
+                if (camino[i - 1].left == original) {
+                    camino[i - 1].left = copia;
+                } else {
+                    camino[i - 1].right = copia;
+                }
+            }
+            camino[i] = copia;
+        }
+    }
+    
+    /**
+     * Devuelve un nodo que la escritura en curso puede modificar: el mismo nodo
+     * en modo normal o si ya fue creado por esta escritura, o una copia en otro caso
+     */
+    private BSTNode<E> modificable(BSTNode<E> node) {
+        if (!concurrente) {
+            return node;
+        }
+        for (int i = 0; i < totalNuevos; i++) {
+            if (nuevos[i] == node) {
+                return node;
+            }
+        }
+        return registrarNuevo(copiarEnlazado(node));
+    }
+    
+    private BSTNode<E> registrarNuevo(BSTNode<E> node) {
+        if (concurrente) {
+            if (nuevos == null) {
+                nuevos = crearArreglo(32);
+            } else if (totalNuevos == nuevos.length) {
+                nuevos = java.util.Arrays.copyOf(nuevos, nuevos.length * 2);
+            }
+            nuevos[totalNuevos++] = node;
+        }
+        return node;
+    }
+    
+    /**
+     * Libera las referencias guardadas durante una escritura
+     */
+    private void terminarEscritura(int profundidad) {
+        java.util.Arrays.fill(camino, 0, profundidad, null);
+        if (totalNuevos > 0) {
+            java.util.Arrays.fill(nuevos, 0, totalNuevos, null);
+            totalNuevos = 0;
+        }
+    }
+    
+    /**
+     * Garantiza que el arreglo del camino pueda guardar un recorrido completo
+     */
+    private void reservarCamino() {
+        int requerido = altura(root) + 1;
+        if (camino == null || camino.length < requerido) {
+            camino = crearArreglo(Math.max(requerido, 2 * (camino == null ? 16 : camino.length)));
+        }
+    }
+    
+    /**
+     * Crea una pila con capacidad suficiente para recorrer el subárbol completo
+     */
+    private static <E> BSTNode<E>[] crearPila(BSTNode<E> raiz) {
+        return crearArreglo((raiz == null) ? 0 : raiz.height);
+    }
+    
+    /**
+     * Crea un arreglo de nodos; Java no permite crear arreglos de un tipo genérico
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> BSTNode<E>[] crearArreglo(int tamano) {
+        return (BSTNode<E>[]) new BSTNode<?>[tamano];
+    }
+    
+    private int altura(BSTNode<E> node) {
+        return (node == null) ? 0 : node.height;
+    }
+    
+    private static int tamano(BSTNode<?> node) {
+        return (node == null) ? 0 : node.size;
+    }
+    
+    /**
+     * Recalcula la altura y el tamaño de un nodo a partir de sus hijos
+     */
+    private void actualizarNodo(BSTNode<E> node) {
+        node.height = 1 + Math.max(altura(node.left), altura(node.right));
+        node.size = 1 + tamano(node.left) + tamano(node.right);
+    }
+    
+    private BSTNode<E> rotarDerecha(BSTNode<E> node) {
+        BSTNode<E> nuevaRaiz = modificable(node.left);
+        node.left = nuevaRaiz.right;
+        nuevaRaiz.right = node;
+        actualizarNodo(node);
+        actualizarNodo(nuevaRaiz);
+        return nuevaRaiz;
+    }
+    
+    private BSTNode<E> rotarIzquierda(BSTNode<E> node) {
+        BSTNode<E> nuevaRaiz = modificable(node.right);
+        node.right = nuevaRaiz.left;
+        nuevaRaiz.left = node;
+        actualizarNodo(node);
+        actualizarNodo(nuevaRaiz);
+        return nuevaRaiz;
+    }
+    
+    /**
+     * Restablece la propiedad AVL en un nodo cuyos hijos ya están balanceados
+     * @param node Nodo a rebalancear
+     * @return Nueva raíz del subárbol
+     */
+    private BSTNode<E> rebalancear(BSTNode<E> node) {
+        actualizarNodo(node);
+        int balance = altura(node.left) - altura(node.right);
+        
+        if (balance > 1) {
+            // Caso izquierda-derecha: primero rotamos el hijo izquierdo
+            if (altura(node.left.left) < altura(node.left.right)) {
+                node.left = rotarIzquierda(modificable(node.left));
+            }
+            return rotarDerecha(node);
+        }
+        if (balance < -1) {
+            // Caso derecha-izquierda: primero rotamos el hijo derecho
+            if (altura(node.right.right) < altura(node.right.left)) {
+                node.right = rotarDerecha(modificable(node.right));
+            }
+            return rotarIzquierda(node);
+        }
+        return node;
     }
     
     /**
@@ -71,24 +455,178 @@ public class BST<E extends Comparable<E>> {
         if (element == null) {
             throw new IllegalArgumentException("No se puede buscar un elemento nulo");
         }
-        BSTNode result = searchRecursive(root, element);
-        return (result == null) ? null : result.data;
+        BSTNode<E> current = root;
+        while (current != null) {
+            int compareResult = element.compareTo(current.data);
+            if (compareResult == 0) {
+                return current.data;
+            }
+            current = (compareResult < 0) ? current.left : current.right;
+        }
+        return null;
+    }
+    
+    /**
+     * Busca un elemento a partir de una clave sin construir un elemento de prueba
+     * @param clave Clave a buscar
+     * @param comparador Compara la clave con un elemento (negativo, cero o positivo como compareTo)
+     * @param <K> Tipo de la clave
+     * @return El elemento encontrado o null si no existe
+     */
+    public <K> E search(K clave, java.util.function.ToIntBiFunction<? super K, ? super E> comparador) {
+        if (clave == null || comparador == null) {
+            throw new IllegalArgumentException("La clave y el comparador no pueden ser nulos");
+        }
+        BSTNode<E> current = root;
+        while (current != null) {
+            int compareResult = comparador.applyAsInt(clave, current.data);
+            if (compareResult == 0) {
+                return current.data;
+            }
+            current = (compareResult < 0) ? current.left : current.right;
+        }
+        return null;
     }
     
-    private BSTNode searchRecursive(BSTNode current, E element) {
-        // Si el nodo es nulo o encontramos el elemento, retornamos el nodo actual
-        if (current == null || element.compareTo(current.data) == 0) {
-            return current;
+    /**
+     * Busca varias claves a la vez. Las claves se ordenan y se resuelven en un solo
+     * recorrido coordinado: cada búsqueda continúa desde el ancestro más cercano cuyo
+     * subárbol todavía puede contener la clave, en lugar de bajar desde la raíz.
+     * No crea objetos por clave; solo dos arreglos de índices para el ordenamiento.
+     * @param claves Claves a buscar; las nulas no se buscan
+     * @param ordenClaves Orden de las claves, coherente con el orden del árbol
+     * @param comparador Compara una clave con un elemento (negativo, cero o positivo como compareTo)
+     * @param resultados Arreglo donde se guarda, en la misma posición que cada clave, el
+     *                   elemento encontrado o null
+     * @param <K> Tipo de las claves
+     */
+    public <K> void searchAll(K[] claves, java.util.Comparator<? super K> ordenClaves,
+                              java.util.function.ToIntBiFunction<? super K, ? super E> comparador, E[] resultados) {
+        if (claves == null || ordenClaves == null || comparador == null || resultados == null) {
+            throw new IllegalArgumentException("Las claves, los comparadores y los resultados no pueden ser nulos");
+        }
+        if (resultados.length < claves.length) {
+            throw new IllegalArgumentException("El arreglo de resultados es más pequeño que el de claves");
         }
         
-        // Decidimos si buscar en el subárbol izquierdo o derecho
-        if (element.compareTo(current.data) < 0) {
-            return searchRecursive(current.left, element);
-        } else {
-            return searchRecursive(current.right, element);
+        // Ordenamos posiciones en lugar de claves para devolver los resultados en el orden pedido
+        int[] orden = new int[claves.length];
+        int total = 0;
+        for (int i = 0; i < claves.length; i++) {
+            resultados[i] = null;
+            if (claves[i] != null) {
+                orden[total++] = i;
+            }
+        }
+        ordenarIndices(orden, new int[total], 0, total, claves, ordenClaves);
+        
+        // Pila de los ancestros donde se bajó a la izquierda: cada uno acota por arriba
+        // al subárbol donde quedó la búsqueda anterior
+        BSTNode<E> raiz = root;
+        BSTNode<E>[] pila = crearPila(raiz);
+        int tope = 0;
+        for (int j = 0; j < total; j++) {
+            int i = orden[j];
+            K clave = claves[i];
+            if (j > 0 && ordenClaves.compare(clave, claves[orden[j - 1]]) == 0) {
+                resultados[i] = resultados[orden[j - 1]];
+                continue;
+            }
+            
+            // Subimos hasta el ancestro que acota a la nueva clave (nunca es menor que la anterior)
+            BSTNode<E> current = raiz;
+            while (tope > 0) {
+                int compareResult = comparador.applyAsInt(clave, pila[tope - 1].data);
+                if (compareResult < 0) {
+                    current = pila[tope - 1].left;
+                    break;
+                }
+                if (compareResult == 0) {
+                    current = pila[tope - 1];
+                    break;
+                }
+                pila[--tope] = null;
+            }
+            
+            while (current != null) {
+                int compareResult = comparador.applyAsInt(clave, current.data);
+                if (compareResult == 0) {
+                    resultados[i] = current.data;
+                    break;
+                }
+                if (compareResult < 0) {
+                    pila[tope++] = current;
+                    current = current.left;
+                } else {
+                    current = current.right;
+                }
+            }
         }
     }
     
+    /**
+     * Ordena por mezcla (estable) un rango de posiciones según las claves a las que apuntan
+     */
+    private static <K> void ordenarIndices(int[] orden, int[] auxiliar, int inicio, int fin,
+                                           K[] claves, java.util.Comparator<? super K> ordenClaves) {
+        if (fin - inicio < 2) {
+            return;
+        }
+        int medio = (inicio + fin) >>> 1;
+        ordenarIndices(orden, auxiliar, inicio, medio, claves, ordenClaves);
+        ordenarIndices(orden, auxiliar, medio, fin, claves, ordenClaves);
+        if (ordenClaves.compare(claves[orden[medio - 1]], claves[orden[medio]]) <= 0) {
+            return; // Las dos mitades ya están en orden
+        }
+        System.arraycopy(orden, inicio, auxiliar, inicio, fin - inicio);
+        int a = inicio;
+        int b = medio;
+        for (int k = inicio; k < fin; k++) {
+            if (b >= fin || (a < medio && ordenClaves.compare(claves[auxiliar[a]], claves[auxiliar[b]]) <= 0)) {
+                orden[k] = auxiliar[a++];
+            } else {
+                orden[k] = auxiliar[b++];
+            }
+        }
+    }
+    
+    /**
+     * Devuelve el elemento que ocupa una posición en orden ascendente
+     * @param indice Posición del elemento, empezando en 0
+     * @return El elemento en esa posición
+     */
+    public E select(int indice) {
+        BSTNode<E> current = root;
+        if (indice < 0 || indice >= tamano(current)) {
+            throw new IndexOutOfBoundsException("Índice fuera de rango: " + indice);
+        }
+        while (true) {
+            int izquierdos = tamano(current.left);
+            if (indice == izquierdos) {
+                return current.data;
+            }
+            if (indice < izquierdos) {
+                current = current.left;
+            } else {
+                indice -= izquierdos + 1;
+                current = current.right;
+            }
+        }
+    }
+    
+    /**
+     * Devuelve cuántos elementos del árbol son menores que el dado, que es la
+     * posición que ocupa (u ocuparía) el elemento en orden ascendente
+     * @param element Elemento a ubicar
+     * @return Número de elementos menores
+     */
+    public int rank(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("No se puede buscar un elemento nulo");
+        }
+        return contarMenores(root, element, false);
+    }
+    
     /**
      * Realiza un recorrido in-order del árbol (orden ascendente)
      * @param action Acción a realizar con cada elemento
@@ -97,14 +635,19 @@ public class BST<E extends Comparable<E>> {
         if (action == null) {
             throw new IllegalArgumentException("La acción no puede ser nula");
         }
-        inOrderTraversal(root, action);
-    }
-    
-    private void inOrderTraversal(BSTNode node, java.util.function.Consumer<E> action) {
-        if (node != null) {
-            inOrderTraversal(node.left, action);
-            action.accept(node.data);
-            inOrderTraversal(node.right, action);
+        
+        // Recorrido con pila explícita: su tamaño nunca supera la altura del árbol
+        BSTNode<E> current = root;
+        BSTNode<E>[] pila = crearPila(current);
+        int tope = 0;
+        while (current != null || tope > 0) {
+            while (current != null) {
+                pila[tope++] = current;
+                current = current.left;
+            }
+            current = pila[--tope];
+            action.accept(current.data);
+            current = current.right;
         }
     }
     
@@ -116,15 +659,373 @@ public class BST<E extends Comparable<E>> {
         if (action == null) {
             throw new IllegalArgumentException("La acción no puede ser nula");
         }
-        reverseInOrderTraversal(root, action);
+        
+        BSTNode<E> current = root;
+        BSTNode<E>[] pila = crearPila(current);
+        int tope = 0;
+        while (current != null || tope > 0) {
+            while (current != null) {
+                pila[tope++] = current;
+                current = current.right;
+            }
+            current = pila[--tope];
+            action.accept(current.data);
+            current = current.left;
+        }
+    }
+    
+    /**
+     * Devuelve un iterador perezoso en orden ascendente. Solo guarda el camino
+     * hasta el elemento actual, así que usa memoria O(altura).
+     * En modo concurrente recorre la versión del árbol vigente al crearlo;
+     * en modo normal el árbol no debe modificarse mientras se recorre.
+     * @return Iterador ascendente
+     */
+    @Override
+    public java.util.Iterator<E> iterator() {
+        return new Iterador(root, null, true, true);
+    }
+    
+    /**
+     * Devuelve un iterador ascendente que empieza en el primer elemento mayor
+     * (o igual) que el dado, sin recorrer los anteriores
+     * @param desde Elemento desde donde empezar
+     * @param inclusivo true para incluir el elemento igual a desde si existe
+     * @return Iterador ascendente posicionado en O(log n)
+     */
+    public java.util.Iterator<E> iterator(E desde, boolean inclusivo) {
+        if (desde == null) {
+            throw new IllegalArgumentException("El elemento inicial no puede ser nulo");
+        }
+        return new Iterador(root, desde, inclusivo, true);
+    }
+    
+    /**
+     * Devuelve un iterador perezoso en orden descendente
+     * @return Iterador descendente
+     */
+    public java.util.Iterator<E> reverseIterator() {
+        return new Iterador(root, null, true, false);
+    }
+    
+    /**
+     * Devuelve un iterador descendente que empieza en el primer elemento menor
+     * (o igual) que el dado
+     * @param desde Elemento desde donde empezar
+     * @param inclusivo true para incluir el elemento igual a desde si existe
+     * @return Iterador descendente posicionado en O(log n)
+     */
+    public java.util.Iterator<E> reverseIterator(E desde, boolean inclusivo) {
+        if (desde == null) {
+            throw new IllegalArgumentException("El elemento inicial no puede ser nulo");
+        }
+        return new Iterador(root, desde, inclusivo, false);
+    }
+    
+    /**
+     * Devuelve un Spliterator ascendente para usar el árbol con streams
+     * @return Spliterator ordenado, sin repetidos ni nulos
+     */
+    @Override
+    public java.util.Spliterator<E> spliterator() {
+        BSTNode<E> raiz = root;
+        return java.util.Spliterators.spliterator(new Iterador(raiz, null, true, true), tamano(raiz),
+                java.util.Spliterator.ORDERED | java.util.Spliterator.SORTED
+                | java.util.Spliterator.DISTINCT | java.util.Spliterator.NONNULL);
+    }
+    
+    /**
+     * Devuelve un Spliterator descendente
+     * @return Spliterator ordenado de mayor a menor, sin repetidos ni nulos
+     */
+    public java.util.Spliterator<E> reverseSpliterator() {
+        BSTNode<E> raiz = root;
+        return java.util.Spliterators.spliterator(new Iterador(raiz, null, true, false), tamano(raiz),
+                java.util.Spliterator.ORDERED | java.util.Spliterator.DISTINCT | java.util.Spliterator.NONNULL);
+    }
+    
+    /**
+     * Devuelve una página de elementos en orden ascendente en O(log n + limite)
+     * @param desde Primer elemento de la página (o el siguiente mayor si no existe); null para empezar por el menor
+     * @param limite Número máximo de elementos
+     * @return Elementos de la página
+     */
+    public java.util.List<E> page(E desde, int limite) {
+        return llenarPagina(new Iterador(root, desde, true, true), limite);
+    }
+    
+    /**
+     * Devuelve una página de elementos en orden descendente en O(log n + limite)
+     * @param desde Primer elemento de la página (o el siguiente menor si no existe); null para empezar por el mayor
+     * @param limite Número máximo de elementos
+     * @return Elementos de la página
+     */
+    public java.util.List<E> reversePage(E desde, int limite) {
+        return llenarPagina(new Iterador(root, desde, true, false), limite);
+    }
+    
+    /**
+     * Devuelve un iterador ascendente sobre los elementos de un rango. Solo visita
+     * los nodos del camino hasta el inicio y los elementos del rango: O(log n + k).
+     * @param desde Límite inferior, o null para empezar por el menor
+     * @param desdeInclusivo true si el límite inferior pertenece al rango
+     * @param hasta Límite superior, o null para llegar hasta el mayor
+     * @param hastaInclusivo true si el límite superior pertenece al rango
+     * @return Iterador sobre los elementos del rango
+     */
+    public java.util.Iterator<E> range(E desde, boolean desdeInclusivo, E hasta, boolean hastaInclusivo) {
+        return new Iterador(root, desde, desdeInclusivo, true).limitar(hasta, hastaInclusivo);
+    }
+    
+    /**
+     * Devuelve un iterador descendente sobre los elementos de un rango
+     * @param desde Límite superior donde empieza el recorrido, o null para empezar por el mayor
+     * @param desdeInclusivo true si desde pertenece al rango
+     * @param hasta Límite inferior donde termina el recorrido, o null para llegar hasta el menor
+     * @param hastaInclusivo true si hasta pertenece al rango
+     * @return Iterador sobre los elementos del rango, de mayor a menor
+     */
+    public java.util.Iterator<E> reverseRange(E desde, boolean desdeInclusivo, E hasta, boolean hastaInclusivo) {
+        return new Iterador(root, desde, desdeInclusivo, false).limitar(hasta, hastaInclusivo);
+    }
+    
+    /**
+     * Cuenta los elementos de un rango en O(log n) usando los tamaños de los subárboles
+     * @param desde Límite inferior, o null si no hay
+     * @param desdeInclusivo true si el límite inferior pertenece al rango
+     * @param hasta Límite superior, o null si no hay
+     * @param hastaInclusivo true si el límite superior pertenece al rango
+     * @return Número de elementos del rango
+     */
+    public int rangeCount(E desde, boolean desdeInclusivo, E hasta, boolean hastaInclusivo) {
+        BSTNode<E> raiz = root;
+        int antesDelInicio = (desde == null) ? 0 : contarMenores(raiz, desde, !desdeInclusivo);
+        int hastaElFin = (hasta == null) ? tamano(raiz) : contarMenores(raiz, hasta, hastaInclusivo);
+        return Math.max(0, hastaElFin - antesDelInicio);
+    }
+    
+    /**
+     * Cuenta los elementos menores que el dado, o menores o iguales si se indica
+     */
+    private int contarMenores(BSTNode<E> current, E element, boolean incluirIgual) {
+        int menores = 0;
+        while (current != null) {
+            int compareResult = element.compareTo(current.data);
+            if (compareResult == 0) {
+                return menores + tamano(current.left) + (incluirIgual ? 1 : 0);
+            }
+            if (compareResult < 0) {
+                current = current.left;
+            } else {
+                menores += tamano(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return menores;
+    }
+    
+    /**
+     * Devuelve una página de elementos en orden ascendente a partir de una posición,
+     * en O(log n + limite) aunque la posición esté lejos del inicio
+     * @param indice Posición del primer elemento, empezando en 0
+     * @param limite Número máximo de elementos
+     * @return Elementos de la página (vacía si la posición está fuera del árbol)
+     */
+    public java.util.List<E> pageAt(int indice, int limite) {
+        return llenarPagina(new Iterador(root, indice, true), limite);
     }
     
-    private void reverseInOrderTraversal(BSTNode node, java.util.function.Consumer<E> action) {
-        if (node != null) {
-            reverseInOrderTraversal(node.right, action);
-            action.accept(node.data);
-            reverseInOrderTraversal(node.left, action);
+    /**
+     * Devuelve una página de elementos en orden descendente a partir de una posición
+     * contada desde el mayor
+     * @param indice Posición del primer elemento en orden descendente, empezando en 0
+     * @param limite Número máximo de elementos
+     * @return Elementos de la página (vacía si la posición está fuera del árbol)
+     */
+    public java.util.List<E> reversePageAt(int indice, int limite) {
+        return llenarPagina(new Iterador(root, indice, false), limite);
+    }
+    
+    private java.util.List<E> llenarPagina(java.util.Iterator<E> iterador, int limite) {
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        java.util.List<E> pagina = new java.util.ArrayList<>(Math.min(limite, size()));
+        while (pagina.size() < limite && iterador.hasNext()) {
+            pagina.add(iterador.next());
         }
+        return pagina;
+    }
+    
+    /**
+     * Iterador con pila explícita: la pila guarda los ancestros pendientes de
+     * visitar, de modo que cada paso cuesta O(1) amortizado
+     */
+    private class Iterador implements java.util.Iterator<E> {
+        private final BSTNode<E>[] pila;
+        private int tope;
+        private final boolean ascendente;
+        // Límite donde termina el recorrido (null si llega hasta el extremo)
+        private E hasta;
+        private boolean hastaInclusivo;
+        
+        Iterador(BSTNode<E> raiz, E desde, boolean inclusivo, boolean ascendente) {
+            this.pila = crearPila(raiz);
+            this.ascendente = ascendente;
+            
+            // Descendemos hasta la posición inicial apilando solo los nodos que quedan por visitar
+            BSTNode<E> current = raiz;
+            while (current != null) {
+                int compareResult = (desde == null) ? (ascendente ? -1 : 1) : desde.compareTo(current.data);
+                if (compareResult == 0) {
+                    if (inclusivo) {
+                        pila[tope++] = current;
+                    } else {
+                        apilarRama(ascendente ? current.right : current.left);
+                    }
+                    break;
+                }
+                if ((compareResult < 0) == ascendente) {
+                    pila[tope++] = current;
+                    current = ascendente ? current.left : current.right;
+                } else {
+                    current = ascendente ? current.right : current.left;
+                }
+            }
+        }
+        
+        /**
+         * Posiciona el iterador en el elemento con el índice dado según el sentido del recorrido
+         */
+        Iterador(BSTNode<E> raiz, int indice, boolean ascendente) {
+            if (indice < 0) {
+                throw new IndexOutOfBoundsException("Índice fuera de rango: " + indice);
+            }
+            this.pila = crearPila(raiz);
+            this.ascendente = ascendente;
+            
+            // Igual que select, pero apilando los ancestros que quedan por visitar
+            BSTNode<E> current = raiz;
+            while (current != null) {
+                int anteriores = tamano(ascendente ? current.left : current.right);
+                if (indice <= anteriores) {
+                    pila[tope++] = current;
+                    if (indice == anteriores) {
+                        break;
+                    }
+                    current = ascendente ? current.left : current.right;
+                } else {
+                    indice -= anteriores + 1;
+                    current = ascendente ? current.right : current.left;
+                }
+            }
+        }
+        
+        /**
+         * Fija el elemento donde termina el recorrido
+         * @return El mismo iterador
+         */
+        Iterador limitar(E hasta, boolean hastaInclusivo) {
+            this.hasta = hasta;
+            this.hastaInclusivo = hastaInclusivo;
+            return this;
+        }
+        
+        private void apilarRama(BSTNode<E> current) {
+            while (current != null) {
+                pila[tope++] = current;
+                current = ascendente ? current.left : current.right;
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (tope == 0) {
+                return false;
+            }
+            if (hasta == null) {
+                return true;
+            }
+            int compareResult = pila[tope - 1].data.compareTo(hasta);
+            if (compareResult == 0) {
+                return hastaInclusivo;
+            }
+            return (compareResult < 0) == ascendente;
+        }
+        
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new java.util.NoSuchElementException();
+            }
+            BSTNode<E> current = pila[--tope];
+            pila[tope] = null;
+            apilarRama(ascendente ? current.right : current.left);
+            return current.data;
+        }
+    }
+    
+    /**
+     * Crea una versión congelada del árbol en un arreglo compacto, más rápida de
+     * consultar y con mucha menos memoria por elemento, para catálogos de solo lectura
+     * @return Índice de solo lectura con el contenido actual
+     */
+    public BSTCompacto<E> congelar() {
+        return new BSTCompacto<>(this);
+    }
+    
+    /**
+     * Crea una copia del árbol con la misma forma. No compara elementos,
+     * solo duplica los nodos, por lo que es mucho más barata que reconstruirlo.
+     * Los elementos no se copian: ambos árboles comparten las mismas instancias.
+     * En modo concurrente los nodos nunca se modifican, así que la copia comparte
+     * la raíz y cuesta O(1).
+     * @return Copia independiente del árbol
+     */
+    public synchronized BST<E> copia() {
+        BST<E> copia = new BST<>(balanceado, concurrente);
+        if (root == null || concurrente) {
+            copia.root = root;
+            return copia;
+        }
+        
+        // Recorrido en preorden con pilas paralelas de nodos originales y sus copias;
+        // en cada nivel queda pendiente a lo sumo un hijo izquierdo
+        BSTNode<E>[] originales = crearArreglo(root.height + 1);
+        BSTNode<E>[] copias = crearArreglo(root.height + 1);
+        int tope = 0;
+        copia.root = copiarNodo(root);
+        originales[tope] = root;
+        copias[tope++] = copia.root;
+        while (tope > 0) {
+            BSTNode<E> original = originales[--tope];
+            BSTNode<E> duplicado = copias[tope];
+            if (original.left != null) {
+                duplicado.left = copiarNodo(original.left);
+                originales[tope] = original.left;
+                copias[tope++] = duplicado.left;
+            }
+            if (original.right != null) {
+                duplicado.right = copiarNodo(original.right);
+                originales[tope] = original.right;
+                copias[tope++] = duplicado.right;
+            }
+        }
+        return copia;
+    }
+    
+    private static <E> BSTNode<E> copiarNodo(BSTNode<E> node) {
+        BSTNode<E> copia = new BSTNode<>(node.data);
+        copia.height = node.height;
+        copia.size = node.size;
+        return copia;
+    }
+    
+    private static <E> BSTNode<E> copiarEnlazado(BSTNode<E> node) {
+        BSTNode<E> copia = copiarNodo(node);
+        copia.left = node.left;
+        copia.right = node.right;
+        return copia;
     }
     
     /**
@@ -132,7 +1033,31 @@ public class BST<E extends Comparable<E>> {
      * @return Número de elementos
      */
     public int size() {
-        return size;
+        return tamano(root);
+    }
+    
+    /**
+     * Devuelve la altura del árbol (0 si está vacío)
+     * @return Altura del árbol
+     */
+    public int height() {
+        return altura(root);
+    }
+    
+    /**
+     * Indica si el árbol se mantiene balanceado automáticamente
+     * @return true si el árbol es AVL
+     */
+    public boolean isBalanceado() {
+        return balanceado;
+    }
+    
+    /**
+     * Indica si el árbol admite lecturas concurrentes sin bloqueo
+     * @return true si las escrituras copian el camino en lugar de modificar nodos
+     */
+    public boolean isConcurrente() {
+        return concurrente;
     }
     
     /**
@@ -140,14 +1065,14 @@ public class BST<E extends Comparable<E>> {
      * @return true si está vacío, false en caso contrario
      */
     public boolean isEmpty() {
-        return size == 0;
+        return root == null;
     }
     
     /**
      * Elimina todos los elementos del árbol
      */
-    public void clear() {
+    public synchronized void clear() {
         root = null;
-        size = 0;
+        camino = null;
     }
 }
\ No newline at end of file
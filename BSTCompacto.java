@@ -0,0 +1,359 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Versión congelada (solo lectura) de un BST guardada en un único arreglo con
+ * la disposición de Eytzinger: la raíz está en la posición 1 y los hijos de la
+ * posición k están en 2k y 2k + 1. No hay nodos ni punteros: cada elemento
+ * ocupa una sola referencia y los primeros niveles, que toda búsqueda visita,
+ * quedan juntos al inicio del arreglo, por lo que comparten líneas de caché.
+ * El árbol implícito es completo, así que su altura es exactamente ⌈log2(n + 1)⌉.
+ * Opcionalmente guarda las claves de texto (por ejemplo los SKU) en un solo
+ * arreglo de caracteres en el mismo orden, de modo que una búsqueda por clave
+ * solo recorre arreglos contiguos y accede al elemento únicamente al encontrarlo.
+ * @param <E> Tipo de elementos del índice
+ */
+public class BSTCompacto<E extends Comparable<E>> implements IndiceOrdenado<E> {
+    private final Object[] datos; // La posición 0 no se usa
+    private final int size;
+    // Claves de texto concatenadas: la clave de la posición k ocupa [inicioClave[k], inicioClave[k + 1])
+    private final char[] arenaClaves;
+    private final int[] inicioClave;
+    
+    /**
+     * Congela el contenido actual de un árbol. En modo concurrente se copia la
+     * versión vigente al llamar.
+     * @param arbol Árbol a congelar
+     */
+    public BSTCompacto(BST<E> arbol) {
+        this(arbol, null);
+    }
+    
+    /**
+     * Congela el contenido actual de un árbol guardando además una clave de texto por
+     * elemento en almacenamiento contiguo, para usar searchClave
+     * @param arbol Árbol a congelar
+     * @param extractorClave Obtiene la clave de cada elemento; debe ordenar igual que compareTo.
+     *                       Si es null no se guardan claves.
+     */
+    public BSTCompacto(BST<E> arbol, java.util.function.Function<? super E, String> extractorClave) {
+        if (arbol == null) {
+            throw new IllegalArgumentException("El árbol no puede ser nulo");
+        }
+        // El iterador recorre una sola versión del árbol: su tamaño puede no coincidir con size()
+        Object[] ordenados = new Object[arbol.size()];
+        int total = 0;
+        for (E elemento : arbol) {
+            if (total == ordenados.length) {
+                ordenados = java.util.Arrays.copyOf(ordenados, Math.max(16, total * 2));
+            }
+            ordenados[total++] = elemento;
+        }
+        this.size = total;
+        this.datos = new Object[total + 1];
+        
+        // Recorrer el árbol implícito en orden asigna los elementos ordenados a su posición
+        int k = primera();
+        for (int i = 0; i < total; i++) {
+            datos[k] = ordenados[i];
+            k = siguiente(k);
+        }
+        
+        if (extractorClave == null) {
+            arenaClaves = null;
+            inicioClave = null;
+            return;
+        }
+        long totalCaracteres = 0;
+        for (int p = 1; p <= total; p++) {
+            totalCaracteres += extractorClave.apply(dato(p)).length();
+        }
+        if (totalCaracteres > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Las claves no caben en un solo arreglo");
+        }
+        arenaClaves = new char[(int) totalCaracteres];
+        inicioClave = new int[total + 2];
+        int posicion = 0;
+        for (int p = 1; p <= total; p++) {
+            String clave = extractorClave.apply(dato(p));
+            inicioClave[p] = posicion;
+            clave.getChars(0, clave.length(), arenaClaves, posicion);
+            posicion += clave.length();
+        }
+        inicioClave[total + 1] = posicion;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private E dato(int k) {
+        return (E) datos[k];
+    }
+    
+    /**
+     * Posición del menor elemento (la más a la izquierda), o 0 si está vacío
+     */
+    private int primera() {
+        if (size == 0) {
+            return 0;
+        }
+        int k = 1;
+        while (2 * k <= size) {
+            k = 2 * k;
+        }
+        return k;
+    }
+    
+    /**
+     * Posición del mayor elemento (la más a la derecha), o 0 si está vacío
+     */
+    private int ultima() {
+        if (size == 0) {
+            return 0;
+        }
+        int k = 1;
+        while (2 * k + 1 <= size) {
+            k = 2 * k + 1;
+        }
+        return k;
+    }
+    
+    /**
+     * Posición del sucesor en orden, o 0 si k es el último
+     */
+    private int siguiente(int k) {
+        if (2 * k + 1 <= size) {
+            // Bajamos al menor del subárbol derecho
+            k = 2 * k + 1;
+            while (2 * k <= size) {
+                k = 2 * k;
+            }
+            return k;
+        }
+        // Subimos mientras seamos hijo derecho; el padre del primer hijo izquierdo es el sucesor
+        while ((k & 1) == 1) {
+            k >>= 1;
+        }
+        return k >> 1;
+    }
+    
+    /**
+     * Posición del predecesor en orden, o 0 si k es el primero
+     */
+    private int anterior(int k) {
+        if (2 * k <= size) {
+            k = 2 * k;
+            while (2 * k + 1 <= size) {
+                k = 2 * k + 1;
+            }
+            return k;
+        }
+        while (k > 1 && (k & 1) == 0) {
+            k >>= 1;
+        }
+        return k >> 1;
+    }
+    
+    /**
+     * Posición del primer elemento mayor (o igual, si inclusivo) que el dado, o 0 si no hay.
+     * El descenso no se detiene en los iguales: cuando el camino termina, la posición
+     * buscada es el último ancestro donde se bajó a la izquierda.
+     */
+    private int techo(E desde, boolean inclusivo) {
+        int k = 1;
+        while (k <= size) {
+            int compareResult = dato(k).compareTo(desde);
+            boolean derecha = inclusivo ? compareResult < 0 : compareResult <= 0;
+            k = 2 * k + (derecha ? 1 : 0);
+        }
+        // Quitamos los pasos a la derecha del final y el último paso a la izquierda
+        return k >> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+    
+    /**
+     * Posición del último elemento menor (o igual, si inclusivo) que el dado, o 0 si no hay
+     */
+    private int piso(E desde, boolean inclusivo) {
+        int k = 1;
+        while (k <= size) {
+            int compareResult = dato(k).compareTo(desde);
+            boolean derecha = inclusivo ? compareResult <= 0 : compareResult < 0;
+            k = 2 * k + (derecha ? 1 : 0);
+        }
+        // Simétrico a techo: quitamos los pasos a la izquierda del final y el último a la derecha
+        return k >> (Integer.numberOfTrailingZeros(k) + 1);
+    }
+    
+    @Override
+    public E search(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("No se puede buscar un elemento nulo");
+        }
+        int k = 1;
+        while (k <= size) {
+            int compareResult = element.compareTo(dato(k));
+            if (compareResult == 0) {
+                return dato(k);
+            }
+            k = 2 * k + (compareResult > 0 ? 1 : 0);
+        }
+        return null;
+    }
+    
+    @Override
+    public <K> E search(K clave, ToIntBiFunction<? super K, ? super E> comparador) {
+        if (clave == null || comparador == null) {
+            throw new IllegalArgumentException("La clave y el comparador no pueden ser nulos");
+        }
+        int k = 1;
+        while (k <= size) {
+            int compareResult = comparador.applyAsInt(clave, dato(k));
+            if (compareResult == 0) {
+                return dato(k);
+            }
+            k = 2 * k + (compareResult > 0 ? 1 : 0);
+        }
+        return null;
+    }
+    
+    /**
+     * Busca un elemento por su clave de texto comparando directamente contra el
+     * almacenamiento contiguo de claves, sin crear objetos. Se ignoran los espacios
+     * en los extremos de la clave dada.
+     * @param clave Clave a buscar
+     * @return El elemento encontrado o null si no existe
+     */
+    public E searchClave(CharSequence clave) {
+        if (clave == null) {
+            throw new IllegalArgumentException("La clave no puede ser nula");
+        }
+        if (arenaClaves == null) {
+            throw new IllegalStateException("El índice se construyó sin claves de texto");
+        }
+        int inicio = 0;
+        int fin = clave.length();
+        while (inicio < fin && clave.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && clave.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        
+        int k = 1;
+        while (k <= size) {
+            int compareResult = compararClave(clave, inicio, fin, k);
+            if (compareResult == 0) {
+                return dato(k);
+            }
+            k = 2 * k + (compareResult > 0 ? 1 : 0);
+        }
+        return null;
+    }
+    
+    private int compararClave(CharSequence clave, int inicio, int fin, int k) {
+        int desde = inicioClave[k];
+        int longitudGuardada = inicioClave[k + 1] - desde;
+        int longitud = fin - inicio;
+        int comunes = Math.min(longitud, longitudGuardada);
+        for (int i = 0; i < comunes; i++) {
+            char a = clave.charAt(inicio + i);
+            char b = arenaClaves[desde + i];
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return longitud - longitudGuardada;
+    }
+    
+    @Override
+    public void inOrderTraversal(Consumer<E> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("La acción no puede ser nula");
+        }
+        for (int k = primera(); k != 0; k = siguiente(k)) {
+            action.accept(dato(k));
+        }
+    }
+    
+    @Override
+    public void reverseInOrderTraversal(Consumer<E> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("La acción no puede ser nula");
+        }
+        for (int k = ultima(); k != 0; k = anterior(k)) {
+            action.accept(dato(k));
+        }
+    }
+    
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterador(primera(), true);
+    }
+    
+    @Override
+    public Iterator<E> iterator(E desde, boolean inclusivo) {
+        if (desde == null) {
+            throw new IllegalArgumentException("El elemento inicial no puede ser nulo");
+        }
+        return new Iterador(techo(desde, inclusivo), true);
+    }
+    
+    @Override
+    public Iterator<E> reverseIterator() {
+        return new Iterador(ultima(), false);
+    }
+    
+    @Override
+    public Iterator<E> reverseIterator(E desde, boolean inclusivo) {
+        if (desde == null) {
+            throw new IllegalArgumentException("El elemento inicial no puede ser nulo");
+        }
+        return new Iterador(piso(desde, inclusivo), false);
+    }
+    
+    /**
+     * Iterador sin pila: la posición siguiente se calcula con aritmética de índices
+     */
+    private class Iterador implements Iterator<E> {
+        private int posicion;
+        private final boolean ascendente;
+        
+        Iterador(int posicion, boolean ascendente) {
+            this.posicion = posicion;
+            this.ascendente = ascendente;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return posicion != 0;
+        }
+        
+        @Override
+        public E next() {
+            if (posicion == 0) {
+                throw new NoSuchElementException();
+            }
+            E dato = dato(posicion);
+            posicion = ascendente ? siguiente(posicion) : anterior(posicion);
+            return dato;
+        }
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Devuelve la altura del árbol implícito (0 si está vacío)
+     * @return Altura del árbol
+     */
+    public int height() {
+        return 32 - Integer.numberOfLeadingZeros(size);
+    }
+}
\ No newline at end of file
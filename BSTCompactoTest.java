@@ -0,0 +1,89 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para la versión compacta de solo lectura del BST
+ */
+public class BSTCompactoTest {
+    
+    private static List<Integer> listar(java.util.Iterator<Integer> iterador) {
+        List<Integer> elementos = new ArrayList<>();
+        iterador.forEachRemaining(elementos::add);
+        return elementos;
+    }
+    
+    @Test
+    public void testVacio() {
+        BSTCompacto<Integer> compacto = new BST<Integer>().congelar();
+        assertTrue(compacto.isEmpty());
+        assertEquals(0, compacto.height());
+        assertNull(compacto.search(1));
+        assertFalse(compacto.iterator().hasNext());
+        assertFalse(compacto.reverseIterator(5, true).hasNext());
+    }
+    
+    @Test
+    public void testMismoContenidoQueElArbol() {
+        // Todos los tamaños pequeños cubren árboles implícitos completos e incompletos
+        for (int n = 1; n <= 70; n++) {
+            BST<Integer> arbol = new BST<>(true);
+            for (int i = 0; i < n; i++) {
+                arbol.insert(i * 2);
+            }
+            BSTCompacto<Integer> compacto = arbol.congelar();
+            assertEquals(n, compacto.size());
+            
+            List<Integer> esperado = new ArrayList<>();
+            arbol.inOrderTraversal(esperado::add);
+            List<Integer> recorrido = new ArrayList<>();
+            compacto.inOrderTraversal(recorrido::add);
+            assertEquals(esperado, recorrido);
+            assertEquals(esperado, listar(compacto.iterator()));
+            assertEquals(listar(arbol.reverseIterator()), listar(compacto.reverseIterator()));
+            
+            for (int x = -1; x <= 2 * n; x++) {
+                assertEquals(arbol.search(x), compacto.search(x));
+                assertEquals(arbol.search(x), compacto.search(x, (clave, elemento) -> Integer.compare(clave, elemento)));
+                assertEquals(listar(arbol.iterator(x, true)), listar(compacto.iterator(x, true)));
+                assertEquals(listar(arbol.iterator(x, false)), listar(compacto.iterator(x, false)));
+                assertEquals(listar(arbol.reverseIterator(x, true)), listar(compacto.reverseIterator(x, true)));
+                assertEquals(listar(arbol.reverseIterator(x, false)), listar(compacto.reverseIterator(x, false)));
+            }
+        }
+    }
+    
+    @Test
+    public void testAlturaMinima() {
+        BST<Integer> arbol = new BST<>();
+        for (int i = 0; i < 1000; i++) {
+            arbol.insert(i); // Árbol degenerado
+        }
+        BSTCompacto<Integer> compacto = arbol.congelar();
+        assertEquals(10, compacto.height());
+        assertEquals(Integer.valueOf(999), compacto.search(999));
+    }
+    
+    @Test
+    public void testBusquedaPorClaveContigua() {
+        BST<Producto> arbol = new BST<>(true);
+        for (int i = 0; i < 300; i++) {
+            arbol.insert(new Producto("SKU-" + (i * 7), i, i, "Producto " + i, "General"));
+        }
+        BSTCompacto<Producto> compacto = new BSTCompacto<>(arbol, Producto::getSku);
+        for (int i = 0; i < 2100; i++) {
+            String sku = "SKU-" + i;
+            assertEquals(arbol.search(sku, Producto.COMPARADOR_SKU), compacto.searchClave(sku));
+        }
+        assertEquals("SKU-14", compacto.searchClave(new StringBuilder(" SKU-14 ")).getSku());
+        assertNull(compacto.searchClave("SKU-"));
+        assertNull(compacto.searchClave(""));
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testBusquedaPorClaveSinClaves() {
+        new BST<Integer>().congelar().searchClave("x");
+    }
+}
\ No newline at end of file
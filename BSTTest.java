@@ -2,6 +2,10 @@ import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Pruebas unitarias para el BST
  */
@@ -160,4 +164,394 @@ public class BSTTest {
     public void testSearchNull() {
         bstInteger.search(null);
     }
+    
+    @Test
+    public void testBalanceadoConEntradaOrdenada() {
+        BST<Integer> avl = new BST<>(true);
+        for (int i = 0; i < 1000; i++) {
+            avl.insert(i);
+        }
+        assertEquals(1000, avl.size());
+        // Un AVL con 1000 elementos tiene altura menor a 1.45 * log2(1001)
+        assertTrue(avl.height() <= 14);
+        
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), avl.search(i));
+        }
+        assertNull(avl.search(1000));
+    }
+    
+    @Test
+    public void testBalanceadoRecorridos() {
+        BST<Integer> avl = new BST<>(true);
+        int[] valores = {50, 20, 80, 10, 30, 25, 27, 90, 85, 95};
+        for (int v : valores) {
+            avl.insert(v);
+        }
+        
+        List<Integer> ascendente = new ArrayList<>();
+        avl.inOrderTraversal(ascendente::add);
+        assertEquals(Arrays.asList(10, 20, 25, 27, 30, 50, 80, 85, 90, 95), ascendente);
+        
+        List<Integer> descendente = new ArrayList<>();
+        avl.reverseInOrderTraversal(descendente::add);
+        assertEquals(Arrays.asList(95, 90, 85, 80, 50, 30, 27, 25, 20, 10), descendente);
+    }
+    
+    @Test
+    public void testArbolDegeneradoSinDesbordarPila() {
+        // Insertar en orden en un BST simple genera una cadena de altura n
+        int n = 20000;
+        for (int i = 0; i < n; i++) {
+            bstInteger.insert(i);
+        }
+        assertEquals(n, bstInteger.size());
+        assertEquals(n, bstInteger.height());
+        assertEquals(Integer.valueOf(n - 1), bstInteger.search(n - 1));
+        
+        int[] siguiente = {0};
+        bstInteger.inOrderTraversal(valor -> assertEquals(siguiente[0]++, valor.intValue()));
+        assertEquals(n, siguiente[0]);
+        
+        bstInteger.reverseInOrderTraversal(valor -> assertEquals(--siguiente[0], valor.intValue()));
+        assertEquals(0, siguiente[0]);
+    }
+    
+    @Test
+    public void testBuildDesdeListaOrdenada() {
+        List<Integer> valores = new ArrayList<>();
+        for (int i = 0; i < 1023; i++) {
+            valores.add(i);
+        }
+        BST<Integer> arbol = new BST<>(valores, false);
+        
+        assertEquals(1023, arbol.size());
+        assertEquals(10, arbol.height()); // Árbol perfecto: 2^10 - 1 nodos
+        for (int i = 0; i < 1023; i++) {
+            assertEquals(Integer.valueOf(i), arbol.search(i));
+        }
+    }
+    
+    @Test
+    public void testBuildDesordenadoConDuplicados() {
+        Producto p1 = new Producto("SKU002", 100.0, 90.0, "Original", "Categoría 1");
+        Producto p2 = new Producto("SKU001", 50.0, 45.0, "Producto 1", "Categoría 1");
+        Producto p3 = new Producto("SKU002", 150.0, 130.0, "Reemplazo", "Categoría 2");
+        Producto p4 = new Producto("SKU003", 300.0, 270.0, "Producto 3", "Categoría 1");
+        
+        bstProducto.insert(new Producto("SKU999"));
+        bstProducto.build(Arrays.asList(p1, p4, p2, p3));
+        
+        assertEquals(3, bstProducto.size());
+        assertNull(bstProducto.search(new Producto("SKU999")));
+        // Igual que insert, el último producto con el mismo SKU reemplaza al anterior
+        assertEquals("Reemplazo", bstProducto.search(new Producto("SKU002")).getProductName());
+        
+        List<String> skus = new ArrayList<>();
+        bstProducto.inOrderTraversal(p -> skus.add(p.getSku()));
+        assertEquals(Arrays.asList("SKU001", "SKU002", "SKU003"), skus);
+        
+        // El árbol sigue aceptando inserciones después de construirse
+        bstProducto.insert(new Producto("SKU000"));
+        assertEquals(4, bstProducto.size());
+    }
+    
+    @Test
+    public void testDelete() {
+        int[] valores = {50, 30, 70, 20, 40, 60, 80, 35, 45, 65};
+        for (int v : valores) {
+            bstInteger.insert(v);
+        }
+        
+        assertEquals(Integer.valueOf(20), bstInteger.delete(20)); // Hoja
+        assertEquals(Integer.valueOf(60), bstInteger.delete(60)); // Un hijo
+        assertEquals(Integer.valueOf(30), bstInteger.delete(30)); // Dos hijos
+        assertEquals(Integer.valueOf(50), bstInteger.delete(50)); // Raíz
+        assertNull(bstInteger.delete(99)); // Elemento no existente
+        
+        assertEquals(6, bstInteger.size());
+        List<Integer> restantes = new ArrayList<>();
+        bstInteger.inOrderTraversal(restantes::add);
+        assertEquals(Arrays.asList(35, 40, 45, 65, 70, 80), restantes);
+        assertNull(bstInteger.search(30));
+    }
+    
+    @Test
+    public void testDeleteBalanceadoMantieneAltura() {
+        BST<Integer> avl = new BST<>(true);
+        for (int i = 0; i < 1024; i++) {
+            avl.insert(i);
+        }
+        // Eliminamos todos los pares: quedan 512 elementos
+        for (int i = 0; i < 1024; i += 2) {
+            assertEquals(Integer.valueOf(i), avl.delete(i));
+        }
+        assertEquals(512, avl.size());
+        assertTrue(avl.height() <= 13); // 1.45 * log2(513)
+        for (int i = 0; i < 1024; i++) {
+            assertEquals((i % 2 == 0) ? null : Integer.valueOf(i), avl.search(i));
+        }
+        
+        for (int i = 1; i < 1024; i += 2) {
+            avl.delete(i);
+        }
+        assertTrue(avl.isEmpty());
+        assertEquals(0, avl.height());
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeleteNull() {
+        bstInteger.delete(null);
+    }
+    
+    @Test
+    public void testCopiaIndependiente() {
+        for (int i = 0; i < 100; i++) {
+            bstInteger.insert(i);
+        }
+        BST<Integer> copia = bstInteger.copia();
+        assertEquals(100, copia.size());
+        assertEquals(bstInteger.height(), copia.height());
+        
+        // Modificar la copia no afecta al original
+        copia.delete(50);
+        copia.insert(500);
+        assertEquals(Integer.valueOf(50), bstInteger.search(50));
+        assertNull(bstInteger.search(500));
+        assertEquals(100, bstInteger.size());
+        assertEquals(100, copia.size());
+        assertNull(copia.search(50));
+    }
+    
+    @Test
+    public void testConcurrenteNoModificaCopias() {
+        BST<Integer> arbol = new BST<>(true, true);
+        for (int i = 0; i < 100; i++) {
+            arbol.insert(i);
+        }
+        BST<Integer> copia = arbol.copia();
+        
+        // Las escrituras copian el camino: la copia compartida conserva su contenido
+        for (int i = 0; i < 100; i += 3) {
+            arbol.delete(i);
+        }
+        arbol.insert(500);
+        assertEquals(100, copia.size());
+        List<Integer> elementos = new ArrayList<>();
+        copia.inOrderTraversal(elementos::add);
+        assertEquals(100, elementos.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), elementos.get(i));
+        }
+        assertNull(copia.search(500));
+        assertEquals(Integer.valueOf(500), arbol.search(500));
+        assertNull(arbol.search(99));
+    }
+    
+    @Test
+    public void testConcurrenteLecturasDuranteEscrituras() throws InterruptedException {
+        final BST<Integer> arbol = new BST<>(true, true);
+        // Los pares siempre están presentes; los impares se insertan y eliminan
+        for (int i = 0; i < 2000; i += 2) {
+            arbol.insert(i);
+        }
+        final boolean[] error = new boolean[1];
+        Thread escritor = new Thread(() -> {
+            for (int vuelta = 0; vuelta < 20; vuelta++) {
+                for (int i = 1; i < 2000; i += 2) {
+                    arbol.insert(i);
+                }
+                for (int i = 1; i < 2000; i += 2) {
+                    arbol.delete(i);
+                }
+            }
+        });
+        Thread lector = new Thread(() -> {
+            for (int vuelta = 0; vuelta < 200; vuelta++) {
+                for (int i = 0; i < 2000; i += 2) {
+                    if (arbol.search(i) == null) {
+                        error[0] = true;
+                    }
+                }
+                // Cada recorrido ve una versión completa: siempre en orden y con todos los pares
+                final int[] anterior = {-1};
+                final int[] pares = {0};
+                arbol.inOrderTraversal(x -> {
+                    if (x <= anterior[0]) {
+                        error[0] = true;
+                    }
+                    anterior[0] = x;
+                    if (x % 2 == 0) {
+                        pares[0]++;
+                    }
+                });
+                if (pares[0] != 1000) {
+                    error[0] = true;
+                }
+            }
+        });
+        escritor.start();
+        lector.start();
+        escritor.join();
+        lector.join();
+        
+        assertFalse(error[0]);
+        assertEquals(1000, arbol.size());
+    }
+    
+    @Test
+    public void testIteradoresAscendenteYDescendente() {
+        int[] valores = {50, 30, 70, 20, 40, 60, 80};
+        for (int valor : valores) {
+            bstInteger.insert(valor);
+        }
+        List<Integer> ascendente = new ArrayList<>();
+        for (Integer x : bstInteger) {
+            ascendente.add(x);
+        }
+        assertEquals(Arrays.asList(20, 30, 40, 50, 60, 70, 80), ascendente);
+        
+        List<Integer> descendente = new ArrayList<>();
+        bstInteger.reverseIterator().forEachRemaining(descendente::add);
+        assertEquals(Arrays.asList(80, 70, 60, 50, 40, 30, 20), descendente);
+        
+        // Posicionamiento en elementos existentes y no existentes
+        List<Integer> desde = new ArrayList<>();
+        bstInteger.iterator(45, true).forEachRemaining(desde::add);
+        assertEquals(Arrays.asList(50, 60, 70, 80), desde);
+        desde.clear();
+        bstInteger.iterator(50, false).forEachRemaining(desde::add);
+        assertEquals(Arrays.asList(60, 70, 80), desde);
+        desde.clear();
+        bstInteger.reverseIterator(50, true).forEachRemaining(desde::add);
+        assertEquals(Arrays.asList(50, 40, 30, 20), desde);
+        desde.clear();
+        bstInteger.reverseIterator(15, true).forEachRemaining(desde::add);
+        assertTrue(desde.isEmpty());
+        
+        assertEquals(7, java.util.stream.StreamSupport.stream(bstInteger.spliterator(), false).count());
+    }
+    
+    @Test
+    public void testPaginas() {
+        BST<Integer> arbol = new BST<>(true);
+        for (int i = 0; i < 1000; i++) {
+            arbol.insert(i * 2);
+        }
+        assertEquals(Arrays.asList(0, 2, 4), arbol.page(null, 3));
+        assertEquals(Arrays.asList(100, 102, 104), arbol.page(99, 3));
+        assertEquals(Arrays.asList(1996, 1998), arbol.page(1996, 10));
+        assertEquals(Arrays.asList(1998, 1996, 1994), arbol.reversePage(null, 3));
+        assertEquals(Arrays.asList(98, 96), arbol.reversePage(99, 2));
+        assertTrue(arbol.page(5000, 10).isEmpty());
+        assertTrue(new BST<Integer>().page(null, 10).isEmpty());
+        
+        // Recorrer todas las páginas encadenadas equivale al recorrido completo
+        List<Integer> todos = new ArrayList<>();
+        List<Integer> pagina = arbol.page(null, 7);
+        while (!pagina.isEmpty()) {
+            todos.addAll(pagina);
+            pagina = arbol.page(pagina.get(pagina.size() - 1) + 1, 7);
+        }
+        assertEquals(1000, todos.size());
+        assertEquals(Integer.valueOf(1998), todos.get(999));
+    }
+    
+    @Test
+    public void testSelectYRank() {
+        BST<Integer> arbol = new BST<>(true);
+        for (int i = 999; i >= 0; i--) {
+            arbol.insert(i * 10);
+        }
+        for (int i = 0; i < 1000; i += 37) {
+            arbol.delete(i * 10);
+        }
+        List<Integer> ordenados = new ArrayList<>();
+        arbol.inOrderTraversal(ordenados::add);
+        
+        for (int k = 0; k < ordenados.size(); k++) {
+            assertEquals(ordenados.get(k), arbol.select(k));
+            assertEquals(k, arbol.rank(ordenados.get(k)));
+        }
+        // Elementos ausentes: posición que ocuparían
+        assertEquals(0, arbol.rank(-5));
+        assertEquals(1, arbol.rank(15));
+        assertEquals(arbol.size(), arbol.rank(100000));
+        
+        // Saltar directamente a una página en ambos sentidos
+        assertEquals(ordenados.subList(500, 510), arbol.pageAt(500, 10));
+        assertEquals(ordenados.get(ordenados.size() - 1), arbol.reversePageAt(0, 1).get(0));
+        assertEquals(ordenados.get(ordenados.size() - 501), arbol.reversePageAt(500, 10).get(0));
+        assertTrue(arbol.pageAt(arbol.size(), 10).isEmpty());
+    }
+    
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSelectFueraDeRango() {
+        bstInteger.insert(1);
+        bstInteger.select(1);
+    }
+    
+    @Test
+    public void testRangos() {
+        BST<Integer> arbol = new BST<>(true);
+        for (int i = 0; i < 100; i++) {
+            arbol.insert(i * 10);
+        }
+        List<Integer> rango = new ArrayList<>();
+        arbol.range(200, true, 250, true).forEachRemaining(rango::add);
+        assertEquals(Arrays.asList(200, 210, 220, 230, 240, 250), rango);
+        rango.clear();
+        arbol.range(200, false, 250, false).forEachRemaining(rango::add);
+        assertEquals(Arrays.asList(210, 220, 230, 240), rango);
+        rango.clear();
+        arbol.range(975, true, null, false).forEachRemaining(rango::add);
+        assertEquals(Arrays.asList(980, 990), rango);
+        rango.clear();
+        arbol.reverseRange(35, true, 10, true).forEachRemaining(rango::add);
+        assertEquals(Arrays.asList(30, 20, 10), rango);
+        rango.clear();
+        arbol.range(251, true, 259, true).forEachRemaining(rango::add);
+        assertTrue(rango.isEmpty());
+        
+        assertEquals(6, arbol.rangeCount(200, true, 250, true));
+        assertEquals(4, arbol.rangeCount(200, false, 250, false));
+        assertEquals(100, arbol.rangeCount(null, true, null, true));
+        assertEquals(0, arbol.rangeCount(300, true, 200, true));
+    }
+    
+    @Test
+    public void testSearchAllEnOrdenDePedido() {
+        BST<Integer> arbol = new BST<>(true);
+        for (int i = 0; i < 500; i++) {
+            arbol.insert(i * 3);
+        }
+        Integer[] claves = {300, 1, 0, null, 1497, 300, 1500, 42, 9};
+        Integer[] resultados = new Integer[claves.length];
+        arbol.searchAll(claves, Integer::compare, (clave, elemento) -> Integer.compare(clave, elemento), resultados);
+        assertEquals(Arrays.asList(300, null, 0, null, 1497, 300, null, 42, 9), Arrays.asList(resultados));
+        
+        // Muchas claves al azar contra la búsqueda individual
+        java.util.Random random = new java.util.Random(3);
+        claves = new Integer[300];
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = random.nextInt(1600);
+        }
+        resultados = new Integer[claves.length];
+        arbol.searchAll(claves, Integer::compare, (clave, elemento) -> Integer.compare(clave, elemento), resultados);
+        for (int i = 0; i < claves.length; i++) {
+            assertEquals(arbol.search(claves[i]), resultados[i]);
+        }
+    }
+    
+    @Test
+    public void testSearchPorClave() {
+        bstProducto.insert(new Producto("B2", 1.0, 1.0, "Producto B", "Cat"));
+        bstProducto.insert(new Producto("A1", 1.0, 1.0, "Producto A", "Cat"));
+        bstProducto.insert(new Producto("C3", 1.0, 1.0, "Producto C", "Cat"));
+        
+        assertEquals("Producto A", bstProducto.search("A1", Producto.COMPARADOR_SKU).getProductName());
+        assertEquals("Producto C", bstProducto.search(new StringBuilder("C3"), Producto.COMPARADOR_SKU).getProductName());
+        assertNull(bstProducto.search("A", Producto.COMPARADOR_SKU));
+        assertNull(bstProducto.search("A10", Producto.COMPARADOR_SKU));
+    }
 }
\ No newline at end of file
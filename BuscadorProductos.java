@@ -1,4 +1,9 @@
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 import java.util.ArrayList;
@@ -8,16 +13,190 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
 
 /**
- * Clase principal del programa que gestiona la búsqueda de productos
+ * Clase principal del programa que gestiona la búsqueda de productos.
+ * El catálogo usa un árbol en modo concurrente: las búsquedas desde otros hilos
+ * no usan bloqueos ni esperan a los escritores. Las cargas, los lotes de
+ * actualizaciones y los cambios individuales se preparan en un catálogo aparte
+ * (copiar los árboles cuesta O(1)) y se publican con una sola escritura volátil,
+ * así nunca se ve un catálogo a medias.
+ * Opcionalmente se mantiene un índice hash por SKU junto al árbol: las búsquedas
+ * exactas lo usan y los listados ordenados siguen usando el árbol.
+ * Después de leer un CSV se guarda un snapshot binario junto a él; mientras el
+ * CSV no cambie, las siguientes cargas leen el snapshot en lugar del CSV.
+ * Con el registro de cambios activo, los cambios en vivo se registran antes de
+ * aplicarse y se vuelven a aplicar al cargar el mismo CSV; la compactación los
+ * incorpora al snapshot y vacía el registro. Si al cargar hay cambios guardados
+ * para otra versión del CSV, o el snapshot con cambios compactados está dañado,
+ * la carga falla en lugar de descartarlos.
+ * En modo fuera del heap (soloLecturaFueraDelHeap) el catálogo se carga
+ * directamente en ByteBuffer directos y las búsquedas y listados por SKU se
+ * resuelven ahí, sin árbol ni índices en el heap. En modo columnar
+ * (soloLecturaColumnar) el catálogo se carga directamente en columnas en el heap,
+ * sin un objeto por producto, y se consulta igual. Los modos de solo lectura no
+ * admiten cambios.
  */
 public class BuscadorProductos {
-    private final BST<Producto> productosTree;
+    // Árbol e índices que se publican juntos
+    private static final class Catalogo {
+        final CatalogoSoloLectura soloLectura; // Solo en los modos de solo lectura; entonces el resto es null
+        final BST<Producto> arbol;
+        final IndiceHashSKU indiceSKU; // null si el índice hash está desactivado
+        final IndicesSecundarios indices;
+        final IndiceNombres indiceNombres;
+        final TrieSKU trieSKU;
+        
+        Catalogo(BST<Producto> arbol, IndiceHashSKU indiceSKU, IndicesSecundarios indices,
+                IndiceNombres indiceNombres, TrieSKU trieSKU) {
+            this.soloLectura = null;
+            this.arbol = arbol;
+            this.indiceSKU = indiceSKU;
+            this.indices = indices;
+            this.indiceNombres = indiceNombres;
+            this.trieSKU = trieSKU;
+        }
+        
+        Catalogo(CatalogoSoloLectura soloLectura) {
+            this.soloLectura = soloLectura;
+            this.arbol = null;
+            this.indiceSKU = null;
+            this.indices = null;
+            this.indiceNombres = null;
+            this.trieSKU = null;
+        }
+        
+        /**
+         * Productos ordenados por SKU: el árbol, o el catálogo de solo lectura
+         */
+        IndiceOrdenado<Producto> productos() {
+            return (soloLectura != null) ? soloLectura : arbol;
+        }
+    }
+    
+    private volatile Catalogo catalogo;
+    private final boolean arbolBalanceado;
+    private final boolean usarIndiceHash;
+    private final boolean usarSnapshot;
+    private final boolean fueraDelHeap;
+    private final boolean columnar;
+    
+    // Registro de cambios del CSV cargado, protegido por el monitor de this
+    private static final long UMBRAL_COMPACTACION = 64L * 1024 * 1024;
+    private volatile long ventanaDurabilidad = -1; // Negativa mientras el registro está desactivado
+    private RegistroCambios registro;
+    private Path csvCargado;
+    private boolean compactando;
+    // Serializa las compactaciones con las recuperaciones al cargar
+    private final Object bloqueoCompactacion = new Object();
     
     /**
-     * Constructor por defecto
+     * Constructor por defecto (usa un árbol balanceado y el índice hash)
      */
     public BuscadorProductos() {
-        productosTree = new BST<>();
+        this(true);
+    }
+    
+    /**
+     * Constructor que permite elegir el tipo de árbol
+     * @param arbolBalanceado true para usar un árbol AVL, false para un BST simple
+     */
+    public BuscadorProductos(boolean arbolBalanceado) {
+        this(arbolBalanceado, true);
+    }
+    
+    /**
+     * Constructor que permite elegir el tipo de árbol y si se mantiene el índice hash
+     * @param arbolBalanceado true para usar un árbol AVL, false para un BST simple
+     * @param usarIndiceHash true para resolver las búsquedas exactas con un índice hash por SKU
+     */
+    public BuscadorProductos(boolean arbolBalanceado, boolean usarIndiceHash) {
+        this(arbolBalanceado, usarIndiceHash, true);
+    }
+    
+    /**
+     * Constructor que permite elegir además si se usan snapshots binarios del catálogo
+     * @param arbolBalanceado true para usar un árbol AVL, false para un BST simple
+     * @param usarIndiceHash true para resolver las búsquedas exactas con un índice hash por SKU
+     * @param usarSnapshot true para guardar un snapshot al leer un CSV y usarlo en las siguientes cargas
+     */
+    public BuscadorProductos(boolean arbolBalanceado, boolean usarIndiceHash, boolean usarSnapshot) {
+        this(arbolBalanceado, usarIndiceHash, usarSnapshot, false, false);
+    }
+    
+    private BuscadorProductos(boolean arbolBalanceado, boolean usarIndiceHash, boolean usarSnapshot,
+            boolean fueraDelHeap, boolean columnar) {
+        this.arbolBalanceado = arbolBalanceado;
+        this.usarIndiceHash = usarIndiceHash;
+        this.usarSnapshot = usarSnapshot;
+        this.fueraDelHeap = fueraDelHeap;
+        this.columnar = columnar;
+        if (fueraDelHeap) {
+            catalogo = new Catalogo(new CatalogoFueraDelHeap(new BST<>()));
+        } else if (columnar) {
+            catalogo = new Catalogo(new CatalogoColumnar(new BST<>()));
+        } else {
+            catalogo = new Catalogo(new BST<>(arbolBalanceado, true), usarIndiceHash ? new IndiceHashSKU() : null,
+                    new IndicesSecundarios(), new IndiceNombres(), new TrieSKU());
+        }
+    }
+    
+    /**
+     * Crea un buscador de solo lectura con el catálogo fuera del heap. Las cargas
+     * escriben cada producto en ByteBuffer directos a medida que se lee el CSV, y las
+     * búsquedas, listados y páginas por SKU se resuelven sobre ellos: el heap no
+     * crece con el catálogo, ni durante la carga ni después. No se mantienen los
+     * índices por categoría, precio y nombre ni las sugerencias de SKU, y no se
+     * admiten cambios; esas operaciones lanzan IllegalStateException.
+     * @return Buscador de solo lectura fuera del heap
+     */
+    public static BuscadorProductos soloLecturaFueraDelHeap() {
+        return new BuscadorProductos(false, false, false, true, false);
+    }
+    
+    /**
+     * Crea un buscador de solo lectura con el catálogo por columnas. Las cargas
+     * copian cada producto a las columnas a medida que se lee el CSV, sin armar el
+     * árbol, y las búsquedas, listados y páginas por SKU se resuelven sobre ellas:
+     * en el heap quedan arreglos de bytes, enteros y precios en lugar de un objeto
+     * por producto. Como en soloLecturaFueraDelHeap, no se mantienen los índices
+     * por categoría, precio y nombre ni las sugerencias de SKU, y no se admiten
+     * cambios; esas operaciones lanzan IllegalStateException.
+     * @return Buscador de solo lectura por columnas
+     */
+    public static BuscadorProductos soloLecturaColumnar() {
+        return new BuscadorProductos(false, false, false, false, true);
+    }
+    
+    /**
+     * Indica si el buscador guarda el catálogo fuera del heap, en modo de solo lectura
+     * @return true si se creó con soloLecturaFueraDelHeap
+     */
+    public boolean esFueraDelHeap() {
+        return fueraDelHeap;
+    }
+    
+    /**
+     * Indica si el buscador es de solo lectura (fuera del heap o por columnas)
+     * @return true si se creó con soloLecturaFueraDelHeap o soloLecturaColumnar
+     */
+    public boolean esSoloLectura() {
+        return fueraDelHeap || columnar;
+    }
+    
+    /**
+     * Devuelve el catálogo vigente, que debe tener el árbol y los índices en el heap
+     */
+    private Catalogo catalogoEnHeap() {
+        Catalogo actual = catalogo;
+        if (actual.soloLectura != null) {
+            throw new IllegalStateException("Operación no disponible con el catálogo de solo lectura");
+        }
+        return actual;
+    }
+    
+    private void verificarEscritura() {
+        if (esSoloLectura()) {
+            throw new IllegalStateException("El catálogo es de solo lectura");
+        }
     }
     
     /**
@@ -26,29 +205,824 @@ public class BuscadorProductos {
      * @throws IOException Si ocurre un error de lectura
      */
     public void cargarProductos(String filePath) throws IOException {
-        List<Producto> productos = CSVHandler.cargarProductosDesdeCSV(filePath);
+        Path csv = CSVHandler.obtenerRutaValida(filePath);
+        if (fueraDelHeap) {
+            CatalogoFueraDelHeap nuevo = CatalogoFueraDelHeap.cargarDesdeCSV(csv.toString());
+            publicar(new Catalogo(nuevo));
+            System.out.printf("Se han cargado %d productos fuera del heap (%d MB).%n", nuevo.size(),
+                    nuevo.bytesFueraDelHeap() / (1024 * 1024));
+            return;
+        }
+        if (columnar) {
+            CatalogoColumnar nuevo = CatalogoColumnar.cargarDesdeCSV(csv.toString());
+            publicar(new Catalogo(nuevo));
+            System.out.printf("Se han cargado %d productos en columnas (%d MB).%n", nuevo.size(),
+                    nuevo.bytesEstimados() / (1024 * 1024));
+            return;
+        }
         
-        // Limpiar el árbol antes de cargar nuevos productos
-        productosTree.clear();
+        if (usarSnapshot) {
+            verificarCambiosPendientes(csv);
+        }
         
-        // Insertar productos en el árbol
-        for (Producto producto : productos) {
-            productosTree.insert(producto);
+        // Construir el nuevo árbol y su índice aparte y publicarlos de una sola vez
+        BST<Producto> nuevoArbol = usarSnapshot ? cargarSnapshot(csv) : null;
+        if (nuevoArbol == null) {
+            List<Producto> productos = CSVHandler.cargarProductosDesdeCSVParalelo(csv.toString());
+            nuevoArbol = new BST<>(productos, arbolBalanceado, true);
+            if (usarSnapshot) {
+                guardarSnapshot(nuevoArbol, csv);
+            }
+        }
+        
+        if (registroActivo()) {
+            synchronized (bloqueoCompactacion) {
+                RegistroCambios nuevoRegistro = recuperarCambios(nuevoArbol, csv);
+                publicar(crearCatalogo(nuevoArbol), nuevoRegistro, csv);
+            }
+        } else {
+            publicar(crearCatalogo(nuevoArbol));
+        }
+        
+        System.out.println("Se han cargado " + nuevoArbol.size() + " productos en el árbol (altura: "
+                + nuevoArbol.height() + ").");
+    }
+    
+    /**
+     * Activa el registro de cambios: desde la siguiente carga, los cambios en vivo
+     * se guardan en un archivo junto al CSV y se recuperan al volver a cargarlo.
+     * Requiere snapshots, porque la compactación escribe en ellos.
+     * @param ventanaDurabilidadMillis Tiempo máximo que un cambio puede tardar en
+     *                                 llegar al disco; con 0 cada cambio espera su fsync
+     *                                 (los cambios simultáneos comparten uno)
+     */
+    public synchronized void activarRegistroCambios(long ventanaDurabilidadMillis) {
+        verificarEscritura();
+        if (!usarSnapshot) {
+            throw new IllegalStateException("El registro de cambios requiere snapshots del catálogo");
+        }
+        if (ventanaDurabilidadMillis < 0) {
+            throw new IllegalArgumentException("La ventana de durabilidad no puede ser negativa");
+        }
+        ventanaDurabilidad = ventanaDurabilidadMillis;
+    }
+    
+    private boolean registroActivo() {
+        return ventanaDurabilidad >= 0;
+    }
+    
+    /**
+     * Aplica sobre el árbol recién cargado los cambios registrados para ese CSV y
+     * abre el registro para los cambios siguientes. Si una compactación quedó a
+     * medias, se termina aquí: aplicar de nuevo cambios que ya estaban en el
+     * snapshot no altera el resultado.
+     */
+    private RegistroCambios recuperarCambios(BST<Producto> arbol, Path csv) throws IOException {
+        Path archivo = RegistroCambios.rutaPara(csv);
+        Path compactacion = rutaCompactacion(csv);
+        List<ActualizacionProducto> cambios = new ArrayList<>(RegistroCambios.leer(compactacion, csv));
+        cambios.addAll(RegistroCambios.leer(archivo, csv));
+        for (ActualizacionProducto cambio : cambios) {
+            if (cambio.isEliminacion()) {
+                arbol.delete(cambio.getProducto());
+            } else {
+                arbol.insert(cambio.getProducto());
+            }
+        }
+        if (!cambios.isEmpty()) {
+            System.out.println("Se recuperaron " + cambios.size() + " cambios del registro.");
+        }
+        if (Files.exists(compactacion)) {
+            SnapshotCatalogo.escribir(arbol, csv, SnapshotCatalogo.rutaPara(csv), true);
+            Files.deleteIfExists(archivo);
+            Files.delete(compactacion);
+        }
+        return new RegistroCambios(archivo, csv, ventanaDurabilidad);
+    }
+    
+    /**
+     * Verifica que la carga no descarte cambios guardados para otra versión del CSV:
+     * los compactados en el snapshot o, con el registro activo, los del registro.
+     * Esos cambios no pueden aplicarse sobre otro CSV, así que la carga falla y el
+     * usuario decide si restaura el CSV anterior o elimina los archivos.
+     * @throws IOException Si hay cambios de otra versión del CSV
+     */
+    private void verificarCambiosPendientes(Path csv) throws IOException {
+        Path snapshot = SnapshotCatalogo.rutaPara(csv);
+        if (!SnapshotCatalogo.vigente(snapshot, csv) && SnapshotCatalogo.incluyeCambios(snapshot)) {
+            throw cambiosDeOtraVersion(snapshot);
+        }
+        if (registroActivo()) {
+            for (Path archivo : new Path[] {RegistroCambios.rutaPara(csv), rutaCompactacion(csv)}) {
+                if (!RegistroCambios.correspondeA(archivo, csv) && RegistroCambios.tieneCambios(archivo)) {
+                    throw cambiosDeOtraVersion(archivo);
+                }
+            }
+        }
+    }
+    
+    private static IOException cambiosDeOtraVersion(Path archivo) {
+        return new IOException("El archivo " + archivo + " tiene cambios sobre otra versión del CSV. "
+                + "Restaure esa versión para recuperarlos o elimine el archivo para descartarlos.");
+    }
+    
+    private static Path rutaCompactacion(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".wal.compactando");
+    }
+    
+    /**
+     * Incorpora los cambios registrados al snapshot del CSV y vacía el registro.
+     * El registro se rota al archivo de compactación mientras se toma una copia
+     * del catálogo (O(1)); el snapshot se escribe después sin bloquear a los
+     * escritores, que siguen registrando en un registro nuevo.
+     * Si una compactación anterior no llegó a escribir su snapshot, se termina
+     * antes de rotar, porque la rotación reemplazaría los cambios que guarda.
+     * @throws IOException Si ocurre un error al escribir
+     */
+    public void compactarRegistroCambios() throws IOException {
+        synchronized (bloqueoCompactacion) {
+            try {
+                BST<Producto> base;
+                Path csv;
+                synchronized (this) {
+                    if (registro == null) {
+                        return;
+                    }
+                    compactando = true;
+                    csv = csvCargado;
+                }
+                if (Files.exists(rutaCompactacion(csv))) {
+                    // El catálogo publicado ya incluye los cambios del archivo de compactación
+                    synchronized (this) {
+                        base = catalogo.arbol.copia();
+                    }
+                    SnapshotCatalogo.escribir(base, csv, SnapshotCatalogo.rutaPara(csv), true);
+                    Files.delete(rutaCompactacion(csv));
+                }
+                synchronized (this) {
+                    base = catalogo.arbol.copia();
+                    Path archivo = RegistroCambios.rutaPara(csv);
+                    try {
+                        registro.close();
+                        Files.move(archivo, rutaCompactacion(csv));
+                    } finally {
+                        // Si no se pudo rotar, el registro nuevo continúa el anterior
+                        registro = new RegistroCambios(archivo, csv, ventanaDurabilidad);
+                    }
+                }
+                SnapshotCatalogo.escribir(base, csv, SnapshotCatalogo.rutaPara(csv), true);
+                Files.delete(rutaCompactacion(csv));
+            } finally {
+                synchronized (this) {
+                    compactando = false;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Compacta en segundo plano cuando el registro supera el umbral
+     */
+    private void revisarCompactacion() {
+        if (compactando || registro == null || registro.tamano() < UMBRAL_COMPACTACION) {
+            return;
+        }
+        compactando = true;
+        Thread hilo = new Thread(() -> {
+            try {
+                compactarRegistroCambios();
+            } catch (IOException e) {
+                System.out.println("No se pudo compactar el registro de cambios: " + e.getMessage());
+            }
+        }, "compactacion-registro");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+    
+    /**
+     * Registra un cambio antes de aplicarlo (debe llamarse con el monitor tomado)
+     * @return Número de secuencia del cambio, o 0 si el registro está desactivado
+     */
+    private long registrarCambio(ActualizacionProducto cambio) {
+        if (registro == null) {
+            return 0;
+        }
+        try {
+            return registro.registrar(cambio);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Con ventana de durabilidad 0, espera (sin el monitor tomado) a que el cambio
+     * llegue al disco; los escritores que esperan a la vez comparten el fsync
+     */
+    private void esperarDurabilidad(RegistroCambios registroUsado, long secuencia) {
+        if (registroUsado == null || secuencia == 0 || ventanaDurabilidad != 0) {
+            return;
+        }
+        try {
+            registroUsado.esperarDurable(secuencia);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Graba los cambios pendientes y cierra el registro de cambios
+     * @throws IOException Si falló alguna escritura del registro
+     */
+    public synchronized void cerrarRegistroCambios() throws IOException {
+        if (registro != null) {
+            registro.close();
+            registro = null;
         }
+    }
+    
+    /**
+     * Construye el árbol desde el snapshot del CSV si existe y el CSV no cambió
+     * @return El árbol, o null si hay que leer el CSV
+     */
+    private BST<Producto> cargarSnapshot(Path csv) throws IOException {
+        Path snapshot = SnapshotCatalogo.rutaPara(csv);
+        if (!SnapshotCatalogo.vigente(snapshot, csv)) {
+            return null;
+        }
+        try {
+            long inicio = System.nanoTime();
+            // Los productos vienen ordenados y sin repetidos: el árbol se arma sin ordenar
+            BST<Producto> arbol = new BST<>(SnapshotCatalogo.leer(snapshot), arbolBalanceado, true);
+            System.out.printf("Catálogo cargado desde el snapshot en %d ms.%n", (System.nanoTime() - inicio) / 1_000_000);
+            return arbol;
+        } catch (IOException e) {
+            // Los cambios compactados solo están en el snapshot: el CSV no los reemplaza
+            if (SnapshotCatalogo.incluyeCambios(snapshot)) {
+                throw new IOException("El snapshot " + snapshot + " contiene cambios compactados y no se pudo leer ("
+                        + e.getMessage() + "). Restáurelo o elimínelo para descartar esos cambios.", e);
+            }
+            System.out.println("No se pudo usar el snapshot (" + e.getMessage() + "); se leerá el CSV.");
+            return null;
+        }
+    }
+    
+    /**
+     * Guarda el snapshot del catálogo recién leído. Si falla, la carga sigue siendo válida.
+     */
+    private void guardarSnapshot(BST<Producto> arbol, Path csv) {
+        Path snapshot = SnapshotCatalogo.rutaPara(csv);
+        try {
+            SnapshotCatalogo.escribir(arbol, csv, snapshot);
+        } catch (IOException e) {
+            System.out.println("No se pudo guardar el snapshot " + snapshot + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Arma el catálogo a publicar con los índices construidos a partir del árbol
+     */
+    private Catalogo crearCatalogo(BST<Producto> arbol) {
+        return new Catalogo(arbol, crearIndiceSKU(arbol), IndicesSecundarios.construir(arbol),
+                IndiceNombres.construir(arbol), TrieSKU.construir(arbol));
+    }
+    
+    /**
+     * Construye el índice hash a partir del árbol, que ya no tiene SKU repetidos
+     */
+    private IndiceHashSKU crearIndiceSKU(BST<Producto> arbol) {
+        if (!usarIndiceHash) {
+            return null;
+        }
+        IndiceHashSKU indice = new IndiceHashSKU(arbol.size());
+        for (Producto producto : arbol) {
+            indice.put(producto);
+        }
+        return indice;
+    }
+    
+    /**
+     * Reemplaza el catálogo publicado. Los escritores se serializan para que una
+     * actualización no pise una recarga que ocurra al mismo tiempo.
+     */
+    private synchronized void publicar(Catalogo nuevoCatalogo) {
+        catalogo = nuevoCatalogo;
+    }
+    
+    /**
+     * Reemplaza el catálogo publicado junto con el registro de cambios de su CSV
+     */
+    private synchronized void publicar(Catalogo nuevoCatalogo, RegistroCambios nuevoRegistro, Path csv)
+            throws IOException {
+        RegistroCambios anterior = registro;
+        catalogo = nuevoCatalogo;
+        registro = nuevoRegistro;
+        csvCargado = csv;
+        if (anterior != null) {
+            anterior.close();
+        }
+    }
+    
+    /**
+     * Aplica un archivo de actualizaciones incrementales sobre el catálogo cargado,
+     * sin volver a leer el catálogo completo
+     * @param filePath Ruta del archivo CSV de actualizaciones
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public void aplicarActualizaciones(String filePath) throws IOException {
+        List<ActualizacionProducto> actualizaciones = CSVHandler.cargarActualizacionesDesdeCSV(filePath);
+        aplicarActualizaciones(actualizaciones);
+    }
+    
+    /**
+     * Aplica una lista de actualizaciones en orden sobre el catálogo cargado
+     * @param actualizaciones Inserciones, reemplazos y eliminaciones a aplicar
+     */
+    public void aplicarActualizaciones(List<ActualizacionProducto> actualizaciones) {
+        verificarEscritura();
+        RegistroCambios registroUsado;
+        long secuencia = 0;
+        synchronized (this) {
+            registroUsado = registro;
+            for (ActualizacionProducto actualizacion : actualizaciones) {
+                secuencia = registrarCambio(actualizacion);
+            }
+            aplicarSobreCopia(actualizaciones, true);
+            revisarCompactacion();
+        }
+        esperarDurabilidad(registroUsado, secuencia);
+    }
+    
+    /**
+     * Aplica actualizaciones sobre una copia del catálogo y la publica completa
+     * (debe llamarse con el monitor tomado)
+     * @param informar true para mostrar el resumen de los cambios aplicados
+     */
+    private void aplicarSobreCopia(List<ActualizacionProducto> actualizaciones, boolean informar) {
+        // Las actualizaciones se aplican sobre una copia (el árbol comparte los nodos y
+        // cuesta O(1); el índice hash copia sus arreglos) que luego se publica completa
+        Catalogo actual = catalogo;
+        BST<Producto> nuevoArbol = actual.arbol.copia();
+        IndiceHashSKU nuevoIndice = (actual.indiceSKU == null) ? null : actual.indiceSKU.copia();
+        IndicesSecundarios nuevosIndices = actual.indices.copia();
+        IndiceNombres nuevoIndiceNombres = actual.indiceNombres.copia();
+        TrieSKU nuevoTrie = actual.trieSKU.copia();
+        int upserts = 0;
+        int eliminados = 0;
+        for (ActualizacionProducto actualizacion : actualizaciones) {
+            if (actualizacion.isEliminacion()) {
+                Producto eliminado = nuevoArbol.delete(actualizacion.getProducto());
+                if (eliminado != null) {
+                    nuevosIndices.quitar(eliminado);
+                    nuevoIndiceNombres.eliminar(eliminado.getSku());
+                    nuevoTrie.eliminar(eliminado.getSku());
+                    eliminados++;
+                }
+                if (nuevoIndice != null) {
+                    nuevoIndice.remove(actualizacion.getSku());
+                }
+            } else {
+                Producto anterior = nuevoArbol.search(actualizacion.getProducto());
+                if (anterior != null) {
+                    nuevosIndices.quitar(anterior);
+                } else {
+                    nuevoTrie.agregar(actualizacion.getSku());
+                }
+                nuevoArbol.insert(actualizacion.getProducto());
+                nuevosIndices.agregar(actualizacion.getProducto());
+                nuevoIndiceNombres.actualizar(actualizacion.getProducto());
+                if (nuevoIndice != null) {
+                    nuevoIndice.put(actualizacion.getProducto());
+                }
+                upserts++;
+            }
+        }
+        publicar(new Catalogo(nuevoArbol, nuevoIndice, nuevosIndices, nuevoIndiceNombres, nuevoTrie));
         
-        System.out.println("Se han cargado " + productosTree.size() + " productos en el árbol.");
+        if (informar) {
+            System.out.println("Actualizaciones aplicadas: " + upserts + " insertados/reemplazados, "
+                    + eliminados + " eliminados. Total en el árbol: " + nuevoArbol.size());
+        }
+    }
+    
+    /**
+     * Inserta o reemplaza un producto en el catálogo publicado. Las búsquedas
+     * concurrentes ven el catálogo anterior o el nuevo, nunca un estado intermedio.
+     * @param producto Producto a insertar o reemplazar
+     */
+    public void actualizarProducto(Producto producto) {
+        if (producto == null) {
+            throw new IllegalArgumentException("El producto no puede ser nulo");
+        }
+        verificarEscritura();
+        RegistroCambios registroUsado;
+        long secuencia;
+        synchronized (this) {
+            registroUsado = registro;
+            ActualizacionProducto cambio = ActualizacionProducto.upsert(producto);
+            secuencia = registrarCambio(cambio);
+            aplicarSobreCopia(Collections.singletonList(cambio), false);
+            revisarCompactacion();
+        }
+        esperarDurabilidad(registroUsado, secuencia);
     }
     
     /**
-     * Busca un producto por su SKU
+     * Elimina un producto del catálogo publicado
+     * @param sku SKU del producto a eliminar
+     * @return El producto eliminado o null si no existía
+     */
+    public Producto eliminarProducto(String sku) {
+        if (sku == null || sku.trim().isEmpty()) {
+            return null;
+        }
+        verificarEscritura();
+        RegistroCambios registroUsado;
+        long secuencia;
+        Producto eliminado;
+        synchronized (this) {
+            registroUsado = registro;
+            ActualizacionProducto cambio = ActualizacionProducto.eliminacion(sku.trim());
+            secuencia = registrarCambio(cambio);
+            eliminado = catalogo.arbol.search(cambio.getProducto());
+            aplicarSobreCopia(Collections.singletonList(cambio), false);
+            revisarCompactacion();
+        }
+        esperarDurabilidad(registroUsado, secuencia);
+        return eliminado;
+    }
+    
+    /**
+     * Busca un producto por su SKU sin crear objetos, ignorando los espacios en los
+     * extremos. Usa el índice hash si está activo; como una escritura simultánea
+     * puede mover claves dentro del índice, los fallos se confirman en el árbol.
      * @param sku SKU del producto a buscar
      * @return El producto encontrado o null si no existe
      */
-    public Producto buscarProductoPorSKU(String sku) {
-        if (sku == null || sku.trim().isEmpty()) {
+    public Producto buscarProductoPorSKU(CharSequence sku) {
+        if (sku == null) {
             return null;
         }
-        return productosTree.search(new Producto(sku.trim()));
+        Catalogo actual = catalogo;
+        if (actual.soloLectura != null) {
+            return actual.soloLectura.buscar(sku);
+        }
+        if (actual.indiceSKU != null) {
+            Producto producto = actual.indiceSKU.get(sku);
+            if (producto != null) {
+                return producto;
+            }
+        }
+        return actual.arbol.search(sku, Producto.COMPARADOR_SKU);
+    }
+    
+    /**
+     * Busca varios productos a la vez con un solo recorrido coordinado del árbol
+     * @param skus SKUs a buscar (pueden repetirse; los nulos o vacíos no se encuentran)
+     * @return Arreglo con el producto de cada SKU, en el mismo orden, o null si no existe
+     */
+    public Producto[] buscarProductosPorSKU(String... skus) {
+        if (skus == null) {
+            throw new IllegalArgumentException("La lista de SKUs no puede ser nula");
+        }
+        // trim() devuelve la misma instancia cuando no hay espacios que quitar; así el
+        // orden de las claves coincide con el de los SKU del árbol
+        String[] claves = new String[skus.length];
+        for (int i = 0; i < skus.length; i++) {
+            if (skus[i] != null && !skus[i].trim().isEmpty()) {
+                claves[i] = skus[i].trim();
+            }
+        }
+        Producto[] resultados = new Producto[skus.length];
+        Catalogo actual = catalogo;
+        if (actual.soloLectura != null) {
+            for (int i = 0; i < claves.length; i++) {
+                resultados[i] = (claves[i] == null) ? null : actual.soloLectura.buscar(claves[i]);
+            }
+        } else {
+            actual.arbol.searchAll(claves, String::compareTo, Producto.COMPARADOR_SKU, resultados);
+        }
+        return resultados;
+    }
+    
+    /**
+     * Crea una versión congelada del catálogo vigente, con los SKU en almacenamiento
+     * contiguo, para consultas intensivas de solo lectura (los cambios posteriores
+     * del buscador no se reflejan en ella)
+     * @return Índice compacto de solo lectura
+     */
+    public BSTCompacto<Producto> congelarCatalogo() {
+        return new BSTCompacto<>(catalogoEnHeap().arbol, Producto::getSku);
+    }
+    
+    /**
+     * Crea una copia por columnas del catálogo vigente, que ocupa mucha menos
+     * memoria por producto y permite recorrer precios y categorías sin objetos.
+     * Para no tener nunca el árbol en el heap, conviene crear el buscador con
+     * soloLecturaColumnar.
+     * @return Catálogo columnar de solo lectura
+     */
+    public CatalogoColumnar crearCatalogoColumnar() {
+        Catalogo actual = catalogo;
+        // El catálogo columnar es inmutable: se puede compartir
+        if (actual.soloLectura instanceof CatalogoColumnar) {
+            return (CatalogoColumnar) actual.soloLectura;
+        }
+        return new CatalogoColumnar(actual.productos());
+    }
+    
+    /**
+     * Crea una copia del catálogo vigente fuera del heap. Con catálogos muy grandes
+     * conviene cargar, crear esta copia y descartar el buscador: el recolector de
+     * basura ya no recorre los productos y las búsquedas devuelven productos
+     * decodificados en el momento. Para no tener nunca el catálogo en el heap,
+     * conviene crear el buscador con soloLecturaFueraDelHeap.
+     * @return Catálogo de solo lectura fuera del heap
+     */
+    public CatalogoFueraDelHeap crearCatalogoFueraDelHeap() {
+        Catalogo actual = catalogo;
+        // El catálogo fuera del heap es inmutable: se puede compartir
+        if (actual.soloLectura instanceof CatalogoFueraDelHeap) {
+            return (CatalogoFueraDelHeap) actual.soloLectura;
+        }
+        return new CatalogoFueraDelHeap(actual.productos());
+    }
+    
+    /**
+     * Devuelve el número de productos del catálogo
+     * @return Número de productos
+     */
+    public int totalProductos() {
+        return catalogo.productos().size();
+    }
+    
+    /**
+     * Devuelve un iterador perezoso sobre el catálogo vigente al llamarlo
+     * @param ascendente true para orden ascendente por SKU, false para descendente
+     * @return Iterador de productos
+     */
+    public Iterator<Producto> iterarProductos(boolean ascendente) {
+        IndiceOrdenado<Producto> productos = catalogo.productos();
+        return ascendente ? productos.iterator() : productos.reverseIterator();
+    }
+    
+    /**
+     * Devuelve una página de productos sin recorrer los anteriores
+     * @param skuDesde SKU del primer producto de la página (o el siguiente si no existe); null/vacío para empezar por el extremo
+     * @param limite Número máximo de productos
+     * @param ascendente true para orden ascendente por SKU, false para descendente
+     * @return Productos de la página
+     */
+    public List<Producto> listarPagina(String skuDesde, int limite, boolean ascendente) {
+        Producto desde = (skuDesde == null || skuDesde.trim().isEmpty()) ? null : new Producto(skuDesde.trim());
+        Catalogo actual = catalogo;
+        if (actual.soloLectura != null) {
+            if (limite < 0) {
+                throw new IllegalArgumentException("El límite no puede ser negativo");
+            }
+            CatalogoSoloLectura productos = actual.soloLectura;
+            Iterator<Producto> iterador;
+            if (desde == null) {
+                iterador = ascendente ? productos.iterator() : productos.reverseIterator();
+            } else {
+                iterador = ascendente ? productos.iterator(desde, true) : productos.reverseIterator(desde, true);
+            }
+            return tomar(iterador, null, false, limite);
+        }
+        BST<Producto> arbol = actual.arbol;
+        return ascendente ? arbol.page(desde, limite) : arbol.reversePage(desde, limite);
+    }
+    
+    /**
+     * Busca los productos cuyo SKU está dentro de un rango, en O(log n + k)
+     * @param skuDesde Límite inferior, o null/vacío para empezar por el menor
+     * @param desdeInclusivo true si el límite inferior pertenece al rango
+     * @param skuHasta Límite superior, o null/vacío para llegar hasta el mayor
+     * @param hastaInclusivo true si el límite superior pertenece al rango
+     * @return Productos del rango en orden ascendente por SKU
+     */
+    public List<Producto> buscarPorRangoSKU(String skuDesde, boolean desdeInclusivo,
+                                            String skuHasta, boolean hastaInclusivo) {
+        Producto desde = (skuDesde == null || skuDesde.trim().isEmpty()) ? null : new Producto(skuDesde);
+        Producto hasta = (skuHasta == null || skuHasta.trim().isEmpty()) ? null : new Producto(skuHasta);
+        Catalogo actual = catalogo;
+        if (actual.soloLectura != null) {
+            CatalogoSoloLectura productos = actual.soloLectura;
+            Iterator<Producto> iterador = (desde == null) ? productos.iterator() : productos.iterator(desde, desdeInclusivo);
+            return tomar(iterador, hasta, hastaInclusivo, Integer.MAX_VALUE);
+        }
+        List<Producto> productos = new ArrayList<>();
+        actual.arbol.range(desde, desdeInclusivo, hasta, hastaInclusivo).forEachRemaining(productos::add);
+        return productos;
+    }
+    
+    /**
+     * Junta los productos de un iterador ascendente hasta un límite superior por SKU
+     * (null para no tener límite) o hasta completar la cantidad pedida
+     */
+    private static List<Producto> tomar(Iterator<Producto> iterador, Producto hasta, boolean hastaInclusivo,
+            int limite) {
+        List<Producto> productos = new ArrayList<>();
+        while (productos.size() < limite && iterador.hasNext()) {
+            Producto producto = iterador.next();
+            if (hasta != null) {
+                int compareResult = producto.compareTo(hasta);
+                if (compareResult > 0 || (compareResult == 0 && !hastaInclusivo)) {
+                    break;
+                }
+            }
+            productos.add(producto);
+        }
+        return productos;
+    }
+    
+    /**
+     * Busca los productos cuyo SKU empieza con un prefijo. Los SKU con el mismo
+     * prefijo son contiguos en el árbol: se posiciona en el prefijo y recorre
+     * hasta el primer SKU que ya no lo tiene, en O(log n + k).
+     * @param prefijo Prefijo del SKU
+     * @return Productos con ese prefijo en orden ascendente por SKU
+     */
+    public List<Producto> buscarPorPrefijoSKU(String prefijo) {
+        if (prefijo == null) {
+            throw new IllegalArgumentException("El prefijo no puede ser nulo");
+        }
+        prefijo = prefijo.trim();
+        IndiceOrdenado<Producto> indice = catalogo.productos();
+        Iterator<Producto> iterador = prefijo.isEmpty() ? indice.iterator() : indice.iterator(new Producto(prefijo), true);
+        List<Producto> productos = new ArrayList<>();
+        while (iterador.hasNext()) {
+            Producto producto = iterador.next();
+            if (!producto.getSku().startsWith(prefijo)) {
+                break;
+            }
+            productos.add(producto);
+        }
+        return productos;
+    }
+    
+    /**
+     * Devuelve una página por número en O(log n + tamaño de página), sin recorrer
+     * las páginas anteriores
+     * @param numeroPagina Número de página, empezando en 1
+     * @param tamanoPagina Número de productos por página
+     * @param ascendente true para orden ascendente por SKU, false para descendente
+     * @return Productos de la página (vacía si la página no existe)
+     */
+    public List<Producto> listarPaginaNumero(int numeroPagina, int tamanoPagina, boolean ascendente) {
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser positivos");
+        }
+        long inicio = (long) (numeroPagina - 1) * tamanoPagina;
+        if (inicio > Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        Catalogo actual = catalogo;
+        if (actual.soloLectura != null) {
+            return actual.soloLectura.pagina((int) inicio, tamanoPagina, ascendente);
+        }
+        BST<Producto> arbol = actual.arbol;
+        return ascendente ? arbol.pageAt((int) inicio, tamanoPagina) : arbol.reversePageAt((int) inicio, tamanoPagina);
+    }
+    
+    /**
+     * Devuelve la posición que ocupa (u ocuparía) un SKU en orden ascendente
+     * @param sku SKU a ubicar
+     * @return Número de productos con SKU menor
+     */
+    public int posicionDeSKU(String sku) {
+        if (sku == null) {
+            throw new IllegalArgumentException("El SKU no puede ser nulo");
+        }
+        Catalogo actual = catalogo;
+        if (actual.soloLectura != null) {
+            return actual.soloLectura.posicion(sku.trim());
+        }
+        return actual.arbol.rank(new Producto(sku.trim()));
+    }
+    
+    /**
+     * Devuelve una página de los productos de una categoría, ordenados por SKU,
+     * usando el índice por categoría en O(log n + tamaño de página)
+     * @param categoria Categoría a listar
+     * @param numeroPagina Número de página, empezando en 1
+     * @param tamanoPagina Número de productos por página
+     * @return Productos de la página (vacía si la categoría o la página no existen)
+     */
+    public List<Producto> buscarPorCategoria(String categoria, int numeroPagina, int tamanoPagina) {
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser positivos");
+        }
+        long inicio = (long) (numeroPagina - 1) * tamanoPagina;
+        if (categoria == null || inicio > Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        return catalogoEnHeap().indices.porCategoria(categoria.trim(), (int) inicio, tamanoPagina);
+    }
+    
+    /**
+     * Cuenta los productos de una categoría
+     * @param categoria Categoría a contar
+     * @return Número de productos de la categoría
+     */
+    public int contarPorCategoria(String categoria) {
+        Catalogo actual = catalogoEnHeap();
+        return (categoria == null) ? 0 : actual.indices.contarCategoria(categoria.trim());
+    }
+    
+    /**
+     * Devuelve las categorías del catálogo
+     * @return Categorías en orden alfabético
+     */
+    public List<String> listarCategorias() {
+        return catalogoEnHeap().indices.categorias();
+    }
+    
+    /**
+     * Busca los productos con precio actual dentro de un rango, de menor a mayor precio
+     * @param precioMinimo Precio mínimo (inclusivo)
+     * @param precioMaximo Precio máximo (inclusivo)
+     * @param limite Número máximo de productos
+     * @return Productos del rango
+     */
+    public List<Producto> buscarPorPrecio(double precioMinimo, double precioMaximo, int limite) {
+        Catalogo actual = catalogoEnHeap();
+        if (precioMinimo > precioMaximo) {
+            return new ArrayList<>();
+        }
+        return actual.indices.porPrecio(precioMinimo, precioMaximo, limite);
+    }
+    
+    /**
+     * Devuelve los productos con mayor descuento (priceRetail - priceCurrent)
+     * @param categoria Categoría a la que limitar la búsqueda, o null para todo el catálogo
+     * @param limite Número máximo de productos
+     * @return Productos ordenados de mayor a menor descuento
+     */
+    public List<Producto> mayoresDescuentos(String categoria, int limite) {
+        return catalogoEnHeap().indices.mayoresDescuentos((categoria == null) ? null : categoria.trim(), limite);
+    }
+    
+    /**
+     * Completa un SKU a medio escribir con los primeros productos cuyo SKU empieza así
+     * @param prefijo Comienzo del SKU
+     * @param limite Número máximo de sugerencias
+     * @return Productos sugeridos, en orden ascendente por SKU
+     */
+    public List<Producto> autocompletarSKU(String prefijo, int limite) {
+        Catalogo actual = catalogoEnHeap();
+        if (prefijo == null) {
+            return new ArrayList<>();
+        }
+        return productosDeSKU(actual, actual.trieSKU.autocompletar(prefijo, limite));
+    }
+    
+    /**
+     * Sugiere los productos cuyo SKU se parece al dado, para cuando se escribió mal
+     * @param sku SKU buscado
+     * @param distanciaMaxima Número máximo de caracteres erróneos, faltantes, sobrantes
+     *                        o intercambiados (entre 0 y TrieSKU.DISTANCIA_MAXIMA)
+     * @param limite Número máximo de sugerencias
+     * @return Productos sugeridos, del SKU más parecido al menos parecido
+     */
+    public List<Producto> buscarSKUParecidos(String sku, int distanciaMaxima, int limite) {
+        Catalogo actual = catalogoEnHeap();
+        if (sku == null) {
+            return new ArrayList<>();
+        }
+        return productosDeSKU(actual, actual.trieSKU.buscarParecidos(sku, distanciaMaxima, limite));
+    }
+    
+    private static List<Producto> productosDeSKU(Catalogo actual, List<String> skus) {
+        List<Producto> productos = new ArrayList<>(skus.size());
+        for (String sku : skus) {
+            Producto producto = (actual.indiceSKU != null) ? actual.indiceSKU.get(sku) : null;
+            if (producto == null) {
+                producto = actual.arbol.search(sku, Producto.COMPARADOR_SKU);
+            }
+            if (producto != null) {
+                productos.add(producto);
+            }
+        }
+        return productos;
+    }
+    
+    /**
+     * Busca los productos cuyo nombre contiene todas las palabras de la consulta,
+     * sin distinguir mayúsculas ni acentos, ordenados por relevancia
+     * @param consulta Palabras a buscar
+     * @param numeroPagina Número de página, empezando en 1
+     * @param tamanoPagina Número de productos por página
+     * @return Productos de la página (vacía si no hay coincidencias)
+     */
+    public List<Producto> buscarPorNombre(String consulta, int numeroPagina, int tamanoPagina) {
+        if (numeroPagina < 1 || tamanoPagina < 1) {
+            throw new IllegalArgumentException("El número y el tamaño de página deben ser positivos");
+        }
+        long inicio = (long) (numeroPagina - 1) * tamanoPagina;
+        if (consulta == null || inicio > Integer.MAX_VALUE) {
+            return new ArrayList<>();
+        }
+        return catalogoEnHeap().indiceNombres.buscar(consulta, (int) inicio, tamanoPagina);
     }
     
     /**
@@ -57,7 +1031,7 @@ public class BuscadorProductos {
      */
     public List<Producto> listarProductosAscendente() {
         List<Producto> productos = new ArrayList<>();
-        productosTree.inOrderTraversal(productos::add);
+        catalogo.productos().inOrderTraversal(productos::add);
         return productos;
     }
     
@@ -67,12 +1041,15 @@ public class BuscadorProductos {
      */
     public List<Producto> listarProductosDescendente() {
         List<Producto> productos = new ArrayList<>();
-        productosTree.reverseInOrderTraversal(productos::add);
+        catalogo.productos().reverseInOrderTraversal(productos::add);
         return productos;
     }
     
     /**
-     * Método principal que ejecuta el programa
+     * Método principal que ejecuta el programa. Con el argumento --fuera-del-heap
+     * el catálogo se carga fuera del heap en modo de solo lectura, y con --columnar
+     * se carga por columnas, también de solo lectura; con
+     * --registro-cambios los cambios en vivo se guardan en el registro de cambios.
      */
     public static void main(String[] args) {
         try {
@@ -83,7 +1060,22 @@ public class BuscadorProductos {
         }
         
         Scanner scanner = new Scanner(System.in);
-        BuscadorProductos buscador = new BuscadorProductos();
+        List<String> opciones = java.util.Arrays.asList(args);
+        BuscadorProductos buscador;
+        if (opciones.contains("--fuera-del-heap")) {
+            buscador = soloLecturaFueraDelHeap();
+        } else if (opciones.contains("--columnar")) {
+            buscador = soloLecturaColumnar();
+        } else {
+            buscador = new BuscadorProductos();
+        }
+        if (opciones.contains("--registro-cambios")) {
+            if (buscador.esSoloLectura()) {
+                System.out.println("El modo de solo lectura no admite cambios; se ignora --registro-cambios.");
+            } else {
+                buscador.activarRegistroCambios(10);
+            }
+        }
         
         System.out.println("===== BUSCADOR DE PRODUCTOS =====");
         System.out.println("Programa para buscar y listar productos del retail");
@@ -104,6 +1096,11 @@ public class BuscadorProductos {
             System.out.println("Verifica que el archivo existe y tiene el formato correcto.");
         } finally {
             scanner.close();
+            try {
+                buscador.cerrarRegistroCambios();
+            } catch (IOException e) {
+                System.out.println("Error al cerrar el registro de cambios: " + e.getMessage());
+            }
         }
         
         System.out.println("¡Gracias por usar el Buscador de Productos!");
@@ -157,7 +1154,14 @@ public class BuscadorProductos {
             System.out.println("2. Listar productos (orden ascendente por SKU)");
             System.out.println("3. Listar productos (orden descendente por SKU)");
             System.out.println("4. Cargar otro archivo CSV");
-            System.out.println("5. Salir");
+            System.out.println("5. Aplicar archivo de actualizaciones");
+            System.out.println("6. Buscar productos por rango de SKU");
+            System.out.println("7. Buscar productos por prefijo de SKU");
+            System.out.println("8. Listar productos por categoría");
+            System.out.println("9. Buscar productos por rango de precio");
+            System.out.println("10. Ver productos con mayor descuento");
+            System.out.println("11. Buscar productos por nombre");
+            System.out.println("12. Salir");
             
             System.out.print("\nIngrese una opción: ");
             
@@ -170,28 +1174,64 @@ public class BuscadorProductos {
                 continue;
             }
             
-            switch (opcion) {
-                case 1:
-                    buscarProducto(scanner, buscador);
-                    break;
-                case 2:
-                    listarProductos(scanner, buscador, true);
-                    break;
-                case 3:
-                    listarProductos(scanner, buscador, false);
-                    break;
-                case 4:
-                    cargarNuevoArchivo(scanner, buscador);
-                    break;
-                case 5:
-                    salir = true;
-                    break;
-                default:
-                    System.out.println("Opción no válida. Intente de nuevo.");
+            try {
+                salir = ejecutarOpcion(opcion, scanner, buscador);
+            } catch (IllegalStateException e) {
+                // Operaciones que los modos de solo lectura no admiten
+                System.out.println(e.getMessage() + ".");
             }
         }
     }
     
+    /**
+     * Ejecuta una opción del menú principal
+     * @return true si se eligió salir
+     */
+    private static boolean ejecutarOpcion(int opcion, Scanner scanner, BuscadorProductos buscador) {
+        boolean salir = false;
+        switch (opcion) {
+            case 1:
+                buscarProducto(scanner, buscador);
+                break;
+            case 2:
+                listarProductos(scanner, buscador, true);
+                break;
+            case 3:
+                listarProductos(scanner, buscador, false);
+                break;
+            case 4:
+                cargarNuevoArchivo(scanner, buscador);
+                break;
+            case 5:
+                aplicarArchivoActualizaciones(scanner, buscador);
+                break;
+            case 6:
+                buscarRango(scanner, buscador);
+                break;
+            case 7:
+                buscarPrefijo(scanner, buscador);
+                break;
+            case 8:
+                buscarCategoria(scanner, buscador);
+                break;
+            case 9:
+                buscarPrecio(scanner, buscador);
+                break;
+            case 10:
+                buscarDescuentos(scanner, buscador);
+                break;
+            case 11:
+                buscarNombre(scanner, buscador);
+                break;
+            case 12:
+                salir = true;
+                break;
+            default:
+                System.out.println("Opción no válida. Intente de nuevo.");
+        }
+        return salir;
+    }
+    
     /**
      * Busca un producto por SKU
      * @param scanner Scanner para leer entrada del usuario
@@ -219,6 +1259,110 @@ public class BuscadorProductos {
             }
         } else {
             System.out.println("\nNo se encontró ningún producto con el SKU: " + sku);
+            if (buscador.esSoloLectura()) {
+                return; // Sin el trie de SKU no hay sugerencias
+            }
+            
+            List<Producto> parecidos = buscador.buscarSKUParecidos(sku, 2, 5);
+            if (!parecidos.isEmpty()) {
+                System.out.println("¿Quiso decir alguno de estos?");
+                for (Producto parecido : parecidos) {
+                    System.out.println("- " + parecido.getSku() + ": " + parecido.getProductName());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Busca los productos con SKU dentro de un rango inclusivo
+     * @param scanner Scanner para leer entrada del usuario
+     * @param buscador Instancia del buscador de productos
+     */
+    private static void buscarRango(Scanner scanner, BuscadorProductos buscador) {
+        System.out.print("\nIngrese el SKU inicial (vacío para empezar por el primero): ");
+        String desde = scanner.nextLine().trim();
+        System.out.print("Ingrese el SKU final (vacío para llegar hasta el último): ");
+        String hasta = scanner.nextLine().trim();
+        
+        mostrarResultados(buscador.buscarPorRangoSKU(desde, true, hasta, true));
+    }
+    
+    /**
+     * Busca los productos cuyo SKU empieza con un prefijo
+     * @param scanner Scanner para leer entrada del usuario
+     * @param buscador Instancia del buscador de productos
+     */
+    private static void buscarPrefijo(Scanner scanner, BuscadorProductos buscador) {
+        System.out.print("\nIngrese el prefijo del SKU: ");
+        String prefijo = scanner.nextLine().trim();
+        
+        mostrarResultados(buscador.buscarPorPrefijoSKU(prefijo));
+    }
+    
+    /**
+     * Lista la primera página de productos de una categoría
+     * @param scanner Scanner para leer entrada del usuario
+     * @param buscador Instancia del buscador de productos
+     */
+    private static void buscarCategoria(Scanner scanner, BuscadorProductos buscador) {
+        System.out.println("\nCategorías: " + String.join(", ", buscador.listarCategorias()));
+        System.out.print("Ingrese la categoría: ");
+        String categoria = scanner.nextLine().trim();
+        
+        System.out.println("Total en la categoría: " + buscador.contarPorCategoria(categoria));
+        mostrarResultados(buscador.buscarPorCategoria(categoria, 1, 50));
+    }
+    
+    /**
+     * Busca los productos cuyo precio actual está dentro de un rango
+     * @param scanner Scanner para leer entrada del usuario
+     * @param buscador Instancia del buscador de productos
+     */
+    private static void buscarPrecio(Scanner scanner, BuscadorProductos buscador) {
+        try {
+            System.out.print("\nIngrese el precio mínimo: ");
+            double minimo = Double.parseDouble(scanner.nextLine().trim());
+            System.out.print("Ingrese el precio máximo: ");
+            double maximo = Double.parseDouble(scanner.nextLine().trim());
+            
+            mostrarResultados(buscador.buscarPorPrecio(minimo, maximo, 50));
+        } catch (NumberFormatException e) {
+            System.out.println("Entrada inválida. Debe ingresar un número.");
+        }
+    }
+    
+    /**
+     * Muestra los productos con mayor descuento, opcionalmente de una sola categoría
+     * @param scanner Scanner para leer entrada del usuario
+     * @param buscador Instancia del buscador de productos
+     */
+    private static void buscarDescuentos(Scanner scanner, BuscadorProductos buscador) {
+        System.out.print("\nIngrese la categoría (vacío para todo el catálogo): ");
+        String categoria = scanner.nextLine().trim();
+        
+        mostrarResultados(buscador.mayoresDescuentos(categoria.isEmpty() ? null : categoria, 20));
+    }
+    
+    /**
+     * Busca productos por palabras de su nombre y muestra los más relevantes
+     * @param scanner Scanner para leer entrada del usuario
+     * @param buscador Instancia del buscador de productos
+     */
+    private static void buscarNombre(Scanner scanner, BuscadorProductos buscador) {
+        System.out.print("\nIngrese las palabras a buscar: ");
+        String consulta = scanner.nextLine().trim();
+        
+        mostrarResultados(buscador.buscarPorNombre(consulta, 1, 20));
+    }
+    
+    private static void mostrarResultados(List<Producto> productos) {
+        if (productos.isEmpty()) {
+            System.out.println("\nNo se encontraron productos.");
+            return;
+        }
+        System.out.println("\n===== " + productos.size() + " PRODUCTOS ENCONTRADOS =====");
+        for (int i = 0; i < productos.size(); i++) {
+            System.out.println((i + 1) + ". " + productos.get(i));
         }
     }
     
@@ -229,41 +1373,48 @@ public class BuscadorProductos {
      * @param ascendente true para orden ascendente, false para descendente
      */
     private static void listarProductos(Scanner scanner, BuscadorProductos buscador, boolean ascendente) {
-        List<Producto> productos = ascendente ? 
-                buscador.listarProductosAscendente() : 
-                buscador.listarProductosDescendente();
+        // Cada página se obtiene por posición en O(log n + tamaño de página)
+        int totalProductos = buscador.totalProductos();
         
-        if (productos.isEmpty()) {
+        if (totalProductos == 0) {
             System.out.println("\nNo hay productos cargados.");
             return;
         }
         
         System.out.println("\n===== PRODUCTOS (ORDEN " + 
                 (ascendente ? "ASCENDENTE" : "DESCENDENTE") + ") =====");
-        System.out.println("Total de productos: " + productos.size());
+        System.out.println("Total de productos: " + totalProductos);
         
         int itemsPorPagina = 10;
-        int totalPaginas = (int) Math.ceil((double) productos.size() / itemsPorPagina);
+        int totalPaginas = (int) Math.ceil((double) totalProductos / itemsPorPagina);
         int paginaActual = 1;
         
         while (paginaActual <= totalPaginas) {
             System.out.println("\nPágina " + paginaActual + " de " + totalPaginas);
             
             int inicio = (paginaActual - 1) * itemsPorPagina;
-            int fin = Math.min(inicio + itemsPorPagina, productos.size());
-            
-            for (int i = inicio; i < fin; i++) {
-                System.out.println((i + 1) + ". " + productos.get(i));
+            List<Producto> pagina = buscador.listarPaginaNumero(paginaActual, itemsPorPagina, ascendente);
+            for (int i = 0; i < pagina.size(); i++) {
+                System.out.println((inicio + i + 1) + ". " + pagina.get(i));
             }
             
             if (paginaActual < totalPaginas) {
-                System.out.print("\n[N]ext para siguiente página, [Q]uit para volver al menú: ");
+                System.out.print("\n[N]ext para siguiente página, número de página para saltar, [Q]uit para volver al menú: ");
                 String respuesta = scanner.nextLine().trim().toLowerCase();
                 
                 if (respuesta.equals("q") || respuesta.equals("quit")) {
                     break;
+                }
+                int destino = paginaActual + 1;
+                try {
+                    destino = Integer.parseInt(respuesta);
+                } catch (NumberFormatException e) {
+                    // Cualquier otra respuesta avanza a la siguiente página
+                }
+                if (destino < 1 || destino > totalPaginas) {
+                    System.out.println("Página fuera de rango.");
                 } else {
-                    paginaActual++;
+                    paginaActual = destino;
                 }
             } else {
                 System.out.print("\nPresione ENTER para volver al menú...");
@@ -288,4 +1439,20 @@ public class BuscadorProductos {
             System.out.println("Error al cargar el archivo: " + e.getMessage());
         }
     }
+    
+    /**
+     * Aplica un archivo CSV de actualizaciones incrementales
+     * @param scanner Scanner para leer entrada del usuario
+     * @param buscador Instancia del buscador de productos
+     */
+    private static void aplicarArchivoActualizaciones(Scanner scanner, BuscadorProductos buscador) {
+        String filePath = obtenerRutaArchivo(scanner);
+        
+        try {
+            System.out.println("Aplicando actualizaciones...");
+            buscador.aplicarActualizaciones(filePath);
+        } catch (IOException e) {
+            System.out.println("Error al cargar el archivo: " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
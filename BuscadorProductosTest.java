@@ -0,0 +1,227 @@
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para las consultas del BuscadorProductos
+ */
+public class BuscadorProductosTest {
+    
+    private BuscadorProductos buscador;
+    
+    @Before
+    public void setUp() {
+        buscador = new BuscadorProductos();
+        String[] skus = {"A1000", "A1500", "A1999", "A2000", "MX-01", "MX-02", "MX02", "MY-01", "B100"};
+        for (String sku : skus) {
+            buscador.actualizarProducto(new Producto(sku, 10.0, 8.0, "Producto " + sku, "General"));
+        }
+    }
+    
+    private static List<String> skus(List<Producto> productos) {
+        List<String> resultado = new ArrayList<>();
+        for (Producto producto : productos) {
+            resultado.add(producto.getSku());
+        }
+        return resultado;
+    }
+    
+    @Test
+    public void testBuscarPorRango() {
+        assertEquals(Arrays.asList("A1000", "A1500", "A1999"),
+                skus(buscador.buscarPorRangoSKU("A1000", true, "A1999", true)));
+        assertEquals(Arrays.asList("A1500"),
+                skus(buscador.buscarPorRangoSKU("A1000", false, "A1999", false)));
+        assertEquals(Arrays.asList("MX02", "MY-01"),
+                skus(buscador.buscarPorRangoSKU("MX02", true, "", true)));
+    }
+    
+    @Test
+    public void testListarPaginaDesdeVacio() {
+        assertEquals(Arrays.asList("A1000", "A1500"), skus(buscador.listarPagina("", 2, true)));
+        assertEquals(Arrays.asList("MY-01", "MX02"), skus(buscador.listarPagina("  ", 2, false)));
+        assertEquals(skus(buscador.listarPagina(null, 3, true)), skus(buscador.listarPagina(" ", 3, true)));
+        assertEquals(Arrays.asList("MX-01", "MX-02"), skus(buscador.listarPagina(" MX-01 ", 2, true)));
+    }
+    
+    @Test
+    public void testBuscarPorPrefijo() {
+        assertEquals(Arrays.asList("MX-01", "MX-02"), skus(buscador.buscarPorPrefijoSKU("MX-")));
+        assertEquals(Arrays.asList("A1000", "A1500", "A1999"), skus(buscador.buscarPorPrefijoSKU("A1")));
+        assertTrue(buscador.buscarPorPrefijoSKU("Z").isEmpty());
+        assertEquals(9, buscador.buscarPorPrefijoSKU("").size());
+    }
+    
+    @Test
+    public void testBuscarVariosSKU() {
+        Producto[] productos = buscador.buscarProductosPorSKU("MY-01", " A1000 ", "NOEXISTE", null, "", "A1000");
+        assertEquals("MY-01", productos[0].getSku());
+        assertEquals("A1000", productos[1].getSku());
+        assertNull(productos[2]);
+        assertNull(productos[3]);
+        assertNull(productos[4]);
+        assertSame(productos[1], productos[5]);
+    }
+    
+    @Test
+    public void testBuscarSinCrearProductoDePrueba() {
+        assertEquals("A1500", buscador.buscarProductoPorSKU("A1500").getSku());
+        assertEquals("A1500", buscador.buscarProductoPorSKU("  A1500\t").getSku());
+        assertEquals("MX-02", buscador.buscarProductoPorSKU(new StringBuilder(" MX-02")).getSku());
+        assertNull(buscador.buscarProductoPorSKU("   "));
+        assertNull(buscador.buscarProductoPorSKU(null));
+        assertNull(buscador.buscarProductoPorSKU("A15"));
+    }
+    
+    @Test
+    public void testIndiceHashSigueAlArbol() {
+        buscador.actualizarProducto(new Producto("A1500", 99.0, 50.0, "Reemplazo", "General"));
+        assertEquals("Reemplazo", buscador.buscarProductoPorSKU("A1500").getProductName());
+        assertEquals("A1500", buscador.eliminarProducto("A1500").getSku());
+        assertNull(buscador.buscarProductoPorSKU("A1500"));
+        
+        List<ActualizacionProducto> lote = new ArrayList<>();
+        lote.add(ActualizacionProducto.upsert(new Producto("Z9", 1.0, 1.0, "Nuevo", "General")));
+        lote.add(ActualizacionProducto.eliminacion("B100"));
+        buscador.aplicarActualizaciones(lote);
+        assertEquals("Nuevo", buscador.buscarProductoPorSKU("Z9").getProductName());
+        assertNull(buscador.buscarProductoPorSKU("B100"));
+        assertEquals(8, buscador.totalProductos());
+    }
+    
+    @Test
+    public void testIndicesSecundariosSincronizados() {
+        buscador.actualizarProducto(new Producto("MX-01", 10.0, 4.0, "Producto MX-01", "Ofertas"));
+        buscador.eliminarProducto("A1000");
+        buscador.aplicarActualizaciones(Arrays.asList(
+                ActualizacionProducto.upsert(new Producto("C300", 20.0, 5.0, "Nuevo", "Ofertas")),
+                ActualizacionProducto.eliminacion("B100")));
+        
+        assertEquals(Arrays.asList("C300", "MX-01"), skus(buscador.mayoresDescuentos("Ofertas", 10)));
+        assertEquals(Arrays.asList("C300", "MX-01"), skus(buscador.buscarPorCategoria("Ofertas", 1, 10)));
+        assertEquals(6, buscador.contarPorCategoria("General"));
+        assertEquals(Arrays.asList("A1500", "A1999"), skus(buscador.buscarPorCategoria("General", 1, 2)));
+        assertEquals(Arrays.asList("MX-01"), skus(buscador.buscarPorPrecio(0.0, 4.5, 10)));
+        assertEquals(Arrays.asList("C300", "MX-01"), skus(buscador.mayoresDescuentos(null, 2)));
+    }
+    
+    @Test
+    public void testBuscarPorNombre() {
+        buscador.actualizarProducto(new Producto("MX-01", 10.0, 8.0, "Lámpara de escritorio", "General"));
+        buscador.eliminarProducto("A1500");
+        
+        assertEquals(Arrays.asList("MX-01"), skus(buscador.buscarPorNombre("LAMPARA", 1, 10)));
+        assertEquals(Arrays.asList("A1999"), skus(buscador.buscarPorNombre("producto a1999", 1, 10)));
+        assertEquals(7, buscador.buscarPorNombre("producto", 1, 10).size());
+        assertEquals(Arrays.asList("B100", "MX02", "MX-02"), skus(buscador.buscarPorNombre("producto", 2, 3)));
+    }
+    
+    @Test
+    public void testSugerenciasDeSKU() {
+        buscador.actualizarProducto(new Producto("MX-03", 10.0, 8.0, "Producto MX-03", "General"));
+        buscador.eliminarProducto("MX-02");
+        
+        assertEquals(Arrays.asList("MX-01", "MX-03"), skus(buscador.autocompletarSKU("MX-", 10)));
+        assertEquals(Arrays.asList("MX-01", "MX-03", "MX02"), skus(buscador.buscarSKUParecidos("MX-02", 1, 10)));
+        assertEquals(Arrays.asList("A1000"), skus(buscador.buscarSKUParecidos("A0100", 1, 10)));
+    }
+    
+    /**
+     * Carga en un buscador de solo lectura el mismo catálogo que en el árbol y
+     * verifica que las consultas por SKU coinciden
+     */
+    private void verificarSoloLectura(BuscadorProductos soloLectura) throws IOException {
+        Path csv = Files.createTempFile("productos", ".csv");
+        try {
+            StringBuilder contenido = new StringBuilder("SKU,Price_Retail,Price_Current,Product_Name,Category\n");
+            for (Producto producto : buscador.listarProductosDescendente()) {
+                contenido.append(producto.getSku()).append(",10,8,").append(producto.getProductName())
+                        .append(",General\n");
+            }
+            contenido.append("A1500,99,1,Repetido,General\n"); // Gana el último, como en el árbol
+            Files.write(csv, contenido.toString().getBytes(StandardCharsets.UTF_8));
+            BuscadorProductos enHeap = new BuscadorProductos(true, true, false);
+            enHeap.cargarProductos(csv.toString());
+            soloLectura.cargarProductos(csv.toString());
+            
+            assertTrue(soloLectura.esSoloLectura());
+            assertEquals(enHeap.totalProductos(), soloLectura.totalProductos());
+            assertEquals(99.0, soloLectura.buscarProductoPorSKU(" A1500 ").getPriceRetail(), 0.0);
+            assertNull(soloLectura.buscarProductoPorSKU("A15"));
+            assertEquals(skus(enHeap.listarProductosAscendente()), skus(soloLectura.listarProductosAscendente()));
+            assertEquals(skus(enHeap.buscarPorRangoSKU("A1000", false, "MX-02", true)),
+                    skus(soloLectura.buscarPorRangoSKU("A1000", false, "MX-02", true)));
+            assertEquals(skus(enHeap.buscarPorPrefijoSKU("MX")), skus(soloLectura.buscarPorPrefijoSKU("MX")));
+            assertEquals(skus(enHeap.listarPagina("B", 3, false)), skus(soloLectura.listarPagina("B", 3, false)));
+            assertEquals(skus(enHeap.listarPaginaNumero(2, 4, true)), skus(soloLectura.listarPaginaNumero(2, 4, true)));
+            assertEquals(enHeap.posicionDeSKU("MX"), soloLectura.posicionDeSKU("MX"));
+            assertEquals("MY-01", soloLectura.buscarProductosPorSKU("X", "MY-01")[1].getSku());
+            
+            try {
+                soloLectura.eliminarProducto("A1000");
+                fail("El modo de solo lectura no admite cambios");
+            } catch (IllegalStateException e) {
+                // Esperado
+            }
+            try {
+                soloLectura.buscarPorNombre("producto", 1, 10);
+                fail("El modo de solo lectura no tiene índice de nombres");
+            } catch (IllegalStateException e) {
+                // Esperado
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+    
+    @Test
+    public void testModoFueraDelHeap() throws IOException {
+        BuscadorProductos fueraDelHeap = BuscadorProductos.soloLecturaFueraDelHeap();
+        verificarSoloLectura(fueraDelHeap);
+        assertTrue(fueraDelHeap.esFueraDelHeap());
+        assertSame(fueraDelHeap.crearCatalogoFueraDelHeap(), fueraDelHeap.crearCatalogoFueraDelHeap());
+    }
+    
+    @Test
+    public void testModoColumnar() throws IOException {
+        BuscadorProductos columnar = BuscadorProductos.soloLecturaColumnar();
+        verificarSoloLectura(columnar);
+        assertFalse(columnar.esFueraDelHeap());
+        assertSame(columnar.crearCatalogoColumnar(), columnar.crearCatalogoColumnar());
+        assertEquals(columnar.totalProductos(), columnar.crearCatalogoFueraDelHeap().size());
+    }
+    
+    @Test
+    public void testLectoresNoVenCambiosAMedias() throws Exception {
+        java.util.concurrent.atomic.AtomicBoolean terminar = new java.util.concurrent.atomic.AtomicBoolean();
+        java.util.concurrent.atomic.AtomicReference<String> error = new java.util.concurrent.atomic.AtomicReference<>();
+        Thread lector = new Thread(() -> {
+            while (!terminar.get() && error.get() == null) {
+                // Mientras se reemplaza su precio, A1000 debe aparecer siempre una sola vez
+                List<String> encontrados = skus(buscador.buscarPorPrecio(0, 100, 100));
+                if (encontrados.indexOf("A1000") < 0 || encontrados.indexOf("A1000") != encontrados.lastIndexOf("A1000")) {
+                    error.set("Listado por precio intermedio: " + encontrados);
+                }
+                if (buscador.buscarProductoPorSKU("A1000") == null) {
+                    error.set("A1000 desapareció durante un reemplazo");
+                }
+            }
+        });
+        lector.start();
+        for (int i = 0; i < 500 && error.get() == null; i++) {
+            buscador.actualizarProducto(new Producto("A1000", 10.0, (i % 2 == 0) ? 5.0 : 9.0, "Producto A1000", "General"));
+            Thread.yield();
+        }
+        terminar.set(true);
+        lector.join();
+        assertNull(error.get());
+    }
+}
\ No newline at end of file
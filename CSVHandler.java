@@ -1,167 +1,585 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
 
 /**
  * Clase para manejar la lectura de archivos CSV
  */
 public class CSVHandler {
     
+    // Tamaño mínimo de cada bloque en la carga paralela
+    private static final long TAMANO_MINIMO_BLOQUE = 4L * 1024 * 1024;
+    
+    // Máximo de valores distintos para seguir deduplicando una columna
+    private static final int MAXIMO_VALORES_DICCIONARIO = 1 << 16;
+    
+    // Columnas de texto que se deduplican con un diccionario durante la carga
+    private static volatile boolean deduplicarCategoria = true;
+    private static volatile boolean deduplicarNombre = false;
+    
+    /**
+     * Índices de las columnas relevantes dentro del CSV
+     */
+    private static final class Columnas {
+        final int sku;
+        final int priceRetail;
+        final int priceCurrent;
+        final int productName;
+        final int category;
+        final int operacion; // Opcional: -1 si el archivo no la tiene
+        final int maximo;
+        
+        Columnas(int sku, int priceRetail, int priceCurrent, int productName, int category, int operacion) {
+            this.sku = sku;
+            this.priceRetail = priceRetail;
+            this.priceCurrent = priceCurrent;
+            this.productName = productName;
+            this.category = category;
+            this.operacion = operacion;
+            this.maximo = Math.max(sku, Math.max(priceRetail, Math.max(priceCurrent, Math.max(productName, category))));
+        }
+    }
+    
+    /**
+     * Diccionarios de una carga. Cada bloque de la carga paralela usa sus propios
+     * diccionarios, pero todos comparten un mapa por columna, así que los productos
+     * de todo el archivo apuntan a las mismas instancias.
+     */
+    private static final class Diccionarios {
+        private final Map<String, String> categorias;
+        private final Map<String, String> nombres;
+        private final List<DiccionarioTextos> deCategoria = new ArrayList<>();
+        private final List<DiccionarioTextos> deNombre = new ArrayList<>();
+        
+        Diccionarios() {
+            categorias = deduplicarCategoria ? new ConcurrentHashMap<>() : null;
+            nombres = deduplicarNombre ? new ConcurrentHashMap<>() : null;
+        }
+        
+        synchronized DiccionarioTextos paraCategoria() {
+            return crear(categorias, deCategoria);
+        }
+        
+        synchronized DiccionarioTextos paraNombre() {
+            return crear(nombres, deNombre);
+        }
+        
+        private static DiccionarioTextos crear(Map<String, String> compartido, List<DiccionarioTextos> creados) {
+            if (compartido == null) {
+                return null;
+            }
+            DiccionarioTextos diccionario = new DiccionarioTextos(compartido, MAXIMO_VALORES_DICCIONARIO);
+            creados.add(diccionario);
+            return diccionario;
+        }
+        
+        /**
+         * Muestra cuántos valores se compartieron y la memoria aproximada que se ahorró
+         */
+        void reportar() {
+            reportar("Category", categorias, deCategoria);
+            reportar("Product_Name", nombres, deNombre);
+        }
+        
+        private static void reportar(String columna, Map<String, String> compartido, List<DiccionarioTextos> creados) {
+            if (compartido == null) {
+                return;
+            }
+            long consultas = 0;
+            long compartidos = 0;
+            long bytes = 0;
+            for (DiccionarioTextos diccionario : creados) {
+                consultas += diccionario.getConsultas();
+                compartidos += diccionario.getCompartidos();
+                bytes += diccionario.getBytesAhorrados();
+            }
+            System.out.printf("Diccionario de %s: %d valores distintos, %d de %d valores compartidos "
+                    + "(~%.1f MB ahorrados)%n", columna, compartido.size(), compartidos, consultas,
+                    bytes / (1024.0 * 1024.0));
+        }
+    }
+    
+    /**
+     * Elige qué columnas de texto se deduplican con un diccionario durante la carga.
+     * Conviene para columnas con pocos valores distintos; si una columna supera
+     * los 65536 valores distintos, los valores nuevos dejan de deduplicarse.
+     * @param categoria true para deduplicar Category (activado por defecto)
+     * @param nombreProducto true para deduplicar Product_Name
+     */
+    public static void configurarDiccionarios(boolean categoria, boolean nombreProducto) {
+        deduplicarCategoria = categoria;
+        deduplicarNombre = nombreProducto;
+    }
+    
     /**
-     * Lee un archivo CSV y lo convierte en una lista de productos
+     * Lee un archivo CSV y lo convierte en una lista de productos.
+     * El archivo se mapea en memoria y se procesa directamente sobre sus bytes.
      * @param filePath Ruta del archivo CSV
      * @return Lista de productos
      * @throws IOException Si ocurre un error de lectura
      */
     public static List<Producto> cargarProductosDesdeCSV(String filePath) throws IOException {
         List<Producto> productos = new ArrayList<>();
+        cargarProductosDesdeCSV(filePath, productos::add);
+        return productos;
+    }
+    
+    /**
+     * Lee un archivo CSV entregando cada producto a medida que se lee, sin
+     * acumularlos: quien los recibe decide si los guarda
+     * @param filePath Ruta del archivo CSV
+     * @param destino Acción que recibe cada producto, en el orden del archivo
+     * @return Número de productos leídos
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static int cargarProductosDesdeCSV(String filePath, Consumer<Producto> destino) throws IOException {
+        if (destino == null) {
+            throw new IllegalArgumentException("El destino de los productos no puede ser nulo");
+        }
+        int[] total = new int[1];
         Path path = obtenerRutaValida(filePath);
         
-        try (BufferedReader br = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            String line;
-            boolean firstLine = true;
-            
-            // Índices de las columnas
-            int skuIndex = -1;
-            int priceRetailIndex = -1;
-            int priceCurrentIndex = -1;
-            int productNameIndex = -1;
-            int categoryIndex = -1;
-            
-            while ((line = br.readLine()) != null) {
-                // Utilizamos un regex para dividir por comas pero respetando los valores entre comillas
-                String[] values = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-                
-                // Procesamos la primera línea para identificar los índices
-                if (firstLine) {
-                    // Mostrar las columnas encontradas para depuración
-                    System.out.println("Columnas encontradas en el CSV:");
-                    
-                    for (int i = 0; i < values.length; i++) {
-                        String column = values[i].replace("\"", "").trim();
-                        System.out.println(i + ": " + column);
-                        
-                        // Buscar coincidencias exactas primero
-                        if (column.equalsIgnoreCase("SKU")) {
-                            skuIndex = i;
-                        } else if (column.equalsIgnoreCase("Price_Retail")) {
-                            priceRetailIndex = i;
-                        } else if (column.equalsIgnoreCase("Price_Current")) {
-                            priceCurrentIndex = i;
-                        } else if (column.equalsIgnoreCase("Product_Name")) {
-                            productNameIndex = i;
-                        } else if (column.equalsIgnoreCase("Category")) {
-                            categoryIndex = i;
-                        }
-                        
-                        // Si no encontramos coincidencias exactas, buscar coincidencias parciales
-                        if (skuIndex == -1 && column.toLowerCase().contains("sku")) {
-                            skuIndex = i;
-                        }
-                        if (priceRetailIndex == -1 && (column.toLowerCase().contains("retail") || 
-                             column.toLowerCase().contains("list price"))) {
-                            priceRetailIndex = i;
-                        }
-                        if (priceCurrentIndex == -1 && (column.toLowerCase().contains("current") || 
-                             column.toLowerCase().contains("sale price") || 
-                             column.toLowerCase().contains("price"))) {
-                            priceCurrentIndex = i;
-                        }
-                        if (productNameIndex == -1 && (column.toLowerCase().contains("product") && 
-                             column.toLowerCase().contains("name"))) {
-                            productNameIndex = i;
-                        }
-                        if (categoryIndex == -1 && column.toLowerCase().contains("category")) {
-                            categoryIndex = i;
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ);
+             LectorCSVMapeado lector = new LectorCSVMapeado(canal, 0, canal.size())) {
+            // La primera línea contiene los nombres de las columnas
+            if (lector.siguienteRegistro()) {
+                Columnas columnas = procesarEncabezado(lector);
+                Diccionarios diccionarios = new Diccionarios();
+                procesarRegistros(lector, columnas, producto -> {
+                    destino.accept(producto);
+                    total[0]++;
+                }, diccionarios.paraCategoria(), diccionarios.paraNombre());
+                diccionarios.reportar();
+            }
+        }
+        
+        System.out.println("Total de productos cargados: " + total[0]);
+        return total[0];
+    }
+    
+    /**
+     * Lee un archivo CSV de actualizaciones incrementales. Tiene las mismas columnas
+     * que el catálogo y una columna opcional de operación (Operation, Op o Accion):
+     * las filas marcadas como D, DEL, DELETE, ELIMINAR o BORRAR son registros de
+     * borrado y solo necesitan el SKU; el resto inserta o reemplaza el producto.
+     * @param filePath Ruta del archivo CSV
+     * @return Lista de actualizaciones en el orden del archivo
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static List<ActualizacionProducto> cargarActualizacionesDesdeCSV(String filePath) throws IOException {
+        List<ActualizacionProducto> actualizaciones = new ArrayList<>();
+        Path path = obtenerRutaValida(filePath);
+        
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ);
+             LectorCSVMapeado lector = new LectorCSVMapeado(canal, 0, canal.size())) {
+            if (lector.siguienteRegistro()) {
+                Columnas columnas = procesarEncabezado(lector);
+                while (lector.siguienteRegistro()) {
+                    try {
+                        ActualizacionProducto actualizacion = crearActualizacion(lector, columnas);
+                        if (actualizacion != null) {
+                            actualizaciones.add(actualizacion);
                         }
+                    } catch (Exception e) {
+                        System.out.println("Error al procesar línea: " + e.getMessage());
                     }
-                    
-                    firstLine = false;
-                    
-                    // Verificamos que tenemos todos los índices
-                    boolean faltanColumnas = false;
-                    StringBuilder columnasFaltantes = new StringBuilder("Columnas faltantes: ");
-                    
-                    if (skuIndex == -1) {
-                        faltanColumnas = true;
-                        columnasFaltantes.append("SKU, ");
-                    }
-                    if (priceRetailIndex == -1) {
-                        faltanColumnas = true;
-                        columnasFaltantes.append("Price_Retail, ");
-                    }
-                    if (priceCurrentIndex == -1) {
-                        faltanColumnas = true;
-                        columnasFaltantes.append("Price_Current, ");
-                    }
-                    if (productNameIndex == -1) {
-                        faltanColumnas = true;
-                        columnasFaltantes.append("Product_Name, ");
-                    }
-                    if (categoryIndex == -1) {
-                        faltanColumnas = true;
-                        columnasFaltantes.append("Category, ");
-                    }
-                    
-                    if (faltanColumnas) {
-                        throw new IOException(columnasFaltantes.toString());
-                    }
-                    
-                    // Imprimir los índices encontrados para depuración
-                    System.out.println("\nÍndices de columnas encontrados:");
-                    System.out.println("SKU: " + skuIndex);
-                    System.out.println("Price_Retail: " + priceRetailIndex);
-                    System.out.println("Price_Current: " + priceCurrentIndex);
-                    System.out.println("Product_Name: " + productNameIndex);
-                    System.out.println("Category: " + categoryIndex);
-                    
-                    continue;
                 }
-                
-                try {
-                    // Verificamos que la línea tenga todos los campos necesarios
-                    if (values.length <= Math.max(skuIndex, Math.max(priceRetailIndex, 
-                                     Math.max(priceCurrentIndex, Math.max(productNameIndex, categoryIndex))))) {
-                        System.out.println("Línea con formato incorrecto: " + line);
-                        continue;
-                    }
-                    
-                    // Extraemos y limpiamos los valores
-                    String sku = limpiarCampo(values[skuIndex]);
-                    
-                    // Verificamos que el SKU no esté vacío
-                    if (sku.isEmpty()) {
-                        continue;
-                    }
-                    
-                    double priceRetail = parseDouble(limpiarCampo(values[priceRetailIndex]), 0.0);
-                    double priceCurrent = parseDouble(limpiarCampo(values[priceCurrentIndex]), 0.0);
-                    String productName = limpiarCampo(values[productNameIndex]);
-                    String category = limpiarCampo(values[categoryIndex]);
-                    
-                    // Creamos y agregamos el producto
-                    Producto producto = new Producto(sku, priceRetail, priceCurrent, productName, category);
-                    productos.add(producto);
-                    
-                } catch (Exception e) {
-                    System.out.println("Error al procesar línea: " + e.getMessage());
+            }
+        }
+        
+        System.out.println("Total de actualizaciones cargadas: " + actualizaciones.size());
+        return actualizaciones;
+    }
+    
+    /**
+     * Lee un archivo CSV usando todos los núcleos disponibles. El archivo se divide
+     * en bloques de bytes alineados al inicio de un registro (respetando las comillas),
+     * cada bloque se procesa en paralelo y los resultados se unen en el orden del
+     * archivo, por lo que el resultado es idéntico al de la carga secuencial.
+     * Los archivos pequeños se cargan de forma secuencial.
+     * @param filePath Ruta del archivo CSV
+     * @return Lista de productos en el orden del archivo
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static List<Producto> cargarProductosDesdeCSVParalelo(String filePath) throws IOException {
+        return cargarProductosDesdeCSVParalelo(filePath, Runtime.getRuntime().availableProcessors(),
+                TAMANO_MINIMO_BLOQUE);
+    }
+    
+    /**
+     * Lee un archivo CSV en paralelo
+     * @param filePath Ruta del archivo CSV
+     * @param paralelismo Número de hilos a utilizar
+     * @param tamanoMinimoBloque Tamaño mínimo en bytes de cada bloque
+     * @return Lista de productos en el orden del archivo
+     * @throws IOException Si ocurre un error de lectura
+     */
+    static List<Producto> cargarProductosDesdeCSVParalelo(String filePath, int paralelismo,
+            long tamanoMinimoBloque) throws IOException {
+        Path path = obtenerRutaValida(filePath);
+        long tamano = Files.size(path);
+        if (paralelismo <= 1 || tamano < 2 * tamanoMinimoBloque) {
+            return cargarProductosDesdeCSV(path.toString());
+        }
+        
+        List<Producto> productos = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Procesamos el encabezado por separado para conocer las columnas
+            long inicioDatos = buscarFinDeRegistro(canal, 0, false);
+            Columnas columnas;
+            try (LectorCSVMapeado lector = new LectorCSVMapeado(canal, 0, inicioDatos)) {
+                if (!lector.siguienteRegistro()) {
+                    return productos;
                 }
+                columnas = procesarEncabezado(lector);
+            }
+            
+            // Dividimos el resto del archivo en bloques de tamaño similar
+            long bytesDatos = tamano - inicioDatos;
+            int bloques = (int) Math.max(1, Math.min(paralelismo * 4L, bytesDatos / tamanoMinimoBloque));
+            long[] iniciosCrudos = new long[bloques + 1];
+            for (int i = 0; i <= bloques; i++) {
+                iniciosCrudos[i] = inicioDatos + bytesDatos * i / bloques;
+            }
+            
+            // Fase 1: contamos comillas por bloque para saber si cada inicio cae dentro de un campo entre comillas
+            List<ForkJoinTask<Long>> conteos = new ArrayList<>();
+            for (int i = 0; i < bloques; i++) {
+                final long desde = iniciosCrudos[i];
+                final long hasta = iniciosCrudos[i + 1];
+                conteos.add(pool.submit(() -> contarComillas(canal, desde, hasta)));
+            }
+            boolean[] dentroDeComillas = new boolean[bloques];
+            long comillas = 0;
+            for (int i = 0; i < bloques; i++) {
+                dentroDeComillas[i] = (comillas % 2) != 0;
+                comillas += esperar(conteos.get(i));
+            }
+            
+            // Fase 2: alineamos cada inicio al siguiente fin de registro fuera de comillas
+            List<ForkJoinTask<Long>> alineaciones = new ArrayList<>();
+            for (int i = 1; i < bloques; i++) {
+                final long desde = iniciosCrudos[i];
+                final boolean enComillas = dentroDeComillas[i];
+                alineaciones.add(pool.submit(() -> buscarFinDeRegistro(canal, desde, enComillas)));
+            }
+            long[] inicios = new long[bloques + 1];
+            inicios[0] = inicioDatos;
+            for (int i = 1; i < bloques; i++) {
+                inicios[i] = esperar(alineaciones.get(i - 1));
+            }
+            inicios[bloques] = tamano;
+            
+            // Fase 3: procesamos los bloques en paralelo y los unimos en el orden del archivo
+            Diccionarios diccionarios = new Diccionarios();
+            List<ForkJoinTask<List<Producto>>> lotes = new ArrayList<>();
+            for (int i = 0; i < bloques; i++) {
+                final long desde = inicios[i];
+                final long hasta = inicios[i + 1];
+                lotes.add(pool.submit(() -> {
+                    List<Producto> lote = new ArrayList<>();
+                    if (desde < hasta) {
+                        try (LectorCSVMapeado lector = new LectorCSVMapeado(canal, desde, hasta)) {
+                            procesarRegistros(lector, columnas, lote::add, diccionarios.paraCategoria(),
+                                    diccionarios.paraNombre());
+                        }
+                    }
+                    return lote;
+                }));
             }
+            for (ForkJoinTask<List<Producto>> lote : lotes) {
+                productos.addAll(esperar(lote));
+            }
+            diccionarios.reportar();
+        } finally {
+            pool.shutdown();
         }
         
         System.out.println("Total de productos cargados: " + productos.size());
         return productos;
     }
     
+    /**
+     * Identifica las columnas a partir del registro de encabezado
+     * @param lector Lector posicionado en el encabezado
+     * @return Índices de las columnas
+     * @throws IOException Si faltan columnas obligatorias
+     */
+    private static Columnas procesarEncabezado(LectorCSVMapeado lector) throws IOException {
+        // Índices de las columnas
+        int skuIndex = -1;
+        int priceRetailIndex = -1;
+        int priceCurrentIndex = -1;
+        int productNameIndex = -1;
+        int categoryIndex = -1;
+        int operacionIndex = -1;
+        
+        // Mostrar las columnas encontradas para depuración
+        System.out.println("Columnas encontradas en el CSV:");
+        
+        for (int i = 0; i < lector.numeroCampos(); i++) {
+            String column = lector.campo(i);
+            System.out.println(i + ": " + column);
+            
+            // Buscar coincidencias exactas primero
+            if (column.equalsIgnoreCase("SKU")) {
+                skuIndex = i;
+            } else if (column.equalsIgnoreCase("Price_Retail")) {
+                priceRetailIndex = i;
+            } else if (column.equalsIgnoreCase("Price_Current")) {
+                priceCurrentIndex = i;
+            } else if (column.equalsIgnoreCase("Product_Name")) {
+                productNameIndex = i;
+            } else if (column.equalsIgnoreCase("Category")) {
+                categoryIndex = i;
+            }
+            
+            // Si no encontramos coincidencias exactas, buscar coincidencias parciales
+            if (skuIndex == -1 && column.toLowerCase().contains("sku")) {
+                skuIndex = i;
+            }
+            if (priceRetailIndex == -1 && (column.toLowerCase().contains("retail") || 
+                 column.toLowerCase().contains("list price"))) {
+                priceRetailIndex = i;
+            }
+            if (priceCurrentIndex == -1 && (column.toLowerCase().contains("current") || 
+                 column.toLowerCase().contains("sale price") || 
+                 column.toLowerCase().contains("price"))) {
+                priceCurrentIndex = i;
+            }
+            if (productNameIndex == -1 && (column.toLowerCase().contains("product") && 
+                 column.toLowerCase().contains("name"))) {
+                productNameIndex = i;
+            }
+            if (categoryIndex == -1 && column.toLowerCase().contains("category")) {
+                categoryIndex = i;
+            }
+            
+            // Columna opcional con la operación de los archivos de actualización
+            if (column.equalsIgnoreCase("Operation") || column.equalsIgnoreCase("Op")
+                    || column.equalsIgnoreCase("Accion") || column.equalsIgnoreCase("Acción")) {
+                operacionIndex = i;
+            }
+        }
+        
+        // Verificamos que tenemos todos los índices
+        boolean faltanColumnas = false;
+        StringBuilder columnasFaltantes = new StringBuilder("Columnas faltantes: ");
+        
+        if (skuIndex == -1) {
+            faltanColumnas = true;
+            columnasFaltantes.append("SKU, ");
+        }
+        if (priceRetailIndex == -1) {
+            faltanColumnas = true;
+            columnasFaltantes.append("Price_Retail, ");
+        }
+        if (priceCurrentIndex == -1) {
+            faltanColumnas = true;
+            columnasFaltantes.append("Price_Current, ");
+        }
+        if (productNameIndex == -1) {
+            faltanColumnas = true;
+            columnasFaltantes.append("Product_Name, ");
+        }
+        if (categoryIndex == -1) {
+            faltanColumnas = true;
+            columnasFaltantes.append("Category, ");
+        }
+        
+        if (faltanColumnas) {
+            throw new IOException(columnasFaltantes.toString());
+        }
+        
+        // Imprimir los índices encontrados para depuración
+        System.out.println("\nÍndices de columnas encontrados:");
+        System.out.println("SKU: " + skuIndex);
+        System.out.println("Price_Retail: " + priceRetailIndex);
+        System.out.println("Price_Current: " + priceCurrentIndex);
+        System.out.println("Product_Name: " + productNameIndex);
+        System.out.println("Category: " + categoryIndex);
+        if (operacionIndex != -1) {
+            System.out.println("Operation: " + operacionIndex);
+        }
+        
+        return new Columnas(skuIndex, priceRetailIndex, priceCurrentIndex, productNameIndex, categoryIndex,
+                operacionIndex);
+    }
+    
+    /**
+     * Convierte en productos todos los registros restantes del lector
+     * @param lector Lector posicionado después del encabezado
+     * @param columnas Índices de las columnas
+     * @param productos Acción que recibe cada producto
+     * @param categorias Diccionario para la categoría, o null para no deduplicarla
+     * @param nombres Diccionario para el nombre, o null para no deduplicarlo
+     * @throws IOException Si ocurre un error de lectura
+     */
+    private static void procesarRegistros(LectorCSVMapeado lector, Columnas columnas, Consumer<Producto> productos,
+            DiccionarioTextos categorias, DiccionarioTextos nombres) throws IOException {
+        while (lector.siguienteRegistro()) {
+            Producto producto;
+            try {
+                producto = crearProducto(lector, columnas, categorias, nombres);
+            } catch (Exception e) {
+                System.out.println("Error al procesar línea: " + e.getMessage());
+                continue;
+            }
+            // Los errores de quien recibe el producto no son de la línea: se propagan
+            if (producto != null) {
+                productos.accept(producto);
+            }
+        }
+    }
+    
+    /**
+     * Crea un producto a partir del registro actual del lector
+     * @param lector Lector posicionado en un registro de datos
+     * @param columnas Índices de las columnas
+     * @param categorias Diccionario para la categoría, o null para no deduplicarla
+     * @param nombres Diccionario para el nombre, o null para no deduplicarlo
+     * @return El producto, o null si el registro no tiene formato válido o no tiene SKU
+     */
+    private static Producto crearProducto(LectorCSVMapeado lector, Columnas columnas,
+            DiccionarioTextos categorias, DiccionarioTextos nombres) {
+        // Verificamos que la línea tenga todos los campos necesarios
+        if (lector.numeroCampos() <= columnas.maximo) {
+            System.out.println("Línea con formato incorrecto: " + lector.registroComoTexto());
+            return null;
+        }
+        
+        // Verificamos que el SKU no esté vacío
+        if (lector.campoVacio(columnas.sku)) {
+            return null;
+        }
+        
+        String sku = lector.campo(columnas.sku);
+        double priceRetail = lector.campoDouble(columnas.priceRetail, 0.0);
+        double priceCurrent = lector.campoDouble(columnas.priceCurrent, 0.0);
+        String productName = (nombres == null) ? lector.campo(columnas.productName)
+                : lector.campo(columnas.productName, nombres);
+        String category = (categorias == null) ? lector.campo(columnas.category)
+                : lector.campo(columnas.category, categorias);
+        
+        return new Producto(sku, priceRetail, priceCurrent, productName, category);
+    }
+    
+    /**
+     * Crea una actualización a partir del registro actual del lector
+     * @param lector Lector posicionado en un registro de datos
+     * @param columnas Índices de las columnas
+     * @return La actualización, o null si el registro no es válido
+     */
+    private static ActualizacionProducto crearActualizacion(LectorCSVMapeado lector, Columnas columnas) {
+        if (columnas.operacion >= 0 && lector.numeroCampos() > Math.max(columnas.operacion, columnas.sku)
+                && esEliminacion(lector.campo(columnas.operacion))) {
+            // Un registro de borrado solo necesita el SKU
+            if (lector.campoVacio(columnas.sku)) {
+                return null;
+            }
+            return ActualizacionProducto.eliminacion(lector.campo(columnas.sku));
+        }
+        
+        Producto producto = crearProducto(lector, columnas, null, null);
+        return (producto == null) ? null : ActualizacionProducto.upsert(producto);
+    }
+    
+    private static boolean esEliminacion(String operacion) {
+        return operacion.equalsIgnoreCase("D") || operacion.equalsIgnoreCase("DEL")
+                || operacion.equalsIgnoreCase("DELETE") || operacion.equalsIgnoreCase("ELIMINAR")
+                || operacion.equalsIgnoreCase("BORRAR");
+    }
+    
+    /**
+     * Cuenta las comillas dobles en un rango de bytes del archivo
+     */
+    private static long contarComillas(FileChannel canal, long desde, long hasta) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long comillas = 0;
+        long posicion = desde;
+        while (posicion < hasta) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), hasta - posicion));
+            int leidos = canal.read(buffer, posicion);
+            if (leidos <= 0) {
+                break;
+            }
+            for (int i = 0; i < leidos; i++) {
+                if (buffer.get(i) == '"') {
+                    comillas++;
+                }
+            }
+            posicion += leidos;
+        }
+        return comillas;
+    }
+    
+    /**
+     * Busca la posición siguiente al primer salto de línea que esté fuera de comillas.
+     * Como en UTF-8 los bytes de '"' y '\n' nunca forman parte de otro carácter,
+     * la búsqueda se puede hacer directamente sobre los bytes.
+     * @param canal Canal del archivo
+     * @param desde Posición inicial de la búsqueda
+     * @param enComillas true si la posición inicial está dentro de un campo entre comillas
+     * @return Posición de inicio del siguiente registro o el tamaño del archivo si no hay más
+     */
+    private static long buscarFinDeRegistro(FileChannel canal, long desde, boolean enComillas) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long posicion = desde;
+        while (true) {
+            buffer.clear();
+            int leidos = canal.read(buffer, posicion);
+            if (leidos <= 0) {
+                return Math.max(posicion, desde);
+            }
+            for (int i = 0; i < leidos; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    enComillas = !enComillas;
+                } else if (b == '\n' && !enComillas) {
+                    return posicion + i + 1;
+                }
+            }
+            posicion += leidos;
+        }
+    }
+    
+    /**
+     * Espera el resultado de una tarea paralela propagando los errores de lectura
+     */
+    private static <T> T esperar(ForkJoinTask<T> tarea) throws IOException {
+        try {
+            return tarea.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Carga interrumpida", e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) {
+                throw (IOException) causa;
+            }
+            throw new IOException("Error al procesar el archivo: " + causa.getMessage(), causa);
+        }
+    }
+    
     /**
      * Obtiene una ruta válida para el archivo a partir de la ruta proporcionada
      * @param filePath Ruta del archivo
      * @return Path del archivo
      * @throws IOException Si no se puede encontrar el archivo
      */
-    private static Path obtenerRutaValida(String filePath) throws IOException {
+    static Path obtenerRutaValida(String filePath) throws IOException {
         try {
             // Limpia comillas y espacios innecesarios
             filePath = filePath.trim().replaceAll("^\"|\"$", "");
@@ -202,16 +620,4 @@ public class CSVHandler {
             throw new IOException("Ruta de archivo inválida: " + e.getMessage());
         }
     }
-    
-    private static String limpiarCampo(String campo) {
-        return campo.replaceAll("^\"|\"$", "").trim();
-    }
-    
-    private static double parseDouble(String valor, double defaultValue) {
-        try {
-            return Double.parseDouble(valor);
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
-    }
 }
\ No newline at end of file
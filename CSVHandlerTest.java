@@ -0,0 +1,122 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para la carga de productos desde CSV
+ */
+public class CSVHandlerTest {
+    
+    private Path archivo;
+    
+    @Before
+    public void setUp() throws IOException {
+        archivo = Files.createTempFile("productos", ".csv");
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+    
+    private void escribir(String contenido) throws IOException {
+        Files.write(archivo, contenido.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    public void testCargaSecuencial() throws IOException {
+        escribir("SKU,Price_Retail,Price_Current,Product_Name,Category\n"
+                + "A1,10.0,8.5,Mesa,Muebles\n"
+                + "\"B2\",\"20\",15,\"Silla, roja\",Muebles\n"
+                + ",1,1,Sin SKU,X\n");
+        
+        List<Producto> productos = CSVHandler.cargarProductosDesdeCSV(archivo.toString());
+        
+        assertEquals(2, productos.size());
+        assertEquals("A1", productos.get(0).getSku());
+        assertEquals(8.5, productos.get(0).getPriceCurrent(), 0.001);
+        assertEquals("Silla, roja", productos.get(1).getProductName());
+        assertEquals(20.0, productos.get(1).getPriceRetail(), 0.001);
+    }
+    
+    @Test(expected = IOException.class)
+    public void testColumnasFaltantes() throws IOException {
+        escribir("SKU,Nombre\nA1,Mesa\n");
+        CSVHandler.cargarProductosDesdeCSV(archivo.toString());
+    }
+    
+    @Test
+    public void testCargaParalelaConservaElOrden() throws IOException {
+        StringBuilder contenido = new StringBuilder("SKU,Price_Retail,Price_Current,Product_Name,Category\r\n");
+        for (int i = 0; i < 2000; i++) {
+            // Incluimos comillas, comas y saltos de línea dentro de los campos
+            contenido.append("SKU").append(i % 700).append(',')
+                    .append(i).append(".5,").append(i).append(',')
+                    .append("\"Producto \"\"").append(i).append("\"\",\nlínea 2\",")
+                    .append("Categoría ").append(i % 7).append("\r\n");
+        }
+        escribir(contenido.toString());
+        
+        List<Producto> secuencial = CSVHandler.cargarProductosDesdeCSV(archivo.toString());
+        List<Producto> paralelo = CSVHandler.cargarProductosDesdeCSVParalelo(archivo.toString(), 4, 256);
+        
+        assertEquals(2000, secuencial.size());
+        assertEquals(secuencial.size(), paralelo.size());
+        for (int i = 0; i < secuencial.size(); i++) {
+            assertEquals(secuencial.get(i).toString(), paralelo.get(i).toString());
+        }
+    }
+    
+    @Test
+    public void testCategoriasCompartidas() throws IOException {
+        StringBuilder contenido = new StringBuilder("SKU,Price_Retail,Price_Current,Product_Name,Category\n");
+        for (int i = 0; i < 500; i++) {
+            contenido.append("S").append(i).append(",1,1,Producto ").append(i % 3)
+                    .append(",\"Categoría ").append(i % 5).append("\"\n");
+        }
+        escribir(contenido.toString());
+        
+        List<Producto> secuencial = CSVHandler.cargarProductosDesdeCSV(archivo.toString());
+        List<Producto> paralelo = CSVHandler.cargarProductosDesdeCSVParalelo(archivo.toString(), 4, 256);
+        
+        assertEquals("Categoría 0", secuencial.get(5).getCategory());
+        assertSame(secuencial.get(0).getCategory(), secuencial.get(5).getCategory());
+        assertSame(paralelo.get(0).getCategory(), paralelo.get(495).getCategory());
+        // Por defecto el nombre no se deduplica
+        assertNotSame(secuencial.get(0).getProductName(), secuencial.get(3).getProductName());
+        
+        CSVHandler.configurarDiccionarios(true, true);
+        try {
+            List<Producto> conNombres = CSVHandler.cargarProductosDesdeCSVParalelo(archivo.toString(), 4, 256);
+            assertSame(conNombres.get(0).getProductName(), conNombres.get(498).getProductName());
+        } finally {
+            CSVHandler.configurarDiccionarios(true, false);
+        }
+    }
+    
+    @Test
+    public void testCargaDeActualizaciones() throws IOException {
+        escribir("SKU,Price_Retail,Price_Current,Product_Name,Category,Operation\n"
+                + "A1,10.0,9.0,Mesa,Muebles,U\n"
+                + "B2,,,,,DELETE\n"
+                + "C3,5,4,Lámpara,Hogar\n"
+                + "D4,,,,,d\n");
+        
+        List<ActualizacionProducto> actualizaciones = CSVHandler.cargarActualizacionesDesdeCSV(archivo.toString());
+        
+        assertEquals(4, actualizaciones.size());
+        assertFalse(actualizaciones.get(0).isEliminacion());
+        assertEquals(9.0, actualizaciones.get(0).getProducto().getPriceCurrent(), 0.001);
+        assertTrue(actualizaciones.get(1).isEliminacion());
+        assertEquals("B2", actualizaciones.get(1).getSku());
+        assertFalse(actualizaciones.get(2).isEliminacion()); // Sin operación: se inserta
+        assertTrue(actualizaciones.get(3).isEliminacion());
+    }
+}
\ No newline at end of file
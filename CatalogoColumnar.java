@@ -0,0 +1,760 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Catálogo de solo lectura guardado por columnas en lugar de un objeto por producto.
+ * Los SKU y los nombres se concatenan en arreglos de bytes UTF-8 con un arreglo de
+ * posiciones, los precios van en columnas double[] y las categorías se codifican
+ * como identificadores int sobre un diccionario de valores distintos. Las filas
+ * están ordenadas por SKU (el mismo orden que Producto.compareTo), así que una
+ * búsqueda es binaria sobre los bytes y no crea objetos. Los Producto se crean
+ * solo cuando se piden. Con el Cargador (o cargarDesdeCSV) las columnas se llenan
+ * a medida que llegan los productos y se ordenan con una permutación de enteros,
+ * así que la carga tampoco pasa por el árbol ni guarda un Producto por fila.
+ * Las columnas no cambian después de construidas, así que el catálogo se puede
+ * consultar desde varios hilos a la vez.
+ */
+public class CatalogoColumnar implements CatalogoSoloLectura {
+    private final int filas;
+    
+    // SKU de la fila i: bytes [inicioSKU[i], inicioSKU[i + 1]) de arenaSKU
+    private final byte[] arenaSKU;
+    private final int[] inicioSKU;
+    private final byte[] arenaNombres;
+    private final int[] inicioNombre;
+    
+    private final double[] priceRetail;
+    private final double[] priceCurrent;
+    
+    private final int[] categoria;
+    private final String[] diccionarioCategorias;
+    
+    /**
+     * Construye el catálogo a partir de un índice ordenado, que ya no tiene SKU repetidos
+     * @param productos Índice con los productos (BST o BSTCompacto)
+     */
+    public CatalogoColumnar(IndiceOrdenado<Producto> productos) {
+        this(copiar(productos));
+    }
+    
+    private static Cargador copiar(IndiceOrdenado<Producto> productos) {
+        if (productos == null) {
+            throw new IllegalArgumentException("El índice de productos no puede ser nulo");
+        }
+        // Un solo recorrido, para tomar una versión coherente si el árbol es concurrente
+        Cargador cargador = new Cargador();
+        for (Producto producto : productos) {
+            cargador.agregar(producto);
+        }
+        return cargador;
+    }
+    
+    /**
+     * Carga un archivo CSV directamente en columnas: cada producto leído se copia a
+     * las columnas y se descarta, sin armar el árbol ni guardar los Producto
+     * @param filePath Ruta del archivo CSV
+     * @return Catálogo de solo lectura con los productos del archivo
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static CatalogoColumnar cargarDesdeCSV(String filePath) throws IOException {
+        Cargador cargador = new Cargador();
+        CSVHandler.cargarProductosDesdeCSV(filePath, cargador::agregar);
+        return cargador.terminar();
+    }
+    
+    /**
+     * Ordena por SKU las filas del cargador y se queda con la última versión de
+     * cada SKU. Las columnas definitivas se copian en el orden final, con el
+     * tamaño justo.
+     */
+    private CatalogoColumnar(Cargador cargador) {
+        // Permutación de filas con los primeros bytes del SKU al lado: casi todas las
+        // comparaciones se resuelven con el prefijo, sin recorrer la arena
+        int total = cargador.filas;
+        long[] prefijos = new long[total];
+        int[] orden = new int[total];
+        for (int i = 0; i < total; i++) {
+            orden[i] = i;
+            prefijos[i] = prefijoSKU(cargador.arenaSKU, cargador.inicioSKU[i], cargador.inicioSKU[i + 1]);
+        }
+        ordenar(cargador, prefijos, orden, 0, total - 1);
+        
+        // Los SKU repetidos quedan juntos y en el orden de llegada: gana el último
+        int unicos = 0;
+        long bytesSKU = 0;
+        long bytesNombres = 0;
+        for (int i = 0; i < total; i++) {
+            int fila = orden[i];
+            if (i + 1 < total && prefijos[i] == prefijos[i + 1]
+                    && compararFilas(cargador, fila, orden[i + 1]) == 0) {
+                continue;
+            }
+            orden[unicos++] = fila;
+            bytesSKU += cargador.inicioSKU[fila + 1] - cargador.inicioSKU[fila];
+            bytesNombres += cargador.inicioNombre[fila + 1] - cargador.inicioNombre[fila];
+        }
+        filas = unicos;
+        
+        priceRetail = new double[filas];
+        priceCurrent = new double[filas];
+        categoria = new int[filas];
+        inicioSKU = new int[filas + 1];
+        inicioNombre = new int[filas + 1];
+        arenaSKU = new byte[(int) bytesSKU];
+        arenaNombres = new byte[(int) bytesNombres];
+        int posicionSKU = 0;
+        int posicionNombre = 0;
+        for (int i = 0; i < filas; i++) {
+            int fila = orden[i];
+            priceRetail[i] = cargador.priceRetail[fila];
+            priceCurrent[i] = cargador.priceCurrent[fila];
+            categoria[i] = cargador.categoria[fila];
+            
+            int longitud = cargador.inicioSKU[fila + 1] - cargador.inicioSKU[fila];
+            System.arraycopy(cargador.arenaSKU, cargador.inicioSKU[fila], arenaSKU, posicionSKU, longitud);
+            inicioSKU[i] = posicionSKU;
+            posicionSKU += longitud;
+            
+            longitud = cargador.inicioNombre[fila + 1] - cargador.inicioNombre[fila];
+            System.arraycopy(cargador.arenaNombres, cargador.inicioNombre[fila], arenaNombres, posicionNombre, longitud);
+            inicioNombre[i] = posicionNombre;
+            posicionNombre += longitud;
+        }
+        inicioSKU[filas] = posicionSKU;
+        inicioNombre[filas] = posicionNombre;
+        diccionarioCategorias = cargador.categorias.toArray(new String[0]);
+    }
+    
+    /**
+     * Primeros 8 bytes de un SKU, ya con su peso, como entero sin signo
+     */
+    private static long prefijoSKU(byte[] arena, int inicio, int fin) {
+        long prefijo = 0;
+        for (int i = 0; i < 8; i++) {
+            prefijo <<= 8;
+            if (inicio + i < fin) {
+                prefijo |= CatalogoFueraDelHeap.peso(arena[inicio + i] & 0xFF);
+            }
+        }
+        return prefijo;
+    }
+    
+    /**
+     * Compara los SKU de dos filas del cargador con el mismo orden que String.compareTo
+     */
+    private static int compararFilas(Cargador cargador, int filaA, int filaB) {
+        byte[] arena = cargador.arenaSKU;
+        int inicioA = cargador.inicioSKU[filaA];
+        int inicioB = cargador.inicioSKU[filaB];
+        int longitudA = cargador.inicioSKU[filaA + 1] - inicioA;
+        int longitudB = cargador.inicioSKU[filaB + 1] - inicioB;
+        int comunes = Math.min(longitudA, longitudB);
+        for (int i = 0; i < comunes; i++) {
+            int a = arena[inicioA + i] & 0xFF;
+            int b = arena[inicioB + i] & 0xFF;
+            if (a != b) {
+                return CatalogoFueraDelHeap.peso(a) - CatalogoFueraDelHeap.peso(b);
+            }
+        }
+        return longitudA - longitudB;
+    }
+    
+    /**
+     * Compara la entrada i de la permutación con una entrada dada por sus valores.
+     * A igual SKU decide el número de fila, es decir, el orden de llegada.
+     */
+    private static int compararEntrada(Cargador cargador, long[] prefijos, int[] orden, int i, long prefijo, int fila) {
+        int compareResult = Long.compareUnsigned(prefijos[i], prefijo);
+        if (compareResult != 0) {
+            return compareResult;
+        }
+        compareResult = compararFilas(cargador, orden[i], fila);
+        return (compareResult != 0) ? compareResult : Integer.compare(orden[i], fila);
+    }
+    
+    private static int compararEntradas(Cargador cargador, long[] prefijos, int[] orden, int i, int j) {
+        return compararEntrada(cargador, prefijos, orden, i, prefijos[j], orden[j]);
+    }
+    
+    private static void intercambiar(long[] prefijos, int[] orden, int i, int j) {
+        long prefijo = prefijos[i];
+        prefijos[i] = prefijos[j];
+        prefijos[j] = prefijo;
+        int fila = orden[i];
+        orden[i] = orden[j];
+        orden[j] = fila;
+    }
+    
+    /**
+     * Quicksort sobre la permutación y sus prefijos. Las entradas son todas
+     * distintas (el número de fila desempata), así que la partición siempre avanza.
+     */
+    private static void ordenar(Cargador cargador, long[] prefijos, int[] orden, int inicio, int fin) {
+        while (fin - inicio > 16) {
+            // Pivote: mediana del primero, el del medio y el último
+            int medio = (inicio + fin) >>> 1;
+            if (compararEntradas(cargador, prefijos, orden, medio, inicio) < 0) {
+                intercambiar(prefijos, orden, medio, inicio);
+            }
+            if (compararEntradas(cargador, prefijos, orden, fin, inicio) < 0) {
+                intercambiar(prefijos, orden, fin, inicio);
+            }
+            if (compararEntradas(cargador, prefijos, orden, fin, medio) < 0) {
+                intercambiar(prefijos, orden, fin, medio);
+            }
+            long prefijo = prefijos[medio];
+            int fila = orden[medio];
+            int i = inicio;
+            int j = fin;
+            while (i <= j) {
+                while (compararEntrada(cargador, prefijos, orden, i, prefijo, fila) < 0) {
+                    i++;
+                }
+                while (compararEntrada(cargador, prefijos, orden, j, prefijo, fila) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    intercambiar(prefijos, orden, i++, j--);
+                }
+            }
+            // Recursión sobre la parte menor para acotar la profundidad a O(log n)
+            if (j - inicio < fin - i) {
+                ordenar(cargador, prefijos, orden, inicio, j);
+                inicio = i;
+            } else {
+                ordenar(cargador, prefijos, orden, i, fin);
+                fin = j;
+            }
+        }
+        // Inserción para los rangos pequeños
+        for (int i = inicio + 1; i <= fin; i++) {
+            for (int j = i; j > inicio && compararEntradas(cargador, prefijos, orden, j, j - 1) < 0; j--) {
+                intercambiar(prefijos, orden, j, j - 1);
+            }
+        }
+    }
+    
+    /**
+     * Carga productos en columnas, de a uno y en cualquier orden, sin guardar los
+     * Producto: los textos se codifican en las arenas apenas llegan. Al terminar,
+     * las filas se ordenan por SKU y, si un SKU se repite, queda el último en
+     * llegar (como al insertar en el árbol). No es seguro usarlo desde varios hilos.
+     */
+    public static final class Cargador {
+        private static final int CAPACIDAD_INICIAL = 1024;
+        private static final int MAXIMO = Integer.MAX_VALUE - 8;
+        
+        private byte[] arenaSKU = new byte[16 * CAPACIDAD_INICIAL];
+        private int[] inicioSKU = new int[CAPACIDAD_INICIAL + 1];
+        private byte[] arenaNombres = new byte[32 * CAPACIDAD_INICIAL];
+        private int[] inicioNombre = new int[CAPACIDAD_INICIAL + 1];
+        private double[] priceRetail = new double[CAPACIDAD_INICIAL];
+        private double[] priceCurrent = new double[CAPACIDAD_INICIAL];
+        private int[] categoria = new int[CAPACIDAD_INICIAL];
+        private final Map<String, Integer> idsCategoria = new HashMap<>();
+        private final List<String> categorias = new ArrayList<>();
+        private int filas;
+        private boolean terminado;
+        
+        /**
+         * Copia un producto a las columnas
+         * @param producto Producto a agregar
+         */
+        public void agregar(Producto producto) {
+            if (producto == null) {
+                throw new IllegalArgumentException("El producto no puede ser nulo");
+            }
+            if (terminado) {
+                throw new IllegalStateException("El cargador ya se terminó");
+            }
+            if (filas == priceRetail.length) {
+                ampliarFilas();
+            }
+            String sku = producto.getSku();
+            String nombre = producto.getProductName();
+            int posicionSKU = inicioSKU[filas];
+            int posicionNombre = inicioNombre[filas];
+            arenaSKU = asegurar(arenaSKU, posicionSKU, longitudUTF8(sku));
+            arenaNombres = asegurar(arenaNombres, posicionNombre, longitudUTF8(nombre));
+            inicioSKU[filas + 1] = copiarUTF8(sku, arenaSKU, posicionSKU);
+            inicioNombre[filas + 1] = copiarUTF8(nombre, arenaNombres, posicionNombre);
+            
+            priceRetail[filas] = producto.getPriceRetail();
+            priceCurrent[filas] = producto.getPriceCurrent();
+            Integer id = idsCategoria.get(producto.getCategory());
+            if (id == null) {
+                id = categorias.size();
+                idsCategoria.put(producto.getCategory(), id);
+                categorias.add(producto.getCategory());
+            }
+            categoria[filas] = id;
+            filas++;
+        }
+        
+        private void ampliarFilas() {
+            if (filas >= MAXIMO - 1) {
+                throw new IllegalArgumentException("El catálogo tiene demasiados productos");
+            }
+            int capacidad = (int) Math.min(MAXIMO - 1, 2L * filas);
+            inicioSKU = Arrays.copyOf(inicioSKU, capacidad + 1);
+            inicioNombre = Arrays.copyOf(inicioNombre, capacidad + 1);
+            priceRetail = Arrays.copyOf(priceRetail, capacidad);
+            priceCurrent = Arrays.copyOf(priceCurrent, capacidad);
+            categoria = Arrays.copyOf(categoria, capacidad);
+        }
+        
+        /**
+         * Devuelve una arena con lugar para los bytes adicionales, duplicándola si hace falta
+         */
+        private static byte[] asegurar(byte[] arena, int usados, int adicionales) {
+            long requerido = (long) usados + adicionales;
+            if (requerido > MAXIMO) {
+                throw new IllegalArgumentException("Los textos del catálogo no caben en un solo arreglo");
+            }
+            if (requerido <= arena.length) {
+                return arena;
+            }
+            return Arrays.copyOf(arena, (int) Math.min(MAXIMO, Math.max(requerido, 2L * arena.length)));
+        }
+        
+        /**
+         * Ordena los productos cargados y arma el catálogo. El cargador no se puede
+         * seguir usando.
+         * @return Catálogo de solo lectura
+         */
+        public CatalogoColumnar terminar() {
+            if (terminado) {
+                throw new IllegalStateException("El cargador ya se terminó");
+            }
+            terminado = true;
+            CatalogoColumnar catalogo = new CatalogoColumnar(this);
+            arenaSKU = null;
+            arenaNombres = null;
+            inicioSKU = null;
+            inicioNombre = null;
+            priceRetail = null;
+            priceCurrent = null;
+            categoria = null;
+            return catalogo;
+        }
+    }
+    
+    private static int longitudUTF8(String texto) {
+        int longitud = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c < 0x80) {
+                longitud++;
+            } else {
+                // Los textos son cortos: se codifican aparte solo si tienen caracteres no ASCII
+                return texto.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return longitud;
+    }
+    
+    private static int copiarUTF8(String texto, byte[] destino, int posicion) {
+        byte[] bytes = null;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                bytes = texto.getBytes(StandardCharsets.UTF_8);
+                break;
+            }
+        }
+        if (bytes != null) {
+            System.arraycopy(bytes, 0, destino, posicion, bytes.length);
+            return posicion + bytes.length;
+        }
+        for (int i = 0; i < texto.length(); i++) {
+            destino[posicion++] = (byte) texto.charAt(i);
+        }
+        return posicion;
+    }
+    
+    /**
+     * Busca la fila de un SKU con búsqueda binaria sobre los bytes, sin crear objetos.
+     * Se ignoran los espacios en los extremos del SKU dado.
+     * @param sku SKU a buscar
+     * @return Número de fila, o -1 si no existe
+     */
+    public int buscarFila(CharSequence sku) {
+        if (sku == null) {
+            return -1;
+        }
+        int inicio = 0;
+        int fin = sku.length();
+        while (inicio < fin && sku.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && sku.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        
+        int bajo = 0;
+        int alto = filas - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int compareResult = compararSKU(sku, inicio, fin, medio);
+            if (compareResult == 0) {
+                return medio;
+            }
+            if (compareResult < 0) {
+                alto = medio - 1;
+            } else {
+                bajo = medio + 1;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Compara un texto con el SKU de una fila con el mismo orden que String.compareTo,
+     * decodificando los bytes UTF-8 a unidades UTF-16 sobre la marcha
+     */
+    private int compararSKU(CharSequence sku, int inicio, int fin, int fila) {
+        int posicion = inicioSKU[fila];
+        int limite = inicioSKU[fila + 1];
+        int i = inicio;
+        int surrogateBajo = -1; // Segunda mitad pendiente de un carácter fuera del plano básico
+        while (i < fin && (posicion < limite || surrogateBajo >= 0)) {
+            int unidad;
+            if (surrogateBajo >= 0) {
+                unidad = surrogateBajo;
+                surrogateBajo = -1;
+            } else {
+                int b = arenaSKU[posicion++] & 0xFF;
+                if (b < 0x80) {
+                    unidad = b;
+                } else if (b < 0xE0) {
+                    unidad = ((b & 0x1F) << 6) | (arenaSKU[posicion++] & 0x3F);
+                } else if (b < 0xF0) {
+                    unidad = ((b & 0x0F) << 12) | ((arenaSKU[posicion++] & 0x3F) << 6) | (arenaSKU[posicion++] & 0x3F);
+                } else {
+                    int codigo = ((b & 0x07) << 18) | ((arenaSKU[posicion++] & 0x3F) << 12)
+                            | ((arenaSKU[posicion++] & 0x3F) << 6) | (arenaSKU[posicion++] & 0x3F);
+                    unidad = Character.highSurrogate(codigo);
+                    surrogateBajo = Character.lowSurrogate(codigo);
+                }
+            }
+            char c = sku.charAt(i++);
+            if (c != unidad) {
+                return c - unidad;
+            }
+        }
+        boolean quedanEnTexto = i < fin;
+        boolean quedanEnFila = posicion < limite || surrogateBajo >= 0;
+        return quedanEnTexto ? 1 : (quedanEnFila ? -1 : 0);
+    }
+    
+    /**
+     * Primera fila cuyo SKU es mayor (o igual, si inclusivo) que el dado; filas si no hay
+     */
+    private int techo(String sku, boolean inclusivo) {
+        int bajo = 0;
+        int alto = filas;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            int compareResult = compararSKU(sku, 0, sku.length(), medio);
+            if (inclusivo ? compareResult > 0 : compareResult >= 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+    
+    /**
+     * Busca un producto por su SKU y lo crea a partir de sus columnas
+     * @param sku SKU a buscar
+     * @return El producto encontrado o null si no existe
+     */
+    @Override
+    public Producto buscar(CharSequence sku) {
+        int fila = buscarFila(sku);
+        return (fila < 0) ? null : producto(fila);
+    }
+    
+    @Override
+    public int posicion(String sku) {
+        if (sku == null) {
+            throw new IllegalArgumentException("El SKU no puede ser nulo");
+        }
+        return techo(sku, true);
+    }
+    
+    @Override
+    public List<Producto> pagina(int inicio, int limite, boolean ascendente) {
+        if (inicio < 0) {
+            throw new IndexOutOfBoundsException("Índice fuera de rango: " + inicio);
+        }
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        List<Producto> productos = new ArrayList<>(Math.max(0, Math.min(limite, filas - inicio)));
+        for (int i = inicio; i < filas && productos.size() < limite; i++) {
+            productos.add(producto(ascendente ? i : filas - 1 - i));
+        }
+        return productos;
+    }
+    
+    @Override
+    public Producto search(Producto element) {
+        if (element == null) {
+            throw new IllegalArgumentException("No se puede buscar un elemento nulo");
+        }
+        return buscar(element.getSku());
+    }
+    
+    /**
+     * Busca con un comparador sobre Producto; cada paso de la búsqueda crea un
+     * producto, así que para buscar por SKU conviene buscar(CharSequence)
+     */
+    @Override
+    public <K> Producto search(K clave, ToIntBiFunction<? super K, ? super Producto> comparador) {
+        if (clave == null || comparador == null) {
+            throw new IllegalArgumentException("La clave y el comparador no pueden ser nulos");
+        }
+        int bajo = 0;
+        int alto = filas - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            Producto producto = producto(medio);
+            int compareResult = comparador.applyAsInt(clave, producto);
+            if (compareResult == 0) {
+                return producto;
+            }
+            if (compareResult < 0) {
+                alto = medio - 1;
+            } else {
+                bajo = medio + 1;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Crea el Producto de una fila
+     * @param fila Número de fila
+     * @return Producto con los valores de la fila
+     */
+    public Producto producto(int fila) {
+        verificarFila(fila);
+        return new Producto(sku(fila), priceRetail[fila], priceCurrent[fila], nombre(fila), categoria(fila));
+    }
+    
+    /**
+     * Devuelve el SKU de una fila
+     * @param fila Número de fila
+     * @return SKU
+     */
+    public String sku(int fila) {
+        verificarFila(fila);
+        return new String(arenaSKU, inicioSKU[fila], inicioSKU[fila + 1] - inicioSKU[fila], StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Devuelve el nombre del producto de una fila
+     * @param fila Número de fila
+     * @return Nombre del producto
+     */
+    public String nombre(int fila) {
+        verificarFila(fila);
+        return new String(arenaNombres, inicioNombre[fila], inicioNombre[fila + 1] - inicioNombre[fila],
+                StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Devuelve la categoría de una fila (sin crear objetos: sale del diccionario)
+     * @param fila Número de fila
+     * @return Categoría
+     */
+    public String categoria(int fila) {
+        verificarFila(fila);
+        return diccionarioCategorias[categoria[fila]];
+    }
+    
+    /**
+     * Devuelve el identificador de la categoría de una fila en el diccionario
+     * @param fila Número de fila
+     * @return Identificador de la categoría
+     */
+    public int idCategoria(int fila) {
+        verificarFila(fila);
+        return categoria[fila];
+    }
+    
+    /**
+     * Devuelve el precio retail de una fila
+     * @param fila Número de fila
+     * @return Precio retail
+     */
+    public double priceRetail(int fila) {
+        verificarFila(fila);
+        return priceRetail[fila];
+    }
+    
+    /**
+     * Devuelve el precio actual de una fila
+     * @param fila Número de fila
+     * @return Precio actual
+     */
+    public double priceCurrent(int fila) {
+        verificarFila(fila);
+        return priceCurrent[fila];
+    }
+    
+    /**
+     * Recorre la columna de precios actuales y entrega las filas cuyo precio está
+     * en el rango. El recorrido es secuencial sobre un double[], sin objetos.
+     * @param minimo Precio mínimo (inclusivo)
+     * @param maximo Precio máximo (inclusivo)
+     * @param accion Acción a realizar con cada número de fila
+     */
+    public void filasConPrecioEntre(double minimo, double maximo, IntConsumer accion) {
+        if (accion == null) {
+            throw new IllegalArgumentException("La acción no puede ser nula");
+        }
+        for (int i = 0; i < filas; i++) {
+            double precio = priceCurrent[i];
+            if (precio >= minimo && precio <= maximo) {
+                accion.accept(i);
+            }
+        }
+    }
+    
+    /**
+     * Cuenta los productos de cada categoría
+     * @return Arreglo indexado por identificador de categoría
+     */
+    public int[] contarPorCategoria() {
+        int[] conteo = new int[diccionarioCategorias.length];
+        for (int i = 0; i < filas; i++) {
+            conteo[categoria[i]]++;
+        }
+        return conteo;
+    }
+    
+    /**
+     * Devuelve el diccionario de categorías distintas
+     * @return Categorías indexadas por su identificador
+     */
+    public String[] getCategorias() {
+        return diccionarioCategorias.clone();
+    }
+    
+    @Override
+    public void inOrderTraversal(Consumer<Producto> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("La acción no puede ser nula");
+        }
+        for (int fila = 0; fila < filas; fila++) {
+            action.accept(producto(fila));
+        }
+    }
+    
+    @Override
+    public void reverseInOrderTraversal(Consumer<Producto> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("La acción no puede ser nula");
+        }
+        for (int fila = filas - 1; fila >= 0; fila--) {
+            action.accept(producto(fila));
+        }
+    }
+    
+    @Override
+    public Iterator<Producto> iterator() {
+        return new Iterador(0, true);
+    }
+    
+    @Override
+    public Iterator<Producto> iterator(Producto desde, boolean inclusivo) {
+        if (desde == null) {
+            throw new IllegalArgumentException("El elemento inicial no puede ser nulo");
+        }
+        return new Iterador(techo(desde.getSku(), inclusivo), true);
+    }
+    
+    @Override
+    public Iterator<Producto> reverseIterator() {
+        return new Iterador(filas - 1, false);
+    }
+    
+    @Override
+    public Iterator<Producto> reverseIterator(Producto desde, boolean inclusivo) {
+        if (desde == null) {
+            throw new IllegalArgumentException("El elemento inicial no puede ser nulo");
+        }
+        // El último menor o igual es el anterior al primero mayor (o mayor o igual)
+        return new Iterador(techo(desde.getSku(), !inclusivo) - 1, false);
+    }
+    
+    /**
+     * Iterador por número de fila que crea cada producto al entregarlo
+     */
+    private class Iterador implements Iterator<Producto> {
+        private int fila;
+        private final boolean ascendente;
+        
+        Iterador(int fila, boolean ascendente) {
+            this.fila = fila;
+            this.ascendente = ascendente;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return fila >= 0 && fila < filas;
+        }
+        
+        @Override
+        public Producto next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Producto producto = producto(fila);
+            fila += ascendente ? 1 : -1;
+            return producto;
+        }
+    }
+    
+    /**
+     * Estima la memoria ocupada por las columnas (sin contar encabezados de arreglos)
+     * @return Bytes aproximados
+     */
+    public long bytesEstimados() {
+        long bytes = arenaSKU.length + arenaNombres.length;
+        bytes += 4L * (inicioSKU.length + inicioNombre.length + categoria.length);
+        bytes += 8L * (priceRetail.length + priceCurrent.length);
+        for (String valor : diccionarioCategorias) {
+            bytes += 40 + valor.length();
+        }
+        return bytes;
+    }
+    
+    @Override
+    public int size() {
+        return filas;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return filas == 0;
+    }
+    
+    private void verificarFila(int fila) {
+        if (fila < 0 || fila >= filas) {
+            throw new IndexOutOfBoundsException("Fila fuera de rango: " + fila);
+        }
+    }
+}
\ No newline at end of file
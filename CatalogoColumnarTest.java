@@ -0,0 +1,126 @@
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para el catálogo por columnas
+ */
+public class CatalogoColumnarTest {
+    
+    private BST<Producto> arbol;
+    private CatalogoColumnar catalogo;
+    
+    @Before
+    public void setUp() {
+        arbol = new BST<>(true);
+        arbol.insert(new Producto("B200", 20.0, 15.0, "Mesa de pino", "Muebles"));
+        arbol.insert(new Producto("A100", 10.0, 10.0, "Silla", "Muebles"));
+        arbol.insert(new Producto("C300", 5.5, 4.25, "Lámpara", "Iluminación"));
+        arbol.insert(new Producto("ÑANDÚ-1", 1.0, 1.0, "Peluche", "Juguetes"));
+        arbol.insert(new Producto("Z😀", 2.0, 2.0, "Emoji", "Juguetes"));
+        arbol.insert(new Producto("ZＡ", 3.0, 3.0, "Ancho", "Juguetes"));
+        catalogo = new CatalogoColumnar(arbol);
+    }
+    
+    @Test
+    public void testFilasEnOrdenDeSKU() {
+        assertEquals(6, catalogo.size());
+        List<String> esperado = new ArrayList<>();
+        arbol.inOrderTraversal(p -> esperado.add(p.getSku()));
+        for (int i = 0; i < catalogo.size(); i++) {
+            assertEquals(esperado.get(i), catalogo.sku(i));
+        }
+    }
+    
+    @Test
+    public void testBuscarYReconstruirProducto() {
+        Producto producto = catalogo.buscar("C300");
+        assertEquals("Lámpara", producto.getProductName());
+        assertEquals("Iluminación", producto.getCategory());
+        assertEquals(4.25, producto.getPriceCurrent(), 0.001);
+        
+        // Todos los SKU, incluidos los no ASCII, se encuentran con la búsqueda binaria
+        for (Producto original : arbol) {
+            assertEquals(original.getSku(), catalogo.buscar(original.getSku()).getSku());
+        }
+        assertEquals(0, catalogo.buscarFila(" A100 "));
+        assertEquals(-1, catalogo.buscarFila("A10"));
+        assertEquals(-1, catalogo.buscarFila("A1000"));
+        assertEquals(-1, catalogo.buscarFila("Z"));
+        assertNull(catalogo.buscar("NOEXISTE"));
+    }
+    
+    @Test
+    public void testCategoriasCodificadas() {
+        String[] categorias = catalogo.getCategorias();
+        assertEquals(3, categorias.length);
+        int[] conteo = catalogo.contarPorCategoria();
+        int muebles = catalogo.idCategoria(catalogo.buscarFila("A100"));
+        assertEquals("Muebles", categorias[muebles]);
+        assertEquals(2, conteo[muebles]);
+        assertSame(catalogo.categoria(0), catalogo.categoria(1));
+    }
+    
+    @Test
+    public void testRecorridoDePrecios() {
+        List<String> baratos = new ArrayList<>();
+        catalogo.filasConPrecioEntre(0.0, 5.0, fila -> baratos.add(catalogo.sku(fila)));
+        assertEquals(4, baratos.size());
+        assertTrue(baratos.contains("C300"));
+    }
+    
+    @Test
+    public void testCargadorOrdenaYSeQuedaConElUltimo() {
+        CatalogoColumnar.Cargador cargador = new CatalogoColumnar.Cargador();
+        List<Producto> desordenados = new ArrayList<>();
+        arbol.reverseInOrderTraversal(desordenados::add);
+        for (Producto producto : desordenados) {
+            cargador.agregar(producto);
+        }
+        cargador.agregar(new Producto("C300", 9.0, 9.0, "Lámpara nueva", "Iluminación"));
+        // Más filas que el tamaño inicial, para que las columnas crezcan
+        for (int i = 2999; i >= 0; i--) {
+            cargador.agregar(new Producto(String.format("M%04d", i), i, i, "Producto " + i, "Relleno"));
+        }
+        CatalogoColumnar cargado = cargador.terminar();
+        
+        assertEquals(3006, cargado.size());
+        assertEquals("Lámpara nueva", cargado.buscar("C300").getProductName());
+        for (Producto original : arbol) {
+            assertEquals(original.getSku(), cargado.buscar(original.getSku()).getSku());
+        }
+        for (int i = 1; i < cargado.size(); i++) {
+            assertTrue(cargado.sku(i - 1).compareTo(cargado.sku(i)) < 0);
+        }
+        try {
+            cargador.agregar(new Producto("X1"));
+            fail("El cargador terminado no admite productos");
+        } catch (IllegalStateException e) {
+            // Esperado
+        }
+    }
+    
+    @Test
+    public void testIteradoresYPaginas() {
+        List<String> esperado = new ArrayList<>();
+        arbol.inOrderTraversal(p -> esperado.add(p.getSku()));
+        
+        List<String> desde = new ArrayList<>();
+        catalogo.iterator(new Producto("B200"), false).forEachRemaining(p -> desde.add(p.getSku()));
+        assertEquals(esperado.subList(2, esperado.size()), desde);
+        List<String> hacia = new ArrayList<>();
+        catalogo.reverseIterator(new Producto("C"), true).forEachRemaining(p -> hacia.add(p.getSku()));
+        assertEquals(java.util.Arrays.asList("B200", "A100"), hacia);
+        
+        assertEquals(2, catalogo.posicion("C"));
+        assertEquals(3, catalogo.posicion("ZZZ"));
+        assertEquals(6, catalogo.posicion("\uFFFF"));
+        assertEquals("C300", catalogo.pagina(2, 1, true).get(0).getSku());
+        assertEquals(esperado.get(5), catalogo.pagina(0, 1, false).get(0).getSku());
+        assertTrue(catalogo.pagina(6, 3, true).isEmpty());
+        assertEquals("B200", catalogo.search(new Producto("B200")).getSku());
+    }
+}
\ No newline at end of file
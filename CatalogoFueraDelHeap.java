@@ -0,0 +1,737 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Catálogo de solo lectura guardado fuera del heap, en ByteBuffer directos.
+ * Cada producto es un registro de bytes (precios, categoría y los textos en UTF-8)
+ * y el índice ordenado es una tabla de posiciones de registros ordenada por SKU,
+ * también fuera del heap: las búsquedas son binarias sobre esa tabla y comparan
+ * los bytes del SKU sin crear objetos. Los Producto se decodifican solo cuando se
+ * piden y son temporales, así que el recolector de basura no tiene que recorrer el
+ * catálogo: en el heap quedan solo los buffers y el diccionario de categorías,
+ * sin importar el número de productos. Con el Cargador (o cargarDesdeCSV) los
+ * productos se escriben fuera del heap a medida que llegan y se ordenan ahí mismo,
+ * así que tampoco durante la carga se necesita el catálogo completo en el heap.
+ * La memoria directa se libera cuando el recolector descarta el catálogo. Las
+ * lecturas usan posiciones absolutas, así que el catálogo se puede consultar
+ * desde varios hilos a la vez.
+ */
+public class CatalogoFueraDelHeap implements CatalogoSoloLectura {
+    // Los registros se reparten en bloques de hasta 1 GB (un ByteBuffer no supera 2 GB)
+    private static final int BITS_BLOQUE = 30;
+    
+    // Registro: priceRetail, priceCurrent, id de categoría, longitudes de SKU y nombre, textos
+    private static final int RETAIL = 0;
+    private static final int CURRENT = 8;
+    private static final int CATEGORIA = 16;
+    private static final int LONGITUD_SKU = 20;
+    private static final int LONGITUD_NOMBRE = 24;
+    private static final int ENCABEZADO = 28;
+    
+    private final int filas;
+    private final int bitsBloque;
+    private final ByteBuffer[] bloques;
+    private final ByteBuffer posiciones; // Posición del registro de cada fila, 8 bytes por fila
+    private final String[] diccionarioCategorias;
+    
+    /**
+     * Construye el catálogo a partir de un índice ordenado, que ya no tiene SKU repetidos
+     * @param productos Índice con los productos (BST o BSTCompacto)
+     */
+    public CatalogoFueraDelHeap(IndiceOrdenado<Producto> productos) {
+        this(productos, BITS_BLOQUE);
+    }
+    
+    /**
+     * Construye el catálogo indicando el tamaño de los bloques (2^bitsBloque bytes)
+     */
+    CatalogoFueraDelHeap(IndiceOrdenado<Producto> productos, int bitsBloque) {
+        this(copiar(productos, bitsBloque));
+    }
+    
+    private static Cargador copiar(IndiceOrdenado<Producto> productos, int bitsBloque) {
+        if (productos == null) {
+            throw new IllegalArgumentException("El índice de productos no puede ser nulo");
+        }
+        // Un solo recorrido, para tomar una versión coherente si el árbol es concurrente
+        Cargador cargador = new Cargador(bitsBloque);
+        for (Producto producto : productos) {
+            cargador.agregar(producto);
+        }
+        return cargador;
+    }
+    
+    /**
+     * Carga un archivo CSV directamente fuera del heap: cada producto leído se
+     * escribe como registro y se descarta, así que el heap no crece con el catálogo
+     * ni siquiera durante la carga
+     * @param filePath Ruta del archivo CSV
+     * @return Catálogo de solo lectura con los productos del archivo
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static CatalogoFueraDelHeap cargarDesdeCSV(String filePath) throws IOException {
+        Cargador cargador = new Cargador();
+        CSVHandler.cargarProductosDesdeCSV(filePath, cargador::agregar);
+        return cargador.terminar();
+    }
+    
+    /**
+     * Ordena por SKU las filas del cargador, fuera del heap, y se queda con la
+     * última versión de cada SKU
+     */
+    private CatalogoFueraDelHeap(Cargador cargador) {
+        bitsBloque = cargador.bitsBloque;
+        bloques = cargador.bloques.toArray(new ByteBuffer[0]);
+        diccionarioCategorias = cargador.categorias.toArray(new String[0]);
+        
+        // Tabla de ordenamiento: los primeros bytes del SKU y la posición del registro.
+        // Casi todas las comparaciones se resuelven con el prefijo, sin leer los registros.
+        int total = cargador.filas;
+        ByteBuffer tabla = ByteBuffer.allocateDirect(total * 16);
+        for (int i = 0; i < total; i++) {
+            long posicion = cargador.posiciones.getLong(i * 8);
+            tabla.putLong(i * 16, prefijoSKU(posicion));
+            tabla.putLong(i * 16 + 8, posicion);
+        }
+        ordenar(tabla, 0, total - 1);
+        
+        // Los SKU repetidos quedan juntos y en el orden de llegada: gana el último.
+        // Las posiciones elegidas se compactan al comienzo de la misma tabla.
+        int unicos = 0;
+        for (int i = 0; i < total; i++) {
+            long posicion = tabla.getLong(i * 16 + 8);
+            if (i + 1 < total && tabla.getLong(i * 16) == tabla.getLong((i + 1) * 16)
+                    && compararRegistros(posicion, tabla.getLong((i + 1) * 16 + 8)) == 0) {
+                continue;
+            }
+            tabla.putLong(unicos++ * 8, posicion);
+        }
+        filas = unicos;
+        posiciones = ByteBuffer.allocateDirect(unicos * 8);
+        posiciones.put(0, tabla, 0, unicos * 8);
+    }
+    
+    private static int tamanoRegistro(Producto producto) {
+        long tamano = (long) ENCABEZADO + longitudUTF8(producto.getSku()) + longitudUTF8(producto.getProductName());
+        return (int) Math.min(tamano, Integer.MAX_VALUE);
+    }
+    
+    private static int longitudUTF8(String texto) {
+        int longitud = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                // Los textos son cortos: se codifican aparte solo si tienen caracteres no ASCII
+                return texto.getBytes(StandardCharsets.UTF_8).length;
+            }
+            longitud++;
+        }
+        return longitud;
+    }
+    
+    private static void escribirRegistro(ByteBuffer bloque, int posicion, Producto producto, int categoria) {
+        byte[] sku = producto.getSku().getBytes(StandardCharsets.UTF_8);
+        byte[] nombre = producto.getProductName().getBytes(StandardCharsets.UTF_8);
+        bloque.putDouble(posicion + RETAIL, producto.getPriceRetail());
+        bloque.putDouble(posicion + CURRENT, producto.getPriceCurrent());
+        bloque.putInt(posicion + CATEGORIA, categoria);
+        bloque.putInt(posicion + LONGITUD_SKU, sku.length);
+        bloque.putInt(posicion + LONGITUD_NOMBRE, nombre.length);
+        bloque.put(posicion + ENCABEZADO, sku);
+        bloque.put(posicion + ENCABEZADO + sku.length, nombre);
+    }
+    
+    /**
+     * Peso de un byte del SKU para que el orden de los bytes UTF-8 coincida con el de
+     * String.compareTo: los caracteres fuera del plano básico (F0 a F4) van antes que
+     * los de U+E000 a U+FFFF (EE y EF), porque en UTF-16 empiezan con un surrogate
+     */
+    static int peso(int b) {
+        if (b >= 0xF0 && b <= 0xF4) {
+            return b - 2;
+        }
+        if (b == 0xEE || b == 0xEF) {
+            return b + 5;
+        }
+        return b;
+    }
+    
+    /**
+     * Primeros 8 bytes del SKU de un registro, ya con su peso, como entero sin signo
+     */
+    private long prefijoSKU(long posicion) {
+        ByteBuffer bloque = bloques[(int) (posicion >>> bitsBloque)];
+        int registro = (int) (posicion & ((1L << bitsBloque) - 1));
+        int longitud = Math.min(8, bloque.getInt(registro + LONGITUD_SKU));
+        long prefijo = 0;
+        for (int i = 0; i < 8; i++) {
+            prefijo <<= 8;
+            if (i < longitud) {
+                prefijo |= peso(bloque.get(registro + ENCABEZADO + i) & 0xFF);
+            }
+        }
+        return prefijo;
+    }
+    
+    /**
+     * Compara los SKU de dos registros con el mismo orden que String.compareTo
+     */
+    private int compararRegistros(long posicionA, long posicionB) {
+        ByteBuffer bloqueA = bloques[(int) (posicionA >>> bitsBloque)];
+        ByteBuffer bloqueB = bloques[(int) (posicionB >>> bitsBloque)];
+        int registroA = (int) (posicionA & ((1L << bitsBloque) - 1));
+        int registroB = (int) (posicionB & ((1L << bitsBloque) - 1));
+        int longitudA = bloqueA.getInt(registroA + LONGITUD_SKU);
+        int longitudB = bloqueB.getInt(registroB + LONGITUD_SKU);
+        int comunes = Math.min(longitudA, longitudB);
+        for (int i = 0; i < comunes; i++) {
+            int a = bloqueA.get(registroA + ENCABEZADO + i) & 0xFF;
+            int b = bloqueB.get(registroB + ENCABEZADO + i) & 0xFF;
+            if (a != b) {
+                return peso(a) - peso(b);
+            }
+        }
+        return longitudA - longitudB;
+    }
+    
+    /**
+     * Compara la entrada i de la tabla de ordenamiento con una entrada dada por sus
+     * valores. A igual SKU decide la posición, es decir, el orden de llegada.
+     */
+    private int compararEntrada(ByteBuffer tabla, int i, long prefijo, long posicion) {
+        int compareResult = Long.compareUnsigned(tabla.getLong(i * 16), prefijo);
+        if (compareResult != 0) {
+            return compareResult;
+        }
+        long posicionEntrada = tabla.getLong(i * 16 + 8);
+        compareResult = compararRegistros(posicionEntrada, posicion);
+        return (compareResult != 0) ? compareResult : Long.compare(posicionEntrada, posicion);
+    }
+    
+    private int compararEntradas(ByteBuffer tabla, int i, int j) {
+        return compararEntrada(tabla, i, tabla.getLong(j * 16), tabla.getLong(j * 16 + 8));
+    }
+    
+    private static void intercambiar(ByteBuffer tabla, int i, int j) {
+        long prefijo = tabla.getLong(i * 16);
+        long posicion = tabla.getLong(i * 16 + 8);
+        tabla.putLong(i * 16, tabla.getLong(j * 16));
+        tabla.putLong(i * 16 + 8, tabla.getLong(j * 16 + 8));
+        tabla.putLong(j * 16, prefijo);
+        tabla.putLong(j * 16 + 8, posicion);
+    }
+    
+    /**
+     * Quicksort sobre la tabla de ordenamiento, sin copiarla al heap. Las entradas
+     * son todas distintas (la posición desempata), así que la partición siempre avanza.
+     */
+    private void ordenar(ByteBuffer tabla, int inicio, int fin) {
+        while (fin - inicio > 16) {
+            // Pivote: mediana del primero, el del medio y el último
+            int medio = (inicio + fin) >>> 1;
+            if (compararEntradas(tabla, medio, inicio) < 0) {
+                intercambiar(tabla, medio, inicio);
+            }
+            if (compararEntradas(tabla, fin, inicio) < 0) {
+                intercambiar(tabla, fin, inicio);
+            }
+            if (compararEntradas(tabla, fin, medio) < 0) {
+                intercambiar(tabla, fin, medio);
+            }
+            long prefijo = tabla.getLong(medio * 16);
+            long posicion = tabla.getLong(medio * 16 + 8);
+            int i = inicio;
+            int j = fin;
+            while (i <= j) {
+                while (compararEntrada(tabla, i, prefijo, posicion) < 0) {
+                    i++;
+                }
+                while (compararEntrada(tabla, j, prefijo, posicion) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    intercambiar(tabla, i++, j--);
+                }
+            }
+            // Recursión sobre la parte menor para acotar la profundidad a O(log n)
+            if (j - inicio < fin - i) {
+                ordenar(tabla, inicio, j);
+                inicio = i;
+            } else {
+                ordenar(tabla, i, fin);
+                fin = j;
+            }
+        }
+        // Inserción para los rangos pequeños
+        for (int i = inicio + 1; i <= fin; i++) {
+            for (int j = i; j > inicio && compararEntradas(tabla, j, j - 1) < 0; j--) {
+                intercambiar(tabla, j, j - 1);
+            }
+        }
+    }
+    
+    /**
+     * Carga productos directamente fuera del heap, de a uno y en cualquier orden,
+     * sin guardar los Producto: cada uno se escribe como registro apenas llega.
+     * Al terminar, las filas se ordenan por SKU fuera del heap y, si un SKU se
+     * repite, queda el último en llegar (como al insertar en el árbol).
+     * No es seguro usarlo desde varios hilos.
+     */
+    public static final class Cargador {
+        private static final int TAMANO_INICIAL = 64 * 1024;
+        // La tabla de ordenamiento usa 16 bytes por fila en un solo ByteBuffer
+        private static final int MAXIMO_FILAS = Integer.MAX_VALUE / 16;
+        
+        private final int bitsBloque;
+        private final List<ByteBuffer> bloques = new ArrayList<>();
+        private final Map<String, Integer> idsCategoria = new HashMap<>();
+        private final List<String> categorias = new ArrayList<>();
+        private ByteBuffer posiciones = ByteBuffer.allocateDirect(TAMANO_INICIAL);
+        private int ocupado; // Bytes usados del último bloque
+        private int filas;
+        private boolean terminado;
+        
+        /**
+         * Crea un cargador vacío
+         */
+        public Cargador() {
+            this(BITS_BLOQUE);
+        }
+        
+        Cargador(int bitsBloque) {
+            this.bitsBloque = bitsBloque;
+        }
+        
+        /**
+         * Escribe un producto fuera del heap
+         * @param producto Producto a agregar
+         */
+        public void agregar(Producto producto) {
+            if (producto == null) {
+                throw new IllegalArgumentException("El producto no puede ser nulo");
+            }
+            if (terminado) {
+                throw new IllegalStateException("El cargador ya se terminó");
+            }
+            if (filas == MAXIMO_FILAS) {
+                throw new IllegalArgumentException("El catálogo tiene demasiados productos");
+            }
+            long tamanoBloque = 1L << bitsBloque;
+            int tamano = tamanoRegistro(producto);
+            if (tamano > tamanoBloque) {
+                throw new IllegalArgumentException("El producto " + producto.getSku() + " no cabe en un bloque");
+            }
+            ByteBuffer bloque = reservar(tamano, tamanoBloque);
+            Integer categoria = idsCategoria.get(producto.getCategory());
+            if (categoria == null) {
+                categoria = categorias.size();
+                idsCategoria.put(producto.getCategory(), categoria);
+                categorias.add(producto.getCategory());
+            }
+            escribirRegistro(bloque, ocupado, producto, categoria);
+            
+            if ((filas + 1) * 8 > posiciones.capacity()) {
+                posiciones = ampliar(posiciones, filas * 8, (int) Math.min(2L * posiciones.capacity(), MAXIMO_FILAS * 8L));
+            }
+            posiciones.putLong(filas * 8, ((long) (bloques.size() - 1) << bitsBloque) | ocupado);
+            filas++;
+            ocupado += tamano;
+        }
+        
+        /**
+         * Devuelve el bloque donde escribir un registro del tamaño dado. El último
+         * bloque crece duplicándose hasta el tamaño máximo; después se abre otro.
+         */
+        private ByteBuffer reservar(int tamano, long tamanoBloque) {
+            int ultimo = bloques.size() - 1;
+            if (ultimo >= 0 && ocupado + tamano <= tamanoBloque) {
+                ByteBuffer bloque = bloques.get(ultimo);
+                if (ocupado + tamano > bloque.capacity()) {
+                    bloque = ampliar(bloque, ocupado,
+                            (int) Math.min(tamanoBloque, Math.max(2L * bloque.capacity(), ocupado + tamano)));
+                    bloques.set(ultimo, bloque);
+                }
+                return bloque;
+            }
+            ByteBuffer bloque = ByteBuffer.allocateDirect((int) Math.min(tamanoBloque, Math.max(TAMANO_INICIAL, tamano)));
+            bloques.add(bloque);
+            ocupado = 0;
+            return bloque;
+        }
+        
+        private static ByteBuffer ampliar(ByteBuffer anterior, int usados, int capacidad) {
+            ByteBuffer nuevo = ByteBuffer.allocateDirect(capacidad);
+            nuevo.put(0, anterior, 0, usados);
+            return nuevo;
+        }
+        
+        /**
+         * Ordena los productos cargados y arma el catálogo. El cargador no se puede
+         * seguir usando.
+         * @return Catálogo de solo lectura
+         */
+        public CatalogoFueraDelHeap terminar() {
+            if (terminado) {
+                throw new IllegalStateException("El cargador ya se terminó");
+            }
+            terminado = true;
+            // El último bloque se recorta a lo que realmente ocupa
+            int ultimo = bloques.size() - 1;
+            if (ultimo >= 0 && bloques.get(ultimo).capacity() > ocupado) {
+                bloques.set(ultimo, ampliar(bloques.get(ultimo), ocupado, ocupado));
+            }
+            CatalogoFueraDelHeap catalogo = new CatalogoFueraDelHeap(this);
+            posiciones = null;
+            bloques.clear();
+            return catalogo;
+        }
+    }
+    
+    private ByteBuffer bloque(int fila) {
+        return bloques[(int) (posiciones.getLong(fila * 8) >>> bitsBloque)];
+    }
+    
+    private int registro(int fila) {
+        return (int) (posiciones.getLong(fila * 8) & ((1L << bitsBloque) - 1));
+    }
+    
+    /**
+     * Busca la fila de un SKU con búsqueda binaria sobre los registros, sin crear objetos.
+     * Se ignoran los espacios en los extremos del SKU dado.
+     * @param sku SKU a buscar
+     * @return Número de fila, o -1 si no existe
+     */
+    public int buscarFila(CharSequence sku) {
+        if (sku == null) {
+            return -1;
+        }
+        int inicio = 0;
+        int fin = sku.length();
+        while (inicio < fin && sku.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && sku.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        
+        int bajo = 0;
+        int alto = filas - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            int compareResult = compararSKU(sku, inicio, fin, medio);
+            if (compareResult == 0) {
+                return medio;
+            }
+            if (compareResult < 0) {
+                alto = medio - 1;
+            } else {
+                bajo = medio + 1;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Primera fila cuyo SKU es mayor (o igual, si inclusivo) que el dado; filas si no hay
+     */
+    private int techo(String sku, boolean inclusivo) {
+        int bajo = 0;
+        int alto = filas;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            int compareResult = compararSKU(sku, 0, sku.length(), medio);
+            if (inclusivo ? compareResult > 0 : compareResult >= 0) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+    
+    /**
+     * Compara un texto con el SKU de una fila con el mismo orden que String.compareTo,
+     * decodificando los bytes UTF-8 a unidades UTF-16 sobre la marcha
+     */
+    private int compararSKU(CharSequence sku, int inicio, int fin, int fila) {
+        ByteBuffer bloque = bloque(fila);
+        int registro = registro(fila);
+        int posicion = registro + ENCABEZADO;
+        int limite = posicion + bloque.getInt(registro + LONGITUD_SKU);
+        int i = inicio;
+        int surrogateBajo = -1; // Segunda mitad pendiente de un carácter fuera del plano básico
+        while (i < fin && (posicion < limite || surrogateBajo >= 0)) {
+            int unidad;
+            if (surrogateBajo >= 0) {
+                unidad = surrogateBajo;
+                surrogateBajo = -1;
+            } else {
+                int b = bloque.get(posicion++) & 0xFF;
+                if (b < 0x80) {
+                    unidad = b;
+                } else if (b < 0xE0) {
+                    unidad = ((b & 0x1F) << 6) | (bloque.get(posicion++) & 0x3F);
+                } else if (b < 0xF0) {
+                    unidad = ((b & 0x0F) << 12) | ((bloque.get(posicion++) & 0x3F) << 6)
+                            | (bloque.get(posicion++) & 0x3F);
+                } else {
+                    int codigo = ((b & 0x07) << 18) | ((bloque.get(posicion++) & 0x3F) << 12)
+                            | ((bloque.get(posicion++) & 0x3F) << 6) | (bloque.get(posicion++) & 0x3F);
+                    unidad = Character.highSurrogate(codigo);
+                    surrogateBajo = Character.lowSurrogate(codigo);
+                }
+            }
+            char c = sku.charAt(i++);
+            if (c != unidad) {
+                return c - unidad;
+            }
+        }
+        boolean quedanEnTexto = i < fin;
+        boolean quedanEnFila = posicion < limite || surrogateBajo >= 0;
+        return quedanEnTexto ? 1 : (quedanEnFila ? -1 : 0);
+    }
+    
+    /**
+     * Busca un producto por su SKU y lo decodifica desde su registro
+     * @param sku SKU a buscar
+     * @return El producto encontrado o null si no existe
+     */
+    @Override
+    public Producto buscar(CharSequence sku) {
+        int fila = buscarFila(sku);
+        return (fila < 0) ? null : producto(fila);
+    }
+    
+    @Override
+    public int posicion(String sku) {
+        if (sku == null) {
+            throw new IllegalArgumentException("El SKU no puede ser nulo");
+        }
+        return techo(sku, true);
+    }
+    
+    @Override
+    public List<Producto> pagina(int inicio, int limite, boolean ascendente) {
+        if (inicio < 0) {
+            throw new IndexOutOfBoundsException("Índice fuera de rango: " + inicio);
+        }
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        List<Producto> productos = new ArrayList<>(Math.max(0, Math.min(limite, filas - inicio)));
+        for (int i = inicio; i < filas && productos.size() < limite; i++) {
+            productos.add(producto(ascendente ? i : filas - 1 - i));
+        }
+        return productos;
+    }
+    
+    @Override
+    public Producto search(Producto element) {
+        if (element == null) {
+            throw new IllegalArgumentException("No se puede buscar un elemento nulo");
+        }
+        return buscar(element.getSku());
+    }
+    
+    /**
+     * Busca con un comparador sobre Producto; cada paso de la búsqueda decodifica
+     * un producto, así que para buscar por SKU conviene buscar(CharSequence)
+     */
+    @Override
+    public <K> Producto search(K clave, ToIntBiFunction<? super K, ? super Producto> comparador) {
+        if (clave == null || comparador == null) {
+            throw new IllegalArgumentException("La clave y el comparador no pueden ser nulos");
+        }
+        int bajo = 0;
+        int alto = filas - 1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            Producto producto = producto(medio);
+            int compareResult = comparador.applyAsInt(clave, producto);
+            if (compareResult == 0) {
+                return producto;
+            }
+            if (compareResult < 0) {
+                alto = medio - 1;
+            } else {
+                bajo = medio + 1;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Decodifica el Producto de una fila
+     * @param fila Número de fila
+     * @return Producto con los valores de la fila
+     */
+    public Producto producto(int fila) {
+        verificarFila(fila);
+        ByteBuffer bloque = bloque(fila);
+        int registro = registro(fila);
+        int longitudSKU = bloque.getInt(registro + LONGITUD_SKU);
+        String sku = texto(bloque, registro + ENCABEZADO, longitudSKU);
+        String nombre = texto(bloque, registro + ENCABEZADO + longitudSKU, bloque.getInt(registro + LONGITUD_NOMBRE));
+        return new Producto(sku, bloque.getDouble(registro + RETAIL), bloque.getDouble(registro + CURRENT),
+                nombre, diccionarioCategorias[bloque.getInt(registro + CATEGORIA)]);
+    }
+    
+    private static String texto(ByteBuffer bloque, int posicion, int longitud) {
+        byte[] bytes = new byte[longitud];
+        bloque.get(posicion, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Devuelve el SKU de una fila
+     * @param fila Número de fila
+     * @return SKU
+     */
+    public String sku(int fila) {
+        verificarFila(fila);
+        ByteBuffer bloque = bloque(fila);
+        int registro = registro(fila);
+        return texto(bloque, registro + ENCABEZADO, bloque.getInt(registro + LONGITUD_SKU));
+    }
+    
+    /**
+     * Devuelve el precio actual de una fila sin decodificar el producto
+     * @param fila Número de fila
+     * @return Precio actual
+     */
+    public double priceCurrent(int fila) {
+        verificarFila(fila);
+        return bloque(fila).getDouble(registro(fila) + CURRENT);
+    }
+    
+    /**
+     * Devuelve el precio retail de una fila sin decodificar el producto
+     * @param fila Número de fila
+     * @return Precio retail
+     */
+    public double priceRetail(int fila) {
+        verificarFila(fila);
+        return bloque(fila).getDouble(registro(fila) + RETAIL);
+    }
+    
+    /**
+     * Devuelve la categoría de una fila (sin crear objetos: sale del diccionario)
+     * @param fila Número de fila
+     * @return Categoría
+     */
+    public String categoria(int fila) {
+        verificarFila(fila);
+        return diccionarioCategorias[bloque(fila).getInt(registro(fila) + CATEGORIA)];
+    }
+    
+    @Override
+    public void inOrderTraversal(Consumer<Producto> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("La acción no puede ser nula");
+        }
+        for (int fila = 0; fila < filas; fila++) {
+            action.accept(producto(fila));
+        }
+    }
+    
+    @Override
+    public void reverseInOrderTraversal(Consumer<Producto> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("La acción no puede ser nula");
+        }
+        for (int fila = filas - 1; fila >= 0; fila--) {
+            action.accept(producto(fila));
+        }
+    }
+    
+    @Override
+    public Iterator<Producto> iterator() {
+        return new Iterador(0, true);
+    }
+    
+    @Override
+    public Iterator<Producto> iterator(Producto desde, boolean inclusivo) {
+        if (desde == null) {
+            throw new IllegalArgumentException("El elemento inicial no puede ser nulo");
+        }
+        return new Iterador(techo(desde.getSku(), inclusivo), true);
+    }
+    
+    @Override
+    public Iterator<Producto> reverseIterator() {
+        return new Iterador(filas - 1, false);
+    }
+    
+    @Override
+    public Iterator<Producto> reverseIterator(Producto desde, boolean inclusivo) {
+        if (desde == null) {
+            throw new IllegalArgumentException("El elemento inicial no puede ser nulo");
+        }
+        // El último menor o igual es el anterior al primero mayor (o mayor o igual)
+        return new Iterador(techo(desde.getSku(), !inclusivo) - 1, false);
+    }
+    
+    /**
+     * Iterador por número de fila que decodifica cada producto al entregarlo
+     */
+    private class Iterador implements Iterator<Producto> {
+        private int fila;
+        private final boolean ascendente;
+        
+        Iterador(int fila, boolean ascendente) {
+            this.fila = fila;
+            this.ascendente = ascendente;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return fila >= 0 && fila < filas;
+        }
+        
+        @Override
+        public Producto next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Producto producto = producto(fila);
+            fila += ascendente ? 1 : -1;
+            return producto;
+        }
+    }
+    
+    /**
+     * Devuelve la memoria reservada fuera del heap
+     * @return Bytes de los bloques de registros y de la tabla de posiciones
+     */
+    public long bytesFueraDelHeap() {
+        long bytes = posiciones.capacity();
+        for (ByteBuffer bloque : bloques) {
+            bytes += bloque.capacity();
+        }
+        return bytes;
+    }
+    
+    @Override
+    public int size() {
+        return filas;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        return filas == 0;
+    }
+    
+    private void verificarFila(int fila) {
+        if (fila < 0 || fila >= filas) {
+            throw new IndexOutOfBoundsException("Fila fuera de rango: " + fila);
+        }
+    }
+}
\ No newline at end of file
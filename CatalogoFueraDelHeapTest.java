@@ -0,0 +1,138 @@
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para el catálogo guardado fuera del heap
+ */
+public class CatalogoFueraDelHeapTest {
+    
+    private BST<Producto> arbol;
+    
+    @Before
+    public void setUp() {
+        arbol = new BST<>(true);
+        arbol.insert(new Producto("B200", 20.0, 15.0, "Mesa de pino", "Muebles"));
+        arbol.insert(new Producto("A100", 10.0, 10.0, "Silla", "Muebles"));
+        arbol.insert(new Producto("C300", 5.5, 4.25, "Lámpara", "Iluminación"));
+        arbol.insert(new Producto("ÑANDÚ-1", 1.0, 1.0, "Peluche", "Juguetes"));
+        arbol.insert(new Producto("Z😀", 2.0, 2.0, "Emoji", "Juguetes"));
+        arbol.insert(new Producto("ZＡ", 3.0, 3.0, "Ancho", "Juguetes"));
+    }
+    
+    private static List<String> skus(Iterator<Producto> iterador) {
+        List<String> skus = new ArrayList<>();
+        iterador.forEachRemaining(p -> skus.add(p.getSku()));
+        return skus;
+    }
+    
+    @Test
+    public void testMismoContenidoQueElArbol() {
+        CatalogoFueraDelHeap catalogo = new CatalogoFueraDelHeap(arbol);
+        assertEquals(6, catalogo.size());
+        assertEquals(skus(arbol.iterator()), skus(catalogo.iterator()));
+        assertEquals(skus(arbol.reverseIterator()), skus(catalogo.reverseIterator()));
+        for (Producto producto : arbol) {
+            assertEquals(producto.toString(), catalogo.buscar(producto.getSku()).toString());
+            assertEquals(producto.getCategory(), catalogo.search(producto).getCategory());
+        }
+        assertTrue(catalogo.bytesFueraDelHeap() > 0);
+    }
+    
+    @Test
+    public void testBuscar() {
+        CatalogoFueraDelHeap catalogo = new CatalogoFueraDelHeap(arbol);
+        Producto producto = catalogo.buscar("  C300 ");
+        assertEquals("Lámpara", producto.getProductName());
+        assertEquals(4.25, producto.getPriceCurrent(), 0.0);
+        assertEquals(5.5, producto.getPriceRetail(), 0.0);
+        assertEquals("Iluminación", producto.getCategory());
+        assertNull(catalogo.buscar("C30"));
+        assertNull(catalogo.buscar("Z"));
+        assertNull(catalogo.buscar(null));
+        assertEquals("Z😀", catalogo.buscar("Z😀").getSku());
+        assertEquals("B200", catalogo.search("B200", Producto.COMPARADOR_SKU).getSku());
+    }
+    
+    @Test
+    public void testIteradoresDesdeUnSKU() {
+        CatalogoFueraDelHeap catalogo = new CatalogoFueraDelHeap(arbol);
+        for (String desde : new String[] {"A", "A100", "B200", "B3", "Z", "ZＡ", "ÿ"}) {
+            Producto producto = new Producto(desde);
+            for (boolean inclusivo : new boolean[] {true, false}) {
+                assertEquals(skus(arbol.iterator(producto, inclusivo)), skus(catalogo.iterator(producto, inclusivo)));
+                assertEquals(skus(arbol.reverseIterator(producto, inclusivo)),
+                        skus(catalogo.reverseIterator(producto, inclusivo)));
+            }
+        }
+    }
+    
+    @Test
+    public void testVariosBloques() {
+        BST<Producto> grande = new BST<>(true);
+        for (int i = 0; i < 500; i++) {
+            grande.insert(new Producto(String.format("SKU%04d", i), i, i / 2.0, "Producto " + i, "Cat " + (i % 4)));
+        }
+        // Bloques de 128 bytes: caben dos o tres registros por bloque
+        CatalogoFueraDelHeap catalogo = new CatalogoFueraDelHeap(grande, 7);
+        List<String> recorrido = new ArrayList<>();
+        catalogo.inOrderTraversal(p -> recorrido.add(p.toString()));
+        List<String> esperado = new ArrayList<>();
+        grande.inOrderTraversal(p -> esperado.add(p.toString()));
+        assertEquals(esperado, recorrido);
+        for (int i = 0; i < 500; i++) {
+            int fila = catalogo.buscarFila(String.format("SKU%04d", i));
+            assertEquals(i, fila);
+            assertEquals(i / 2.0, catalogo.priceCurrent(fila), 0.0);
+            assertEquals("Cat " + (i % 4), catalogo.categoria(fila));
+        }
+    }
+    
+    @Test
+    public void testCargadorOrdenaYSeQuedaConElUltimo() {
+        // Orden de llegada arbitrario, con SKU repetidos y de varios largos
+        java.util.Random random = new java.util.Random(11);
+        BST<Producto> esperado = new BST<>(true);
+        CatalogoFueraDelHeap.Cargador cargador = new CatalogoFueraDelHeap.Cargador(10);
+        String[] especiales = {"Z😀", "ZＡ", "ÑANDÚ-1", "A", "AB", "ABCDEFGHIJ", "ABCDEFGHI", "ABCDEFGH"};
+        for (int i = 0; i < 3000; i++) {
+            String sku = (i % 10 == 0) ? especiales[random.nextInt(especiales.length)]
+                    : "SKU-" + random.nextInt(1500);
+            Producto producto = new Producto(sku, i, i, "Producto " + i, "Cat " + (i % 3));
+            esperado.insert(producto);
+            cargador.agregar(producto);
+        }
+        CatalogoFueraDelHeap catalogo = cargador.terminar();
+        
+        List<String> recorrido = new ArrayList<>();
+        catalogo.inOrderTraversal(p -> recorrido.add(p.toString()));
+        List<String> enArbol = new ArrayList<>();
+        esperado.inOrderTraversal(p -> enArbol.add(p.toString()));
+        assertEquals(enArbol, recorrido);
+        for (Producto producto : esperado) {
+            assertEquals(esperado.rank(producto), catalogo.posicion(producto.getSku()));
+        }
+        assertEquals(skus(esperado.pageAt(10, 5).iterator()), skus(catalogo.pagina(10, 5, true).iterator()));
+        assertEquals(skus(esperado.reversePageAt(3, 4).iterator()), skus(catalogo.pagina(3, 4, false).iterator()));
+        
+        try {
+            cargador.agregar(new Producto("X"));
+            fail("El cargador terminado no debe aceptar productos");
+        } catch (IllegalStateException e) {
+            // Esperado
+        }
+    }
+    
+    @Test
+    public void testVacio() {
+        CatalogoFueraDelHeap catalogo = new CatalogoFueraDelHeap(new BST<Producto>());
+        assertTrue(catalogo.isEmpty());
+        assertNull(catalogo.buscar("A"));
+        assertFalse(catalogo.iterator().hasNext());
+        assertFalse(catalogo.reverseIterator(new Producto("A"), true).hasNext());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+import java.util.List;
+
+/**
+ * Catálogo de productos de solo lectura ordenado por SKU, que se consulta sin
+ * árbol: las búsquedas son binarias sobre las filas y los Producto se crean
+ * solo cuando se piden (por columnas en el heap o por registros fuera del heap).
+ */
+public interface CatalogoSoloLectura extends IndiceOrdenado<Producto> {
+    
+    /**
+     * Busca un producto por su SKU, ignorando los espacios en los extremos
+     * @param sku SKU a buscar
+     * @return El producto encontrado o null si no existe
+     */
+    Producto buscar(CharSequence sku);
+    
+    /**
+     * Devuelve la posición que ocupa (u ocuparía) un SKU en orden ascendente
+     * @param sku SKU a ubicar
+     * @return Número de productos con SKU menor
+     */
+    int posicion(String sku);
+    
+    /**
+     * Devuelve una página de productos a partir de una posición, en O(tamaño de página)
+     * @param inicio Posición del primer producto en el orden pedido, empezando en 0
+     * @param limite Número máximo de productos
+     * @param ascendente true para orden ascendente por SKU, false para descendente
+     * @return Productos de la página (vacía si la posición está fuera del catálogo)
+     */
+    List<Producto> pagina(int inicio, int limite, boolean ascendente);
+}
\ No newline at end of file
@@ -0,0 +1,277 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Diccionario para deduplicar los valores de columnas con pocos valores distintos
+ * (por ejemplo la categoría) mientras se lee un archivo. Los valores se buscan
+ * directamente sobre los caracteres o bytes del lector: si el valor ya existe se
+ * devuelve la instancia compartida sin crear un String; solo se crea uno la primera
+ * vez que aparece. Una instancia no es segura entre hilos; varios diccionarios
+ * pueden compartir un mapa concurrente para que todos usen las mismas instancias.
+ */
+public class DiccionarioTextos {
+    private static final int MAXIMO_VALORES_POR_DEFECTO = 1 << 16;
+    
+    private final Map<String, String> compartido; // null si el diccionario no se comparte
+    private final int maximoValores;
+    
+    // Tabla de direccionamiento abierto con los valores y sus códigos hash
+    private String[] valores;
+    private int[] hashes;
+    private int cantidad;
+    
+    // Buffer para decodificar UTF-8 antes de buscar
+    private char[] auxiliar = new char[64];
+    
+    private long consultas;
+    private long compartidos;
+    private long bytesAhorrados;
+    
+    /**
+     * Crea un diccionario independiente
+     */
+    public DiccionarioTextos() {
+        this(null, MAXIMO_VALORES_POR_DEFECTO);
+    }
+    
+    /**
+     * Crea un diccionario que, cuando un valor es nuevo para él, lo busca primero
+     * en un mapa compartido con otros diccionarios
+     * @param compartido Mapa concurrente compartido (puede ser null)
+     * @param maximoValores Número máximo de valores distintos; a partir de ahí la
+     *                      columna no se considera de baja cardinalidad y los valores
+     *                      nuevos ya no se guardan
+     */
+    public DiccionarioTextos(Map<String, String> compartido, int maximoValores) {
+        if (maximoValores < 1) {
+            throw new IllegalArgumentException("El máximo de valores debe ser positivo");
+        }
+        this.compartido = compartido;
+        this.maximoValores = maximoValores;
+        this.valores = new String[64];
+        this.hashes = new int[64];
+    }
+    
+    /**
+     * Devuelve la instancia compartida del texto formado por un rango de caracteres
+     * @param texto Caracteres
+     * @param inicio Posición del primer carácter
+     * @param fin Posición siguiente al último carácter
+     * @return Instancia única del valor
+     */
+    public String obtener(char[] texto, int inicio, int fin) {
+        consultas++;
+        int hash = 0;
+        for (int i = inicio; i < fin; i++) {
+            hash = 31 * hash + texto[i];
+        }
+        
+        int mascara = valores.length - 1;
+        for (int i = mezclar(hash) & mascara; valores[i] != null; i = (i + 1) & mascara) {
+            if (hashes[i] == hash && iguales(valores[i], texto, inicio, fin)) {
+                compartidos++;
+                bytesAhorrados += tamanoString(valores[i]);
+                return valores[i];
+            }
+        }
+        return agregar(new String(texto, inicio, fin - inicio), hash);
+    }
+    
+    /**
+     * Devuelve la instancia compartida del texto codificado en UTF-8 en un rango de bytes
+     * @param utf8 Bytes en UTF-8
+     * @param inicio Posición del primer byte
+     * @param fin Posición siguiente al último byte
+     * @return Instancia única del valor
+     */
+    public String obtener(byte[] utf8, int inicio, int fin) {
+        int longitud = decodificar(utf8, inicio, fin);
+        if (longitud < 0) {
+            // UTF-8 inválido: lo decodifica String (con caracteres de reemplazo) y no se guarda
+            consultas++;
+            return new String(utf8, inicio, fin - inicio, StandardCharsets.UTF_8);
+        }
+        return obtener(auxiliar, 0, longitud);
+    }
+    
+    /**
+     * Devuelve la instancia compartida de un String ya creado
+     * @param texto Texto a deduplicar
+     * @return Instancia única del valor
+     */
+    public String obtener(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        if (auxiliar.length < texto.length()) {
+            auxiliar = new char[Math.max(texto.length(), auxiliar.length * 2)];
+        }
+        texto.getChars(0, texto.length(), auxiliar, 0);
+        return obtener(auxiliar, 0, texto.length());
+    }
+    
+    /**
+     * Decodifica UTF-8 al buffer auxiliar
+     * @return Número de caracteres, o -1 si los bytes no son UTF-8 válido
+     */
+    private int decodificar(byte[] utf8, int inicio, int fin) {
+        if (auxiliar.length < fin - inicio) {
+            auxiliar = new char[Math.max(fin - inicio, auxiliar.length * 2)];
+        }
+        int n = 0;
+        int i = inicio;
+        while (i < fin) {
+            int b = utf8[i++] & 0xFF;
+            if (b < 0x80) {
+                auxiliar[n++] = (char) b;
+                continue;
+            }
+            int continuaciones;
+            int codigo;
+            if (b >= 0xC2 && b < 0xE0) {
+                continuaciones = 1;
+                codigo = b & 0x1F;
+            } else if (b >= 0xE0 && b < 0xF0) {
+                continuaciones = 2;
+                codigo = b & 0x0F;
+            } else if (b >= 0xF0 && b < 0xF5) {
+                continuaciones = 3;
+                codigo = b & 0x07;
+            } else {
+                return -1;
+            }
+            if (i + continuaciones > fin) {
+                return -1;
+            }
+            for (int j = 0; j < continuaciones; j++) {
+                int c = utf8[i++] & 0xFF;
+                if ((c & 0xC0) != 0x80) {
+                    return -1;
+                }
+                codigo = (codigo << 6) | (c & 0x3F);
+            }
+            // Rechazamos codificaciones largas, surrogates y valores fuera de Unicode
+            if ((continuaciones == 2 && (codigo < 0x800 || Character.isSurrogate((char) codigo)))
+                    || (continuaciones == 3 && (codigo < 0x10000 || codigo > 0x10FFFF))) {
+                return -1;
+            }
+            if (codigo >= 0x10000) {
+                auxiliar[n++] = Character.highSurrogate(codigo);
+                auxiliar[n++] = Character.lowSurrogate(codigo);
+            } else {
+                auxiliar[n++] = (char) codigo;
+            }
+        }
+        return n;
+    }
+    
+    private String agregar(String valor, int hash) {
+        if (cantidad >= maximoValores) {
+            return valor; // Demasiados valores distintos: la columna ya no se deduplica
+        }
+        if (compartido != null) {
+            String existente = compartido.putIfAbsent(valor, valor);
+            if (existente != null) {
+                // Otro diccionario ya lo tenía: el String recién creado se descarta
+                compartidos++;
+                bytesAhorrados += tamanoString(existente);
+                valor = existente;
+            }
+        }
+        if (2 * (cantidad + 1) > valores.length) {
+            redimensionar();
+        }
+        int mascara = valores.length - 1;
+        int i = mezclar(hash) & mascara;
+        while (valores[i] != null) {
+            i = (i + 1) & mascara;
+        }
+        valores[i] = valor;
+        hashes[i] = hash;
+        cantidad++;
+        return valor;
+    }
+    
+    private void redimensionar() {
+        String[] anteriores = valores;
+        int[] hashesAnteriores = hashes;
+        valores = new String[anteriores.length * 2];
+        hashes = new int[anteriores.length * 2];
+        int mascara = valores.length - 1;
+        for (int j = 0; j < anteriores.length; j++) {
+            if (anteriores[j] != null) {
+                int i = mezclar(hashesAnteriores[j]) & mascara;
+                while (valores[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                valores[i] = anteriores[j];
+                hashes[i] = hashesAnteriores[j];
+            }
+        }
+    }
+    
+    private static int mezclar(int hash) {
+        int mezcla = hash * 0x9E3779B9;
+        return mezcla ^ (mezcla >>> 16);
+    }
+    
+    private static boolean iguales(String valor, char[] texto, int inicio, int fin) {
+        if (valor.length() != fin - inicio) {
+            return false;
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) != texto[inicio + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Estima los bytes que ocupa un String en el heap: el objeto más su arreglo
+     * (un byte por carácter si todos son Latin-1, dos en otro caso)
+     */
+    static long tamanoString(String valor) {
+        int bytesPorCaracter = 1;
+        for (int i = 0; i < valor.length(); i++) {
+            if (valor.charAt(i) > 0xFF) {
+                bytesPorCaracter = 2;
+                break;
+            }
+        }
+        long arreglo = (16 + (long) valor.length() * bytesPorCaracter + 7) & ~7L;
+        return 24 + arreglo;
+    }
+    
+    /**
+     * Devuelve el número de valores consultados
+     * @return Número de consultas
+     */
+    public long getConsultas() {
+        return consultas;
+    }
+    
+    /**
+     * Devuelve cuántas consultas devolvieron una instancia que ya existía
+     * @return Número de valores compartidos
+     */
+    public long getCompartidos() {
+        return compartidos;
+    }
+    
+    /**
+     * Devuelve el número de valores distintos guardados en este diccionario
+     * @return Número de valores distintos
+     */
+    public int getValoresDistintos() {
+        return cantidad;
+    }
+    
+    /**
+     * Estima los bytes de heap que se evitaron retener al compartir instancias
+     * @return Bytes ahorrados aproximados
+     */
+    public long getBytesAhorrados() {
+        return bytesAhorrados;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pruebas unitarias para el diccionario de textos
+ */
+public class DiccionarioTextosTest {
+    
+    @Test
+    public void testDevuelveLaMismaInstancia() {
+        DiccionarioTextos diccionario = new DiccionarioTextos();
+        char[] texto = "xxMueblesxx".toCharArray();
+        
+        String primero = diccionario.obtener(texto, 2, 9);
+        String segundo = diccionario.obtener(new String("Muebles"));
+        
+        assertEquals("Muebles", primero);
+        assertSame(primero, segundo);
+        assertEquals(2, diccionario.getConsultas());
+        assertEquals(1, diccionario.getCompartidos());
+        assertEquals(1, diccionario.getValoresDistintos());
+        assertTrue(diccionario.getBytesAhorrados() > 0);
+    }
+    
+    @Test
+    public void testBytesUTF8() {
+        DiccionarioTextos diccionario = new DiccionarioTextos();
+        byte[] utf8 = "Categoría ñ €".getBytes(StandardCharsets.UTF_8);
+        
+        String valor = diccionario.obtener(utf8, 0, utf8.length);
+        
+        assertEquals("Categoría ñ €", valor);
+        assertSame(valor, diccionario.obtener("Categoría ñ €"));
+    }
+    
+    @Test
+    public void testUTF8InvalidoNoSeGuarda() {
+        DiccionarioTextos diccionario = new DiccionarioTextos();
+        byte[] invalido = {'A', (byte) 0xC3};
+        
+        String valor = diccionario.obtener(invalido, 0, invalido.length);
+        
+        assertEquals(new String(invalido, StandardCharsets.UTF_8), valor);
+        assertEquals(0, diccionario.getValoresDistintos());
+    }
+    
+    @Test
+    public void testMapaCompartido() {
+        Map<String, String> compartido = new ConcurrentHashMap<>();
+        DiccionarioTextos a = new DiccionarioTextos(compartido, 100);
+        DiccionarioTextos b = new DiccionarioTextos(compartido, 100);
+        
+        String desdeA = a.obtener(new String("Hogar"));
+        String desdeB = b.obtener(new String("Hogar"));
+        
+        assertSame(desdeA, desdeB);
+        assertEquals(1, compartido.size());
+    }
+    
+    @Test
+    public void testLimiteDeValores() {
+        DiccionarioTextos diccionario = new DiccionarioTextos(null, 2);
+        diccionario.obtener("A");
+        diccionario.obtener("B");
+        
+        String primero = diccionario.obtener(new String("C"));
+        String segundo = diccionario.obtener(new String("C"));
+        
+        assertEquals("C", segundo);
+        assertNotSame(primero, segundo);
+        assertEquals(2, diccionario.getValoresDistintos());
+    }
+    
+    @Test
+    public void testCrecimientoDeLaTabla() {
+        DiccionarioTextos diccionario = new DiccionarioTextos();
+        for (int i = 0; i < 1000; i++) {
+            diccionario.obtener("Valor " + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("Valor " + i, diccionario.obtener("Valor " + i));
+        }
+        assertEquals(1000, diccionario.getValoresDistintos());
+        assertEquals(1000, diccionario.getCompartidos());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+/**
+ * Índice hash de productos por SKU con direccionamiento abierto (sondeo lineal).
+ * Los productos y sus códigos hash se guardan en dos arreglos planos paralelos:
+ * una búsqueda calcula el hash del SKU una sola vez y, en la mayoría de los casos,
+ * lo resuelve en la primera posición, comparando primero el hash guardado y solo
+ * después los caracteres del SKU. No crea objetos por búsqueda.
+ * Las escrituras deben serializarse externamente. Una búsqueda concurrente con
+ * una escritura nunca devuelve un producto con otro SKU, pero puede no encontrar
+ * una clave que se está moviendo; quien necesite certeza debe confirmar los
+ * fallos en el índice principal.
+ */
+public class IndiceHashSKU {
+    private static final float CARGA_MAXIMA = 0.7f;
+    
+    // Arreglos de la tabla: se publican juntos para que un lector nunca los mezcle
+    private static final class Tabla {
+        final Producto[] productos;
+        final int[] hashes;
+        final int mascara;
+        
+        Tabla(int capacidad) {
+            productos = new Producto[capacidad];
+            hashes = new int[capacidad];
+            mascara = capacidad - 1;
+        }
+    }
+    
+    private volatile Tabla tabla;
+    private int size;
+    
+    /**
+     * Crea un índice vacío
+     */
+    public IndiceHashSKU() {
+        this(16);
+    }
+    
+    /**
+     * Crea un índice con espacio para la cantidad de productos indicada sin crecer
+     * @param capacidadEsperada Número de productos que se espera guardar
+     */
+    public IndiceHashSKU(int capacidadEsperada) {
+        if (capacidadEsperada < 0) {
+            throw new IllegalArgumentException("La capacidad no puede ser negativa");
+        }
+        tabla = new Tabla(capacidadPara(capacidadEsperada));
+    }
+    
+    private static int capacidadPara(int elementos) {
+        long requerida = (long) Math.ceil(elementos / (double) CARGA_MAXIMA) + 1;
+        int capacidad = 16;
+        while (capacidad < requerida) {
+            if (capacidad >= (1 << 30)) {
+                throw new IllegalArgumentException("Demasiados elementos para el índice: " + elementos);
+            }
+            capacidad <<= 1;
+        }
+        return capacidad;
+    }
+    
+    /**
+     * Calcula el mismo hash que String.hashCode sobre el SKU sin espacios en los
+     * extremos, sin crear el String recortado
+     * @param sku SKU
+     * @return Código hash del SKU
+     */
+    static int hashSKU(CharSequence sku) {
+        int inicio = 0;
+        int fin = sku.length();
+        while (inicio < fin && sku.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && sku.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        if (inicio == 0 && fin == sku.length() && sku instanceof String) {
+            return sku.hashCode(); // String guarda su hash después de calcularlo
+        }
+        int hash = 0;
+        for (int i = inicio; i < fin; i++) {
+            hash = 31 * hash + sku.charAt(i);
+        }
+        return hash;
+    }
+    
+    /**
+     * Posición inicial de un hash: mezcla los bits altos para que los SKU con
+     * prefijos comunes no se amontonen en posiciones vecinas
+     */
+    private static int posicionInicial(int hash, int mascara) {
+        int mezcla = hash * 0x9E3779B9;
+        return (mezcla ^ (mezcla >>> 16)) & mascara;
+    }
+    
+    /**
+     * Busca un producto por su SKU
+     * @param sku SKU a buscar (se ignoran los espacios en los extremos)
+     * @return El producto encontrado o null si no existe
+     */
+    public Producto get(CharSequence sku) {
+        if (sku == null) {
+            return null;
+        }
+        int hash = hashSKU(sku);
+        Tabla t = tabla;
+        for (int i = posicionInicial(hash, t.mascara); ; i = (i + 1) & t.mascara) {
+            Producto producto = t.productos[i];
+            if (producto == null) {
+                return null;
+            }
+            if (t.hashes[i] == hash && Producto.compararSKU(sku, producto) == 0) {
+                return producto;
+            }
+        }
+    }
+    
+    /**
+     * Inserta un producto o reemplaza el que tenga el mismo SKU
+     * @param producto Producto a guardar
+     * @return El producto reemplazado o null si el SKU era nuevo
+     */
+    public Producto put(Producto producto) {
+        if (producto == null) {
+            throw new IllegalArgumentException("No se puede insertar un producto nulo");
+        }
+        if (size + 1 > tabla.productos.length * CARGA_MAXIMA) {
+            redimensionar(tabla.productos.length * 2);
+        }
+        
+        String sku = producto.getSku();
+        int hash = sku.hashCode();
+        Tabla t = tabla;
+        for (int i = posicionInicial(hash, t.mascara); ; i = (i + 1) & t.mascara) {
+            Producto actual = t.productos[i];
+            if (actual == null) {
+                // El hash se escribe antes que el producto, que es lo que marca la posición ocupada
+                t.hashes[i] = hash;
+                t.productos[i] = producto;
+                size++;
+                return null;
+            }
+            if (t.hashes[i] == hash && sku.equals(actual.getSku())) {
+                t.productos[i] = producto;
+                return actual;
+            }
+        }
+    }
+    
+    /**
+     * Elimina un producto por su SKU. En lugar de dejar marcas de borrado, desplaza
+     * hacia atrás los elementos siguientes del mismo grupo para que las búsquedas
+     * sigan terminando en la primera posición vacía.
+     * @param sku SKU del producto a eliminar
+     * @return El producto eliminado o null si no existía
+     */
+    public Producto remove(CharSequence sku) {
+        if (sku == null) {
+            return null;
+        }
+        int hash = hashSKU(sku);
+        Tabla t = tabla;
+        int i = posicionInicial(hash, t.mascara);
+        while (true) {
+            Producto actual = t.productos[i];
+            if (actual == null) {
+                return null;
+            }
+            if (t.hashes[i] == hash && Producto.compararSKU(sku, actual) == 0) {
+                break;
+            }
+            i = (i + 1) & t.mascara;
+        }
+        Producto eliminado = t.productos[i];
+        
+        int hueco = i;
+        for (int j = (hueco + 1) & t.mascara; t.productos[j] != null; j = (j + 1) & t.mascara) {
+            // Movemos el elemento si su posición inicial no está entre el hueco y su posición actual
+            int inicial = posicionInicial(t.hashes[j], t.mascara);
+            boolean alcanzable = (hueco <= j) ? (hueco < inicial && inicial <= j) : (hueco < inicial || inicial <= j);
+            if (!alcanzable) {
+                t.hashes[hueco] = t.hashes[j];
+                t.productos[hueco] = t.productos[j];
+                hueco = j;
+            }
+        }
+        t.productos[hueco] = null;
+        size--;
+        return eliminado;
+    }
+    
+    private void redimensionar(int capacidad) {
+        Tabla anterior = tabla;
+        Tabla nueva = new Tabla(capacidad);
+        for (int i = 0; i < anterior.productos.length; i++) {
+            Producto producto = anterior.productos[i];
+            if (producto != null) {
+                int j = posicionInicial(anterior.hashes[i], nueva.mascara);
+                while (nueva.productos[j] != null) {
+                    j = (j + 1) & nueva.mascara;
+                }
+                nueva.hashes[j] = anterior.hashes[i];
+                nueva.productos[j] = producto;
+            }
+        }
+        tabla = nueva;
+    }
+    
+    /**
+     * Crea una copia independiente del índice (los productos se comparten)
+     * @return Copia del índice
+     */
+    public IndiceHashSKU copia() {
+        IndiceHashSKU copia = new IndiceHashSKU(0);
+        Tabla t = tabla;
+        Tabla nueva = new Tabla(t.productos.length);
+        System.arraycopy(t.productos, 0, nueva.productos, 0, t.productos.length);
+        System.arraycopy(t.hashes, 0, nueva.hashes, 0, t.hashes.length);
+        copia.tabla = nueva;
+        copia.size = size;
+        return copia;
+    }
+    
+    /**
+     * Devuelve el número de productos del índice
+     * @return Número de productos
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Verifica si el índice está vacío
+     * @return true si está vacío
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Pruebas unitarias para el índice hash por SKU
+ */
+public class IndiceHashSKUTest {
+    
+    private IndiceHashSKU indice;
+    
+    @Before
+    public void setUp() {
+        indice = new IndiceHashSKU();
+    }
+    
+    private static Producto producto(String sku, double precio) {
+        return new Producto(sku, precio, precio, "Producto " + sku, "General");
+    }
+    
+    @Test
+    public void testPutGetYReemplazo() {
+        assertNull(indice.put(producto("A1", 1.0)));
+        assertNull(indice.put(producto("B2", 2.0)));
+        assertEquals(2, indice.size());
+        
+        assertEquals(1.0, indice.get("A1").getPriceCurrent(), 0.001);
+        assertEquals(2.0, indice.get(new StringBuilder(" B2 ")).getPriceCurrent(), 0.001);
+        assertNull(indice.get("C3"));
+        assertNull(indice.get(null));
+        
+        Producto anterior = indice.put(producto("A1", 5.0));
+        assertEquals(1.0, anterior.getPriceCurrent(), 0.001);
+        assertEquals(5.0, indice.get("A1").getPriceCurrent(), 0.001);
+        assertEquals(2, indice.size());
+    }
+    
+    @Test
+    public void testHashCompatibleConString() {
+        assertEquals("SKU-123".hashCode(), IndiceHashSKU.hashSKU(new StringBuilder("  SKU-123\t")));
+    }
+    
+    @Test
+    public void testOperacionesAlAzarContraHashMap() {
+        Map<String, Producto> referencia = new HashMap<>();
+        Random random = new Random(17);
+        for (int i = 0; i < 50000; i++) {
+            String sku = "SKU" + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(referencia.remove(sku), indice.remove(sku));
+            } else {
+                Producto producto = producto(sku, i);
+                assertEquals(referencia.put(sku, producto), indice.put(producto));
+            }
+        }
+        assertEquals(referencia.size(), indice.size());
+        for (int i = 0; i < 5000; i++) {
+            String sku = "SKU" + i;
+            assertEquals(referencia.get(sku), indice.get(sku));
+        }
+        
+        // La copia es independiente del original
+        IndiceHashSKU copia = indice.copia();
+        copia.remove("SKU1");
+        copia.put(producto("NUEVO", 1.0));
+        assertEquals(referencia.get("SKU1"), indice.get("SKU1"));
+        assertNull(indice.get("NUEVO"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,552 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido sobre los nombres de los productos para búsquedas por palabras.
+ * Los nombres se separan en términos en minúsculas y sin acentos ("Niño" y "nino"
+ * son el mismo término) y se descartan las palabras vacías más comunes.
+ *
+ * El índice base se construye una vez al cargar el catálogo y no cambia: cada
+ * término guarda su lista de documentos comprimida (cantidad de documentos y luego
+ * pares diferencia-con-el-anterior y frecuencia, en enteros de longitud variable).
+ * Los cambios en vivo se guardan aparte por SKU, con un pequeño índice invertido
+ * propio (término a SKU modificados) para no recorrerlos todos en cada consulta;
+ * la siguiente carga los incorpora a la base. Las búsquedas exigen todos los
+ * términos, se ordenan por relevancia (BM25) y no usan bloqueos; los cambios
+ * deben registrarse de a uno (el buscador lo hace con su monitor tomado).
+ */
+public class IndiceNombres {
+    // Parámetros habituales de BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    
+    private static final Set<String> PALABRAS_VACIAS = new HashSet<>(Arrays.asList(
+            "a", "al", "con", "de", "del", "e", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "u", "un", "una", "y"));
+    
+    // Minúscula sin acentos de cada carácter latino; el resto se pasa a minúscula al vuelo
+    private static final char[] PLEGADO = crearTablaPlegado();
+    
+    /**
+     * Versión de un producto modificado después de construir la base, con los
+     * términos distintos de su nombre y la frecuencia de cada uno
+     */
+    private static final class Cambio {
+        final Producto producto; // null si el producto se eliminó
+        final String[] terminos;
+        final int[] frecuencias;
+        final int longitud; // Términos del nombre, hasta 255
+        
+        Cambio(Producto producto, List<String> tokens) {
+            this.producto = producto;
+            LinkedHashSet<String> distintos = new LinkedHashSet<>(tokens);
+            this.terminos = distintos.toArray(new String[0]);
+            this.frecuencias = new int[terminos.length];
+            for (int i = 0; i < terminos.length; i++) {
+                frecuencias[i] = Collections.frequency(tokens, terminos[i]);
+            }
+            this.longitud = Math.min(tokens.size(), 255);
+        }
+        
+        int frecuencia(String termino) {
+            for (int i = 0; i < terminos.length; i++) {
+                if (terminos[i].equals(termino)) {
+                    return frecuencias[i];
+                }
+            }
+            return 0;
+        }
+    }
+    
+    private static final Cambio ELIMINADO = new Cambio(null, new ArrayList<>());
+    
+    /**
+     * Resultado de una búsqueda con su puntaje
+     */
+    private static final class Resultado {
+        final Producto producto;
+        final double puntaje;
+        
+        Resultado(Producto producto, double puntaje) {
+            this.producto = producto;
+            this.puntaje = puntaje;
+        }
+    }
+    
+    // Primero los de mayor puntaje; los empates, por SKU
+    private static final Comparator<Resultado> ORDEN_RESULTADOS = (a, b) -> {
+        int compareResult = Double.compare(b.puntaje, a.puntaje);
+        return (compareResult != 0) ? compareResult : a.producto.getSku().compareTo(b.producto.getSku());
+    };
+    
+    // Índice base (inmutable)
+    private final Producto[] documentos;
+    private final byte[] longitudes; // Términos de cada nombre, hasta 255
+    private final double longitudPromedio;
+    private final Map<String, byte[]> postings;
+    private final long bytesPostings;
+    
+    // Cambios posteriores a la construcción, por SKU, y SKU modificados por término.
+    // Una entrada de más en cambiosPorTermino no altera los resultados: la búsqueda
+    // verifica los términos del cambio vigente
+    private final ConcurrentHashMap<String, Cambio> cambios;
+    private final ConcurrentHashMap<String, Set<String>> cambiosPorTermino;
+    
+    private IndiceNombres(Producto[] documentos, byte[] longitudes, double longitudPromedio,
+            Map<String, byte[]> postings, long bytesPostings, ConcurrentHashMap<String, Cambio> cambios,
+            ConcurrentHashMap<String, Set<String>> cambiosPorTermino) {
+        this.documentos = documentos;
+        this.longitudes = longitudes;
+        this.longitudPromedio = longitudPromedio;
+        this.postings = postings;
+        this.bytesPostings = bytesPostings;
+        this.cambios = cambios;
+        this.cambiosPorTermino = cambiosPorTermino;
+    }
+    
+    /**
+     * Crea un índice vacío
+     */
+    public IndiceNombres() {
+        this(new Producto[0], new byte[0], 1.0, new HashMap<>(), 0, new ConcurrentHashMap<>(),
+                new ConcurrentHashMap<>());
+    }
+    
+    /**
+     * Construye el índice base a partir de los productos del catálogo
+     * @param productos Productos sin SKU repetidos
+     * @return Índice de sus nombres
+     */
+    public static IndiceNombres construir(Iterable<Producto> productos) {
+        if (productos == null) {
+            throw new IllegalArgumentException("Los productos no pueden ser nulos");
+        }
+        List<Producto> lista = new ArrayList<>();
+        for (Producto producto : productos) {
+            lista.add(producto);
+        }
+        Producto[] documentos = lista.toArray(new Producto[0]);
+        byte[] longitudes = new byte[documentos.length];
+        Map<String, ListaEnConstruccion> construccion = new HashMap<>();
+        List<String> terminos = new ArrayList<>();
+        long totalTerminos = 0;
+        
+        for (int documento = 0; documento < documentos.length; documento++) {
+            terminos.clear();
+            tokenizar(documentos[documento].getProductName(), terminos);
+            longitudes[documento] = (byte) Math.min(terminos.size(), 255);
+            totalTerminos += terminos.size();
+            for (int i = 0; i < terminos.size(); i++) {
+                String termino = terminos.get(i);
+                if (terminos.indexOf(termino) < i) {
+                    continue; // Ya se contó en este nombre
+                }
+                int frecuencia = Collections.frequency(terminos, termino);
+                construccion.computeIfAbsent(termino, t -> new ListaEnConstruccion()).agregar(documento, frecuencia);
+            }
+        }
+        
+        Map<String, byte[]> postings = new HashMap<>(construccion.size() * 4 / 3 + 1);
+        long bytesPostings = 0;
+        for (Map.Entry<String, ListaEnConstruccion> entrada : construccion.entrySet()) {
+            byte[] comprimida = entrada.getValue().comprimir();
+            postings.put(entrada.getKey(), comprimida);
+            bytesPostings += comprimida.length;
+        }
+        double longitudPromedio = (documentos.length == 0) ? 1.0 : Math.max(1.0, (double) totalTerminos / documentos.length);
+        return new IndiceNombres(documentos, longitudes, longitudPromedio, postings, bytesPostings,
+                new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+    
+    /**
+     * Lista de documentos de un término mientras se construye el índice,
+     * ya codificada como diferencias en enteros de longitud variable
+     */
+    private static final class ListaEnConstruccion {
+        private byte[] datos = new byte[8];
+        private int longitud;
+        private int cantidad;
+        private int ultimo;
+        
+        void agregar(int documento, int frecuencia) {
+            agregarVarInt(documento - ultimo);
+            agregarVarInt(frecuencia);
+            ultimo = documento;
+            cantidad++;
+        }
+        
+        private void agregarVarInt(int valor) {
+            if (longitud + 5 > datos.length) {
+                datos = Arrays.copyOf(datos, datos.length * 2);
+            }
+            longitud = escribirVarInt(datos, longitud, valor);
+        }
+        
+        byte[] comprimir() {
+            byte[] encabezado = new byte[5];
+            int largoEncabezado = escribirVarInt(encabezado, 0, cantidad);
+            byte[] resultado = new byte[largoEncabezado + longitud];
+            System.arraycopy(encabezado, 0, resultado, 0, largoEncabezado);
+            System.arraycopy(datos, 0, resultado, largoEncabezado, longitud);
+            return resultado;
+        }
+    }
+    
+    private static int escribirVarInt(byte[] destino, int posicion, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            destino[posicion++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        destino[posicion++] = (byte) valor;
+        return posicion;
+    }
+    
+    /**
+     * Recorre una lista comprimida de documentos en orden creciente
+     */
+    private static final class Lector {
+        private final byte[] datos;
+        private final int cantidad;
+        private int posicion;
+        private int leidos;
+        int documento;
+        int frecuencia;
+        
+        Lector(byte[] datos) {
+            this.datos = datos;
+            this.cantidad = leerVarInt();
+        }
+        
+        /**
+         * Avanza al siguiente documento
+         * @return false si la lista se terminó
+         */
+        boolean siguiente() {
+            if (leidos == cantidad) {
+                return false;
+            }
+            documento += leerVarInt();
+            frecuencia = leerVarInt();
+            leidos++;
+            return true;
+        }
+        
+        /**
+         * Avanza hasta el primer documento mayor o igual al dado
+         * @return false si la lista se terminó antes
+         */
+        boolean avanzarHasta(int objetivo) {
+            while (leidos == 0 || documento < objetivo) {
+                if (!siguiente()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private int leerVarInt() {
+            int valor = 0;
+            int desplazamiento = 0;
+            byte b;
+            do {
+                b = datos[posicion++];
+                valor |= (b & 0x7F) << desplazamiento;
+                desplazamiento += 7;
+            } while (b < 0);
+            return valor;
+        }
+    }
+    
+    private static int cantidadDocumentos(byte[] lista) {
+        return new Lector(lista).cantidad;
+    }
+    
+    /**
+     * Registra la versión nueva de un producto insertado o reemplazado
+     * @param producto Producto actualizado
+     */
+    public void actualizar(Producto producto) {
+        if (producto == null) {
+            throw new IllegalArgumentException("El producto no puede ser nulo");
+        }
+        List<String> terminos = new ArrayList<>();
+        tokenizar(producto.getProductName(), terminos);
+        registrarCambio(producto.getSku(), new Cambio(producto, terminos));
+    }
+    
+    /**
+     * Registra la eliminación de un producto
+     * @param sku SKU del producto eliminado
+     */
+    public void eliminar(String sku) {
+        if (sku == null) {
+            throw new IllegalArgumentException("El SKU no puede ser nulo");
+        }
+        registrarCambio(sku.trim(), ELIMINADO);
+    }
+    
+    /**
+     * Reemplaza el cambio de un SKU. Primero se agrega el SKU a los términos nuevos
+     * y recién después se quita de los que ya no tiene, así una búsqueda simultánea
+     * encuentra siempre la versión vigente.
+     */
+    private void registrarCambio(String sku, Cambio cambio) {
+        Cambio anterior = cambios.put(sku, cambio);
+        for (String termino : cambio.terminos) {
+            cambiosPorTermino.computeIfAbsent(termino, t -> ConcurrentHashMap.newKeySet()).add(sku);
+        }
+        if (anterior == null) {
+            return;
+        }
+        for (String termino : anterior.terminos) {
+            if (cambio.frecuencia(termino) == 0) {
+                Set<String> skus = cambiosPorTermino.get(termino);
+                skus.remove(sku);
+                if (skus.isEmpty()) {
+                    cambiosPorTermino.remove(termino, skus);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Crea una copia independiente. La base se comparte porque no cambia; solo
+     * se copian los cambios posteriores a la construcción.
+     * @return Copia del índice
+     */
+    public IndiceNombres copia() {
+        ConcurrentHashMap<String, Set<String>> copiaPorTermino = new ConcurrentHashMap<>(cambiosPorTermino.size());
+        for (Map.Entry<String, Set<String>> entrada : cambiosPorTermino.entrySet()) {
+            Set<String> skus = ConcurrentHashMap.newKeySet(entrada.getValue().size());
+            skus.addAll(entrada.getValue());
+            copiaPorTermino.put(entrada.getKey(), skus);
+        }
+        return new IndiceNombres(documentos, longitudes, longitudPromedio, postings, bytesPostings,
+                new ConcurrentHashMap<>(cambios), copiaPorTermino);
+    }
+    
+    /**
+     * Busca los productos cuyo nombre contiene todas las palabras de la consulta,
+     * ordenados por relevancia
+     * @param consulta Palabras a buscar (sin importar mayúsculas ni acentos)
+     * @param inicio Posición del primer resultado a devolver
+     * @param limite Número máximo de resultados
+     * @return Productos de la página de resultados
+     */
+    public List<Producto> buscar(String consulta, int inicio, int limite) {
+        if (consulta == null) {
+            throw new IllegalArgumentException("La consulta no puede ser nula");
+        }
+        if (inicio < 0 || limite < 0) {
+            throw new IllegalArgumentException("El inicio y el límite no pueden ser negativos");
+        }
+        List<String> tokens = new ArrayList<>();
+        tokenizar(consulta, tokens);
+        String[] terminos = new LinkedHashSet<>(tokens).toArray(new String[0]);
+        if (terminos.length == 0 || limite == 0) {
+            return new ArrayList<>();
+        }
+        
+        // Conservamos solo los mejores inicio + limite resultados (el peor queda en la cabeza)
+        int capacidad = (int) Math.min((long) inicio + limite, Integer.MAX_VALUE);
+        PriorityQueue<Resultado> mejores = new PriorityQueue<>(Math.min(capacidad, 1024), ORDEN_RESULTADOS.reversed());
+        double[] idf = new double[terminos.length];
+        buscarEnBase(terminos, idf, mejores, capacidad);
+        buscarEnCambios(terminos, idf, mejores, capacidad);
+        
+        List<Resultado> ordenados = new ArrayList<>(mejores);
+        ordenados.sort(ORDEN_RESULTADOS);
+        List<Producto> productos = new ArrayList<>();
+        for (int i = inicio; i < ordenados.size(); i++) {
+            productos.add(ordenados.get(i).producto);
+        }
+        return productos;
+    }
+    
+    /**
+     * Intersecta las listas de los términos empezando por la más corta y puntúa
+     * los documentos que las contienen todas
+     */
+    private void buscarEnBase(String[] terminos, double[] idf, PriorityQueue<Resultado> mejores, int capacidad) {
+        byte[][] listas = new byte[terminos.length][];
+        int[] cantidades = new int[terminos.length];
+        boolean faltaAlguno = false;
+        for (int i = 0; i < terminos.length; i++) {
+            listas[i] = postings.get(terminos[i]);
+            cantidades[i] = (listas[i] == null) ? 0 : cantidadDocumentos(listas[i]);
+            idf[i] = idf(cantidades[i]);
+            faltaAlguno |= (listas[i] == null);
+        }
+        if (faltaAlguno) {
+            return;
+        }
+        
+        // Ordenamos los términos por cantidad de documentos: cantidad en la parte alta, término en la baja
+        long[] claves = new long[terminos.length];
+        for (int i = 0; i < claves.length; i++) {
+            claves[i] = ((long) cantidades[i] << 32) | i;
+        }
+        Arrays.sort(claves);
+        int[] orden = new int[terminos.length];
+        for (int i = 0; i < orden.length; i++) {
+            orden[i] = (int) claves[i];
+        }
+        Lector[] lectores = new Lector[terminos.length];
+        for (int i = 0; i < lectores.length; i++) {
+            lectores[i] = new Lector(listas[orden[i]]);
+        }
+        
+        boolean hayCambios = !cambios.isEmpty();
+        siguienteCandidato:
+        while (lectores[0].siguiente()) {
+            int documento = lectores[0].documento;
+            for (int i = 1; i < lectores.length; i++) {
+                if (!lectores[i].avanzarHasta(documento)) {
+                    return;
+                }
+                if (lectores[i].documento != documento) {
+                    continue siguienteCandidato;
+                }
+            }
+            Producto producto = documentos[documento];
+            if (hayCambios && cambios.containsKey(producto.getSku())) {
+                continue; // Su versión vigente está en los cambios
+            }
+            double puntaje = 0;
+            for (int i = 0; i < lectores.length; i++) {
+                puntaje += bm25(idf[orden[i]], lectores[i].frecuencia, longitudes[documento] & 0xFF);
+            }
+            agregarResultado(mejores, capacidad, new Resultado(producto, puntaje));
+        }
+    }
+    
+    /**
+     * Evalúa los productos modificados después de construir la base que contienen
+     * el término de la consulta con menos cambios
+     */
+    private void buscarEnCambios(String[] terminos, double[] idf, PriorityQueue<Resultado> mejores, int capacidad) {
+        Set<String> candidatos = null;
+        for (String termino : terminos) {
+            Set<String> skus = cambiosPorTermino.get(termino);
+            if (skus == null) {
+                return;
+            }
+            if (candidatos == null || skus.size() < candidatos.size()) {
+                candidatos = skus;
+            }
+        }
+        
+        siguienteCambio:
+        for (String sku : candidatos) {
+            Cambio cambio = cambios.get(sku);
+            if (cambio == null || cambio.producto == null) {
+                continue;
+            }
+            double puntaje = 0;
+            for (int i = 0; i < terminos.length; i++) {
+                int frecuencia = cambio.frecuencia(terminos[i]);
+                if (frecuencia == 0) {
+                    continue siguienteCambio;
+                }
+                puntaje += bm25(idf[i], frecuencia, cambio.longitud);
+            }
+            agregarResultado(mejores, capacidad, new Resultado(cambio.producto, puntaje));
+        }
+    }
+    
+    private static void agregarResultado(PriorityQueue<Resultado> mejores, int capacidad, Resultado resultado) {
+        if (mejores.size() < capacidad) {
+            mejores.add(resultado);
+        } else if (ORDEN_RESULTADOS.compare(resultado, mejores.peek()) < 0) {
+            mejores.poll();
+            mejores.add(resultado);
+        }
+    }
+    
+    private double idf(int cantidad) {
+        return Math.log(1 + (documentos.length - cantidad + 0.5) / (cantidad + 0.5));
+    }
+    
+    private double bm25(double idf, int frecuencia, int longitud) {
+        return idf * (frecuencia * (K1 + 1)) / (frecuencia + K1 * (1 - B + B * longitud / longitudPromedio));
+    }
+    
+    /**
+     * Separa un texto en términos: secuencias de letras y dígitos, en minúsculas y
+     * sin acentos, omitiendo las palabras vacías
+     * @param texto Texto a separar
+     * @param terminos Lista donde se agregan los términos, en orden y con repetidos
+     */
+    static void tokenizar(String texto, List<String> terminos) {
+        char[] termino = new char[32];
+        int longitud = 0;
+        for (int i = 0; i <= texto.length(); i++) {
+            char c = (i < texto.length()) ? plegar(texto.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (longitud == termino.length) {
+                    termino = Arrays.copyOf(termino, longitud * 2);
+                }
+                termino[longitud++] = c;
+            } else if (longitud > 0) {
+                String valor = new String(termino, 0, longitud);
+                if (!PALABRAS_VACIAS.contains(valor)) {
+                    terminos.add(valor);
+                }
+                longitud = 0;
+            }
+        }
+    }
+    
+    private static char plegar(char c) {
+        if (c < PLEGADO.length) {
+            return PLEGADO[c];
+        }
+        return Character.toLowerCase(c);
+    }
+    
+    private static char[] crearTablaPlegado() {
+        char[] tabla = new char[0x250]; // Latín básico, Latín-1 y Latín extendido A y B
+        for (char c = 0; c < tabla.length; c++) {
+            char minuscula = Character.toLowerCase(c);
+            String descompuesto = Normalizer.normalize(String.valueOf(minuscula), Normalizer.Form.NFD);
+            char base = descompuesto.charAt(0);
+            tabla[c] = Character.isLetter(base) ? base : minuscula;
+        }
+        return tabla;
+    }
+    
+    /**
+     * Devuelve el número de términos distintos del índice base
+     * @return Número de términos
+     */
+    public int getTerminos() {
+        return postings.size();
+    }
+    
+    /**
+     * Devuelve el tamaño de las listas de documentos comprimidas del índice base
+     * @return Bytes ocupados por las listas
+     */
+    public long getBytesPostings() {
+        return bytesPostings;
+    }
+    
+    /**
+     * Devuelve el número de productos modificados desde la construcción del índice
+     * @return Número de cambios pendientes de incorporar a la base
+     */
+    public int getCambios() {
+        return cambios.size();
+    }
+}
\ No newline at end of file
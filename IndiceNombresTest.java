@@ -0,0 +1,96 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para el índice invertido de nombres de productos
+ */
+public class IndiceNombresTest {
+    
+    private static IndiceNombres indice() {
+        return IndiceNombres.construir(Arrays.asList(
+                new Producto("A1", 10.0, 10.0, "Silla de Madera Plegable", "Muebles"),
+                new Producto("A2", 10.0, 10.0, "Mesa de madera", "Muebles"),
+                new Producto("A3", 10.0, 10.0, "Zapatillas Niño Azul", "Calzado"),
+                new Producto("A4", 10.0, 10.0, "Silla", "Muebles"),
+                new Producto("A5", 10.0, 10.0, "Sillón reclinable de cuero café", "Muebles")));
+    }
+    
+    private static List<String> skus(List<Producto> productos) {
+        List<String> resultado = new ArrayList<>();
+        for (Producto producto : productos) {
+            resultado.add(producto.getSku());
+        }
+        return resultado;
+    }
+    
+    @Test
+    public void testTokenizar() {
+        List<String> terminos = new ArrayList<>();
+        IndiceNombres.tokenizar("Zapatillas NIÑO, talla-38 para Café", terminos);
+        assertEquals(Arrays.asList("zapatillas", "nino", "talla", "38", "cafe"), terminos);
+    }
+    
+    @Test
+    public void testBusquedaSinAcentosNiMayusculas() {
+        IndiceNombres indice = indice();
+        
+        assertEquals(Arrays.asList("A3"), skus(indice.buscar("nino", 0, 10)));
+        assertEquals(Arrays.asList("A5"), skus(indice.buscar("CAFÉ sillon", 0, 10)));
+        assertTrue(indice.buscar("silla lampara", 0, 10).isEmpty());
+        assertTrue(indice.buscar("de la", 0, 10).isEmpty());
+    }
+    
+    @Test
+    public void testRankingYPaginas() {
+        IndiceNombres indice = indice();
+        
+        // El nombre más corto que contiene el término es el más relevante
+        assertEquals(Arrays.asList("A4", "A1"), skus(indice.buscar("silla", 0, 10)));
+        assertEquals(Arrays.asList("A2", "A1"), skus(indice.buscar("madera", 0, 10)));
+        assertEquals(Arrays.asList("A1"), skus(indice.buscar("madera", 1, 10)));
+        assertEquals(Arrays.asList("A1"), skus(indice.buscar("madera silla", 0, 10)));
+    }
+    
+    @Test
+    public void testCambiosEnVivo() {
+        IndiceNombres indice = indice();
+        IndiceNombres copia = indice.copia();
+        
+        indice.actualizar(new Producto("A2", 10.0, 10.0, "Mesa de vidrio", "Muebles"));
+        indice.actualizar(new Producto("B1", 10.0, 10.0, "Banqueta de madera", "Muebles"));
+        indice.eliminar("A1");
+        
+        assertEquals(Arrays.asList("B1"), skus(indice.buscar("madera", 0, 10)));
+        assertEquals(Arrays.asList("A2"), skus(indice.buscar("vidrio", 0, 10)));
+        assertEquals(Arrays.asList("A4"), skus(indice.buscar("silla", 0, 10)));
+        assertEquals(3, indice.getCambios());
+        
+        // La copia conserva la versión anterior
+        assertEquals(Arrays.asList("A2", "A1"), skus(copia.buscar("madera", 0, 10)));
+    }
+    
+    @Test
+    public void testCambiosReemplazados() {
+        IndiceNombres indice = indice();
+        indice.actualizar(new Producto("B1", 10.0, 10.0, "Banqueta de madera roble", "Muebles"));
+        IndiceNombres copia = indice.copia();
+        
+        // Al reemplazar un cambio, sus términos anteriores dejan de encontrarlo
+        indice.actualizar(new Producto("B1", 10.0, 10.0, "Banqueta de metal", "Muebles"));
+        assertEquals(Arrays.asList("A2", "A1"), skus(indice.buscar("madera", 0, 10)));
+        assertTrue(indice.buscar("roble", 0, 10).isEmpty());
+        assertEquals(Arrays.asList("B1"), skus(indice.buscar("metal banqueta", 0, 10)));
+        assertTrue(indice.buscar("metal silla", 0, 10).isEmpty());
+        
+        indice.eliminar("B1");
+        assertTrue(indice.buscar("banqueta", 0, 10).isEmpty());
+        
+        // La copia tomada antes conserva sus propios cambios
+        assertEquals(Arrays.asList("B1"), skus(copia.buscar("roble madera", 0, 10)));
+        assertEquals(Arrays.asList("B1"), skus(copia.buscar("banqueta", 0, 10)));
+    }
+}
\ No newline at end of file
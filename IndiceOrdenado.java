@@ -0,0 +1,74 @@
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Operaciones de lectura comunes a los índices ordenados de elementos.
+ * @param <E> Tipo de elementos del índice
+ */
+public interface IndiceOrdenado<E extends Comparable<E>> extends Iterable<E> {
+    
+    /**
+     * Busca un elemento en el índice
+     * @param element Elemento a buscar
+     * @return El elemento encontrado o null si no existe
+     */
+    E search(E element);
+    
+    /**
+     * Busca un elemento a partir de una clave sin construir un elemento de prueba
+     * @param clave Clave a buscar
+     * @param comparador Compara la clave con un elemento (negativo, cero o positivo como compareTo)
+     * @param <K> Tipo de la clave
+     * @return El elemento encontrado o null si no existe
+     */
+    <K> E search(K clave, ToIntBiFunction<? super K, ? super E> comparador);
+    
+    /**
+     * Recorre los elementos en orden ascendente
+     * @param action Acción a realizar con cada elemento
+     */
+    void inOrderTraversal(Consumer<E> action);
+    
+    /**
+     * Recorre los elementos en orden descendente
+     * @param action Acción a realizar con cada elemento
+     */
+    void reverseInOrderTraversal(Consumer<E> action);
+    
+    /**
+     * Devuelve un iterador ascendente que empieza en el primer elemento mayor
+     * (o igual) que el dado
+     * @param desde Elemento desde donde empezar
+     * @param inclusivo true para incluir el elemento igual a desde si existe
+     * @return Iterador ascendente
+     */
+    Iterator<E> iterator(E desde, boolean inclusivo);
+    
+    /**
+     * Devuelve un iterador en orden descendente
+     * @return Iterador descendente
+     */
+    Iterator<E> reverseIterator();
+    
+    /**
+     * Devuelve un iterador descendente que empieza en el primer elemento menor
+     * (o igual) que el dado
+     * @param desde Elemento desde donde empezar
+     * @param inclusivo true para incluir el elemento igual a desde si existe
+     * @return Iterador descendente
+     */
+    Iterator<E> reverseIterator(E desde, boolean inclusivo);
+    
+    /**
+     * Devuelve el número de elementos del índice
+     * @return Número de elementos
+     */
+    int size();
+    
+    /**
+     * Verifica si el índice está vacío
+     * @return true si está vacío
+     */
+    boolean isEmpty();
+}
\ No newline at end of file
@@ -0,0 +1,295 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Índices secundarios del catálogo para listados filtrados sin recorrer todos los
+ * productos: por categoría (los productos de cada categoría ordenados por SKU), por
+ * precio actual y por descuento (priceRetail - priceCurrent), global y dentro de
+ * cada categoría. Cada índice es un BST en modo concurrente con claves compuestas
+ * que terminan en el SKU, así que no hay claves repetidas y las consultas son
+ * O(log n + k). Las lecturas no usan bloqueos; las escrituras deben serializarse
+ * (el buscador las hace con su monitor tomado).
+ */
+public class IndicesSecundarios {
+    // Límites artificiales para armar rangos: quedan antes o después de cualquier producto
+    private static final int ANTES = -1;
+    private static final int PRODUCTO = 0;
+    private static final int DESPUES = 1;
+    
+    /**
+     * Entrada de un índice ordenado por (categoría, valor, SKU). La categoría es
+     * null en los índices globales.
+     */
+    private static final class Entrada implements Comparable<Entrada> {
+        final String categoria;
+        final double valor;
+        final int extremo;
+        final Producto producto;
+        
+        Entrada(String categoria, double valor, int extremo, Producto producto) {
+            this.categoria = categoria;
+            this.valor = valor;
+            this.extremo = extremo;
+            this.producto = producto;
+        }
+        
+        @Override
+        public int compareTo(Entrada otra) {
+            if (categoria != null) {
+                int compareResult = categoria.compareTo(otra.categoria);
+                if (compareResult != 0) {
+                    return compareResult;
+                }
+            }
+            int compareResult = Double.compare(valor, otra.valor);
+            if (compareResult != 0) {
+                return compareResult;
+            }
+            if (extremo != PRODUCTO || otra.extremo != PRODUCTO) {
+                return Integer.compare(extremo, otra.extremo);
+            }
+            return producto.getSku().compareTo(otra.producto.getSku());
+        }
+    }
+    
+    private final ConcurrentHashMap<String, BST<Producto>> porCategoria;
+    private final BST<Entrada> porPrecio;
+    private final BST<Entrada> porDescuento;
+    private final BST<Entrada> porCategoriaYDescuento;
+    
+    /**
+     * Crea índices vacíos
+     */
+    public IndicesSecundarios() {
+        this(new ConcurrentHashMap<>(), new BST<>(true, true), new BST<>(true, true), new BST<>(true, true));
+    }
+    
+    private IndicesSecundarios(ConcurrentHashMap<String, BST<Producto>> porCategoria, BST<Entrada> porPrecio,
+            BST<Entrada> porDescuento, BST<Entrada> porCategoriaYDescuento) {
+        this.porCategoria = porCategoria;
+        this.porPrecio = porPrecio;
+        this.porDescuento = porDescuento;
+        this.porCategoriaYDescuento = porCategoriaYDescuento;
+    }
+    
+    /**
+     * Construye los índices de un catálogo de una sola vez, armando cada árbol
+     * balanceado a partir de sus entradas en lugar de insertarlas una por una.
+     * Si los productos vienen ordenados por SKU (como al recorrer el árbol del
+     * catálogo), basta un ordenamiento estable por precio o descuento para que los
+     * empates queden por SKU y cada árbol se arme sin volver a ordenar. Los tres
+     * grupos de índices son independientes y se construyen en paralelo en el pool
+     * común; el hilo que llama construye uno de ellos.
+     * @param productos Productos sin SKU repetidos, idealmente en orden ascendente por SKU
+     * @return Índices del catálogo
+     */
+    public static IndicesSecundarios construir(Iterable<Producto> productos) {
+        if (productos == null) {
+            throw new IllegalArgumentException("Los productos no pueden ser nulos");
+        }
+        List<Producto> lista = new ArrayList<>();
+        for (Producto producto : productos) {
+            lista.add(producto);
+        }
+        
+        ConcurrentHashMap<String, BST<Producto>> porCategoria = new ConcurrentHashMap<>();
+        ForkJoinTask<BST<Entrada>> categorias = ForkJoinTask.adapt(() -> construirCategorias(lista, porCategoria));
+        ForkJoinTask<BST<Entrada>> precios = ForkJoinTask.adapt(() -> construirPorValor(lista, false));
+        ForkJoinTask<BST<Entrada>> descuentos = ForkJoinTask.adapt(() -> construirPorValor(lista, true));
+        ForkJoinTask.invokeAll(categorias, precios, descuentos);
+        return new IndicesSecundarios(porCategoria, precios.join(), descuentos.join(), categorias.join());
+    }
+    
+    /**
+     * Llena el índice por categoría y devuelve el de (categoría, descuento)
+     */
+    private static BST<Entrada> construirCategorias(List<Producto> productos,
+            ConcurrentHashMap<String, BST<Producto>> porCategoria) {
+        Map<String, List<Producto>> categorias = new HashMap<>();
+        for (Producto producto : productos) {
+            categorias.computeIfAbsent(producto.getCategory(), c -> new ArrayList<>()).add(producto);
+        }
+        List<String> nombres = new ArrayList<>(categorias.keySet());
+        nombres.sort(null);
+        List<Entrada> descuentos = new ArrayList<>(productos.size());
+        for (String categoria : nombres) {
+            List<Producto> productosCategoria = categorias.get(categoria);
+            porCategoria.put(categoria, new BST<>(productosCategoria, true, true));
+            List<Entrada> entradas = new ArrayList<>(productosCategoria.size());
+            for (Producto producto : productosCategoria) {
+                entradas.add(entradaCategoriaYDescuento(producto));
+            }
+            descuentos.addAll(ordenarPorValor(entradas));
+        }
+        return new BST<>(descuentos, true, true);
+    }
+    
+    private static BST<Entrada> construirPorValor(List<Producto> productos, boolean porDescuento) {
+        List<Entrada> entradas = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            entradas.add(porDescuento ? new Entrada(null, descuento(producto), PRODUCTO, producto)
+                    : entradaPrecio(producto));
+        }
+        return new BST<>(ordenarPorValor(entradas), true, true);
+    }
+    
+    private static List<Entrada> ordenarPorValor(List<Entrada> entradas) {
+        // List.sort es estable: los valores iguales conservan el orden de llegada
+        entradas.sort((a, b) -> Double.compare(a.valor, b.valor));
+        return entradas;
+    }
+    
+    private static double descuento(Producto producto) {
+        return producto.getPriceRetail() - producto.getPriceCurrent();
+    }
+    
+    private static Entrada entradaPrecio(Producto producto) {
+        return new Entrada(null, producto.getPriceCurrent(), PRODUCTO, producto);
+    }
+    
+    private static Entrada entradaCategoriaYDescuento(Producto producto) {
+        return new Entrada(producto.getCategory(), descuento(producto), PRODUCTO, producto);
+    }
+    
+    /**
+     * Agrega un producto a todos los índices. Si reemplaza a otro con el mismo SKU,
+     * primero hay que quitar el anterior, porque sus claves pueden ser distintas.
+     * @param producto Producto a agregar
+     */
+    public void agregar(Producto producto) {
+        if (producto == null) {
+            throw new IllegalArgumentException("El producto no puede ser nulo");
+        }
+        porCategoria.computeIfAbsent(producto.getCategory(), c -> new BST<>(true, true)).insert(producto);
+        porPrecio.insert(entradaPrecio(producto));
+        porDescuento.insert(new Entrada(null, descuento(producto), PRODUCTO, producto));
+        porCategoriaYDescuento.insert(entradaCategoriaYDescuento(producto));
+    }
+    
+    /**
+     * Quita un producto de todos los índices
+     * @param producto Producto tal como está en los índices (con sus precios y categoría)
+     */
+    public void quitar(Producto producto) {
+        if (producto == null) {
+            throw new IllegalArgumentException("El producto no puede ser nulo");
+        }
+        BST<Producto> categoria = porCategoria.get(producto.getCategory());
+        if (categoria != null) {
+            categoria.delete(producto);
+            if (categoria.isEmpty()) {
+                porCategoria.remove(producto.getCategory(), categoria);
+            }
+        }
+        porPrecio.delete(entradaPrecio(producto));
+        porDescuento.delete(new Entrada(null, descuento(producto), PRODUCTO, producto));
+        porCategoriaYDescuento.delete(entradaCategoriaYDescuento(producto));
+    }
+    
+    /**
+     * Crea una copia independiente de los índices. Los árboles están en modo
+     * concurrente, así que cada copia es O(1); el mapa de categorías se copia.
+     * @return Copia de los índices
+     */
+    public IndicesSecundarios copia() {
+        ConcurrentHashMap<String, BST<Producto>> categorias = new ConcurrentHashMap<>();
+        for (Map.Entry<String, BST<Producto>> categoria : porCategoria.entrySet()) {
+            categorias.put(categoria.getKey(), categoria.getValue().copia());
+        }
+        return new IndicesSecundarios(categorias, porPrecio.copia(), porDescuento.copia(),
+                porCategoriaYDescuento.copia());
+    }
+    
+    /**
+     * Devuelve una página de los productos de una categoría, ordenados por SKU
+     * @param categoria Categoría a listar
+     * @param inicio Posición del primer producto dentro de la categoría
+     * @param limite Número máximo de productos
+     * @return Productos de la página (vacía si la categoría no existe)
+     */
+    public List<Producto> porCategoria(String categoria, int inicio, int limite) {
+        BST<Producto> productos = (categoria == null) ? null : porCategoria.get(categoria);
+        if (productos == null) {
+            return new ArrayList<>();
+        }
+        return productos.pageAt(inicio, limite);
+    }
+    
+    /**
+     * Cuenta los productos de una categoría en O(1)
+     * @param categoria Categoría a contar
+     * @return Número de productos de la categoría
+     */
+    public int contarCategoria(String categoria) {
+        BST<Producto> productos = (categoria == null) ? null : porCategoria.get(categoria);
+        return (productos == null) ? 0 : productos.size();
+    }
+    
+    /**
+     * Devuelve las categorías con al menos un producto
+     * @return Categorías en orden alfabético
+     */
+    public List<String> categorias() {
+        List<String> categorias = new ArrayList<>(porCategoria.keySet());
+        categorias.sort(null);
+        return categorias;
+    }
+    
+    /**
+     * Busca los productos con precio actual dentro de un rango, de menor a mayor precio
+     * @param minimo Precio mínimo (inclusivo)
+     * @param maximo Precio máximo (inclusivo)
+     * @param limite Número máximo de productos
+     * @return Productos del rango
+     */
+    public List<Producto> porPrecio(double minimo, double maximo, int limite) {
+        Iterator<Entrada> entradas = porPrecio.range(new Entrada(null, minimo, ANTES, null), true,
+                new Entrada(null, maximo, DESPUES, null), true);
+        return listar(entradas, limite);
+    }
+    
+    /**
+     * Cuenta los productos con precio actual dentro de un rango en O(log n)
+     * @param minimo Precio mínimo (inclusivo)
+     * @param maximo Precio máximo (inclusivo)
+     * @return Número de productos del rango
+     */
+    public int contarPorPrecio(double minimo, double maximo) {
+        return porPrecio.rangeCount(new Entrada(null, minimo, ANTES, null), true,
+                new Entrada(null, maximo, DESPUES, null), true);
+    }
+    
+    /**
+     * Devuelve los productos con mayor descuento, de mayor a menor
+     * @param categoria Categoría a la que limitar la búsqueda, o null para todo el catálogo
+     * @param limite Número máximo de productos
+     * @return Productos con mayor descuento
+     */
+    public List<Producto> mayoresDescuentos(String categoria, int limite) {
+        Iterator<Entrada> entradas;
+        if (categoria == null) {
+            entradas = porDescuento.reverseIterator();
+        } else {
+            entradas = porCategoriaYDescuento.reverseRange(
+                    new Entrada(categoria, Double.POSITIVE_INFINITY, DESPUES, null), true,
+                    new Entrada(categoria, Double.NEGATIVE_INFINITY, ANTES, null), true);
+        }
+        return listar(entradas, limite);
+    }
+    
+    private static List<Producto> listar(Iterator<Entrada> entradas, int limite) {
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        List<Producto> productos = new ArrayList<>();
+        while (productos.size() < limite && entradas.hasNext()) {
+            productos.add(entradas.next().producto);
+        }
+        return productos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para los índices secundarios por categoría, precio y descuento
+ */
+public class IndicesSecundariosTest {
+    
+    private static List<Producto> productos() {
+        return Arrays.asList(
+                new Producto("A1", 100.0, 80.0, "Silla", "Muebles"),
+                new Producto("A2", 50.0, 50.0, "Mesa", "Muebles"),
+                new Producto("B1", 30.0, 10.0, "Taladro", "Herramientas"),
+                new Producto("B2", 80.0, 80.0, "Sierra", "Herramientas"),
+                new Producto("C1", 15.0, 12.0, "Lámpara", "Muebles"));
+    }
+    
+    private static List<String> skus(List<Producto> productos) {
+        List<String> resultado = new ArrayList<>();
+        for (Producto producto : productos) {
+            resultado.add(producto.getSku());
+        }
+        return resultado;
+    }
+    
+    @Test
+    public void testPorCategoria() {
+        IndicesSecundarios indices = IndicesSecundarios.construir(productos());
+        
+        assertEquals(Arrays.asList("A1", "A2", "C1"), skus(indices.porCategoria("Muebles", 0, 10)));
+        assertEquals(Arrays.asList("A2"), skus(indices.porCategoria("Muebles", 1, 1)));
+        assertEquals(3, indices.contarCategoria("Muebles"));
+        assertEquals(0, indices.contarCategoria("Juguetes"));
+        assertTrue(indices.porCategoria("Juguetes", 0, 10).isEmpty());
+        assertEquals(Arrays.asList("Herramientas", "Muebles"), indices.categorias());
+    }
+    
+    @Test
+    public void testPorPrecio() {
+        IndicesSecundarios indices = IndicesSecundarios.construir(productos());
+        
+        // Los precios iguales se ordenan por SKU y los extremos son inclusivos
+        assertEquals(Arrays.asList("C1", "A2", "A1", "B2"), skus(indices.porPrecio(12.0, 80.0, 10)));
+        assertEquals(Arrays.asList("C1", "A2"), skus(indices.porPrecio(12.0, 80.0, 2)));
+        assertEquals(4, indices.contarPorPrecio(12.0, 80.0));
+        assertEquals(0, indices.contarPorPrecio(81.0, 1000.0));
+    }
+    
+    @Test
+    public void testMayoresDescuentos() {
+        IndicesSecundarios indices = IndicesSecundarios.construir(productos());
+        
+        assertEquals(Arrays.asList("B1", "A1", "C1"), skus(indices.mayoresDescuentos(null, 3)));
+        assertEquals(Arrays.asList("A1", "C1", "A2"), skus(indices.mayoresDescuentos("Muebles", 10)));
+        assertEquals(Arrays.asList("B1", "B2"), skus(indices.mayoresDescuentos("Herramientas", 10)));
+        assertTrue(indices.mayoresDescuentos("Juguetes", 10).isEmpty());
+    }
+    
+    @Test
+    public void testAgregarYQuitar() {
+        IndicesSecundarios indices = IndicesSecundarios.construir(productos());
+        IndicesSecundarios copia = indices.copia();
+        
+        // Reemplazo de B1: cambia de categoría y de precio
+        Producto anterior = new Producto("B1", 30.0, 10.0, "Taladro", "Herramientas");
+        indices.quitar(anterior);
+        indices.agregar(new Producto("B1", 30.0, 29.0, "Taladro", "Ofertas"));
+        indices.quitar(new Producto("B2", 80.0, 80.0, "Sierra", "Herramientas"));
+        
+        assertEquals(Arrays.asList("Muebles", "Ofertas"), indices.categorias());
+        assertEquals(Arrays.asList("B1"), skus(indices.porCategoria("Ofertas", 0, 10)));
+        assertEquals(Arrays.asList("B1"), skus(indices.porPrecio(20.0, 30.0, 10)));
+        assertEquals(Arrays.asList("A1", "C1", "B1"), skus(indices.mayoresDescuentos(null, 3)));
+        
+        // La copia no ve los cambios
+        assertEquals(2, copia.contarCategoria("Herramientas"));
+        assertEquals(Arrays.asList("B1"), skus(copia.porPrecio(10.0, 10.0, 10)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,346 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Lector de registros CSV que trabaja directamente sobre los bytes de un archivo
+ * mapeado en memoria (FileChannel.map). Los campos se guardan como rangos dentro
+ * del mapeo, sin copiar ni decodificar la línea: solo se crean Strings para los
+ * campos que se piden y los precios se interpretan directamente desde los bytes.
+ * Los campos se devuelven sin comillas y sin espacios en los extremos.
+ * El archivo debe estar codificado en UTF-8.
+ */
+public class LectorCSVMapeado implements Closeable {
+    // Los archivos grandes se recorren por ventanas, porque un mapeo no puede superar 2 GB
+    private static final long TAMANO_VENTANA = 256L * 1024 * 1024;
+    
+    private final FileChannel canal;
+    private final long fin;
+    private final long tamanoVentana;
+    private MappedByteBuffer ventana;
+    private long inicioVentana;
+    private int limiteVentana;
+    private long posicion;
+    private boolean saltarLF;
+    
+    // Registro actual: rangos de cada campo relativos a la ventana
+    private int[] inicios;
+    private int[] fines;
+    private boolean[] conComillas;
+    private int numeroCampos;
+    
+    // Buffer reutilizable para copiar bytes antes de decodificarlos
+    private byte[] auxiliar;
+    private final ParserPrecio parserPrecio = new ParserPrecio();
+    
+    /**
+     * Crea un lector sobre un rango de bytes del archivo
+     * @param canal Canal del archivo (no se cierra al cerrar el lector)
+     * @param desde Posición del primer byte a leer
+     * @param hasta Posición siguiente al último byte a leer
+     * @throws IOException Si ocurre un error al mapear el archivo
+     */
+    public LectorCSVMapeado(FileChannel canal, long desde, long hasta) throws IOException {
+        this(canal, desde, hasta, TAMANO_VENTANA);
+    }
+    
+    /**
+     * Crea un lector indicando el tamaño máximo de cada ventana mapeada
+     */
+    LectorCSVMapeado(FileChannel canal, long desde, long hasta, long tamanoVentana) throws IOException {
+        if (canal == null) {
+            throw new IllegalArgumentException("El canal no puede ser nulo");
+        }
+        this.canal = canal;
+        this.fin = Math.min(hasta, canal.size());
+        this.tamanoVentana = tamanoVentana;
+        this.posicion = desde;
+        this.inicios = new int[16];
+        this.fines = new int[16];
+        this.conComillas = new boolean[16];
+        this.auxiliar = new byte[256];
+        
+        // Ignoramos la marca de orden de bytes (BOM) al inicio del archivo
+        if (desde == 0 && fin >= 3) {
+            mapearDesde(0);
+            if (ventana.get(0) == (byte) 0xEF && ventana.get(1) == (byte) 0xBB && ventana.get(2) == (byte) 0xBF) {
+                posicion = 3;
+            }
+        }
+    }
+    
+    private void mapearDesde(long inicio) throws IOException {
+        inicioVentana = inicio;
+        limiteVentana = (int) Math.min(tamanoVentana, fin - inicio);
+        ventana = canal.map(FileChannel.MapMode.READ_ONLY, inicio, limiteVentana);
+    }
+    
+    /**
+     * Avanza al siguiente registro. Las líneas completamente vacías se omiten.
+     * @return true si se leyó un registro, false al llegar al final de la entrada
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public boolean siguienteRegistro() throws IOException {
+        while (true) {
+            int resultado = leerRegistro();
+            if (resultado < 0) {
+                return false;
+            }
+            // Una línea vacía produce un único campo vacío: la ignoramos
+            if (numeroCampos > 1 || inicios[0] != fines[0] || resultado > 0) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Lee un registro completo. Si el registro queda cortado por el final de la
+     * ventana, se vuelve a mapear a partir del inicio del registro y se reintenta.
+     * @return -1 al final de la entrada, 1 si el registro contenía comillas, 0 en otro caso
+     */
+    private int leerRegistro() throws IOException {
+        while (true) {
+            if (saltarLF && posicion < fin) {
+                asegurarVentana();
+                if (ventana.get((int) (posicion - inicioVentana)) == '\n') {
+                    posicion++;
+                }
+                saltarLF = false;
+            }
+            if (posicion >= fin) {
+                return -1;
+            }
+            asegurarVentana();
+            
+            int resultado = recorrerRegistro((int) (posicion - inicioVentana));
+            if (resultado != Integer.MIN_VALUE) {
+                return resultado;
+            }
+            
+            // El registro no cabe en lo que queda de la ventana
+            if (inicioVentana == posicion) {
+                throw new IOException("Registro demasiado grande en la posición " + posicion);
+            }
+            mapearDesde(posicion);
+        }
+    }
+    
+    private void asegurarVentana() throws IOException {
+        if (ventana == null || posicion < inicioVentana || posicion >= inicioVentana + limiteVentana) {
+            mapearDesde(posicion);
+        }
+    }
+    
+    /**
+     * Recorre los bytes de un registro (RFC 4180): las comas y saltos de línea
+     * dentro de comillas forman parte del campo. Las comillas se quitan recién
+     * al pedir el campo, en copiarCampo.
+     * @param i Posición inicial dentro de la ventana
+     * @return Resultado de leerRegistro, o Integer.MIN_VALUE si se llegó al final de la ventana
+     */
+    private int recorrerRegistro(int i) {
+        numeroCampos = 0;
+        int inicioCampo = i;
+        boolean enComillas = false;
+        boolean campoConComillas = false;
+        boolean huboComillas = false;
+        boolean finDeDatos = (inicioVentana + limiteVentana >= fin);
+        
+        while (i < limiteVentana) {
+            byte b = ventana.get(i);
+            if (b == '"') {
+                // Las comillas escapadas ("") equivalen a cerrar y volver a abrir
+                enComillas = !enComillas;
+                campoConComillas = true;
+                huboComillas = true;
+            } else if (!enComillas) {
+                if (b == ',') {
+                    cerrarCampo(inicioCampo, i, campoConComillas);
+                    inicioCampo = i + 1;
+                    campoConComillas = false;
+                } else if (b == '\n' || b == '\r') {
+                    cerrarCampo(inicioCampo, i, campoConComillas);
+                    saltarLF = (b == '\r');
+                    posicion = inicioVentana + i + 1;
+                    return huboComillas ? 1 : 0;
+                }
+            }
+            i++;
+        }
+        
+        if (!finDeDatos) {
+            return Integer.MIN_VALUE;
+        }
+        cerrarCampo(inicioCampo, i, campoConComillas);
+        posicion = fin;
+        return huboComillas ? 1 : 0;
+    }
+    
+    private void cerrarCampo(int inicio, int finCampo, boolean campoConComillas) {
+        if (numeroCampos == inicios.length) {
+            inicios = java.util.Arrays.copyOf(inicios, inicios.length * 2);
+            fines = java.util.Arrays.copyOf(fines, fines.length * 2);
+            conComillas = java.util.Arrays.copyOf(conComillas, conComillas.length * 2);
+        }
+        // Recortamos los espacios en blanco de los extremos
+        while (inicio < finCampo && (ventana.get(inicio) & 0xFF) <= ' ') {
+            inicio++;
+        }
+        while (finCampo > inicio && (ventana.get(finCampo - 1) & 0xFF) <= ' ') {
+            finCampo--;
+        }
+        inicios[numeroCampos] = inicio;
+        fines[numeroCampos] = finCampo;
+        conComillas[numeroCampos] = campoConComillas;
+        numeroCampos++;
+    }
+    
+    /**
+     * Devuelve el número de campos del registro actual
+     * @return Número de campos
+     */
+    public int numeroCampos() {
+        return numeroCampos;
+    }
+    
+    /**
+     * Devuelve el valor de un campo del registro actual
+     * @param indice Índice del campo
+     * @return Valor del campo
+     */
+    public String campo(int indice) {
+        verificarIndice(indice);
+        int longitud = copiarCampo(indice);
+        int inicio = inicioRecortado(longitud);
+        longitud = finRecortado(inicio, longitud);
+        return new String(auxiliar, inicio, longitud - inicio, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Devuelve el valor de un campo del registro actual buscándolo en un diccionario:
+     * si el valor ya estaba se devuelve la instancia existente sin crear un String
+     * @param indice Índice del campo
+     * @param diccionario Diccionario de valores de la columna
+     * @return Valor del campo
+     */
+    public String campo(int indice, DiccionarioTextos diccionario) {
+        verificarIndice(indice);
+        int longitud = copiarCampo(indice);
+        int inicio = inicioRecortado(longitud);
+        longitud = finRecortado(inicio, longitud);
+        return diccionario.obtener(auxiliar, inicio, longitud);
+    }
+    
+    // Recorte de los espacios que quedaron dentro de las comillas
+    private int inicioRecortado(int longitud) {
+        int inicio = 0;
+        while (inicio < longitud && (auxiliar[inicio] & 0xFF) <= ' ') {
+            inicio++;
+        }
+        return inicio;
+    }
+    
+    private int finRecortado(int inicio, int longitud) {
+        while (longitud > inicio && (auxiliar[longitud - 1] & 0xFF) <= ' ') {
+            longitud--;
+        }
+        return longitud;
+    }
+    
+    /**
+     * Copia los bytes de un campo al buffer auxiliar quitando las comillas
+     * @return Número de bytes copiados
+     */
+    private int copiarCampo(int indice) {
+        int inicio = inicios[indice];
+        int longitud = fines[indice] - inicio;
+        if (auxiliar.length < longitud) {
+            auxiliar = new byte[Math.max(longitud, auxiliar.length * 2)];
+        }
+        if (!conComillas[indice]) {
+            ventana.get(inicio, auxiliar, 0, longitud);
+            return longitud;
+        }
+        
+        int copiados = 0;
+        boolean enComillas = false;
+        for (int i = inicio; i < fines[indice]; i++) {
+            byte b = ventana.get(i);
+            if (b == '"') {
+                // Dentro de comillas, "" representa una comilla literal
+                if (enComillas && i + 1 < fines[indice] && ventana.get(i + 1) == '"') {
+                    auxiliar[copiados++] = b;
+                    i++;
+                } else {
+                    enComillas = !enComillas;
+                }
+            } else {
+                auxiliar[copiados++] = b;
+            }
+        }
+        return copiados;
+    }
+    
+    /**
+     * Indica si un campo del registro actual está vacío
+     * @param indice Índice del campo
+     * @return true si el campo no tiene contenido
+     */
+    public boolean campoVacio(int indice) {
+        verificarIndice(indice);
+        if (!conComillas[indice]) {
+            return inicios[indice] == fines[indice];
+        }
+        return campo(indice).isEmpty();
+    }
+    
+    /**
+     * Interpreta un campo del registro actual como número decimal
+     * @param indice Índice del campo
+     * @param defaultValue Valor a devolver si el campo no es un número válido
+     * @return Valor numérico del campo
+     */
+    public double campoDouble(int indice, double defaultValue) {
+        verificarIndice(indice);
+        // Interpretamos el precio directamente desde los bytes mapeados
+        parserPrecio.reiniciar();
+        for (int i = inicios[indice]; i < fines[indice]; i++) {
+            byte b = ventana.get(i);
+            if (b != '"') {
+                parserPrecio.agregar(b & 0xFF);
+            }
+        }
+        return parserPrecio.valor(defaultValue);
+    }
+    
+    /**
+     * Reconstruye el registro actual como texto, útil para mensajes de error
+     * @return Campos del registro separados por comas
+     */
+    public String registroComoTexto() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < numeroCampos; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(campo(i));
+        }
+        return sb.toString();
+    }
+    
+    private void verificarIndice(int indice) {
+        if (indice < 0 || indice >= numeroCampos) {
+            throw new IndexOutOfBoundsException("Índice de campo fuera de rango: " + indice);
+        }
+    }
+    
+    /**
+     * Libera la referencia a la ventana mapeada. El canal lo cierra quien lo abrió.
+     */
+    @Override
+    public void close() {
+        ventana = null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pruebas unitarias para el lector de CSV sobre archivos mapeados en memoria
+ */
+public class LectorCSVMapeadoTest {
+    
+    private Path archivo;
+    private FileChannel canal;
+    
+    @Before
+    public void setUp() throws IOException {
+        archivo = Files.createTempFile("lector", ".csv");
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        if (canal != null) {
+            canal.close();
+        }
+        Files.deleteIfExists(archivo);
+    }
+    
+    private LectorCSVMapeado crearLector(String contenido) throws IOException {
+        return crearLector(contenido, Long.MAX_VALUE);
+    }
+    
+    private LectorCSVMapeado crearLector(String contenido, long tamanoVentana) throws IOException {
+        Files.write(archivo, contenido.getBytes(StandardCharsets.UTF_8));
+        canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        return new LectorCSVMapeado(canal, 0, canal.size(), tamanoVentana);
+    }
+    
+    private static List<String> leerTodo(LectorCSVMapeado lector) throws IOException {
+        List<String> registros = new ArrayList<>();
+        while (lector.siguienteRegistro()) {
+            registros.add(lector.registroComoTexto());
+        }
+        return registros;
+    }
+    
+    @Test
+    public void testCamposSimples() throws IOException {
+        LectorCSVMapeado lector = crearLector("SKU,Precio,Nombre\nA1, 10.5 ,Mesa\n");
+        
+        assertTrue(lector.siguienteRegistro());
+        assertEquals(3, lector.numeroCampos());
+        assertEquals("SKU", lector.campo(0));
+        
+        assertTrue(lector.siguienteRegistro());
+        assertEquals("A1", lector.campo(0));
+        assertEquals("10.5", lector.campo(1)); // Se eliminan los espacios de los extremos
+        assertEquals(10.5, lector.campoDouble(1, 0.0), 0.001);
+        assertEquals("Mesa", lector.campo(2));
+        
+        assertFalse(lector.siguienteRegistro());
+    }
+    
+    @Test
+    public void testCamposEntreComillas() throws IOException {
+        LectorCSVMapeado lector = crearLector("\"A1\",\"Mesa, madera\",\"Silla \"\"grande\"\"\",\"  espacios  \"\r\n");
+        
+        assertTrue(lector.siguienteRegistro());
+        assertEquals(4, lector.numeroCampos());
+        assertEquals("A1", lector.campo(0));
+        assertEquals("Mesa, madera", lector.campo(1));
+        assertEquals("Silla \"grande\"", lector.campo(2));
+        assertEquals("espacios", lector.campo(3));
+        assertFalse(lector.siguienteRegistro());
+    }
+    
+    @Test
+    public void testSaltoDeLineaDentroDeComillas() throws IOException {
+        LectorCSVMapeado lector = crearLector("A1,\"Línea 1\r\nLínea 2\",X\r\nA2,B,Ñandú");
+        
+        assertTrue(lector.siguienteRegistro());
+        assertEquals("Línea 1\r\nLínea 2", lector.campo(1));
+        assertEquals("X", lector.campo(2));
+        
+        assertTrue(lector.siguienteRegistro());
+        assertEquals("A2", lector.campo(0));
+        assertEquals("Ñandú", lector.campo(2));
+        assertFalse(lector.siguienteRegistro());
+    }
+    
+    @Test
+    public void testCamposVaciosYLineasEnBlanco() throws IOException {
+        LectorCSVMapeado lector = crearLector("\uFEFFSKU,Precio\n\r\n\nA1,,\"\"\n");
+        
+        assertTrue(lector.siguienteRegistro());
+        assertEquals("SKU", lector.campo(0)); // Se ignora el BOM
+        
+        assertTrue(lector.siguienteRegistro()); // Las líneas en blanco se omiten
+        assertEquals(3, lector.numeroCampos());
+        assertTrue(lector.campoVacio(1));
+        assertTrue(lector.campoVacio(2));
+        assertEquals(-1.0, lector.campoDouble(1, -1.0), 0.001);
+        assertFalse(lector.siguienteRegistro());
+    }
+    
+    @Test
+    public void testPrecioInvalidoUsaValorPorDefecto() throws IOException {
+        LectorCSVMapeado lector = crearLector("A1,abc,\"12.5\"\n");
+        
+        assertTrue(lector.siguienteRegistro());
+        assertEquals(0.0, lector.campoDouble(1, 0.0), 0.001);
+        assertEquals(12.5, lector.campoDouble(2, 0.0), 0.001);
+    }
+    
+    @Test
+    public void testRegistrosQueCruzanLaVentana() throws IOException {
+        String contenido = "\uFEFFSKU,Precio,Nombre\r\n"
+                + "A1, 10.50 ,\"Mesa, \"\"roble\"\"\"\r\n"
+                + "\r\n"
+                + "B2,-3,\"Línea 1\nLínea 2\"\n"
+                + "C3,1e3,Ñandú\r"
+                + "\nD4,abc,\"  espacios  \"";
+        List<String> esperados = leerTodo(crearLector(contenido));
+        canal.close();
+        
+        // Ventanas de 32 bytes para forzar que los registros crucen el final del mapeo
+        assertEquals(esperados, leerTodo(crearLector(contenido, 32)));
+        assertEquals(5, esperados.size());
+    }
+    
+    @Test(expected = IOException.class)
+    public void testRegistroMayorQueLaVentana() throws IOException {
+        leerTodo(crearLector("A1,\"un nombre bastante largo\"\nB2,x\n", 8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,293 @@
+/**
+ * Intérprete de precios que recibe el texto carácter por carácter (o byte por byte
+ * en UTF-8), sin lanzar excepciones. Acepta símbolos de moneda y códigos antes o
+ * después del número ("$1,299.99", "Q 25.50", "12,50 €"), separadores de miles con
+ * punto, coma, espacio o apóstrofo, y negativos con signo o entre paréntesis. Si
+ * aparecen punto y coma, el último en aparecer es el decimal; una coma sola seguida
+ * de exactamente tres dígitos se toma como separador de miles. Los grupos de miles
+ * deben tener tres dígitos (el primero, de uno a tres), así que "1.2.3" es inválido.
+ * No se aceptan exponentes. Los valores de hasta 15 dígitos significativos se
+ * calculan sin crear objetos; los más largos se resuelven con BigDecimal para que el
+ * resultado quede correctamente redondeado. Una instancia se reutiliza llamando a
+ * reiniciar().
+ */
+public final class ParserPrecio {
+    private static final double[] POTENCIAS_DE_DIEZ = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Hasta 15 dígitos la mantisa es exacta como double (10^15 < 2^53)
+    private static final int MAXIMO_DIGITOS_EXACTOS = 15;
+    // Hasta 18 dígitos la mantisa cabe en un long
+    private static final int MAXIMO_DIGITOS_ENTEROS = 18;
+    private static final int MAXIMO_SEPARADORES = 8;
+    
+    // Fases del recorrido
+    private static final int PREFIJO = 0;
+    private static final int NUMERO = 1;
+    private static final int SUFIJO = 2;
+    
+    private int fase;
+    private boolean invalido;
+    private boolean negativo;
+    private boolean parentesisAbierto;
+    private boolean parentesisCerrado;
+    private boolean separadorDeGrupoPendiente;
+    private int separadorPendiente;
+    private long mantisa;
+    private char[] textoDigitos = new char[32]; // Dígitos significativos, para el cálculo con BigDecimal
+    private int digitos;
+    private int digitosSignificativos;
+    private boolean ceroInicial;
+    
+    // Separadores encontrados: tipo y cantidad de dígitos que los preceden
+    private final int[] tiposSeparador = new int[MAXIMO_SEPARADORES];
+    private final int[] posicionesSeparador = new int[MAXIMO_SEPARADORES];
+    private int separadores;
+    
+    /**
+     * Crea un intérprete listo para recibir caracteres
+     */
+    public ParserPrecio() {
+        reiniciar();
+    }
+    
+    /**
+     * Prepara el intérprete para un nuevo valor
+     */
+    public void reiniciar() {
+        fase = PREFIJO;
+        invalido = false;
+        negativo = false;
+        parentesisAbierto = false;
+        parentesisCerrado = false;
+        separadorDeGrupoPendiente = false;
+        mantisa = 0;
+        digitos = 0;
+        digitosSignificativos = 0;
+        ceroInicial = false;
+        separadores = 0;
+    }
+    
+    /**
+     * Procesa el siguiente carácter del valor. Los bytes de UTF-8 se pasan como
+     * enteros sin signo; cualquier código mayor a 127 se trata como parte de un
+     * símbolo de moneda.
+     * @param c Carácter o byte a procesar
+     */
+    public void agregar(int c) {
+        if (invalido) {
+            return;
+        }
+        
+        if (c >= '0' && c <= '9') {
+            if (fase == SUFIJO) {
+                invalido = true;
+                return;
+            }
+            fase = NUMERO;
+            if (separadorDeGrupoPendiente) {
+                // El espacio o apóstrofo estaba entre dígitos: era un separador de miles
+                separadorDeGrupoPendiente = false;
+                agregarSeparador(separadorPendiente);
+            }
+            agregarDigito(c - '0');
+        } else if (c == '.' || c == ',') {
+            if (fase == SUFIJO || separadorDeGrupoPendiente) {
+                invalido = true;
+                return;
+            }
+            fase = NUMERO;
+            agregarSeparador(c);
+        } else if (fase == NUMERO && (c == ' ' || c == '\'')) {
+            // Puede ser separador de miles ("1 234") o el inicio del sufijo ("12 USD")
+            if (separadorDeGrupoPendiente) {
+                fase = SUFIJO;
+            }
+            separadorDeGrupoPendiente = true;
+            separadorPendiente = c;
+        } else if (c == '-' || c == '+' || c == '(') {
+            if (fase != PREFIJO || negativo) {
+                invalido = true;
+                return;
+            }
+            negativo = (c != '+');
+            parentesisAbierto = (c == '(');
+        } else if (c == ')') {
+            // Solo puede cerrar un paréntesis abierto antes del número
+            if (!parentesisAbierto || parentesisCerrado) {
+                invalido = true;
+                return;
+            }
+            parentesisCerrado = true;
+            fase = SUFIJO;
+        } else if (esSimbolo(c) || c <= ' ') {
+            if (fase == NUMERO) {
+                fase = SUFIJO;
+            }
+        } else {
+            invalido = true;
+        }
+    }
+    
+    private static boolean esSimbolo(int c) {
+        return c == '$' || c > 127 || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+    
+    private void agregarDigito(int d) {
+        if (digitos++ == 0 && d == 0) {
+            ceroInicial = true;
+        }
+        if (digitosSignificativos == 0 && d == 0) {
+            return; // Los ceros a la izquierda no cuentan como significativos
+        }
+        if (digitosSignificativos == textoDigitos.length) {
+            textoDigitos = java.util.Arrays.copyOf(textoDigitos, textoDigitos.length * 2);
+        }
+        textoDigitos[digitosSignificativos++] = (char) ('0' + d);
+        if (digitosSignificativos <= MAXIMO_DIGITOS_ENTEROS) {
+            mantisa = mantisa * 10 + d;
+        }
+    }
+    
+    private void agregarSeparador(int tipo) {
+        if (separadores == MAXIMO_SEPARADORES) {
+            invalido = true;
+            return;
+        }
+        tiposSeparador[separadores] = tipo;
+        posicionesSeparador[separadores] = digitos;
+        separadores++;
+    }
+    
+    /**
+     * Determina cuántos dígitos quedan después del separador decimal y verifica
+     * que los separadores de miles formen grupos de tres dígitos
+     * @return Número de decimales, o -1 si el formato es inválido
+     */
+    private int calcularDecimales() {
+        if (separadores == 0) {
+            return 0;
+        }
+        int ultimo = tiposSeparador[separadores - 1];
+        boolean mismoTipo = true;
+        for (int i = 0; i < separadores - 1; i++) {
+            mismoTipo &= (tiposSeparador[i] == ultimo);
+        }
+        
+        int grupos; // Separadores de miles, todos antes del decimal
+        int decimal; // Dígitos antes del separador decimal, o -1 si no hay
+        if (!mismoTipo) {
+            // El último separador es el decimal y los anteriores deben ser todos de otro tipo
+            if (ultimo != '.' && ultimo != ',') {
+                return -1;
+            }
+            grupos = separadores - 1;
+            for (int i = 0; i < grupos; i++) {
+                if (tiposSeparador[i] != tiposSeparador[0] || tiposSeparador[i] == ultimo) {
+                    return -1;
+                }
+            }
+            decimal = posicionesSeparador[grupos];
+        } else if (separadores == 1 && (ultimo == '.' || (ultimo == ',' && !esGrupoDeMiles()))) {
+            grupos = 0;
+            decimal = posicionesSeparador[0];
+        } else {
+            // Espacios, apóstrofos o varios separadores iguales: todos son de miles
+            grupos = separadores;
+            decimal = -1;
+        }
+        
+        if (grupos > 0) {
+            int primerGrupo = posicionesSeparador[0];
+            if (primerGrupo < 1 || primerGrupo > 3 || ceroInicial) {
+                return -1;
+            }
+            for (int i = 1; i <= grupos; i++) {
+                int finGrupo = (i < grupos) ? posicionesSeparador[i] : (decimal < 0 ? digitos : decimal);
+                if (finGrupo - posicionesSeparador[i - 1] != 3) {
+                    return -1;
+                }
+            }
+        }
+        return (decimal < 0) ? 0 : digitos - decimal;
+    }
+    
+    /**
+     * Indica si una coma sola separa miles: "1,234" sí, pero "12,5", "0,125" o "1234,567" son decimales
+     */
+    private boolean esGrupoDeMiles() {
+        int antes = posicionesSeparador[0];
+        return digitos - antes == 3 && antes >= 1 && antes <= 3 && !ceroInicial;
+    }
+    
+    /**
+     * Indica si los caracteres recibidos forman un precio válido
+     * @return true si el valor es válido
+     */
+    public boolean esValido() {
+        return !invalido && digitos > 0 && parentesisAbierto == parentesisCerrado && calcularDecimales() >= 0;
+    }
+    
+    /**
+     * Devuelve el valor interpretado
+     * @param defaultValue Valor a devolver si el texto no es un precio válido
+     * @return Valor numérico
+     */
+    public double valor(double defaultValue) {
+        if (!esValido()) {
+            return defaultValue;
+        }
+        int decimales = calcularDecimales();
+        double resultado;
+        if (digitosSignificativos == 0) {
+            resultado = 0;
+        } else if (digitosSignificativos <= MAXIMO_DIGITOS_EXACTOS && decimales < POTENCIAS_DE_DIEZ.length) {
+            // Mantisa y potencia son exactas como double: la división queda correctamente redondeada
+            resultado = mantisa / POTENCIAS_DE_DIEZ[decimales];
+        } else {
+            resultado = new java.math.BigDecimal(textoDigitos, 0, digitosSignificativos)
+                    .movePointLeft(decimales).doubleValue();
+        }
+        return negativo ? -resultado : resultado;
+    }
+    
+    /**
+     * Devuelve el valor interpretado como centavos en punto fijo, redondeando
+     * a la mitad hacia arriba cuando hay más de dos decimales
+     * @param defaultValue Valor a devolver si el texto no es un precio válido
+     * @return Valor en centavos
+     */
+    public long centavos(long defaultValue) {
+        if (!esValido() || digitosSignificativos > MAXIMO_DIGITOS_ENTEROS - 2) {
+            return defaultValue;
+        }
+        int decimales = calcularDecimales();
+        long resultado;
+        if (decimales <= 2) {
+            resultado = mantisa * (decimales == 2 ? 1 : (decimales == 1 ? 10 : 100));
+        } else if (decimales - 2 <= MAXIMO_DIGITOS_ENTEROS) {
+            long divisor = (long) POTENCIAS_DE_DIEZ[decimales - 2];
+            resultado = (mantisa + divisor / 2) / divisor;
+        } else {
+            resultado = 0;
+        }
+        return negativo ? -resultado : resultado;
+    }
+    
+    /**
+     * Interpreta un rango de texto como precio
+     * @param texto Texto que contiene el precio
+     * @param inicio Posición del primer carácter
+     * @param fin Posición siguiente al último carácter
+     * @param defaultValue Valor a devolver si el texto no es un precio válido
+     * @return Valor numérico
+     */
+    public double parsear(CharSequence texto, int inicio, int fin, double defaultValue) {
+        reiniciar();
+        for (int i = inicio; i < fin; i++) {
+            agregar(texto.charAt(i));
+        }
+        return valor(defaultValue);
+    }
+}
\ No newline at end of file
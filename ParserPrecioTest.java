@@ -0,0 +1,112 @@
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Pruebas unitarias para el intérprete de precios
+ */
+public class ParserPrecioTest {
+    
+    private ParserPrecio parser;
+    
+    @Before
+    public void setUp() {
+        parser = new ParserPrecio();
+    }
+    
+    private double valor(String texto) {
+        return parser.parsear(texto, 0, texto.length(), -1.0);
+    }
+    
+    private long centavos(String texto) {
+        parser.parsear(texto, 0, texto.length(), -1.0);
+        return parser.centavos(-1);
+    }
+    
+    @Test
+    public void testNumerosSimples() {
+        assertEquals(10.0, valor("10"), 0.0);
+        assertEquals(10.5, valor("10.5"), 0.0);
+        assertEquals(0.99, valor(".99"), 0.0);
+        assertEquals(-3.25, valor("-3.25"), 0.0);
+        assertEquals(0.1, valor("0.1"), 0.0); // Debe coincidir con Double.parseDouble
+        assertEquals(Double.parseDouble("123456.789"), valor("123456.789"), 0.0);
+    }
+    
+    @Test
+    public void testSimbolosDeMoneda() {
+        assertEquals(1299.99, valor("$1,299.99"), 0.0);
+        assertEquals(25.5, valor("Q 25.50"), 0.0);
+        assertEquals(12.5, valor("12,50 €"), 0.0);
+        assertEquals(7.0, valor("7 USD"), 0.0);
+        assertEquals(-5.0, valor("($5.00)"), 0.0);
+    }
+    
+    @Test
+    public void testSeparadoresDeMiles() {
+        assertEquals(1234.56, valor("1.234,56"), 0.0);
+        assertEquals(1234567.0, valor("1,234,567"), 0.0);
+        assertEquals(1234567.89, valor("1.234.567,89"), 0.0);
+        assertEquals(1234.0, valor("1,234"), 0.0);
+        assertEquals(1234.5, valor("1 234.5"), 0.0);
+        assertEquals(1234567.5, valor("1'234'567,5"), 0.0);
+        assertEquals(0.125, valor("0,125"), 0.0); // Una coma sola tras un cero es decimal
+        assertEquals(1234.567, valor("1234,567"), 0.0);
+    }
+    
+    @Test
+    public void testGruposDeMilesMalFormados() {
+        assertEquals(-1.0, valor("1.2.3"), 0.0);
+        assertEquals(-1.0, valor("1,23,456"), 0.0);
+        assertEquals(-1.0, valor("1234,567.5"), 0.0);
+        assertEquals(-1.0, valor("12 5"), 0.0);
+        assertEquals(-1.0, valor("1..5"), 0.0);
+        assertEquals(-1.0, valor("0.123.456"), 0.0);
+    }
+    
+    @Test
+    public void testParentesisSinPareja() {
+        assertEquals(-1.0, valor("5)"), 0.0);
+        assertEquals(-1.0, valor("(5"), 0.0);
+        assertEquals(-1.0, valor("(5))"), 0.0);
+        assertEquals(-5.0, valor("(5) USD"), 0.0);
+    }
+    
+    @Test
+    public void testRedondeoCorrectoConMuchosDigitos() {
+        // Con más de 15 dígitos significativos el resultado debe coincidir con Double.parseDouble
+        assertEquals(Double.parseDouble("9007199254740993"), valor("9007199254740993"), 0.0);
+        assertEquals(Double.parseDouble("0.30000000000000001665"), valor("0.30000000000000001665"), 0.0);
+        java.util.Random random = new java.util.Random(7);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder texto = new StringBuilder();
+            int longitud = 16 + random.nextInt(10);
+            for (int j = 0; j < longitud; j++) {
+                texto.append((char) ('0' + random.nextInt(10)));
+            }
+            texto.insert(1 + random.nextInt(longitud - 1), '.');
+            assertEquals(texto.toString(), Double.parseDouble(texto.toString()), valor(texto.toString()), 0.0);
+        }
+    }
+    
+    @Test
+    public void testValoresInvalidos() {
+        assertEquals(-1.0, valor(""), 0.0);
+        assertEquals(-1.0, valor("abc"), 0.0);
+        assertEquals(-1.0, valor("N/A"), 0.0);
+        assertEquals(-1.0, valor("1.2.3,4,5"), 0.0);
+        assertEquals(-1.0, valor("12 USD 5"), 0.0);
+        assertEquals(-1.0, valor("--5"), 0.0);
+        assertFalse(parser.esValido());
+    }
+    
+    @Test
+    public void testCentavos() {
+        assertEquals(129999, centavos("$1,299.99"));
+        assertEquals(1050, centavos("10.5"));
+        assertEquals(700, centavos("7"));
+        assertEquals(1235, centavos("12.345")); // Redondeo a la mitad hacia arriba
+        assertEquals(-500, centavos("-5"));
+        assertEquals(-1, centavos("sin precio"));
+    }
+}
\ No newline at end of file
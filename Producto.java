@@ -2,6 +2,12 @@
  * Clase que representa un producto del retail
  */
 public class Producto implements Comparable<Producto> {
+    /**
+     * Compara un SKU (sin espacios en los extremos) con el SKU de un producto,
+     * para buscar en el árbol sin crear un Producto de prueba
+     */
+    public static final java.util.function.ToIntBiFunction<CharSequence, Producto> COMPARADOR_SKU = Producto::compararSKU;
+    
     // Atributos del producto
     private final String sku;
     private final double priceRetail;
@@ -70,6 +76,39 @@ public class Producto implements Comparable<Producto> {
         return this.sku.compareTo(other.sku);
     }
     
+    /**
+     * Compara un SKU con el de un producto con el mismo orden que compareTo,
+     * ignorando los espacios en los extremos del SKU dado y sin crear objetos
+     * @param sku SKU a comparar
+     * @param producto Producto con el que se compara
+     * @return Negativo, cero o positivo si el SKU es menor, igual o mayor
+     */
+    public static int compararSKU(CharSequence sku, Producto producto) {
+        int inicio = 0;
+        int fin = sku.length();
+        while (inicio < fin && sku.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && sku.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        if (inicio == 0 && fin == sku.length() && sku instanceof String) {
+            return ((String) sku).compareTo(producto.sku);
+        }
+        
+        String otro = producto.sku;
+        int longitud = fin - inicio;
+        int comunes = Math.min(longitud, otro.length());
+        for (int i = 0; i < comunes; i++) {
+            char a = sku.charAt(inicio + i);
+            char b = otro.charAt(i);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return longitud - otro.length();
+    }
+    
     /**
      * Verifica si dos productos son iguales basándose en su SKU
      */
@@ -0,0 +1,495 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Registro de escritura anticipada (write-ahead log) de los cambios del catálogo.
+ * Cada inserción o eliminación se agrega como un registro con su longitud y su suma
+ * CRC32C. Los registros se acumulan en memoria y un hilo escritor los graba por
+ * lotes con un solo fsync por lote (group commit): quien necesita durabilidad
+ * inmediata espera a que su lote se sincronice, y el resto de los cambios quedan
+ * en disco a más tardar al cumplirse la ventana de durabilidad.
+ * El encabezado guarda el tamaño y la fecha del CSV de origen, porque los cambios
+ * solo tienen sentido sobre esa versión del catálogo. Al leer, un último registro
+ * incompleto o dañado (por una caída a mitad de escritura) se descarta.
+ */
+public class RegistroCambios implements Closeable {
+    private static final int MAGICO = 0x4357414C; // "CWAL"
+    private static final int VERSION = 1;
+    private static final int ENCABEZADO = 24;
+    private static final byte UPSERT = 1;
+    private static final byte ELIMINACION = 2;
+    
+    // A partir de este tamaño de lote pendiente, quien registra espera al escritor
+    private static final int MAXIMO_PENDIENTE = 16 * 1024 * 1024;
+    
+    private final FileChannel canal;
+    private final long ventanaNanos;
+    private final Thread escritor;
+    
+    // Estado compartido con el hilo escritor, protegido por el cerrojo. El escritor
+    // espera en trabajo; quienes esperan durabilidad o espacio, en progreso
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition trabajo = cerrojo.newCondition();
+    private final Condition progreso = cerrojo.newCondition();
+    private ByteBuffer pendiente = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer enEscritura = ByteBuffer.allocate(64 * 1024);
+    private long inicioPendiente;
+    private long agregados;
+    private long durables;
+    private long tamano;
+    private boolean urgente;
+    private boolean cerrado;
+    private IOException error;
+    
+    /**
+     * Abre el registro de cambios de un CSV. Si el archivo pertenece a otra versión
+     * del CSV se vacía; si termina en un registro incompleto, se recorta.
+     * @param archivo Ruta del registro
+     * @param csv Archivo CSV de origen del catálogo
+     * @param ventanaMillis Tiempo máximo que un cambio puede esperar a ser sincronizado
+     * @throws IOException Si ocurre un error al abrir el archivo
+     */
+    public RegistroCambios(Path archivo, Path csv, long ventanaMillis) throws IOException {
+        if (archivo == null || csv == null) {
+            throw new IllegalArgumentException("Las rutas no pueden ser nulas");
+        }
+        if (ventanaMillis < 0) {
+            throw new IllegalArgumentException("La ventana de durabilidad no puede ser negativa");
+        }
+        boolean vigente = correspondeA(archivo, csv);
+        canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (vigente) {
+                tamano = recorrer(canal, null);
+                canal.truncate(tamano);
+            } else {
+                canal.truncate(0);
+                ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO);
+                encabezado.putInt(MAGICO).putInt(VERSION).putLong(Files.size(csv))
+                        .putLong(Files.getLastModifiedTime(csv).toMillis()).flip();
+                while (encabezado.hasRemaining()) {
+                    canal.write(encabezado, encabezado.position());
+                }
+                canal.force(true);
+                tamano = ENCABEZADO;
+            }
+            canal.position(tamano);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        ventanaNanos = ventanaMillis * 1_000_000L;
+        escritor = new Thread(this::escribirLotes, "registro-cambios");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+    
+    /**
+     * Devuelve la ruta del registro de cambios asociado a un archivo CSV
+     * @param csv Ruta del archivo CSV
+     * @return Ruta del registro (junto al CSV, con extensión .wal)
+     */
+    public static Path rutaPara(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".wal");
+    }
+    
+    /**
+     * Indica si un registro existe y corresponde a la versión actual de un CSV
+     * @param archivo Ruta del registro
+     * @param csv Archivo CSV de origen
+     * @return true si el registro se escribió sobre esa versión del CSV
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static boolean correspondeA(Path archivo, Path csv) throws IOException {
+        if (!Files.isRegularFile(archivo) || !Files.isRegularFile(csv)) {
+            return false;
+        }
+        try (FileChannel lector = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO);
+            while (encabezado.hasRemaining() && lector.read(encabezado) >= 0) {
+                // Leemos hasta completar el encabezado o llegar al final
+            }
+            return !encabezado.hasRemaining() && encabezado.getInt(0) == MAGICO && encabezado.getInt(4) == VERSION
+                    && encabezado.getLong(8) == Files.size(csv)
+                    && encabezado.getLong(16) == Files.getLastModifiedTime(csv).toMillis();
+        }
+    }
+    
+    /**
+     * Lee los cambios de un registro en el orden en que se agregaron
+     * @param archivo Ruta del registro
+     * @param csv Archivo CSV de origen
+     * @return Cambios registrados, o una lista vacía si no hay registro para esa versión del CSV
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static List<ActualizacionProducto> leer(Path archivo, Path csv) throws IOException {
+        List<ActualizacionProducto> cambios = new ArrayList<>();
+        if (correspondeA(archivo, csv)) {
+            try (FileChannel lector = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                recorrer(lector, cambios);
+            }
+        }
+        return cambios;
+    }
+    
+    /**
+     * Recorre los registros válidos
+     * @param destino Lista donde agregar los cambios, o null para solo recorrerlos
+     * @return Posición siguiente al último registro válido
+     */
+    private static long recorrer(FileChannel lector, List<ActualizacionProducto> destino) throws IOException {
+        long tamanoArchivo = lector.size();
+        if (tamanoArchivo > Integer.MAX_VALUE) {
+            throw new IOException("El registro de cambios supera el tamaño máximo de 2 GB");
+        }
+        ByteBuffer datos = leerCompleto(lector, (int) tamanoArchivo);
+        CRC32C suma = new CRC32C();
+        int posicion = ENCABEZADO;
+        while (posicion + 8 <= tamanoArchivo) {
+            int longitud = datos.getInt(posicion);
+            if (longitud <= 0 || posicion + 8L + longitud > tamanoArchivo) {
+                break;
+            }
+            suma.reset();
+            suma.update(datos.duplicate().position(posicion + 8).limit(posicion + 8 + longitud));
+            if ((int) suma.getValue() != datos.getInt(posicion + 4)) {
+                break;
+            }
+            if (destino != null) {
+                destino.add(decodificar(datos.duplicate().position(posicion + 8).limit(posicion + 8 + longitud)));
+            }
+            posicion += 8 + longitud;
+        }
+        return posicion;
+    }
+    
+    /**
+     * Copia el archivo a un buffer del heap con lecturas posicionales, sin mover la
+     * posición del canal. No se usa FileChannel.map: el mapeo sigue vigente hasta
+     * que el recolector lo libera, y en Windows mientras tanto no se puede recortar
+     * ni borrar el registro.
+     */
+    private static ByteBuffer leerCompleto(FileChannel lector, int tamanoArchivo) throws IOException {
+        ByteBuffer datos = ByteBuffer.allocate(tamanoArchivo);
+        while (datos.hasRemaining()) {
+            if (lector.read(datos, datos.position()) < 0) {
+                throw new IOException("El registro de cambios se acortó durante la lectura");
+            }
+        }
+        return datos.flip();
+    }
+    
+    private static ActualizacionProducto decodificar(ByteBuffer registro) throws IOException {
+        try {
+            byte tipo = registro.get();
+            String sku = leerTexto(registro);
+            if (tipo == ELIMINACION) {
+                return ActualizacionProducto.eliminacion(sku);
+            }
+            if (tipo != UPSERT) {
+                throw new IOException("Tipo de cambio desconocido en el registro: " + tipo);
+            }
+            double priceRetail = registro.getDouble();
+            double priceCurrent = registro.getDouble();
+            String productName = leerTexto(registro);
+            String category = leerTexto(registro);
+            return ActualizacionProducto.upsert(new Producto(sku, priceRetail, priceCurrent, productName, category));
+        } catch (RuntimeException e) {
+            // La suma coincide pero el contenido no: archivo de otra implementación
+            throw new IOException("El registro de cambios tiene un formato inválido", e);
+        }
+    }
+    
+    /**
+     * Indica si un registro contiene al menos un cambio válido, sin importar a qué
+     * versión del CSV corresponde
+     * @param archivo Ruta del registro
+     * @return true si el archivo es un registro de cambios con algún cambio
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static boolean tieneCambios(Path archivo) throws IOException {
+        if (!Files.isRegularFile(archivo)) {
+            return false;
+        }
+        try (FileChannel lector = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO);
+            while (encabezado.hasRemaining() && lector.read(encabezado) >= 0) {
+                // Leemos hasta completar el encabezado o llegar al final
+            }
+            if (encabezado.hasRemaining() || encabezado.getInt(0) != MAGICO || encabezado.getInt(4) != VERSION) {
+                return false;
+            }
+            return recorrer(lector, null) > ENCABEZADO;
+        }
+    }
+    
+    private static String leerTexto(ByteBuffer registro) {
+        byte[] bytes = new byte[registro.getInt()];
+        registro.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Codifica un cambio como registro completo (longitud, suma y contenido)
+     */
+    private static byte[] codificar(ActualizacionProducto cambio) {
+        Producto producto = cambio.getProducto();
+        byte[] sku = producto.getSku().getBytes(StandardCharsets.UTF_8);
+        byte[] nombre = null;
+        byte[] categoria = null;
+        int longitud = 1 + 4 + sku.length;
+        if (!cambio.isEliminacion()) {
+            nombre = producto.getProductName().getBytes(StandardCharsets.UTF_8);
+            categoria = producto.getCategory().getBytes(StandardCharsets.UTF_8);
+            longitud += 16 + 4 + nombre.length + 4 + categoria.length;
+        }
+        
+        ByteBuffer registro = ByteBuffer.allocate(8 + longitud);
+        registro.putInt(longitud).putInt(0);
+        registro.put(cambio.isEliminacion() ? ELIMINACION : UPSERT);
+        registro.putInt(sku.length).put(sku);
+        if (!cambio.isEliminacion()) {
+            registro.putDouble(producto.getPriceRetail()).putDouble(producto.getPriceCurrent());
+            registro.putInt(nombre.length).put(nombre);
+            registro.putInt(categoria.length).put(categoria);
+        }
+        CRC32C suma = new CRC32C();
+        suma.update(registro.array(), 8, longitud);
+        registro.putInt(4, (int) suma.getValue());
+        return registro.array();
+    }
+    
+    /**
+     * Agrega un cambio al registro sin esperar a que llegue al disco
+     * @param cambio Cambio a registrar
+     * @return Número de secuencia del cambio, para esperarDurable
+     * @throws IOException Si el registro está cerrado o falló una escritura anterior
+     */
+    public long registrar(ActualizacionProducto cambio) throws IOException {
+        if (cambio == null) {
+            throw new IllegalArgumentException("El cambio no puede ser nulo");
+        }
+        byte[] registro = codificar(cambio);
+        cerrojo.lock();
+        try {
+            verificarEstado();
+            // Si el escritor no da abasto, esperamos a que vacíe el lote
+            while (pendiente.position() > MAXIMO_PENDIENTE) {
+                pedirEscritura();
+                esperar(progreso);
+                verificarEstado();
+            }
+            if (pendiente.remaining() < registro.length) {
+                ByteBuffer mayor = ByteBuffer.allocate(Math.max(pendiente.capacity() * 2,
+                        pendiente.position() + registro.length));
+                pendiente.flip();
+                mayor.put(pendiente);
+                pendiente = mayor;
+            }
+            if (pendiente.position() == 0) {
+                // El primer registro del lote despierta al escritor, que empieza a contar la ventana
+                inicioPendiente = System.nanoTime();
+                trabajo.signal();
+            }
+            pendiente.put(registro);
+            agregados++;
+            return agregados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+    
+    /**
+     * Espera a que un cambio quede sincronizado en disco. Los cambios pendientes
+     * de todos los hilos se sincronizan juntos, sin esperar la ventana.
+     * @param secuencia Número de secuencia devuelto por registrar
+     * @throws IOException Si falló la escritura
+     */
+    public void esperarDurable(long secuencia) throws IOException {
+        cerrojo.lock();
+        try {
+            while (durables < secuencia) {
+                if (error != null) {
+                    throw new IOException("No se pudo escribir el registro de cambios", error);
+                }
+                if (cerrado && !escritor.isAlive()) {
+                    throw new IOException("El registro de cambios está cerrado");
+                }
+                pedirEscritura();
+                esperar(progreso);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+    
+    /**
+     * Espera a que todos los cambios registrados hasta ahora queden en disco
+     * @throws IOException Si falló la escritura
+     */
+    public void sincronizar() throws IOException {
+        long secuencia;
+        cerrojo.lock();
+        try {
+            secuencia = agregados;
+        } finally {
+            cerrojo.unlock();
+        }
+        esperarDurable(secuencia);
+    }
+    
+    // Debe llamarse con el cerrojo tomado
+    private void pedirEscritura() {
+        if (!urgente) {
+            urgente = true;
+            trabajo.signal();
+        }
+    }
+    
+    private static void esperar(Condition condicion) throws IOException {
+        try {
+            condicion.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Espera del registro de cambios interrumpida", e);
+        }
+    }
+    
+    private void verificarEstado() throws IOException {
+        if (cerrado) {
+            throw new IOException("El registro de cambios está cerrado");
+        }
+        if (error != null) {
+            throw new IOException("No se pudo escribir el registro de cambios", error);
+        }
+    }
+    
+    /**
+     * Ciclo del hilo escritor: junta los registros hasta cumplir la ventana (o hasta
+     * que alguien pida durabilidad), los graba y hace un solo fsync por lote
+     */
+    private void escribirLotes() {
+        while (true) {
+            ByteBuffer lote;
+            long secuencia;
+            cerrojo.lock();
+            try {
+                while (pendiente.position() == 0 && !cerrado) {
+                    trabajo.awaitUninterruptibly();
+                }
+                if (pendiente.position() == 0) {
+                    return;
+                }
+                long espera = inicioPendiente + ventanaNanos - System.nanoTime();
+                while (espera > 0 && !urgente && !cerrado) {
+                    try {
+                        espera = trabajo.awaitNanos(espera);
+                    } catch (InterruptedException e) {
+                        // Nadie interrumpe al escritor: si ocurre, grabamos lo pendiente
+                        break;
+                    }
+                }
+                lote = pendiente;
+                pendiente = enEscritura;
+                enEscritura = lote;
+                secuencia = agregados;
+                urgente = false;
+                progreso.signalAll();
+            } finally {
+                cerrojo.unlock();
+            }
+            
+            lote.flip();
+            int bytes = lote.remaining();
+            IOException fallo = null;
+            try {
+                while (lote.hasRemaining()) {
+                    canal.write(lote);
+                }
+                canal.force(false);
+            } catch (IOException e) {
+                fallo = e;
+            }
+            lote.clear();
+            
+            cerrojo.lock();
+            try {
+                if (fallo != null) {
+                    error = fallo;
+                } else {
+                    durables = secuencia;
+                    tamano += bytes;
+                }
+                progreso.signalAll();
+                if (fallo != null) {
+                    return;
+                }
+            } finally {
+                cerrojo.unlock();
+            }
+        }
+    }
+    
+    /**
+     * Devuelve el tamaño del registro, incluyendo los cambios aún no grabados
+     * @return Tamaño en bytes
+     */
+    public long tamano() {
+        cerrojo.lock();
+        try {
+            return tamano + pendiente.position();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+    
+    /**
+     * Graba los cambios pendientes y cierra el registro
+     * @throws IOException Si falló alguna escritura
+     */
+    @Override
+    public void close() throws IOException {
+        cerrojo.lock();
+        try {
+            if (cerrado) {
+                return;
+            }
+            cerrado = true;
+            trabajo.signal();
+        } finally {
+            cerrojo.unlock();
+        }
+        boolean interrumpido = false;
+        while (escritor.isAlive()) {
+            try {
+                escritor.join();
+            } catch (InterruptedException e) {
+                interrumpido = true;
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        cerrojo.lock();
+        try {
+            if (error != null) {
+                throw new IOException("No se pudo escribir el registro de cambios", error);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+}
\ No newline at end of file
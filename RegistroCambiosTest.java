@@ -0,0 +1,296 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Pruebas unitarias para el registro de cambios y su recuperación
+ */
+public class RegistroCambiosTest {
+    
+    private Path directorio;
+    private Path csv;
+    private Path archivo;
+    
+    @Before
+    public void setUp() throws IOException {
+        directorio = Files.createTempDirectory("registro");
+        csv = directorio.resolve("productos.csv");
+        archivo = RegistroCambios.rutaPara(csv);
+        Files.write(csv, ("SKU,Price_Retail,Price_Current,Product_Name,Category\n"
+                + "A100,10,10,Silla,Muebles\n"
+                + "B200,20,15,Mesa,Muebles\n").getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path ruta : (Iterable<Path>) archivos::iterator) {
+                Files.delete(ruta);
+            }
+        }
+        Files.delete(directorio);
+    }
+    
+    private static List<String> textos(List<ActualizacionProducto> cambios) {
+        List<String> textos = new ArrayList<>();
+        for (ActualizacionProducto cambio : cambios) {
+            textos.add(cambio.toString() + "|" + cambio.getProducto().getCategory());
+        }
+        return textos;
+    }
+    
+    @Test
+    public void testRegistrarYLeer() throws IOException {
+        List<ActualizacionProducto> cambios = new ArrayList<>();
+        cambios.add(ActualizacionProducto.upsert(new Producto("C300", 5.5, 4.25, "Lámpara", "Iluminación")));
+        cambios.add(ActualizacionProducto.eliminacion("A100"));
+        cambios.add(ActualizacionProducto.upsert(new Producto("Z😀", 1, 1, "Emoji", "Juguetes")));
+        
+        try (RegistroCambios registro = new RegistroCambios(archivo, csv, 50)) {
+            for (ActualizacionProducto cambio : cambios) {
+                registro.registrar(cambio);
+            }
+            registro.sincronizar();
+            assertEquals(textos(cambios), textos(RegistroCambios.leer(archivo, csv)));
+        }
+        
+        // Al reabrirlo, los cambios nuevos se agregan a continuación
+        try (RegistroCambios registro = new RegistroCambios(archivo, csv, 0)) {
+            registro.esperarDurable(registro.registrar(ActualizacionProducto.eliminacion("C300")));
+        }
+        List<ActualizacionProducto> leidos = RegistroCambios.leer(archivo, csv);
+        assertEquals(4, leidos.size());
+        assertTrue(leidos.get(3).isEliminacion());
+    }
+    
+    @Test
+    public void testRegistroCortadoSeRecorta() throws IOException {
+        try (RegistroCambios registro = new RegistroCambios(archivo, csv, 0)) {
+            registro.registrar(ActualizacionProducto.upsert(new Producto("C300", 5, 5, "Lámpara", "Iluminación")));
+            registro.registrar(ActualizacionProducto.upsert(new Producto("D400", 6, 6, "Sofá", "Muebles")));
+        }
+        // Simulamos una caída a mitad de escribir el último registro
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - 3);
+        }
+        assertEquals(1, RegistroCambios.leer(archivo, csv).size());
+        
+        try (RegistroCambios registro = new RegistroCambios(archivo, csv, 0)) {
+            registro.registrar(ActualizacionProducto.eliminacion("C300"));
+        }
+        List<ActualizacionProducto> leidos = RegistroCambios.leer(archivo, csv);
+        assertEquals(2, leidos.size());
+        assertEquals("C300", leidos.get(1).getSku());
+    }
+    
+    @Test
+    public void testOtraVersionDelCSV() throws IOException {
+        try (RegistroCambios registro = new RegistroCambios(archivo, csv, 0)) {
+            registro.registrar(ActualizacionProducto.eliminacion("A100"));
+        }
+        Files.write(csv, "C300,1,1,Otro,X\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertFalse(RegistroCambios.correspondeA(archivo, csv));
+        assertTrue(RegistroCambios.leer(archivo, csv).isEmpty());
+    }
+    
+    @Test
+    public void testEscrituraDesdeVariosHilos() throws Exception {
+        final int hilos = 4;
+        final int porHilo = 500;
+        try (RegistroCambios registro = new RegistroCambios(archivo, csv, 0)) {
+            Thread[] escritores = new Thread[hilos];
+            for (int h = 0; h < hilos; h++) {
+                final int numero = h;
+                escritores[h] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < porHilo; i++) {
+                            String sku = "H" + numero + "-" + i;
+                            registro.esperarDurable(registro.registrar(
+                                    ActualizacionProducto.upsert(new Producto(sku, i, i, "P", "C"))));
+                        }
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+                escritores[h].start();
+            }
+            for (Thread escritor : escritores) {
+                escritor.join();
+            }
+        }
+        assertEquals(hilos * porHilo, RegistroCambios.leer(archivo, csv).size());
+    }
+    
+    @Test
+    public void testBuscadorRecuperaYCompacta() throws IOException {
+        BuscadorProductos buscador = new BuscadorProductos();
+        buscador.activarRegistroCambios(0);
+        buscador.cargarProductos(csv.toString());
+        buscador.actualizarProducto(new Producto("A100", 10, 7.5, "Silla", "Muebles"));
+        buscador.eliminarProducto("B200");
+        buscador.actualizarProducto(new Producto("C300", 5, 5, "Lámpara", "Iluminación"));
+        buscador.cerrarRegistroCambios();
+        
+        // Un reinicio sobre el mismo CSV aplica los cambios registrados
+        BuscadorProductos reiniciado = new BuscadorProductos();
+        reiniciado.activarRegistroCambios(0);
+        reiniciado.cargarProductos(csv.toString());
+        assertEquals(7.5, reiniciado.buscarProductoPorSKU("A100").getPriceCurrent(), 0.0);
+        assertNull(reiniciado.buscarProductoPorSKU("B200"));
+        assertNotNull(reiniciado.buscarProductoPorSKU("C300"));
+        
+        // La compactación lleva los cambios al snapshot y vacía el registro
+        reiniciado.compactarRegistroCambios();
+        assertTrue(RegistroCambios.leer(archivo, csv).isEmpty());
+        reiniciado.eliminarProducto("C300");
+        reiniciado.cerrarRegistroCambios();
+        
+        BuscadorProductos compactado = new BuscadorProductos();
+        compactado.activarRegistroCambios(0);
+        compactado.cargarProductos(csv.toString());
+        assertEquals(1, compactado.totalProductos());
+        assertEquals(7.5, compactado.buscarProductoPorSKU("A100").getPriceCurrent(), 0.0);
+        compactado.cerrarRegistroCambios();
+    }
+    
+    @Test
+    public void testCambiosCompactadosDeOtraVersionNoSeDescartan() throws IOException {
+        BuscadorProductos buscador = new BuscadorProductos();
+        buscador.activarRegistroCambios(0);
+        buscador.cargarProductos(csv.toString());
+        buscador.eliminarProducto("B200");
+        buscador.compactarRegistroCambios();
+        buscador.cerrarRegistroCambios();
+        Path snapshot = SnapshotCatalogo.rutaPara(csv);
+        assertTrue(SnapshotCatalogo.incluyeCambios(snapshot));
+        
+        // Con el CSV modificado, los cambios del snapshot no se pueden aplicar: la carga falla
+        Files.write(csv, "C300,1,1,Otro,X\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        for (boolean conRegistro : new boolean[] {true, false}) {
+            BuscadorProductos otro = new BuscadorProductos();
+            if (conRegistro) {
+                otro.activarRegistroCambios(0);
+            }
+            try {
+                otro.cargarProductos(csv.toString());
+                fail("La carga debía fallar con cambios compactados de otra versión");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains(snapshot.toString()));
+            }
+        }
+        assertTrue(SnapshotCatalogo.incluyeCambios(snapshot));
+        
+        // Al eliminar el snapshot se descartan esos cambios y se lee el CSV nuevo
+        Files.delete(snapshot);
+        BuscadorProductos nuevo = new BuscadorProductos();
+        nuevo.activarRegistroCambios(0);
+        nuevo.cargarProductos(csv.toString());
+        assertEquals(3, nuevo.totalProductos());
+        nuevo.cerrarRegistroCambios();
+    }
+    
+    @Test(expected = IOException.class)
+    public void testSnapshotCompactadoDanadoFalla() throws IOException {
+        BuscadorProductos buscador = new BuscadorProductos();
+        buscador.activarRegistroCambios(0);
+        buscador.cargarProductos(csv.toString());
+        buscador.eliminarProducto("B200");
+        buscador.compactarRegistroCambios();
+        buscador.cerrarRegistroCambios();
+        
+        Path snapshot = SnapshotCatalogo.rutaPara(csv);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 12] ^= 0x01;
+        Files.write(snapshot, bytes);
+        new BuscadorProductos().cargarProductos(csv.toString());
+    }
+    
+    @Test
+    public void testRegistroDeOtraVersionNoSeDescarta() throws IOException {
+        BuscadorProductos buscador = new BuscadorProductos();
+        buscador.activarRegistroCambios(0);
+        buscador.cargarProductos(csv.toString());
+        buscador.eliminarProducto("A100");
+        buscador.cerrarRegistroCambios();
+        Files.write(csv, "C300,1,1,Otro,X\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        
+        BuscadorProductos otro = new BuscadorProductos();
+        otro.activarRegistroCambios(0);
+        try {
+            otro.cargarProductos(csv.toString());
+            fail("La carga debía fallar con un registro de otra versión");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains(archivo.toString()));
+        }
+        assertTrue(RegistroCambios.tieneCambios(archivo));
+        
+        // Sin el registro activo los archivos no se tocan y la carga usa el CSV
+        BuscadorProductos sinRegistro = new BuscadorProductos();
+        sinRegistro.cargarProductos(csv.toString());
+        assertEquals(3, sinRegistro.totalProductos());
+        assertTrue(RegistroCambios.tieneCambios(archivo));
+    }
+    
+    @Test
+    public void testCompactacionFallidaNoPierdeCambios() throws IOException {
+        BuscadorProductos buscador = new BuscadorProductos();
+        buscador.activarRegistroCambios(0);
+        buscador.cargarProductos(csv.toString());
+        
+        // Un directorio en lugar del snapshot hace fallar su escritura
+        Path snapshot = SnapshotCatalogo.rutaPara(csv);
+        Files.delete(snapshot);
+        Files.createDirectory(snapshot);
+        Path bloqueo = Files.createFile(snapshot.resolve("bloqueo"));
+        
+        buscador.actualizarProducto(new Producto("A100", 10, 7.5, "Silla", "Muebles"));
+        try {
+            buscador.compactarRegistroCambios();
+            fail("La compactación debía fallar al escribir el snapshot");
+        } catch (IOException e) {
+            // El archivo de compactación conserva el cambio
+        }
+        buscador.eliminarProducto("B200");
+        try {
+            buscador.compactarRegistroCambios();
+            fail("La compactación debía fallar al escribir el snapshot");
+        } catch (IOException e) {
+            // La segunda compactación no debe reemplazar los cambios de la primera
+        }
+        buscador.cerrarRegistroCambios();
+        
+        // Un reinicio recupera los cambios de las dos compactaciones fallidas
+        Files.delete(bloqueo);
+        Files.delete(snapshot);
+        BuscadorProductos reiniciado = new BuscadorProductos();
+        reiniciado.activarRegistroCambios(0);
+        reiniciado.cargarProductos(csv.toString());
+        assertEquals(7.5, reiniciado.buscarProductoPorSKU("A100").getPriceCurrent(), 0.0);
+        assertNull(reiniciado.buscarProductoPorSKU("B200"));
+        
+        // Con el snapshot disponible, compactar termina el archivo pendiente y vacía el registro
+        reiniciado.actualizarProducto(new Producto("C300", 5, 5, "Lámpara", "Iluminación"));
+        reiniciado.compactarRegistroCambios();
+        assertFalse(Files.exists(directorio.resolve("productos.csv.wal.compactando")));
+        assertTrue(RegistroCambios.leer(archivo, csv).isEmpty());
+        reiniciado.cerrarRegistroCambios();
+        
+        BuscadorProductos compactado = new BuscadorProductos();
+        compactado.activarRegistroCambios(0);
+        compactado.cargarProductos(csv.toString());
+        assertEquals(2, compactado.totalProductos());
+        assertNotNull(compactado.buscarProductoPorSKU("C300"));
+        compactado.cerrarRegistroCambios();
+    }
+}
\ No newline at end of file
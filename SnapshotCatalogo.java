@@ -0,0 +1,344 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Formato binario del catálogo cargado, para no volver a interpretar el CSV en
+ * cada inicio. El archivo guarda el tamaño y la fecha del CSV de origen, los SKU
+ * en orden, diccionarios de categorías y nombres, una fila de tamaño fijo por
+ * producto (precios e identificadores en los diccionarios) y al final una suma
+ * de verificación CRC32C de todo lo anterior. El encabezado indica además si el
+ * snapshot incluye cambios compactados del registro de cambios, que no están en el CSV.
+ * Para leerlo se copia el archivo al heap con una lectura secuencial, se verifica
+ * la suma y se decodifican los textos y las filas por bloques en paralelo, en el
+ * pool común. Todo el archivo se recorre una vez y se convierte en productos, así
+ * que mapearlo no ahorraría copias, y sin mapeo el archivo queda libre apenas
+ * termina la lectura. Los productos salen ordenados
+ * por SKU, así que el árbol se construye directamente, sin ordenar.
+ * El archivo completo debe ocupar menos de 2 GB.
+ */
+public class SnapshotCatalogo {
+    private static final int MAGICO = 0x43415453; // "CATS"
+    private static final int VERSION = 2;
+    private static final int ENCABEZADO = 32;
+    private static final int BYTES_FILA = 24;
+    private static final int BYTES_SUMA = 8;
+    
+    // Número de textos o filas que decodifica cada tarea
+    private static final int ELEMENTOS_POR_BLOQUE = 1 << 16;
+    
+    private SnapshotCatalogo() {
+    }
+    
+    /**
+     * Devuelve la ruta del snapshot asociado a un archivo CSV
+     * @param csv Ruta del archivo CSV
+     * @return Ruta del snapshot (junto al CSV, con extensión .snapshot)
+     */
+    public static Path rutaPara(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".snapshot");
+    }
+    
+    /**
+     * Escribe el snapshot de un catálogo leído del CSV, sin cambios compactados
+     * @param productos Índice con los productos, sin SKU repetidos
+     * @param csv Archivo CSV del que se cargó el catálogo
+     * @param destino Ruta del snapshot
+     * @throws IOException Si ocurre un error de escritura
+     */
+    public static void escribir(IndiceOrdenado<Producto> productos, Path csv, Path destino) throws IOException {
+        escribir(productos, csv, destino, false);
+    }
+    
+    /**
+     * Escribe el snapshot de un catálogo. Se escribe primero en un archivo temporal
+     * que luego reemplaza al anterior, así nunca queda un snapshot a medio escribir.
+     * @param productos Índice con los productos, sin SKU repetidos
+     * @param csv Archivo CSV del que se cargó el catálogo
+     * @param destino Ruta del snapshot
+     * @param conCambios true si el catálogo incluye cambios que no están en el CSV
+     * @throws IOException Si ocurre un error de escritura
+     */
+    public static void escribir(IndiceOrdenado<Producto> productos, Path csv, Path destino, boolean conCambios)
+            throws IOException {
+        if (productos == null || csv == null || destino == null) {
+            throw new IllegalArgumentException("Los productos y las rutas no pueden ser nulos");
+        }
+        // Un solo recorrido, para tomar una versión coherente si el árbol es concurrente
+        List<Producto> lista = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            lista.add(producto);
+        }
+        
+        List<String> skus = new ArrayList<>(lista.size());
+        Map<String, Integer> idsCategoria = new HashMap<>();
+        List<String> categorias = new ArrayList<>();
+        Map<String, Integer> idsNombre = new HashMap<>();
+        List<String> nombres = new ArrayList<>();
+        int[] categoria = new int[lista.size()];
+        int[] nombre = new int[lista.size()];
+        for (int i = 0; i < lista.size(); i++) {
+            Producto producto = lista.get(i);
+            skus.add(producto.getSku());
+            categoria[i] = identificador(producto.getCategory(), idsCategoria, categorias);
+            nombre[i] = identificador(producto.getProductName(), idsNombre, nombres);
+        }
+        
+        Path temporal = destino.resolveSibling(destino.getFileName() + ".tmp");
+        CRC32C suma = new CRC32C();
+        try (CheckedOutputStream conSuma = new CheckedOutputStream(
+                Files.newOutputStream(temporal), suma);
+             DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(conSuma, 1 << 16))) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeLong(Files.size(csv));
+            salida.writeLong(Files.getLastModifiedTime(csv).toMillis());
+            salida.writeInt(lista.size());
+            salida.writeInt(conCambios ? 1 : 0);
+            
+            escribirTextos(salida, skus);
+            escribirTextos(salida, categorias);
+            escribirTextos(salida, nombres);
+            for (int i = 0; i < lista.size(); i++) {
+                Producto producto = lista.get(i);
+                salida.writeDouble(producto.getPriceRetail());
+                salida.writeDouble(producto.getPriceCurrent());
+                salida.writeInt(categoria[i]);
+                salida.writeInt(nombre[i]);
+            }
+            salida.flush();
+            if (salida.size() > Integer.MAX_VALUE - BYTES_SUMA - 1) {
+                throw new IOException("El snapshot supera el tamaño máximo de 2 GB");
+            }
+            
+            // La suma cubre todo lo escrito hasta aquí
+            salida.writeLong(suma.getValue());
+        } catch (IOException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    private static int identificador(String valor, Map<String, Integer> ids, List<String> valores) {
+        Integer id = ids.get(valor);
+        if (id == null) {
+            id = valores.size();
+            ids.put(valor, id);
+            valores.add(valor);
+        }
+        return id;
+    }
+    
+    /**
+     * Escribe una sección de textos: cantidad, posición relativa de cada bloque de
+     * textos (para decodificarlos en paralelo) y los textos en UTF-8 con su longitud
+     */
+    private static void escribirTextos(DataOutputStream salida, List<String> textos) throws IOException {
+        salida.writeInt(textos.size());
+        
+        // Primero calculamos dónde empieza cada bloque dentro de la sección de textos
+        long posicion = 0;
+        for (int i = 0; i < textos.size(); i++) {
+            if (i % ELEMENTOS_POR_BLOQUE == 0) {
+                salida.writeLong(posicion);
+            }
+            posicion += 4 + longitudUTF8(textos.get(i));
+        }
+        salida.writeLong(posicion);
+        
+        for (String texto : textos) {
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            salida.writeInt(bytes.length);
+            salida.write(bytes);
+        }
+    }
+    
+    private static int longitudUTF8(String texto) {
+        int longitud = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                // Los textos son cortos: se codifican aparte solo si tienen caracteres no ASCII
+                return texto.getBytes(StandardCharsets.UTF_8).length;
+            }
+            longitud++;
+        }
+        return longitud;
+    }
+    
+    /**
+     * Indica si un snapshot corresponde a la versión actual de un CSV, revisando
+     * solo el encabezado (no verifica la suma)
+     * @param snapshot Ruta del snapshot
+     * @param csv Archivo CSV de origen
+     * @return true si el snapshot existe y el CSV no cambió desde que se escribió
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static boolean vigente(Path snapshot, Path csv) throws IOException {
+        if (!Files.isRegularFile(snapshot) || !Files.isRegularFile(csv)) {
+            return false;
+        }
+        try (FileChannel canal = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            if (canal.size() < ENCABEZADO + BYTES_SUMA) {
+                return false;
+            }
+            ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO);
+            while (encabezado.hasRemaining() && canal.read(encabezado) >= 0) {
+                // Leemos hasta completar el encabezado
+            }
+            return encabezado.getInt(0) == MAGICO && encabezado.getInt(4) == VERSION
+                    && encabezado.getLong(8) == Files.size(csv)
+                    && encabezado.getLong(16) == Files.getLastModifiedTime(csv).toMillis();
+        }
+    }
+    
+    /**
+     * Indica si un snapshot incluye cambios compactados, revisando solo el
+     * encabezado. Sirve también para un snapshot de otra versión del CSV.
+     * @param snapshot Ruta del snapshot
+     * @return true si el archivo es un snapshot con cambios que no están en su CSV
+     * @throws IOException Si ocurre un error de lectura
+     */
+    public static boolean incluyeCambios(Path snapshot) throws IOException {
+        if (!Files.isRegularFile(snapshot)) {
+            return false;
+        }
+        try (FileChannel canal = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO);
+            while (encabezado.hasRemaining() && canal.read(encabezado) >= 0) {
+                // Leemos hasta completar el encabezado
+            }
+            return !encabezado.hasRemaining() && encabezado.getInt(0) == MAGICO
+                    && encabezado.getInt(4) == VERSION && encabezado.getInt(28) != 0;
+        }
+    }
+    
+    /**
+     * Lee un snapshot completo
+     * @param snapshot Ruta del snapshot
+     * @return Productos ordenados por SKU
+     * @throws IOException Si el archivo no se puede leer, no es un snapshot o está dañado
+     */
+    public static List<Producto> leer(Path snapshot) throws IOException {
+        try (FileChannel canal = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano > Integer.MAX_VALUE) {
+                throw new IOException("El snapshot supera el tamaño máximo de 2 GB");
+            }
+            if (tamano < ENCABEZADO + BYTES_SUMA) {
+                throw new IOException("El snapshot está incompleto");
+            }
+            // Se copia al heap en lugar de mapearlo: un mapeo se libera recién cuando el
+            // recolector descarta el buffer, y mientras tanto el archivo no se puede
+            // reemplazar en Windows, por ejemplo al guardar el snapshot siguiente
+            ByteBuffer datos = ByteBuffer.allocate((int) tamano);
+            while (datos.hasRemaining()) {
+                if (canal.read(datos, datos.position()) < 0) {
+                    throw new IOException("El snapshot se acortó durante la lectura");
+                }
+            }
+            datos.flip();
+            if (datos.getInt(0) != MAGICO || datos.getInt(4) != VERSION) {
+                throw new IOException("El archivo no es un snapshot de catálogo compatible");
+            }
+            
+            CRC32C suma = new CRC32C();
+            suma.update(datos.duplicate().limit((int) tamano - BYTES_SUMA));
+            if (suma.getValue() != datos.getLong((int) tamano - BYTES_SUMA)) {
+                throw new IOException("La suma de verificación del snapshot no coincide");
+            }
+            
+            try {
+                return decodificar(datos);
+            } catch (RuntimeException e) {
+                // La suma coincide pero la estructura no: archivo de otra implementación
+                throw new IOException("El snapshot tiene un formato inválido", e);
+            }
+        }
+    }
+    
+    private static List<Producto> decodificar(ByteBuffer datos) throws IOException {
+        int productos = datos.getInt(24);
+        int[] posicion = {ENCABEZADO};
+        String[] skus = leerTextos(datos, posicion);
+        String[] categorias = leerTextos(datos, posicion);
+        String[] nombres = leerTextos(datos, posicion);
+        if (skus.length != productos) {
+            throw new IOException("El snapshot tiene un formato inválido");
+        }
+        
+        // Las filas tienen tamaño fijo: cada bloque se decodifica por separado
+        Producto[] resultado = new Producto[productos];
+        int inicioFilas = posicion[0];
+        List<ForkJoinTask<?>> tareas = new ArrayList<>();
+        for (int desde = 0; desde < productos; desde += ELEMENTOS_POR_BLOQUE) {
+            final int inicio = desde;
+            final int fin = Math.min(productos, desde + ELEMENTOS_POR_BLOQUE);
+            tareas.add(ForkJoinTask.adapt(() -> {
+                for (int i = inicio; i < fin; i++) {
+                    int fila = inicioFilas + i * BYTES_FILA;
+                    resultado[i] = new Producto(skus[i], datos.getDouble(fila), datos.getDouble(fila + 8),
+                            nombres[datos.getInt(fila + 20)], categorias[datos.getInt(fila + 16)]);
+                }
+            }));
+        }
+        // El hilo que lee hace una parte y el pool común el resto
+        ForkJoinTask.invokeAll(tareas);
+        return Arrays.asList(resultado);
+    }
+    
+    /**
+     * Decodifica una sección de textos en paralelo y avanza la posición hasta el final de la sección
+     */
+    private static String[] leerTextos(ByteBuffer datos, int[] posicion) {
+        int cantidad = datos.getInt(posicion[0]);
+        int bloques = (cantidad + ELEMENTOS_POR_BLOQUE - 1) / ELEMENTOS_POR_BLOQUE;
+        int tabla = posicion[0] + 4;
+        int inicioTextos = tabla + (bloques + 1) * 8;
+        
+        String[] textos = new String[cantidad];
+        List<ForkJoinTask<?>> tareas = new ArrayList<>();
+        for (int b = 0; b < bloques; b++) {
+            final int primero = b * ELEMENTOS_POR_BLOQUE;
+            final int ultimo = Math.min(cantidad, primero + ELEMENTOS_POR_BLOQUE);
+            final int inicio = Math.toIntExact(inicioTextos + datos.getLong(tabla + b * 8));
+            tareas.add(ForkJoinTask.adapt(() -> {
+                byte[] auxiliar = new byte[256];
+                int p = inicio;
+                for (int i = primero; i < ultimo; i++) {
+                    int longitud = datos.getInt(p);
+                    if (auxiliar.length < longitud) {
+                        auxiliar = new byte[Math.max(longitud, auxiliar.length * 2)];
+                    }
+                    datos.get(p + 4, auxiliar, 0, longitud);
+                    textos[i] = new String(auxiliar, 0, longitud, StandardCharsets.UTF_8);
+                    p += 4 + longitud;
+                }
+            }));
+        }
+        ForkJoinTask.invokeAll(tareas);
+        posicion[0] = Math.toIntExact(inicioTextos + datos.getLong(tabla + bloques * 8));
+        return textos;
+    }
+}
\ No newline at end of file
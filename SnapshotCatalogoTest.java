@@ -0,0 +1,110 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Pruebas unitarias para el snapshot binario del catálogo
+ */
+public class SnapshotCatalogoTest {
+    
+    private Path directorio;
+    private Path csv;
+    private Path snapshot;
+    
+    @Before
+    public void setUp() throws IOException {
+        directorio = Files.createTempDirectory("snapshot");
+        csv = directorio.resolve("productos.csv");
+        snapshot = SnapshotCatalogo.rutaPara(csv);
+        Files.write(csv, ("SKU,Price_Retail,Price_Current,Product_Name,Category\n"
+                + "B200,20,15,Mesa de pino,Muebles\n"
+                + "A100,10,10,Silla,Muebles\n"
+                + "ÑANDÚ-1,1,1,Peluche,Juguetes\n"
+                + "Z😀,2,2,Silla,Juguetes\n").getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            for (Path archivo : (Iterable<Path>) archivos::iterator) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(directorio);
+    }
+    
+    private static List<String> textos(Iterable<Producto> productos) {
+        List<String> textos = new ArrayList<>();
+        for (Producto producto : productos) {
+            textos.add(producto.toString() + "|" + producto.getCategory());
+        }
+        return textos;
+    }
+    
+    @Test
+    public void testEscribirYLeer() throws IOException {
+        BST<Producto> arbol = new BST<>(CSVHandler.cargarProductosDesdeCSV(csv.toString()), true);
+        SnapshotCatalogo.escribir(arbol, csv, snapshot);
+        
+        assertTrue(SnapshotCatalogo.vigente(snapshot, csv));
+        List<Producto> leidos = SnapshotCatalogo.leer(snapshot);
+        assertEquals(textos(arbol), textos(leidos));
+        // Los nombres y categorías repetidos salen del diccionario como una sola instancia
+        assertSame(leidos.get(0).getProductName(), leidos.get(2).getProductName());
+    }
+    
+    @Test
+    public void testMuchosBloques() throws IOException {
+        BST<Producto> arbol = new BST<>(true);
+        for (int i = 0; i < 150000; i++) {
+            arbol.insert(new Producto("SKU" + i, i, i / 2.0, "Producto " + (i % 1000), "Categoría " + (i % 9)));
+        }
+        SnapshotCatalogo.escribir(arbol, csv, snapshot);
+        assertEquals(textos(arbol), textos(SnapshotCatalogo.leer(snapshot)));
+    }
+    
+    @Test
+    public void testCSVModificado() throws IOException {
+        SnapshotCatalogo.escribir(new BST<>(CSVHandler.cargarProductosDesdeCSV(csv.toString()), true), csv, snapshot);
+        Files.write(csv, "C300,5,5,Lámpara,Iluminación\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertFalse(SnapshotCatalogo.vigente(snapshot, csv));
+        assertFalse(SnapshotCatalogo.vigente(directorio.resolve("otro.snapshot"), csv));
+    }
+    
+    @Test(expected = IOException.class)
+    public void testSnapshotDanado() throws IOException {
+        SnapshotCatalogo.escribir(new BST<>(CSVHandler.cargarProductosDesdeCSV(csv.toString()), true), csv, snapshot);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x01;
+        Files.write(snapshot, bytes);
+        SnapshotCatalogo.leer(snapshot);
+    }
+    
+    @Test
+    public void testBuscadorUsaElSnapshot() throws IOException {
+        BuscadorProductos primero = new BuscadorProductos();
+        primero.cargarProductos(csv.toString());
+        assertTrue(Files.exists(snapshot));
+        
+        BuscadorProductos segundo = new BuscadorProductos();
+        segundo.cargarProductos(csv.toString());
+        assertEquals(textos(primero.listarProductosAscendente()), textos(segundo.listarProductosAscendente()));
+        assertEquals("Peluche", segundo.buscarProductoPorSKU("ÑANDÚ-1").getProductName());
+        
+        // Un snapshot dañado se descarta y se vuelve a leer el CSV
+        Files.write(snapshot, new byte[] {1, 2, 3});
+        BuscadorProductos tercero = new BuscadorProductos();
+        tercero.cargarProductos(csv.toString());
+        assertEquals(4, tercero.totalProductos());
+    }
+}
\ No newline at end of file
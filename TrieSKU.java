@@ -0,0 +1,754 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Trie comprimido sobre los SKU del catálogo para autocompletar por prefijo y
+ * para sugerir SKU parecidos cuando uno se escribió mal.
+ *
+ * La base se arma una vez al cargar el catálogo a partir de los SKU ordenados y no
+ * cambia. Cada nodo interno cubre un rango de SKU que comparten un prefijo y los
+ * rangos de un solo SKU no tienen nodo. Los nodos están en arreglos en orden de
+ * recorrido por niveles, así que los hijos de un nodo son contiguos, y el texto se
+ * guarda una sola vez en dos arreglos de caracteres: la etiqueta de cada nodo y lo
+ * que le queda a cada SKU por debajo de su último nodo. Los SKU agregados o
+ * eliminados después se guardan aparte y se consultan junto con la base: los
+ * agregados en un conjunto ordenado, así que autocompletar lee solo el rango del
+ * prefijo. Cuando esos cambios superan un umbral, la copia siguiente vuelve a
+ * armar la base con ellos incorporados, así que nunca crecen sin límite.
+ *
+ * La búsqueda aproximada recorre el trie calculando una fila de la matriz de
+ * distancia de edición por carácter (el equivalente a avanzar un autómata de
+ * Levenshtein) y descarta las ramas que ya superan la distancia pedida. Además
+ * de inserciones, eliminaciones y sustituciones, el intercambio de dos caracteres
+ * vecinos cuenta como un solo error.
+ */
+public class TrieSKU {
+    // Distancia máxima admitida; con más, casi cualquier SKU corto es "parecido"
+    public static final int DISTANCIA_MAXIMA = 3;
+    
+    /**
+     * Estructura inmutable del trie, compartida entre copias
+     */
+    private static final class Base {
+        final int nodos;
+        final int[] profundidad; // Largo del prefijo común del nodo
+        final int[] inicio;      // Rango [inicio, fin) de posiciones de SKU del nodo
+        final int[] fin;
+        final int[] primerHijo;  // Hijos del nodo n: [primerHijo[n], primerHijo[n + 1])
+        final int[] etiqueta;    // Etiqueta del nodo n: etiquetas[etiqueta[n], etiqueta[n + 1])
+        final char[] etiquetas;
+        final int[] sufijo;      // Resto del SKU k bajo su último nodo: sufijos[sufijo[k], sufijo[k + 1])
+        final char[] sufijos;
+        final int longitudMaxima;
+        
+        /**
+         * Arma el trie
+         * @param skus SKU ordenados y sin repetidos
+         */
+        Base(String[] skus) {
+            int capacidad = Math.max(16, skus.length);
+            int[] profundidad = new int[capacidad];
+            int[] inicio = new int[capacidad];
+            int[] fin = new int[capacidad];
+            int[] primerHijo = new int[capacidad + 1];
+            int[] etiqueta = new int[capacidad + 1];
+            int[] profundidadHoja = new int[skus.length];
+            StringBuilder etiquetas = new StringBuilder();
+            int longitudMaxima = 0;
+            for (String sku : skus) {
+                longitudMaxima = Math.max(longitudMaxima, sku.length());
+            }
+            
+            // La raíz existe siempre, aunque no haya SKU
+            int nodos = 1;
+            fin[0] = skus.length;
+            if (skus.length > 0) {
+                profundidad[0] = prefijoComun(skus[0], skus[skus.length - 1]);
+                etiquetas.append(skus[0], 0, profundidad[0]);
+            }
+            
+            // Recorrido por niveles: los hijos de cada nodo se agregan al final, juntos
+            for (int nodo = 0; nodo < nodos; nodo++) {
+                primerHijo[nodo] = nodos;
+                int d = profundidad[nodo];
+                int i = inicio[nodo];
+                if (i < fin[nodo] && skus[i].length() == d) {
+                    profundidadHoja[i++] = d; // El SKU igual al prefijo del nodo va primero
+                }
+                while (i < fin[nodo]) {
+                    int j = finGrupo(skus, i, fin[nodo], d);
+                    if (j - i == 1) {
+                        profundidadHoja[i] = d;
+                    } else {
+                        if (nodos == inicio.length) {
+                            int nuevaCapacidad = inicio.length * 2;
+                            profundidad = Arrays.copyOf(profundidad, nuevaCapacidad);
+                            inicio = Arrays.copyOf(inicio, nuevaCapacidad);
+                            fin = Arrays.copyOf(fin, nuevaCapacidad);
+                            primerHijo = Arrays.copyOf(primerHijo, nuevaCapacidad + 1);
+                            etiqueta = Arrays.copyOf(etiqueta, nuevaCapacidad + 1);
+                        }
+                        inicio[nodos] = i;
+                        fin[nodos] = j;
+                        profundidad[nodos] = prefijoComun(skus[i], skus[j - 1]);
+                        etiqueta[nodos] = etiquetas.length();
+                        etiquetas.append(skus[i], d, profundidad[nodos]);
+                        nodos++;
+                    }
+                    i = j;
+                }
+            }
+            primerHijo[nodos] = nodos;
+            etiqueta[nodos] = etiquetas.length();
+            
+            StringBuilder sufijos = new StringBuilder();
+            int[] sufijo = new int[skus.length + 1];
+            for (int k = 0; k < skus.length; k++) {
+                sufijo[k] = sufijos.length();
+                sufijos.append(skus[k], profundidadHoja[k], skus[k].length());
+            }
+            sufijo[skus.length] = sufijos.length();
+            
+            this.nodos = nodos;
+            this.profundidad = Arrays.copyOf(profundidad, nodos);
+            this.inicio = Arrays.copyOf(inicio, nodos);
+            this.fin = Arrays.copyOf(fin, nodos);
+            this.primerHijo = Arrays.copyOf(primerHijo, nodos + 1);
+            this.etiqueta = Arrays.copyOf(etiqueta, nodos + 1);
+            this.etiquetas = etiquetas.toString().toCharArray();
+            this.sufijo = sufijo;
+            this.sufijos = sufijos.toString().toCharArray();
+            this.longitudMaxima = longitudMaxima;
+        }
+        
+        /**
+         * Devuelve el fin del grupo de SKU que tienen en la posición dada el mismo
+         * carácter que skus[desde]. Todos los SKU del rango son más largos que la posición.
+         */
+        private static int finGrupo(String[] skus, int desde, int hasta, int posicion) {
+            char c = skus[desde].charAt(posicion);
+            int lo = desde + 1;
+            int hi = hasta;
+            while (lo < hi) {
+                int medio = (lo + hi) >>> 1;
+                if (skus[medio].charAt(posicion) <= c) {
+                    lo = medio + 1;
+                } else {
+                    hi = medio;
+                }
+            }
+            return lo;
+        }
+        
+        static int prefijoComun(String a, String b) {
+            int limite = Math.min(a.length(), b.length());
+            int i = 0;
+            while (i < limite && a.charAt(i) == b.charAt(i)) {
+                i++;
+            }
+            return i;
+        }
+        
+        int longitudSufijo(int sku) {
+            return sufijo[sku + 1] - sufijo[sku];
+        }
+        
+        /**
+         * Busca el hijo de un nodo que sigue con el carácter dado
+         * @return El nodo hijo, -(k + 2) si es el SKU k sin nodo propio, o -1 si no hay
+         */
+        int hijo(int nodo, char c) {
+            int i = inicio[nodo];
+            int hijo = primerHijo[nodo];
+            int ultimoHijo = primerHijo[nodo + 1];
+            while (i < fin[nodo]) {
+                if (hijo < ultimoHijo && inicio[hijo] == i) {
+                    if (etiquetas[etiqueta[hijo]] == c) {
+                        return hijo;
+                    }
+                    i = fin[hijo];
+                    hijo++;
+                } else {
+                    if (longitudSufijo(i) > 0 && sufijos[sufijo[i]] == c) {
+                        return -(i + 2);
+                    }
+                    i++;
+                }
+            }
+            return -1;
+        }
+        
+        /**
+         * Indica si la etiqueta del nodo coincide con el texto en las posiciones [desde, hasta)
+         */
+        boolean etiquetaCoincide(int nodo, String texto, int desde, int hasta) {
+            int e = etiqueta[nodo] - desde;
+            for (int i = desde; i < hasta; i++) {
+                if (etiquetas[e + i] != texto.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        /**
+         * Indica si el resto del SKU dado coincide con el texto desde una posición
+         * @param completo true para exigir que el texto termine donde termina el SKU
+         */
+        boolean sufijoCoincide(int sku, String texto, int desde, boolean completo) {
+            int largo = longitudSufijo(sku);
+            int comparados = texto.length() - desde;
+            if (comparados > largo || (completo && comparados != largo)) {
+                return false;
+            }
+            for (int i = 0; i < comparados; i++) {
+                if (sufijos[sufijo[sku] + i] != texto.charAt(desde + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        boolean contiene(String sku) {
+            int nodo = 0;
+            int desde = 0;
+            while (true) {
+                int d = profundidad[nodo];
+                if (inicio[nodo] == fin[nodo] || sku.length() < d || !etiquetaCoincide(nodo, sku, desde, d)) {
+                    return false;
+                }
+                if (sku.length() == d) {
+                    // Solo puede estar como primer SKU del nodo, sin nodo propio y sin resto
+                    int primero = inicio[nodo];
+                    boolean esHijo = primerHijo[nodo] < primerHijo[nodo + 1] && inicio[primerHijo[nodo]] == primero;
+                    return !esHijo && longitudSufijo(primero) == 0;
+                }
+                int siguiente = hijo(nodo, sku.charAt(d));
+                if (siguiente < -1) {
+                    return sufijoCoincide(-siguiente - 2, sku, d, true);
+                }
+                if (siguiente < 0) {
+                    return false;
+                }
+                nodo = siguiente;
+                desde = d;
+            }
+        }
+    }
+    
+    /**
+     * SKU encontrado por la búsqueda aproximada
+     */
+    private static final class Coincidencia {
+        final String sku;
+        final int distancia;
+        
+        Coincidencia(String sku, int distancia) {
+            this.sku = sku;
+            this.distancia = distancia;
+        }
+    }
+    
+    // Primero los más cercanos; los empates, por SKU
+    private static final Comparator<Coincidencia> ORDEN_COINCIDENCIAS = (a, b) -> {
+        int compareResult = Integer.compare(a.distancia, b.distancia);
+        return (compareResult != 0) ? compareResult : a.sku.compareTo(b.sku);
+    };
+    
+    // Cambios pendientes a partir de los cuales copia() vuelve a armar la base
+    static final int UMBRAL_CAMBIOS = 4096;
+    
+    private final Base base;
+    // Cambios posteriores a la construcción: SKU nuevos (no están en la base) y SKU de la base eliminados
+    private final ConcurrentSkipListSet<String> agregados;
+    private final Set<String> eliminados;
+    
+    private TrieSKU(Base base, ConcurrentSkipListSet<String> agregados, Set<String> eliminados) {
+        this.base = base;
+        this.agregados = agregados;
+        this.eliminados = eliminados;
+    }
+    
+    private TrieSKU(Base base) {
+        this(base, new ConcurrentSkipListSet<>(), ConcurrentHashMap.newKeySet());
+    }
+    
+    /**
+     * Crea un trie vacío
+     */
+    public TrieSKU() {
+        this(new Base(new String[0]));
+    }
+    
+    /**
+     * Construye el trie con los SKU de los productos del catálogo
+     * @param productos Productos sin SKU repetidos, idealmente en orden ascendente por SKU
+     * @return Trie de sus SKU
+     */
+    public static TrieSKU construir(Iterable<Producto> productos) {
+        if (productos == null) {
+            throw new IllegalArgumentException("Los productos no pueden ser nulos");
+        }
+        List<String> lista = new ArrayList<>();
+        for (Producto producto : productos) {
+            lista.add(producto.getSku());
+        }
+        String[] skus = lista.toArray(new String[0]);
+        for (int i = 1; i < skus.length; i++) {
+            if (skus[i - 1].compareTo(skus[i]) >= 0) {
+                // Entrada desordenada o con repetidos: ordenamos y dejamos uno de cada uno
+                skus = Arrays.stream(skus).sorted().distinct().toArray(String[]::new);
+                break;
+            }
+        }
+        return new TrieSKU(new Base(skus));
+    }
+    
+    /**
+     * Registra un SKU insertado después de construir el trie
+     * @param sku SKU agregado al catálogo
+     */
+    public void agregar(String sku) {
+        if (sku == null) {
+            throw new IllegalArgumentException("El SKU no puede ser nulo");
+        }
+        String valor = sku.trim();
+        if (base.contiene(valor)) {
+            eliminados.remove(valor);
+        } else {
+            agregados.add(valor);
+        }
+    }
+    
+    /**
+     * Registra un SKU eliminado después de construir el trie
+     * @param sku SKU eliminado del catálogo
+     */
+    public void eliminar(String sku) {
+        if (sku == null) {
+            throw new IllegalArgumentException("El SKU no puede ser nulo");
+        }
+        String valor = sku.trim();
+        if (base.contiene(valor)) {
+            eliminados.add(valor);
+        } else {
+            agregados.remove(valor);
+        }
+    }
+    
+    /**
+     * Crea una copia independiente. La base se comparte porque no cambia; solo
+     * se copian los cambios posteriores a la construcción, que son a lo sumo
+     * UMBRAL_CAMBIOS: si hay más, la copia arma una base nueva que ya los incluye.
+     * @return Copia del trie
+     */
+    public TrieSKU copia() {
+        if (getCambiosPendientes() > UMBRAL_CAMBIOS) {
+            return new TrieSKU(new Base(skusVigentes()));
+        }
+        ConcurrentSkipListSet<String> copiaAgregados = agregados.clone();
+        Set<String> copiaEliminados = ConcurrentHashMap.newKeySet(eliminados.size());
+        copiaEliminados.addAll(eliminados);
+        return new TrieSKU(base, copiaAgregados, copiaEliminados);
+    }
+    
+    /**
+     * Devuelve los SKU vigentes en orden: los de la base que no se eliminaron,
+     * intercalados con los agregados
+     */
+    private String[] skusVigentes() {
+        List<String> deLaBase = new ArrayList<>(base.fin[0]);
+        completarEnBase("", Integer.MAX_VALUE, deLaBase);
+        String[] skus = new String[deLaBase.size() + agregados.size()];
+        Iterator<String> nuevos = agregados.iterator();
+        String nuevo = nuevos.hasNext() ? nuevos.next() : null;
+        int i = 0;
+        for (String sku : deLaBase) {
+            while (nuevo != null && nuevo.compareTo(sku) < 0) {
+                skus[i++] = nuevo;
+                nuevo = nuevos.hasNext() ? nuevos.next() : null;
+            }
+            skus[i++] = sku;
+        }
+        while (nuevo != null) {
+            skus[i++] = nuevo;
+            nuevo = nuevos.hasNext() ? nuevos.next() : null;
+        }
+        return skus;
+    }
+    
+    private boolean vigente(String skuDeLaBase) {
+        return eliminados.isEmpty() || !eliminados.contains(skuDeLaBase);
+    }
+    
+    /**
+     * Devuelve los primeros SKU, en orden ascendente, que empiezan con un prefijo
+     * @param prefijo Prefijo a completar
+     * @param limite Número máximo de SKU
+     * @return SKU que completan el prefijo
+     */
+    public List<String> autocompletar(String prefijo, int limite) {
+        if (prefijo == null) {
+            throw new IllegalArgumentException("El prefijo no puede ser nulo");
+        }
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        String valor = prefijo.trim();
+        List<String> deLaBase = new ArrayList<>();
+        if (limite == 0) {
+            return deLaBase;
+        }
+        completarEnBase(valor, limite, deLaBase);
+        
+        // Los agregados con el prefijo son un rango del conjunto ordenado: se
+        // intercalan con los de la base hasta llegar al límite
+        Iterator<String> nuevos = agregados.tailSet(valor).iterator();
+        String nuevo = nuevos.hasNext() ? nuevos.next() : null;
+        List<String> resultado = new ArrayList<>(Math.min(limite, deLaBase.size() + 16));
+        int i = 0;
+        while (resultado.size() < limite) {
+            boolean hayNuevo = nuevo != null && nuevo.startsWith(valor);
+            if (i < deLaBase.size() && (!hayNuevo || deLaBase.get(i).compareTo(nuevo) < 0)) {
+                resultado.add(deLaBase.get(i++));
+            } else if (hayNuevo) {
+                resultado.add(nuevo);
+                nuevo = nuevos.hasNext() ? nuevos.next() : null;
+            } else {
+                break;
+            }
+        }
+        return resultado;
+    }
+    
+    /**
+     * Baja por el trie siguiendo el prefijo y, al agotarlo, recorre en orden el
+     * subárbol al que llegó
+     */
+    private void completarEnBase(String prefijo, int limite, List<String> resultado) {
+        char[] camino = new char[base.longitudMaxima];
+        int nodo = 0;
+        int desde = 0;
+        while (true) {
+            int d = base.profundidad[nodo];
+            int comparados = Math.min(d, prefijo.length());
+            if (base.inicio[nodo] == base.fin[nodo] || !base.etiquetaCoincide(nodo, prefijo, desde, comparados)) {
+                return;
+            }
+            System.arraycopy(base.etiquetas, base.etiqueta[nodo], camino, desde, d - desde);
+            if (prefijo.length() <= d) {
+                listarSubarbol(nodo, camino, limite, resultado);
+                return;
+            }
+            int siguiente = base.hijo(nodo, prefijo.charAt(d));
+            if (siguiente < -1) {
+                int sku = -siguiente - 2;
+                if (base.sufijoCoincide(sku, prefijo, d, false)) {
+                    agregarSiVigente(textoDeHoja(camino, d, sku), limite, resultado);
+                }
+                return;
+            }
+            if (siguiente < 0) {
+                return;
+            }
+            nodo = siguiente;
+            desde = d;
+        }
+    }
+    
+    /**
+     * Agrega en orden los SKU del subárbol de un nodo cuyo camino ya está armado
+     * @return true si se llegó al límite
+     */
+    private boolean listarSubarbol(int nodo, char[] camino, int limite, List<String> resultado) {
+        int d = base.profundidad[nodo];
+        int i = base.inicio[nodo];
+        int hijo = base.primerHijo[nodo];
+        int ultimoHijo = base.primerHijo[nodo + 1];
+        while (i < base.fin[nodo]) {
+            if (hijo < ultimoHijo && base.inicio[hijo] == i) {
+                int largo = base.profundidad[hijo] - d;
+                System.arraycopy(base.etiquetas, base.etiqueta[hijo], camino, d, largo);
+                if (listarSubarbol(hijo, camino, limite, resultado)) {
+                    return true;
+                }
+                i = base.fin[hijo];
+                hijo++;
+            } else {
+                if (agregarSiVigente(textoDeHoja(camino, d, i), limite, resultado)) {
+                    return true;
+                }
+                i++;
+            }
+        }
+        return false;
+    }
+    
+    private boolean agregarSiVigente(String sku, int limite, List<String> resultado) {
+        if (vigente(sku)) {
+            resultado.add(sku);
+        }
+        return resultado.size() >= limite;
+    }
+    
+    private String textoDeHoja(char[] camino, int profundidad, int sku) {
+        StringBuilder texto = new StringBuilder(profundidad + base.longitudSufijo(sku));
+        texto.append(camino, 0, profundidad);
+        texto.append(base.sufijos, base.sufijo[sku], base.longitudSufijo(sku));
+        return texto.toString();
+    }
+    
+    /**
+     * Busca los SKU a una distancia de edición acotada del dado, del más cercano
+     * al más lejano (un SKU idéntico tiene distancia 0)
+     * @param sku SKU posiblemente mal escrito
+     * @param distanciaMaxima Número máximo de errores, entre 0 y DISTANCIA_MAXIMA
+     * @param limite Número máximo de SKU
+     * @return SKU parecidos
+     */
+    public List<String> buscarParecidos(String sku, int distanciaMaxima, int limite) {
+        if (sku == null) {
+            throw new IllegalArgumentException("El SKU no puede ser nulo");
+        }
+        if (distanciaMaxima < 0 || distanciaMaxima > DISTANCIA_MAXIMA) {
+            throw new IllegalArgumentException("La distancia máxima debe estar entre 0 y " + DISTANCIA_MAXIMA);
+        }
+        if (limite < 0) {
+            throw new IllegalArgumentException("El límite no puede ser negativo");
+        }
+        List<String> resultado = new ArrayList<>();
+        if (limite == 0) {
+            return resultado;
+        }
+        
+        Busqueda busqueda = new Busqueda(sku.trim(), distanciaMaxima, limite);
+        busqueda.visitarNodo(0, 0);
+        busqueda.recorriendoBase = false;
+        busqueda.evaluarAgregados();
+        
+        List<Coincidencia> coincidencias = new ArrayList<>(busqueda.mejores);
+        coincidencias.sort(ORDEN_COINCIDENCIAS);
+        for (Coincidencia coincidencia : coincidencias) {
+            resultado.add(coincidencia.sku);
+        }
+        return resultado;
+    }
+    
+    /**
+     * Estado de una búsqueda aproximada: el camino actual, una fila de la matriz de
+     * distancias por cada uno de sus caracteres y los mejores resultados hasta el momento
+     */
+    private final class Busqueda {
+        private final char[] consulta;
+        private final int distanciaMaxima;
+        private final int limite;
+        // Valor de las celdas fuera de la banda: mayor que cualquier cota
+        private final int fuera;
+        private char[] camino;
+        private int[][] filas;
+        private int cota;
+        boolean recorriendoBase = true;
+        // El peor de los mejores queda en la cabeza
+        final PriorityQueue<Coincidencia> mejores;
+        
+        Busqueda(String consulta, int distanciaMaxima, int limite) {
+            this.consulta = consulta.toCharArray();
+            this.distanciaMaxima = distanciaMaxima;
+            this.limite = limite;
+            this.fuera = distanciaMaxima + 1;
+            this.cota = distanciaMaxima;
+            this.camino = new char[base.longitudMaxima];
+            this.filas = new int[base.longitudMaxima + 1][consulta.length() + 1];
+            for (int j = 0; j <= consulta.length(); j++) {
+                filas[0][j] = j;
+            }
+            this.mejores = new PriorityQueue<>(ORDEN_COINCIDENCIAS.reversed());
+        }
+        
+        /**
+         * Calcula las filas de las posiciones [desde, hasta) del camino
+         * @return false si todas las distancias de la última fila superan la cota
+         */
+        private boolean avanzar(int desde, int hasta) {
+            for (int i = desde; i < hasta; i++) {
+                if (!siguienteFila(i + 1)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private boolean siguienteFila(int i) {
+            int m = consulta.length;
+            if (i - distanciaMaxima > m) {
+                return false; // El camino ya es más largo que la consulta más la distancia
+            }
+            // Solo las celdas a menos de distanciaMaxima de la diagonal pueden quedar dentro
+            // de la cota; los bordes de la banda se marcan como fuera de ella. Con la
+            // consulta vacía la banda no tiene celdas y solo cuenta la columna 0
+            int desde = Math.max(1, i - distanciaMaxima);
+            int hasta = Math.min(m, i + distanciaMaxima);
+            int[] anterior = filas[i - 1];
+            int[] fila = filas[i];
+            char c = camino[i - 1];
+            char previo = (i > 1) ? camino[i - 2] : 0;
+            fila[0] = Math.min(i, fuera);
+            if (desde > 1) {
+                fila[desde - 1] = fuera;
+            }
+            int minimo = (desde == 1) ? fila[0] : fuera;
+            for (int j = desde; j <= hasta; j++) {
+                char q = consulta[j - 1];
+                int valor = Math.min(Math.min(anterior[j] + 1, fila[j - 1] + 1), anterior[j - 1] + (q == c ? 0 : 1));
+                // Dos caracteres vecinos intercambiados
+                if (j > 1 && q == previo && consulta[j - 2] == c && i > 1) {
+                    valor = Math.min(valor, filas[i - 2][j - 2] + 1);
+                }
+                fila[j] = valor;
+                minimo = Math.min(minimo, valor);
+            }
+            if (hasta < m) {
+                fila[hasta + 1] = fuera;
+            }
+            return minimo <= cota;
+        }
+        
+        void visitarNodo(int nodo, int desde) {
+            int d = base.profundidad[nodo];
+            if (base.inicio[nodo] == base.fin[nodo]) {
+                return;
+            }
+            System.arraycopy(base.etiquetas, base.etiqueta[nodo], camino, desde, d - desde);
+            if (!avanzar(desde, d)) {
+                return;
+            }
+            int i = base.inicio[nodo];
+            int hijo = base.primerHijo[nodo];
+            int ultimoHijo = base.primerHijo[nodo + 1];
+            while (i < base.fin[nodo]) {
+                if (hijo < ultimoHijo && base.inicio[hijo] == i) {
+                    visitarNodo(hijo, d);
+                    i = base.fin[hijo];
+                    hijo++;
+                } else {
+                    visitarHoja(i, d);
+                    i++;
+                }
+            }
+        }
+        
+        private void visitarHoja(int sku, int d) {
+            int largo = base.longitudSufijo(sku);
+            System.arraycopy(base.sufijos, base.sufijo[sku], camino, d, largo);
+            if (avanzar(d, d + largo)) {
+                int distancia = distanciaFinal(d + largo);
+                if (distancia <= cota) {
+                    String texto = new String(camino, 0, d + largo);
+                    if (vigente(texto)) {
+                        agregar(new Coincidencia(texto, distancia));
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Evalúa los SKU agregados, que no están en la base. Van en orden, así que
+         * cada uno reutiliza las filas del prefijo que comparte con el anterior, y
+         * si un prefijo ya supera la cota se saltan todos los que empiezan con él.
+         */
+        void evaluarAgregados() {
+            String anterior = "";
+            int filasValidas = 0; // Filas calculadas para el camino de anterior
+            String sku = agregados.isEmpty() ? null : agregados.first();
+            while (sku != null) {
+                if (sku.length() > camino.length) {
+                    camino = Arrays.copyOf(camino, sku.length());
+                    int filasAnteriores = filas.length;
+                    filas = Arrays.copyOf(filas, sku.length() + 1);
+                    for (int i = filasAnteriores; i < filas.length; i++) {
+                        filas[i] = new int[consulta.length + 1];
+                    }
+                }
+                int comun = Math.min(filasValidas, Base.prefijoComun(anterior, sku));
+                sku.getChars(comun, sku.length(), camino, comun);
+                cota = (mejores.size() < limite) ? distanciaMaxima : mejores.peek().distancia;
+                int i = comun;
+                while (i < sku.length() && siguienteFila(i + 1)) {
+                    i++;
+                }
+                anterior = sku;
+                filasValidas = i;
+                if (i < sku.length()) {
+                    // La cota no sube, así que ningún SKU con este prefijo puede entrar
+                    sku = agregados.higher(sku.substring(0, i + 1) + Character.MAX_VALUE);
+                } else {
+                    evaluar(sku);
+                    sku = agregados.higher(sku);
+                }
+            }
+        }
+        
+        /**
+         * Decide si entra un SKU agregado cuyas filas ya están calculadas
+         */
+        private void evaluar(String sku) {
+            Coincidencia coincidencia = new Coincidencia(sku, distanciaFinal(sku.length()));
+            if (coincidencia.distancia <= cota
+                    && (mejores.size() < limite || ORDEN_COINCIDENCIAS.compare(coincidencia, mejores.peek()) < 0)) {
+                agregar(coincidencia);
+            }
+        }
+        
+        /**
+         * Distancia entre la consulta y el camino de la longitud dada
+         */
+        private int distanciaFinal(int longitud) {
+            int m = consulta.length;
+            return (Math.abs(longitud - m) > distanciaMaxima) ? fuera : filas[longitud][m];
+        }
+        
+        private void agregar(Coincidencia coincidencia) {
+            mejores.add(coincidencia);
+            if (mejores.size() > limite) {
+                mejores.poll();
+            }
+            // Con la lista llena, un SKU de la base que empate con el peor ya no entra,
+            // porque el trie se recorre en orden de SKU; los nuevos se evalúan aparte
+            if (mejores.size() == limite && recorriendoBase) {
+                cota = mejores.peek().distancia - 1;
+            }
+        }
+    }
+    
+    /**
+     * Devuelve el número de SKU agregados o eliminados que todavía no están en la base
+     * @return Cambios pendientes
+     */
+    public int getCambiosPendientes() {
+        return agregados.size() + eliminados.size();
+    }
+    
+    /**
+     * Devuelve el número de nodos internos del trie base
+     * @return Número de nodos
+     */
+    public int getNodos() {
+        return base.nodos;
+    }
+    
+    /**
+     * Devuelve el número de caracteres que guarda el trie base entre etiquetas y
+     * restos de SKU, que es menor que la suma de las longitudes de todos los SKU
+     * @return Caracteres guardados
+     */
+    public long getCaracteres() {
+        return (long) base.etiquetas.length + base.sufijos.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Pruebas unitarias para el trie de SKU (autocompletar y búsqueda aproximada)
+ */
+public class TrieSKUTest {
+    
+    private static TrieSKU trie(String... skus) {
+        List<Producto> productos = new ArrayList<>();
+        for (String sku : skus) {
+            productos.add(new Producto(sku));
+        }
+        return TrieSKU.construir(productos);
+    }
+    
+    @Test
+    public void testAutocompletar() {
+        TrieSKU trie = trie("A100", "A1000", "A1001", "A2", "B7", "MX-01", "MX-02");
+        
+        assertEquals(Arrays.asList("A100", "A1000", "A1001"), trie.autocompletar("A1", 10));
+        assertEquals(Arrays.asList("A100", "A1000"), trie.autocompletar("A10", 2));
+        assertEquals(Arrays.asList("A1001"), trie.autocompletar("A1001", 10));
+        assertEquals(Arrays.asList("B7"), trie.autocompletar("B", 10));
+        assertEquals(7, trie.autocompletar("", 10).size());
+        assertTrue(trie.autocompletar("A3", 10).isEmpty());
+        assertTrue(trie.autocompletar("MX-010", 10).isEmpty());
+    }
+    
+    @Test
+    public void testParecidos() {
+        TrieSKU trie = trie("A100", "A1000", "A1001", "A2", "B7", "MX-01", "MX-02");
+        
+        assertEquals(Arrays.asList("MX-01"), trie.buscarParecidos("MX-01", 0, 10));
+        // Un carácter cambiado, dos vecinos intercambiados y uno faltante
+        assertEquals(Arrays.asList("MX-01", "MX-02"), trie.buscarParecidos("MX-03", 1, 10));
+        assertEquals(Arrays.asList("MX-01"), trie.buscarParecidos("XM-01", 1, 10));
+        assertEquals(Arrays.asList("A1000", "A100", "A1001"), trie.buscarParecidos("A1000", 1, 10));
+        assertEquals(Arrays.asList("A1000", "A100"), trie.buscarParecidos("A1000", 1, 2));
+        assertTrue(trie.buscarParecidos("ZZZZ", 2, 10).isEmpty());
+    }
+    
+    @Test
+    public void testTrieVacioYDeUnSKU() {
+        TrieSKU vacio = new TrieSKU();
+        assertTrue(vacio.autocompletar("", 10).isEmpty());
+        assertTrue(vacio.buscarParecidos("A1", 2, 10).isEmpty());
+        vacio.agregar("A1");
+        assertEquals(Arrays.asList("A1"), vacio.buscarParecidos("A2", 1, 10));
+        
+        TrieSKU uno = trie("SKU-1");
+        assertEquals(Arrays.asList("SKU-1"), uno.autocompletar("SK", 10));
+        assertEquals(Arrays.asList("SKU-1"), uno.buscarParecidos("SKU1", 1, 10));
+        assertTrue(uno.buscarParecidos("SKU-1234", 2, 10).isEmpty());
+    }
+    
+    @Test
+    public void testCambiosEnVivo() {
+        TrieSKU trie = trie("A100", "A1000", "B7");
+        TrieSKU copia = trie.copia();
+        
+        trie.agregar("A1002");
+        trie.eliminar("A1000");
+        
+        assertEquals(Arrays.asList("A100", "A1002"), trie.autocompletar("A1", 10));
+        assertEquals(Arrays.asList("A100", "A1002"), trie.buscarParecidos("A1003", 1, 10));
+        trie.agregar("A1000");
+        assertEquals(Arrays.asList("A100", "A1000", "A1002"), trie.autocompletar("A1", 10));
+        
+        // La copia no ve los cambios
+        assertEquals(Arrays.asList("A100", "A1000"), copia.autocompletar("A1", 10));
+    }
+    
+    @Test
+    public void testConsultaVacia() {
+        TrieSKU trie = trie("A", "AB", "ABC", "B1", "C");
+        
+        // La distancia a la consulta vacía es la longitud de cada SKU
+        assertTrue(trie.buscarParecidos("", 0, 10).isEmpty());
+        assertEquals(Arrays.asList("A", "C"), trie.buscarParecidos("", 1, 10));
+        assertEquals(Arrays.asList("A", "C", "AB", "B1"), trie.buscarParecidos("  ", 2, 10));
+        assertEquals(Arrays.asList("A", "C", "AB"), trie.buscarParecidos("", 2, 3));
+        
+        trie.agregar("D");
+        trie.eliminar("C");
+        assertEquals(Arrays.asList("A", "D"), trie.buscarParecidos("", 1, 10));
+    }
+    
+    @Test
+    public void testCoincideConBusquedaExhaustiva() {
+        Random random = new Random(7);
+        TreeSet<String> skus = new TreeSet<>();
+        while (skus.size() < 2000) {
+            StringBuilder sku = new StringBuilder();
+            int longitud = 1 + random.nextInt(6);
+            for (int i = 0; i < longitud; i++) {
+                sku.append("AB12-".charAt(random.nextInt(5)));
+            }
+            skus.add(sku.toString());
+        }
+        TrieSKU trie = trie(skus.toArray(new String[0]));
+        
+        for (int prueba = 0; prueba < 200; prueba++) {
+            String consulta = skus.higher(Integer.toString(random.nextInt(1000)));
+            consulta = (consulta == null) ? "AB" : consulta.substring(0, Math.max(1, consulta.length() - 1)) + "2";
+            int maxima = random.nextInt(3);
+            
+            List<String> esperados = new ArrayList<>();
+            for (String sku : skus) {
+                if (distancia(consulta, sku) <= maxima) {
+                    esperados.add(sku);
+                }
+            }
+            final String q = consulta;
+            esperados.sort(Comparator.comparingInt((String s) -> distancia(q, s)).thenComparing(s -> s));
+            List<String> primeros = esperados.subList(0, Math.min(15, esperados.size()));
+            
+            assertEquals(primeros, trie.buscarParecidos(consulta, maxima, 15));
+        }
+    }
+    
+    @Test
+    public void testCambiosPendientesCoincidenYSeIncorporan() {
+        Random random = new Random(11);
+        TreeSet<String> skus = new TreeSet<>();
+        while (skus.size() < 3000) {
+            StringBuilder sku = new StringBuilder();
+            int longitud = 1 + random.nextInt(7);
+            for (int i = 0; i < longitud; i++) {
+                sku.append("AB12-".charAt(random.nextInt(5)));
+            }
+            skus.add(sku.toString());
+        }
+        // La mitad va a la base; el resto llega como cambios en vivo, con algunas bajas
+        List<String> todos = new ArrayList<>(skus);
+        TreeSet<String> vigentes = new TreeSet<>(todos.subList(0, 1500));
+        TrieSKU trie = trie(vigentes.toArray(new String[0]));
+        for (String sku : todos.subList(1500, todos.size())) {
+            trie.agregar(sku);
+            vigentes.add(sku);
+        }
+        for (int i = 0; i < todos.size(); i += 7) {
+            trie.eliminar(todos.get(i));
+            vigentes.remove(todos.get(i));
+        }
+        
+        for (int prueba = 0; prueba < 100; prueba++) {
+            String consulta = todos.get(random.nextInt(todos.size()));
+            consulta = consulta.substring(0, Math.max(1, consulta.length() - 1)) + "2";
+            int maxima = random.nextInt(3);
+            List<String> esperados = new ArrayList<>();
+            for (String sku : vigentes) {
+                if (distancia(consulta, sku) <= maxima) {
+                    esperados.add(sku);
+                }
+            }
+            final String q = consulta;
+            esperados.sort(Comparator.comparingInt((String s) -> distancia(q, s)).thenComparing(s -> s));
+            assertEquals(esperados.subList(0, Math.min(15, esperados.size())), trie.buscarParecidos(consulta, maxima, 15));
+            
+            String prefijo = consulta.substring(0, 1 + random.nextInt(Math.min(3, consulta.length())));
+            List<String> completados = new ArrayList<>();
+            for (String sku : vigentes.tailSet(prefijo)) {
+                if (!sku.startsWith(prefijo) || completados.size() == 20) {
+                    break;
+                }
+                completados.add(sku);
+            }
+            assertEquals(completados, trie.autocompletar(prefijo, 20));
+        }
+        
+        // Con más cambios que el umbral, la copia los incorpora a una base nueva
+        while (trie.getCambiosPendientes() <= TrieSKU.UMBRAL_CAMBIOS) {
+            String sku = "N" + trie.getCambiosPendientes();
+            trie.agregar(sku);
+            vigentes.add(sku);
+        }
+        TrieSKU copia = trie.copia();
+        assertEquals(0, copia.getCambiosPendientes());
+        assertEquals(new ArrayList<>(vigentes), copia.autocompletar("", Integer.MAX_VALUE));
+        assertEquals(trie.buscarParecidos("A1-2", 2, 15), copia.buscarParecidos("A1-2", 2, 15));
+    }
+    
+    /**
+     * Distancia de edición con intercambio de vecinos calculada con la matriz completa
+     */
+    private static int distancia(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    d[i][j] = i + j;
+                    continue;
+                }
+                int costo = (a.charAt(i - 1) == b.charAt(j - 1)) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + costo);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
\ No newline at end of file